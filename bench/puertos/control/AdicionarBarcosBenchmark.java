@@ -0,0 +1,75 @@
+package puertos.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Compara el registro de un manifiesto de llegadas barco por barco
+ * (adicionarBarco, con excepciones para los rechazados) contra el
+ * registro por lotes (adicionarBarcos, con reporte por fila).
+ * Alrededor del 10 % de los barcos del manifiesto se rechaza.
+ * 
+ * Uso: java puertos.control.AdicionarBarcosBenchmark [barcos] [repeticiones]
+ */
+public class AdicionarBarcosBenchmark {
+
+	public static void main(String[] args) {
+		int cantidad = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+		int repeticiones = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		List<Barco> manifiesto = crearManifiesto(cantidad);
+
+		for (int i = 0; i < repeticiones; i++) {
+			long uno = registrarUnoAUno(manifiesto);
+			long lote = registrarLote(manifiesto);
+			System.out.printf("uno a uno: %,12.0f barcos/s   lote: %,12.0f barcos/s%n",
+					cantidad * 1e9 / uno, cantidad * 1e9 / lote);
+		}
+	}
+
+	private static List<Barco> crearManifiesto(int cantidad) {
+		List<Barco> manifiesto = new ArrayList<Barco>(cantidad);
+		for (int i = 0; i < cantidad; i++) {
+			// cada 20 barcos hay uno repetido y otro con volumen incorrecto
+			String matricula = (i % 20 == 1) ? "B-" + (i - 1) : "B-" + i;
+			double volumen = (i % 20 == 2) ? 1500 : i % 1000;
+			if (i % 2 == 0) {
+				manifiesto.add(new Velero(matricula, "colombiana", volumen, i % 20));
+			} else {
+				manifiesto.add(new Carguero(matricula, "peruana", volumen, i % 3 == 0));
+			}
+		}
+		return manifiesto;
+	}
+
+	private static long registrarUnoAUno(List<Barco> manifiesto) {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos(), true);
+		long inicio = System.nanoTime();
+		for (Barco barco : manifiesto) {
+			try {
+				if (barco instanceof Velero) {
+					control.adicionarBarco(barco.getMatricula(), "colombiana", 
+							barco.getVolumen(), 'v', ((Velero) barco).getPasajeros(), false);
+				} else {
+					control.adicionarBarco(barco.getMatricula(), "peruana",
+							barco.getVolumen(), 'c', 0, ((Carguero) barco).getLiquidos());
+				}
+			}
+			catch (BarcoException rechazo) {
+				// se ignora, solo se mide el costo
+			}
+		}
+		return System.nanoTime() - inicio;
+	}
+
+	private static long registrarLote(List<Barco> manifiesto) {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos(), true);
+		long inicio = System.nanoTime();
+		control.adicionarBarcos(manifiesto);
+		return System.nanoTime() - inicio;
+	}
+}
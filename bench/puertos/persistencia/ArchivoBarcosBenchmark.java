@@ -0,0 +1,88 @@
+package puertos.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Mide las escrituras por segundo de ArchivoBarcos con cada política de
+ * sincronización (fsync), adicionando barcos uno a uno y por lotes,
+ * y el tiempo de volver a cargar el archivo.
+ * 
+ * Uso: java puertos.persistencia.ArchivoBarcosBenchmark [carpeta] [barcos]
+ */
+public class ArchivoBarcosBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		Path carpeta = (args.length > 0) ? Paths.get(args[0]) 
+				: Files.createTempDirectory("barcos");
+		int cantidad = (args.length > 1) ? Integer.parseInt(args[1]) : 20_000;
+
+		PoliticaSincronizacion[] politicas = {
+				PoliticaSincronizacion.cadaEscritura(),
+				PoliticaSincronizacion.cadaRegistros(100),
+				PoliticaSincronizacion.cadaRegistros(10_000),
+				PoliticaSincronizacion.cadaIntervalo(10),
+				PoliticaSincronizacion.cadaIntervalo(100),
+				PoliticaSincronizacion.nunca() };
+
+		System.out.printf("%-22s %18s %18s %14s%n", "política", 
+				"uno a uno (reg/s)", "lotes 1000 (reg/s)", "carga (ms)");
+		for (PoliticaSincronizacion politica : politicas) {
+			Path archivo = carpeta.resolve("barcos-benchmark.log");
+			Files.deleteIfExists(archivo);
+			double unoAUno = escribirUnoAUno(archivo, politica, cantidad);
+			Files.delete(archivo);
+			double lotes = escribirLotes(archivo, politica, cantidad * 10);
+			long inicio = System.nanoTime();
+			try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, politica)) {
+				repositorio.consultarBarcos();
+			}
+			double carga = (System.nanoTime() - inicio) / 1e6;
+			Files.delete(archivo);
+			System.out.printf("%-22s %,18.0f %,18.0f %14.1f%n", politica, unoAUno, lotes, carga);
+		}
+	}
+
+	private static double escribirUnoAUno(Path archivo, PoliticaSincronizacion politica,
+			int cantidad) throws IOException {
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, politica)) {
+			long inicio = System.nanoTime();
+			for (int i = 0; i < cantidad; i++) {
+				repositorio.adicionarBarco(crearBarco(i));
+			}
+			return cantidad * 1e9 / (System.nanoTime() - inicio);
+		}
+	}
+
+	private static double escribirLotes(Path archivo, PoliticaSincronizacion politica,
+			int cantidad) throws IOException {
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, politica)) {
+			long inicio = System.nanoTime();
+			List<Barco> lote = new ArrayList<Barco>(1000);
+			for (int i = 0; i < cantidad; i++) {
+				lote.add(crearBarco(i));
+				if (lote.size() == 1000) {
+					repositorio.adicionarBarcos(lote);
+					lote.clear();
+				}
+			}
+			repositorio.adicionarBarcos(lote);
+			return cantidad * 1e9 / (System.nanoTime() - inicio);
+		}
+	}
+
+	private static Barco crearBarco(int i) {
+		if (i % 2 == 0) {
+			return new Velero("V-" + i, "colombiana", i % 1000, i % 20);
+		}
+		return new Carguero("C-" + i, "peruana", i % 1000, i % 3 == 0);
+	}
+}
@@ -0,0 +1,70 @@
+package puertos.persistencia;
+
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Compara ListaBarcos (un objeto Barco por barco) con ColumnasBarcos
+ * (arreglos por columna): memoria ocupada por barco y tiempo de
+ * calcularCapacidadTotal.
+ * Se debe ejecutar con suficiente memoria, por ejemplo:
+ * java -Xmx6g puertos.persistencia.ColumnasBarcosBenchmark 10000000
+ */
+public class ColumnasBarcosBenchmark {
+
+	public static void main(String[] args) {
+		int cantidad = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000_000;
+
+		long antes = memoriaUsada();
+		ListaBarcos lista = new ListaBarcos();
+		llenar(lista, cantidad);
+		long memoriaLista = memoriaUsada() - antes;
+		medir("ListaBarcos", lista, memoriaLista, cantidad);
+		lista = null;
+
+		antes = memoriaUsada();
+		ColumnasBarcos columnas = new ColumnasBarcos(cantidad);
+		llenar(columnas, cantidad);
+		long memoriaColumnas = memoriaUsada() - antes;
+		medir("ColumnasBarcos", columnas, memoriaColumnas, cantidad);
+	}
+
+	/**
+	 * Las matrículas y nacionalidades se crean como textos nuevos (no 
+	 * constantes), como si se leyeran de un archivo o de la interfaz
+	 */
+	private static void llenar(RepositorioBarcos repositorio, int cantidad) {
+		String[] paises = { "colombiana", "peruana", "chilena", "mexicana" };
+		for (int i = 0; i < cantidad; i++) {
+			String nacionalidad = new String(paises[i & 3]);
+			if (i % 2 == 0) {
+				repositorio.adicionarBarco(new Velero("V-" + i, nacionalidad, i % 1000, i % 20));
+			} else {
+				repositorio.adicionarBarco(new Carguero("C-" + i, nacionalidad, i % 1000, i % 3 == 0));
+			}
+		}
+	}
+
+	private static void medir(String nombre, RepositorioBarcos repositorio,
+			long memoria, int cantidad) {
+		double total = 0;
+		long mejor = Long.MAX_VALUE;
+		for (int repeticion = 0; repeticion < 15; repeticion++) {
+			long inicio = System.nanoTime();
+			total = repositorio.calcularCapacidadTotal();
+			mejor = Math.min(mejor, System.nanoTime() - inicio);
+		}
+		System.out.printf("%-15s memoria: %,8.1f MB (%5.1f bytes/barco)   "
+				+ "capacidad total: %8.2f ms (%.3f ns/barco)   total=%.1f%n",
+				nombre, memoria / 1e6, (double) memoria / cantidad,
+				mejor / 1e6, (double) mejor / cantidad, total);
+	}
+
+	private static long memoriaUsada() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
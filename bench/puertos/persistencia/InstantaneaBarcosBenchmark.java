@@ -0,0 +1,76 @@
+package puertos.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Compara el tiempo de arranque (cargar el registro) con una instantánea
+ * mapeada a memoria contra volver a leer el archivo de ArchivoBarcos,
+ * y mide las búsquedas por matrícula sobre la instantánea.
+ * 
+ * Uso: java puertos.persistencia.InstantaneaBarcosBenchmark [barcos]
+ */
+public class InstantaneaBarcosBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int cantidad = (args.length > 0) ? Integer.parseInt(args[0]) : 2_000_000;
+		Path carpeta = Files.createTempDirectory("barcos");
+		Path instantanea = carpeta.resolve("barcos.snap");
+		Path bitacora = carpeta.resolve("barcos.log");
+
+		MapaBarcos barcos = new MapaBarcos(cantidad);
+		List<Barco> lote = new ArrayList<Barco>(cantidad);
+		for (int i = 0; i < cantidad; i++) {
+			lote.add((i % 2 == 0) 
+					? new Velero("V-" + i, "colombiana", i % 1000, i % 20)
+					: new Carguero("C-" + i, "peruana", i % 1000, i % 3 == 0));
+		}
+		barcos.adicionarBarcos(lote);
+		long inicio = System.nanoTime();
+		InstantaneaBarcos.guardar(barcos, instantanea);
+		System.out.printf("guardar instantánea (%,d barcos): %8.1f ms, %,d bytes%n", cantidad,
+				(System.nanoTime() - inicio) / 1e6, Files.size(instantanea));
+		try (ArchivoBarcos archivo = new ArchivoBarcos(bitacora, PoliticaSincronizacion.nunca())) {
+			archivo.adicionarBarcos(lote);
+		}
+		lote = null;
+		barcos = null;
+
+		for (int repeticion = 0; repeticion < 3; repeticion++) {
+			inicio = System.nanoTime();
+			InstantaneaBarcos cargada = InstantaneaBarcos.cargar(instantanea);
+			double cargarInstantanea = (System.nanoTime() - inicio) / 1e6;
+
+			inicio = System.nanoTime();
+			int encontrados = 0;
+			for (int i = 0; i < 1_000_000; i++) {
+				int numero = (int) ((i * 2654435761L) % cantidad);
+				String matricula = ((numero % 2 == 0) ? "V-" : "C-") + numero;
+				if (cargada.buscarBarco(matricula) != null) {
+					encontrados++;
+				}
+			}
+			double buscar = (System.nanoTime() - inicio) / 1e6;
+
+			inicio = System.nanoTime();
+			try (ArchivoBarcos archivo = new ArchivoBarcos(bitacora, PoliticaSincronizacion.nunca())) {
+				archivo.consultarBarcos();
+			}
+			double cargarBitacora = (System.nanoTime() - inicio) / 1e6;
+
+			System.out.printf("cargar instantánea: %8.1f ms   1M búsquedas: %8.1f ms (%d)"
+					+ "   leer ArchivoBarcos: %8.1f ms%n",
+					cargarInstantanea, buscar, encontrados, cargarBitacora);
+		}
+		Files.delete(instantanea);
+		Files.delete(bitacora);
+		Files.delete(carpeta);
+	}
+}
@@ -0,0 +1,57 @@
+package puertos.persistencia;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+
+/**
+ * Mide el tiempo de registrar N barcos con ControlPuerto, usando
+ * ListaBarcos (búsqueda lineal) y MapaBarcos (índice por matrícula).
+ * Si el registro es lineal, el tiempo por barco debe mantenerse
+ * más o menos constante al crecer N.
+ * 
+ * Uso: java puertos.persistencia.MapaBarcosBenchmark [maximo]
+ */
+public class MapaBarcosBenchmark {
+
+	private static final int MAXIMO_LISTA = 64_000;
+
+	public static void main(String[] args) throws BarcoException {
+		int maximo = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+		// calentamiento, para que el JIT compile los métodos medidos
+		registrar(new MapaBarcos(), 200_000);
+		registrar(new ListaBarcos(), 5_000);
+
+		System.out.printf("%-12s %10s %14s %14s%n",
+				"repositorio", "barcos", "total (ms)", "ns/barco");
+		for (int n = 1_000; n <= maximo; n *= 4) {
+			if (n <= MAXIMO_LISTA) {
+				imprimir("ListaBarcos", n, registrar(new ListaBarcos(), n));
+			}
+			imprimir("MapaBarcos", n, registrar(new MapaBarcos(), n));
+		}
+		imprimir("MapaBarcos", maximo, registrar(new MapaBarcos(), maximo));
+	}
+
+	/**
+	 * @return el tiempo, en nanosegundos, de registrar la cantidad de barcos dada
+	 */
+	private static long registrar(RepositorioBarcos repositorio, int cantidad)
+			throws BarcoException {
+		ControlPuerto control = new ControlPuerto(repositorio);
+		long inicio = System.nanoTime();
+		for (int i = 0; i < cantidad; i++) {
+			if (i % 2 == 0) {
+				control.adicionarBarco("V-" + i, "colombiana", i % 1000, 'v', i % 20, false);
+			} else {
+				control.adicionarBarco("C-" + i, "peruana", i % 1000, 'c', 0, i % 3 == 0);
+			}
+		}
+		return System.nanoTime() - inicio;
+	}
+
+	private static void imprimir(String repositorio, int cantidad, long nanos) {
+		System.out.printf("%-12s %10d %14.1f %14.1f%n", repositorio, cantidad,
+				nanos / 1e6, (double) nanos / cantidad);
+	}
+}
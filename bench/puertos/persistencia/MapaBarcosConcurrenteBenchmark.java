@@ -0,0 +1,105 @@
+package puertos.persistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+
+/**
+ * Mide cómo escala el registro concurrente de barcos al aumentar la
+ * cantidad de hilos (de 1 hasta la cantidad de núcleos), con
+ * MapaBarcosConcurrente y con MapaBarcos protegido por un bloqueo global.
+ * Cada hilo registra sus propias matrículas; la mitad de los intentos
+ * son matrículas que otro hilo ya registró (rechazos por repetidas).
+ * 
+ * Uso: java puertos.persistencia.MapaBarcosConcurrenteBenchmark [barcosPorHilo]
+ */
+public class MapaBarcosConcurrenteBenchmark {
+
+	public static void main(String[] args) throws InterruptedException {
+		int barcosPorHilo = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+		int nucleos = Runtime.getRuntime().availableProcessors();
+
+		// calentamiento
+		medir(new MapaBarcosConcurrente(), nucleos, barcosPorHilo / 4);
+		medir(new MapaSincronizado(), nucleos, barcosPorHilo / 4);
+
+		System.out.printf("%6s %22s %22s%n", "hilos", "concurrente (ops/s)", "bloqueo global (ops/s)");
+		for (int hilos = 1; hilos <= nucleos; hilos *= 2) {
+			imprimir(hilos, barcosPorHilo);
+		}
+		if (Integer.bitCount(nucleos) != 1) {
+			imprimir(nucleos, barcosPorHilo);
+		}
+	}
+
+	private static void imprimir(int hilos, int barcosPorHilo) throws InterruptedException {
+		long operaciones = 2L * hilos * barcosPorHilo;
+		double concurrente = operaciones * 1e9 
+				/ medir(new MapaBarcosConcurrente(), hilos, barcosPorHilo);
+		double global = operaciones * 1e9 
+				/ medir(new MapaSincronizado(), hilos, barcosPorHilo);
+		System.out.printf("%6d %,22.0f %,22.0f%n", hilos, concurrente, global);
+	}
+
+	/**
+	 * @return el tiempo, en nanosegundos, que tardan todos los hilos
+	 */
+	private static long medir(RepositorioBarcos repositorio, int hilos, int barcosPorHilo)
+			throws InterruptedException {
+		ControlPuerto control = new ControlPuerto(repositorio);
+		CountDownLatch listos = new CountDownLatch(hilos);
+		CountDownLatch inicio = new CountDownLatch(1);
+		List<Thread> terminales = new ArrayList<Thread>();
+		for (int h = 0; h < hilos; h++) {
+			int terminal = h;
+			terminales.add(new Thread(() -> {
+				listos.countDown();
+				try {
+					inicio.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				int vecina = (terminal + 1) % hilos;
+				for (int i = 0; i < barcosPorHilo; i++) {
+					registrar(control, "T" + terminal + "-" + i, i);
+					registrar(control, "T" + vecina + "-" + i, i);
+				}
+			}));
+		}
+		terminales.forEach(Thread::start);
+		listos.await();
+		long tiempo = System.nanoTime();
+		inicio.countDown();
+		for (Thread terminal : terminales) {
+			terminal.join();
+		}
+		return System.nanoTime() - tiempo;
+	}
+
+	private static void registrar(ControlPuerto control, String matricula, int i) {
+		try {
+			control.adicionarBarco(matricula, "colombiana", i % 1000, 'c', 0, false);
+		} catch (BarcoException repetida) {
+			// esperado en la mitad de los intentos
+		}
+	}
+
+	/**
+	 * MapaBarcos con todos sus métodos sincronizados (un bloqueo global)
+	 */
+	private static class MapaSincronizado extends MapaBarcos {
+		@Override
+		public synchronized boolean adicionarBarco(Barco barco) {
+			return super.adicionarBarco(barco);
+		}
+
+		@Override
+		public synchronized Barco buscarBarco(String matricula) {
+			return super.buscarBarco(matricula);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+
+/**
+ * Tiempo de ControlPuerto.adicionarBarco cuando el puerto ya tiene una
+ * flota de cierto tamaño. Cada iteración parte de una flota nueva y 
+ * registra un lote de LOTE barcos, para que la flota no crezca mucho
+ * más del tamaño indicado durante la medición.
+ * El resultado es el tiempo de todo el lote (LOTE barcos).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = AdicionarBarcoBenchmark.LOTE)
+@Measurement(iterations = 10, batchSize = AdicionarBarcoBenchmark.LOTE)
+@Fork(1)
+public class AdicionarBarcoBenchmark {
+	static final int LOTE = 1000;
+
+	@Param({ "1000", "100000", "1000000" })
+	private int tamanoFlota;
+
+	@Param({ "ListaBarcos", "MapaBarcos", "MapaBarcosConcurrente", "ColumnasBarcos" })
+	private String repositorio;
+
+	private ControlPuerto control;
+	private String[] matriculas;
+	private int siguiente;
+
+	@Setup(Level.Trial)
+	public void crearMatriculas() {
+		matriculas = new String[LOTE];
+		for (int i = 0; i < LOTE; i++) {
+			matriculas[i] = Flotas.crearMatricula(tamanoFlota + i);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void crearFlota() {
+		control = new ControlPuerto(Flotas.crearRepositorio(repositorio, tamanoFlota));
+		siguiente = 0;
+	}
+
+	@Benchmark
+	public void adicionarBarco() throws BarcoException {
+		int numero = siguiente++;
+		control.adicionarBarco(matriculas[numero], "colombiana", numero % 1000,
+				(numero % 2 == 0) ? 'v' : 'c', numero % 20, numero % 3 == 0);
+	}
+}
@@ -0,0 +1,72 @@
+package puertos.rendimiento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.AsignacionCarga;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Carga;
+
+/**
+ * Tiempo de repartir cargas entre los barcos del puerto con 
+ * ControlPuerto.asignarCarga: solo la heurística (mejor ajuste decreciente),
+ * y con la fase de mejora limitada a milisegundosMejora.
+ * Las cargas (una de cada cuatro líquida) suman más que la capacidad
+ * de la flota, para que siempre queden algunas sin barco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class AsignarCargaBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int tamanoFlota;
+
+	@Param({ "10000", "100000" })
+	private int cantidadCargas;
+
+	@Param({ "500" })
+	private long milisegundosMejora;
+
+	private ControlPuerto control;
+	private List<Carga> cargas;
+
+	@Setup
+	public void crearDatos() {
+		control = new ControlPuerto(Flotas.crearRepositorio("MapaBarcos", tamanoFlota));
+		double promedio = 1.2 * control.calcularCapacidadTotal() / cantidadCargas;
+		Random aleatorio = new Random(15);
+		cargas = new ArrayList<Carga>(cantidadCargas);
+		for (int i = 0; i < cantidadCargas; i++) {
+			cargas.add(new Carga("C-" + i, 2 * promedio * aleatorio.nextDouble(), 
+					aleatorio.nextInt(4) == 0));
+		}
+	}
+
+	@Benchmark
+	public AsignacionCarga heuristica() {
+		return control.asignarCarga(cargas);
+	}
+
+	@Benchmark
+	public AsignacionCarga conMejora() {
+		return control.asignarCarga(cargas, milisegundosMejora);
+	}
+}
@@ -0,0 +1,87 @@
+package puertos.rendimiento;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.BaseDatosBarcos;
+import puertos.persistencia.RepositorioBarcos;
+import puertos.persistencia.RepositorioBloom;
+
+/**
+ * Búsquedas por matrícula en una base de datos (H2 en memoria) con y sin
+ * RepositorioBloom (filtro = "si" / "no"), con una tasa de falsos positivos
+ * del 1 % (el filtro se dimensiona para los barcos que ya hay):
+ * - buscarInexistente: la matrícula no existe, como al registrar un barco nuevo.
+ * - buscarExistente: la matrícula existe (lo que cuesta consultar el filtro
+ *   además de la base de datos).
+ * Al final de cada prueba se imprime lo que se descartó con el filtro.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BloomBenchmark {
+
+	@Param({ "100000" })
+	private int tamanoFlota;
+
+	@Param({ "no", "si" })
+	private String filtro;
+
+	private BaseDatosBarcos baseDatos;
+	private RepositorioBarcos repositorio;
+	private int siguiente;
+	private int buscado;
+
+	@Setup(Level.Trial)
+	public void crearRepositorio() throws SQLException {
+		List<Barco> flota = new ArrayList<Barco>(tamanoFlota);
+		for (int i = 0; i < tamanoFlota; i++) {
+			flota.add(Flotas.crearBarco(i));
+		}
+		baseDatos = new BaseDatosBarcos("jdbc:h2:mem:bloom");
+		baseDatos.adicionarBarcos(flota);
+		repositorio = filtro.equals("si") ? new RepositorioBloom(baseDatos, tamanoFlota / 10, 0.01) : baseDatos;
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrarRepositorio() {
+		if (repositorio instanceof RepositorioBloom) {
+			RepositorioBloom bloom = (RepositorioBloom) repositorio;
+			System.out.printf("%n%d descartes, %d consultas, %d falsos positivos, %d capa(s), %d KiB%n",
+					bloom.getDescartes(), bloom.getConsultas(), bloom.getFalsosPositivos(),
+					bloom.getFiltro().getCapas(), bloom.getFiltro().getBits() / 8 / 1024);
+		}
+		baseDatos.close();
+	}
+
+	@Benchmark
+	public Barco buscarInexistente() {
+		return repositorio.buscarBarco(Flotas.crearMatricula(tamanoFlota + siguiente++));
+	}
+
+	@Benchmark
+	public Barco buscarExistente() {
+		buscado = (buscado + 7919) % tamanoFlota;
+		return repositorio.buscarBarco(Flotas.crearMatricula(buscado));
+	}
+}
@@ -0,0 +1,67 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Tiempo de RepositorioBarcos.buscarBarco cuando la matrícula existe
+ * (acierto) y cuando no existe (fallo, el caso de un barco nuevo).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuscarBarcoBenchmark {
+	private static final int CONSULTAS = 1024;
+
+	@Param({ "1000", "100000", "1000000" })
+	private int tamanoFlota;
+
+	@Param({ "ListaBarcos", "MapaBarcos", "MapaBarcosConcurrente", "ColumnasBarcos" })
+	private String repositorio;
+
+	private RepositorioBarcos barcos;
+	private String[] existentes;
+	private String[] inexistentes;
+	private int consulta;
+
+	@Setup
+	public void crearFlota() {
+		barcos = Flotas.crearRepositorio(repositorio, tamanoFlota);
+		existentes = new String[CONSULTAS];
+		inexistentes = new String[CONSULTAS];
+		for (int i = 0; i < CONSULTAS; i++) {
+			int numero = (int) ((i * 2654435761L) % tamanoFlota);
+			existentes[i] = Flotas.crearMatricula(numero);
+			inexistentes[i] = Flotas.crearMatricula(tamanoFlota + numero);
+		}
+	}
+
+	@Benchmark
+	public Barco buscarExistente() {
+		consulta = (consulta + 1) & (CONSULTAS - 1);
+		return barcos.buscarBarco(existentes[consulta]);
+	}
+
+	@Benchmark
+	public Barco buscarInexistente() {
+		consulta = (consulta + 1) & (CONSULTAS - 1);
+		return barcos.buscarBarco(inexistentes[consulta]);
+	}
+}
@@ -0,0 +1,143 @@
+package puertos.rendimiento;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.BaseDatosBarcos;
+import puertos.persistencia.LimiteCache;
+import puertos.persistencia.RepositorioBarcos;
+import puertos.persistencia.RepositorioCache;
+
+/**
+ * Búsquedas por matrícula en una base de datos (H2 en memoria) con y sin
+ * RepositorioCache, cuando unos pocos barcos se buscan mucho más que los
+ * demás: la matrícula buscada sigue una distribución de Zipf con el
+ * exponente dado (con 1.0, el barco más buscado se busca el doble que el
+ * segundo, el triple que el tercero...), y una de cada 10 búsquedas es de
+ * una matrícula que no existe (también con Zipf, entre otras tantas).
+ * tamanoCache = 0 es sin cache. Al final de cada prueba se imprime la
+ * tasa de aciertos del cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+	private static final int BUSQUEDAS = 1 << 20;
+
+	@Param({ "100000" })
+	private int tamanoFlota;
+
+	@Param({ "0", "1000", "10000" })
+	private int tamanoCache;
+
+	@Param({ "0.8", "1.0" })
+	private double exponente;
+
+	private BaseDatosBarcos baseDatos;
+	private RepositorioBarcos repositorio;
+	private String[] matriculas;
+	private int siguiente;
+
+	@Setup(Level.Trial)
+	public void crearRepositorio() throws SQLException {
+		List<Barco> flota = new ArrayList<Barco>(tamanoFlota);
+		for (int i = 0; i < tamanoFlota; i++) {
+			flota.add(Flotas.crearBarco(i));
+		}
+		baseDatos = new BaseDatosBarcos("jdbc:h2:mem:cache");
+		baseDatos.adicionarBarcos(flota);
+		repositorio = (tamanoCache == 0) ? baseDatos
+				: new RepositorioCache(baseDatos, LimiteCache.porEntradas(tamanoCache));
+
+		Random aleatorio = new Random(42);
+		int[] barcos = permutar(tamanoFlota, aleatorio);
+		double[] acumulada = crearAcumulada(tamanoFlota, exponente);
+		matriculas = new String[BUSQUEDAS];
+		for (int i = 0; i < BUSQUEDAS; i++) {
+			int posicion = barcos[elegir(acumulada, aleatorio.nextDouble())];
+			matriculas[i] = (i % 10 == 9) ? "X-" + posicion : Flotas.crearMatricula(posicion);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrarRepositorio() {
+		if (repositorio instanceof RepositorioCache) {
+			RepositorioCache cache = (RepositorioCache) repositorio;
+			System.out.printf("%nTasa de aciertos: %.1f %% (%s)%n", cache.getTasaAciertos() * 100, cache);
+		}
+		baseDatos.close();
+	}
+
+	@Benchmark
+	public Barco buscarBarco() {
+		Barco barco = repositorio.buscarBarco(matriculas[siguiente]);
+		siguiente = (siguiente + 1) & (BUSQUEDAS - 1);
+		return barco;
+	}
+
+	private static int[] permutar(int cantidad, Random aleatorio) {
+		int[] posiciones = new int[cantidad];
+		for (int i = 0; i < cantidad; i++) {
+			posiciones[i] = i;
+		}
+		for (int i = cantidad - 1; i > 0; i--) {
+			int otra = aleatorio.nextInt(i + 1);
+			int temporal = posiciones[i];
+			posiciones[i] = posiciones[otra];
+			posiciones[otra] = temporal;
+		}
+		return posiciones;
+	}
+
+	/**
+	 * @return la probabilidad acumulada de cada puesto (el puesto k, desde 1,
+	 * 		tiene una probabilidad proporcional a 1 / k^exponente)
+	 */
+	private static double[] crearAcumulada(int cantidad, double exponente) {
+		double[] acumulada = new double[cantidad];
+		double suma = 0;
+		for (int i = 0; i < cantidad; i++) {
+			suma += 1 / Math.pow(i + 1, exponente);
+			acumulada[i] = suma;
+		}
+		for (int i = 0; i < cantidad; i++) {
+			acumulada[i] /= suma;
+		}
+		return acumulada;
+	}
+
+	private static int elegir(double[] acumulada, double valor) {
+		int inferior = 0;
+		int superior = acumulada.length - 1;
+		while (inferior < superior) {
+			int medio = (inferior + superior) >>> 1;
+			if (acumulada[medio] < valor) {
+				inferior = medio + 1;
+			} else {
+				superior = medio;
+			}
+		}
+		return inferior;
+	}
+}
@@ -0,0 +1,68 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.ControlPuerto;
+
+/**
+ * Compara calcularCapacidadTotal secuencial contra el cálculo en paralelo
+ * (sin umbral, para forzarlo) a varios tamaños de flota, para encontrar
+ * desde cuántos barcos conviene el paralelo (el umbral que se debe usar).
+ * El parámetro "hilos" en 0 usa todos los núcleos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapacidadParalelaBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000", "10000000" })
+	private int tamanoFlota;
+
+	@Param({ "0" })
+	private int hilos;
+
+	private ControlPuerto controlSecuencial;
+	private ControlPuerto controlParalelo;
+	private ForkJoinPool hilosCalculo;
+
+	@Setup
+	public void crearFlota() {
+		controlSecuencial = new ControlPuerto(Flotas.crearRepositorio("MapaBarcos", tamanoFlota));
+		controlParalelo = new ControlPuerto(Flotas.crearRepositorio("MapaBarcos", tamanoFlota));
+		hilosCalculo = new ForkJoinPool(
+				(hilos > 0) ? hilos : Runtime.getRuntime().availableProcessors());
+		controlParalelo.usarCalculoParalelo(hilosCalculo, 0);
+	}
+
+	@TearDown
+	public void cerrar() {
+		hilosCalculo.shutdown();
+	}
+
+	@Benchmark
+	public double secuencial() {
+		return controlSecuencial.calcularCapacidadTotal();
+	}
+
+	@Benchmark
+	public double paralelo() {
+		return controlParalelo.calcularCapacidadTotal();
+	}
+}
@@ -0,0 +1,51 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.ControlPuerto;
+
+/**
+ * Tiempo de ControlPuerto.calcularCapacidadTotal con cada repositorio,
+ * recorriendo los barcos o en el modo incremental.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapacidadTotalBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int tamanoFlota;
+
+	@Param({ "ListaBarcos", "MapaBarcos", "MapaBarcosConcurrente", "ColumnasBarcos" })
+	private String repositorio;
+
+	@Param({ "false", "true" })
+	private boolean incremental;
+
+	private ControlPuerto control;
+
+	@Setup
+	public void crearFlota() {
+		control = new ControlPuerto(Flotas.crearRepositorio(repositorio, tamanoFlota), incremental);
+	}
+
+	@Benchmark
+	public double calcularCapacidadTotal() {
+		return control.calcularCapacidadTotal();
+	}
+}
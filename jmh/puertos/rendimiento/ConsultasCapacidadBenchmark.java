@@ -0,0 +1,67 @@
+package puertos.rendimiento;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Consultas por capacidad de ControlPuerto con el índice por capacidad
+ * (modo incremental) y recorriendo todos los barcos (indice = false).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx3g" })
+public class ConsultasCapacidadBenchmark {
+
+	@Param({ "10000", "1000000" })
+	private int tamanoFlota;
+
+	@Param({ "false", "true" })
+	private boolean indice;
+
+	private ControlPuerto control;
+
+	@Setup
+	public void crearFlota() {
+		RepositorioBarcos repositorio = Flotas.crearRepositorio("MapaBarcos", tamanoFlota);
+		control = new ControlPuerto(repositorio, indice);
+	}
+
+	@Benchmark
+	public List<Barco> diezMayores() {
+		return control.consultarMayoresCapacidades(10);
+	}
+
+	@Benchmark
+	public int contarDesde() {
+		return control.contarBarcosConCapacidad(450.5);
+	}
+
+	@Benchmark
+	public double sumarDesde() {
+		return control.sumarCapacidadDesde(450.5);
+	}
+
+	@Benchmark
+	public Barco barcoParaCarga() {
+		return control.buscarBarcoParaCarga(450.5);
+	}
+}
@@ -0,0 +1,128 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.control.ControlPuertoAsincrono;
+import puertos.entidades.Barco;
+import puertos.persistencia.MapaBarcosConcurrente;
+
+/**
+ * Latencia (con sus percentiles) de registrar barcos en un repositorio
+ * lento a propósito (cada registro se demora demoraMicros), llamando
+ * directamente a ControlPuerto o por medio de ControlPuertoAsincrono:
+ * - sincrono: lo que se bloquea quien llama (por ejemplo, la ventana).
+ * - asincronoLlamada: lo que se bloquea quien llama con la fachada
+ *   (solo entregar la operación; se espera su fin por fuera de la medición).
+ * - asincronoRespuesta: desde que se pide hasta que se tiene el resultado.
+ * - asincronoRafaga: una ráfaga de 16 registros que se hacen al mismo tiempo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ControlAsincronoBenchmark {
+	private static final int TAMANO_RAFAGA = 16;
+
+	/**
+	 * Repositorio en memoria que se demora en cada registro,
+	 * como si escribiera en un disco o en la red
+	 */
+	private static class RepositorioLento extends MapaBarcosConcurrente {
+		private long demoraNanos;
+
+		RepositorioLento(long demoraNanos) {
+			this.demoraNanos = demoraNanos;
+		}
+
+		@Override
+		public boolean adicionarSiNoExiste(Barco barco) {
+			LockSupport.parkNanos(demoraNanos);
+			return super.adicionarSiNoExiste(barco);
+		}
+	}
+
+	/**
+	 * La operación que quedó pendiente en asincronoLlamada,
+	 * que se espera después de cada invocación
+	 */
+	@State(Scope.Thread)
+	public static class Pendiente {
+		CompletableFuture<Void> operacion;
+
+		@TearDown(Level.Invocation)
+		public void esperar() {
+			operacion.join();
+		}
+	}
+
+	@Param({ "100", "1000" })
+	private int demoraMicros;
+
+	private ControlPuerto control;
+	private ControlPuertoAsincrono asincrono;
+	private int siguiente;
+
+	@Setup(Level.Trial)
+	public void crearPuerto() {
+		control = new ControlPuerto(new RepositorioLento(demoraMicros * 1000L), true);
+		asincrono = new ControlPuertoAsincrono(control);
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() {
+		asincrono.close();
+	}
+
+	@Benchmark
+	public void sincrono() throws BarcoException {
+		Barco barco = Flotas.crearBarco(siguiente++);
+		control.adicionarBarco(barco.getMatricula(), barco.getNacionalidad(), barco.getVolumen(),
+				'c', 0, false);
+	}
+
+	@Benchmark
+	public CompletableFuture<Void> asincronoLlamada(Pendiente pendiente) {
+		pendiente.operacion = adicionar();
+		return pendiente.operacion;
+	}
+
+	@Benchmark
+	public Void asincronoRespuesta() {
+		return adicionar().join();
+	}
+
+	@Benchmark
+	public Void asincronoRafaga() {
+		CompletableFuture<?>[] rafaga = new CompletableFuture<?>[TAMANO_RAFAGA];
+		for (int i = 0; i < TAMANO_RAFAGA; i++) {
+			rafaga[i] = adicionar();
+		}
+		return CompletableFuture.allOf(rafaga).join();
+	}
+
+	private CompletableFuture<Void> adicionar() {
+		Barco barco = Flotas.crearBarco(siguiente++);
+		return asincrono.adicionarBarco(barco.getMatricula(), barco.getNacionalidad(),
+				barco.getVolumen(), 'c', 0, false);
+	}
+}
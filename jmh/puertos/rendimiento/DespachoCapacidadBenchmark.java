@@ -0,0 +1,105 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Costo de la llamada (virtual) a calcularCapacidad según cuántas clases
+ * de barco distintas llegan al mismo punto de llamada:
+ * solo Velero (monomórfico), Velero y Carguero (bimórfico), o cuatro
+ * clases (megamórfico, con dos clases que solo existen en este benchmark).
+ * Cada fork usa una sola mezcla, para que el perfil de tipos de una
+ * no afecte a las otras.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DespachoCapacidadBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int tamanoFlota;
+
+	@Param({ "monomorfico", "bimorfico", "megamorfico" })
+	private String mezcla;
+
+	private Barco[] barcos;
+
+	/**
+	 * Barco que solo se usa para tener más de dos clases en la mezcla
+	 */
+	private static class Lancha extends Barco {
+		Lancha(String matricula, double volumen) {
+			super(matricula, "colombiana", volumen);
+		}
+
+		@Override
+		public double calcularCapacidad() {
+			return getVolumen() * 0.3;
+		}
+	}
+
+	/**
+	 * Barco que solo se usa para tener más de dos clases en la mezcla
+	 */
+	private static class Remolcador extends Barco {
+		Remolcador(String matricula, double volumen) {
+			super(matricula, "peruana", volumen);
+		}
+
+		@Override
+		public double calcularCapacidad() {
+			return Math.max(getVolumen() * 0.1 - 5, 0);
+		}
+	}
+
+	@Setup
+	public void crearFlota() {
+		int clases = mezcla.equals("monomorfico") ? 1 : mezcla.equals("bimorfico") ? 2 : 4;
+		barcos = new Barco[tamanoFlota];
+		for (int i = 0; i < tamanoFlota; i++) {
+			String matricula = Flotas.crearMatricula(i);
+			double volumen = i % 1000;
+			// se mezclan con un orden pseudoaleatorio, para que no sea predecible
+			switch ((int) (((i * 2654435761L) >>> 7) % clases)) {
+			case 0:
+				barcos[i] = new Velero(matricula, "colombiana", volumen, i % 20);
+				break;
+			case 1:
+				barcos[i] = new Carguero(matricula, "peruana", volumen, i % 3 == 0);
+				break;
+			case 2:
+				barcos[i] = new Lancha(matricula, volumen);
+				break;
+			default:
+				barcos[i] = new Remolcador(matricula, volumen);
+			}
+		}
+	}
+
+	@Benchmark
+	public double calcularCapacidad() {
+		double total = 0;
+		for (Barco barco : barcos) {
+			total += barco.calcularCapacidad();
+		}
+		return total;
+	}
+}
@@ -0,0 +1,49 @@
+package puertos.rendimiento;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta los benchmarks JMH con el perfilador de GC (memoria asignada
+ * por operación y recolecciones) y guarda los resultados en JSON, en la
+ * carpeta "resultados-jmh", con la fecha y hora en el nombre, para poder 
+ * comparar dos ejecuciones.
+ * 
+ * Uso: java puertos.rendimiento.EjecutarBenchmarks [expresión] [-p parámetro=valores]...
+ * donde la expresión indica qué benchmarks ejecutar (por ejemplo "BuscarBarco").
+ * Por ejemplo: EjecutarBenchmarks CapacidadTotal -p tamanoFlota=1000000
+ */
+public class EjecutarBenchmarks {
+
+	public static void main(String[] args) throws RunnerException {
+		new File("resultados-jmh").mkdirs();
+		String fecha = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+
+		ChainedOptionsBuilder opciones = new OptionsBuilder()
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("resultados-jmh/jmh-" + fecha + ".json");
+		int i = 0;
+		if (args.length > 0 && !args[0].startsWith("-")) {
+			opciones.include(args[i++]);
+		} else {
+			opciones.include(EjecutarBenchmarks.class.getPackage().getName() + ".*");
+		}
+		for (; i + 1 < args.length; i += 2) {
+			if (!args[i].equals("-p")) {
+				throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+			}
+			String[] parametro = args[i + 1].split("=", 2);
+			opciones.param(parametro[0], parametro[1].split(","));
+		}
+		new Runner(opciones.build()).run();
+	}
+}
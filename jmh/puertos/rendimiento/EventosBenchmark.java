@@ -0,0 +1,88 @@
+package puertos.rendimiento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.entidades.Barco;
+import puertos.eventos.CanalEventos;
+import puertos.eventos.EstrategiaEspera;
+import puertos.eventos.Suscripcion;
+import puertos.eventos.TipoEvento;
+import puertos.metricas.HistogramaLatencia;
+import puertos.metricas.InstantaneaHistograma;
+
+/**
+ * Eventos por segundo que se publican en un CanalEventos (de 4096 eventos,
+ * esperando si está lleno) con 1 o 3 suscripciones, con cada estrategia de
+ * espera. Como quien publica espera a la suscripción más lenta, el resultado
+ * es lo que alcanzan a procesar todas.
+ * Cada suscripción registra la latencia de punta a punta (desde que se
+ * publicó hasta que la procesó); al final de cada prueba se imprimen sus
+ * percentiles y el tamaño promedio de los lotes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventosBenchmark {
+
+	@Param({ "1", "3" })
+	private int suscripciones;
+
+	@Param({ "OCUPADA", "CEDER", "DORMIR", "BLOQUEAR" })
+	private EstrategiaEspera estrategia;
+
+	private CanalEventos canal;
+	private List<Suscripcion> activas;
+	private HistogramaLatencia latencia;
+	private Barco barco;
+
+	@Setup(Level.Trial)
+	public void crearCanal() {
+		canal = new CanalEventos(4096, estrategia, true);
+		latencia = new HistogramaLatencia();
+		activas = new ArrayList<Suscripcion>();
+		for (int i = 0; i < suscripciones; i++) {
+			activas.add(canal.suscribir(
+					(evento, finDeLote) -> latencia.registrar(System.nanoTime() - evento.getInstante()), 256));
+		}
+		barco = Flotas.crearBarco(0);
+	}
+
+	@TearDown(Level.Trial)
+	public void cancelarSuscripciones() {
+		long procesados = 0;
+		long lotes = 0;
+		for (Suscripcion suscripcion : activas) {
+			suscripcion.cancelar();
+			procesados += suscripcion.getProcesados();
+			lotes += suscripcion.getLotes();
+		}
+		InstantaneaHistograma instantanea = latencia.tomarInstantanea();
+		System.out.printf("%nlatencia p50 %d ns, p99 %d ns, p99.9 %d ns; %.1f eventos por lote%n",
+				instantanea.getPercentil(50), instantanea.getPercentil(99), instantanea.getPercentil(99.9),
+				(double) procesados / Math.max(1, lotes));
+	}
+
+	@Benchmark
+	public boolean publicar() {
+		return canal.publicar(TipoEvento.LLEGADA, barco);
+	}
+}
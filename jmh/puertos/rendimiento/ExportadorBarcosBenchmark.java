@@ -0,0 +1,99 @@
+package puertos.rendimiento;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.ExportadorBarcos;
+import puertos.persistencia.FormatoExportacion;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Tiempo de exportar toda la flota a CSV: con ExportadorBarcos (bytes
+ * directo a un búfer directo y FileChannel), y armando un String por
+ * barco que se escribe con un BufferedWriter. Con el perfilador de GC
+ * (EjecutarBenchmarks) se ve además cuánta memoria se crea por exportación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class ExportadorBarcosBenchmark {
+
+	@Param({ "1000000" })
+	private int tamanoFlota;
+
+	@Param({ "false", "true" })
+	private boolean comprimir;
+
+	private RepositorioBarcos repositorio;
+	private Path archivo;
+
+	@Setup(Level.Trial)
+	public void crearFlota() throws IOException {
+		repositorio = Flotas.crearRepositorio("MapaBarcos", tamanoFlota);
+		archivo = Files.createTempFile("exportacion", ".csv");
+	}
+
+	@TearDown(Level.Trial)
+	public void borrarArchivo() throws IOException {
+		Files.deleteIfExists(archivo);
+	}
+
+	@Benchmark
+	public long exportador() throws IOException {
+		ExportadorBarcos exportador = new ExportadorBarcos(FormatoExportacion.CSV);
+		exportador.setComprimir(comprimir);
+		return exportador.exportar(repositorio, archivo);
+	}
+
+	@Benchmark
+	public long conStrings() throws IOException {
+		long cantidad = 0;
+		OutputStream salida = Files.newOutputStream(archivo);
+		if (comprimir) {
+			salida = new GZIPOutputStream(salida, 1 << 16);
+		}
+		try (BufferedWriter escritor = new BufferedWriter(
+				new OutputStreamWriter(salida, StandardCharsets.UTF_8), 1 << 16)) {
+			escritor.write("matricula,nacionalidad,volumen,tipo,pasajeros,liquidos\n");
+			for (Barco barco : repositorio.consultarBarcos()) {
+				String fila = barco.getMatricula() + "," + barco.getNacionalidad() + ","
+						+ barco.getVolumen();
+				if (barco instanceof Velero) {
+					fila += ",v," + ((Velero) barco).getPasajeros() + ",false\n";
+				} else {
+					fila += ",c,0," + ((Carguero) barco).getLiquidos() + "\n";
+				}
+				escritor.write(fila);
+				cantidad++;
+			}
+		}
+		return cantidad;
+	}
+}
@@ -0,0 +1,71 @@
+package puertos.rendimiento;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.ColumnasBarcos;
+import puertos.persistencia.ListaBarcos;
+import puertos.persistencia.MapaBarcos;
+import puertos.persistencia.MapaBarcosConcurrente;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Datos de prueba que comparten los benchmarks: repositorios llenos
+ * con una flota del tamaño pedido (mitad veleros, mitad cargueros).
+ */
+public class Flotas {
+	public static final String[] NACIONALIDADES = { "colombiana", "peruana", "chilena",
+			"mexicana", "panameña", "ecuatoriana", "brasileña", "argentina" };
+
+	private Flotas() {
+	}
+
+	/**
+	 * @param numero	el número del barco en la flota
+	 * @return la matrícula del barco con ese número
+	 */
+	public static String crearMatricula(int numero) {
+		return "B-" + numero;
+	}
+
+	/**
+	 * @param numero	el número del barco en la flota (define todos sus datos)
+	 * @return un velero (números pares) o un carguero (impares)
+	 */
+	public static Barco crearBarco(int numero) {
+		String nacionalidad = NACIONALIDADES[numero & 7];
+		double volumen = numero % 1000;
+		if (numero % 2 == 0) {
+			return new Velero(crearMatricula(numero), nacionalidad, volumen, numero % 20);
+		}
+		return new Carguero(crearMatricula(numero), nacionalidad, volumen, numero % 3 == 0);
+	}
+
+	/**
+	 * @param nombre	el nombre de la clase del repositorio
+	 * @param tamano	la cantidad de barcos con que se llena
+	 * @return el repositorio con los barcos 0 a tamano - 1
+	 */
+	public static RepositorioBarcos crearRepositorio(String nombre, int tamano) {
+		RepositorioBarcos repositorio = crearRepositorioVacio(nombre, tamano);
+		for (int numero = 0; numero < tamano; numero++) {
+			repositorio.adicionarBarco(crearBarco(numero));
+		}
+		return repositorio;
+	}
+
+	private static RepositorioBarcos crearRepositorioVacio(String nombre, int tamano) {
+		switch (nombre) {
+		case "ListaBarcos":
+			return new ListaBarcos();
+		case "MapaBarcos":
+			return new MapaBarcos(tamano);
+		case "MapaBarcosConcurrente":
+			return new MapaBarcosConcurrente();
+		case "ColumnasBarcos":
+			return new ColumnasBarcos(tamano);
+		default:
+			throw new IllegalArgumentException("Repositorio desconocido: " + nombre);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package puertos.rendimiento;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.control.ImportadorManifiesto;
+import puertos.control.ReporteImportacion;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Tiempo de registrar un manifiesto completo en un puerto vacío: con
+ * ImportadorManifiesto, y leyendo línea por línea (BufferedReader, split
+ * y adicionarBarco por cada fila). Uno de cada cien barcos tiene un 
+ * volumen incorrecto, para que también se escriban rechazos.
+ * La velocidad en filas/s es filasManifiesto / el tiempo medido.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class ImportadorManifiestoBenchmark {
+
+	@Param({ "100000", "1000000" })
+	private int filasManifiesto;
+
+	private Path carpeta;
+	private Path manifiesto;
+	private Path rechazados;
+	private MapaBarcos repositorio;
+	private ControlPuerto control;
+
+	@Setup(Level.Trial)
+	public void escribirManifiesto() throws IOException {
+		carpeta = Files.createTempDirectory("manifiesto");
+		manifiesto = carpeta.resolve("manifiesto.csv");
+		rechazados = carpeta.resolve("rechazados.csv");
+		try (BufferedWriter salida = Files.newBufferedWriter(manifiesto, StandardCharsets.UTF_8)) {
+			salida.write("matricula,nacionalidad,volumen,tipo,pasajeros,liquidos\n");
+			for (int numero = 0; numero < filasManifiesto; numero++) {
+				Barco barco = Flotas.crearBarco(numero);
+				double volumen = (numero % 100 == 99) ? 1500 : barco.getVolumen() + 0.25;
+				salida.write(barco.getMatricula() + "," + barco.getNacionalidad() + "," + volumen);
+				if (barco instanceof Velero) {
+					salida.write(",v," + ((Velero) barco).getPasajeros() + ",false\n");
+				} else {
+					salida.write(",c,0," + ((Carguero) barco).getLiquidos() + "\n");
+				}
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void crearPuerto() {
+		repositorio = new MapaBarcos(filasManifiesto);
+		control = new ControlPuerto(repositorio);
+	}
+
+	@TearDown(Level.Trial)
+	public void borrarArchivos() throws IOException {
+		Files.deleteIfExists(manifiesto);
+		Files.deleteIfExists(rechazados);
+		Files.deleteIfExists(carpeta);
+	}
+
+	@Benchmark
+	public ReporteImportacion importador() throws IOException {
+		return new ImportadorManifiesto(control).importar(manifiesto, rechazados);
+	}
+
+	@Benchmark
+	public int lineaPorLinea() throws IOException {
+		int registradas = 0;
+		try (BufferedReader entrada = Files.newBufferedReader(manifiesto, StandardCharsets.UTF_8);
+				BufferedWriter salida = Files.newBufferedWriter(rechazados, StandardCharsets.UTF_8)) {
+			entrada.readLine();
+			String linea;
+			while ((linea = entrada.readLine()) != null) {
+				String[] campos = linea.split(",");
+				try {
+					control.adicionarBarco(campos[0], campos[1], Double.parseDouble(campos[2]),
+							campos[3].charAt(0), Integer.parseInt(campos[4]),
+							Boolean.parseBoolean(campos[5]));
+					registradas++;
+				} catch (BarcoException e) {
+					salida.write(linea + "," + e.getMessage() + "\n");
+				}
+			}
+		}
+		return registradas;
+	}
+}
@@ -0,0 +1,112 @@
+package puertos.rendimiento;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.h2.tools.Server;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.BaseDatosBarcos;
+
+/**
+ * Costo de guardar una flota en la base de datos H2 en memoria, embebida
+ * (base = "embebida", cada sentencia es una llamada a un método) o por
+ * medio de un servidor TCP local ("servidor", cada sentencia o batch es
+ * un viaje de ida y vuelta, como con una base de datos de verdad):
+ * - unoPorUno: adicionarBarco por cada barco (una sentencia y un commit
+ *   por barco).
+ * - enLote: adicionarBarcos con toda la flota (varios barcos por sentencia,
+ *   en un batch y en una sola transacción).
+ * También se mide calcularCapacidadTotal, que se hace en la base de datos.
+ * Cada invocación usa una base de datos nueva.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertarBaseDatosBenchmark {
+
+	@Param({ "10000" })
+	private int tamanoFlota;
+
+	@Param({ "embebida", "servidor" })
+	private String base;
+
+	private List<Barco> flota;
+	private BaseDatosBarcos repositorio;
+	private BaseDatosBarcos llena;
+	private int numeroBase;
+	private Server servidor;
+
+	@Setup(Level.Trial)
+	public void crearFlota() throws SQLException {
+		if (base.equals("servidor")) {
+			servidor = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+		}
+		flota = new ArrayList<Barco>(tamanoFlota);
+		for (int i = 0; i < tamanoFlota; i++) {
+			flota.add(Flotas.crearBarco(i));
+		}
+		llena = new BaseDatosBarcos("jdbc:h2:mem:llena");
+		llena.adicionarBarcos(flota);
+	}
+
+	@Setup(Level.Invocation)
+	public void crearBaseDatos() throws SQLException {
+		String nombre = "insertar" + (numeroBase++);
+		repositorio = new BaseDatosBarcos((servidor == null) ? "jdbc:h2:mem:" + nombre
+				: "jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:" + nombre);
+	}
+
+	@TearDown(Level.Invocation)
+	public void cerrarBaseDatos() {
+		repositorio.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrarLlena() {
+		llena.close();
+		if (servidor != null) {
+			servidor.stop();
+		}
+	}
+
+	@Benchmark
+	public int unoPorUno() {
+		int guardados = 0;
+		for (Barco barco : flota) {
+			if (repositorio.adicionarBarco(barco)) {
+				guardados++;
+			}
+		}
+		return guardados;
+	}
+
+	@Benchmark
+	public boolean enLote() {
+		return repositorio.adicionarBarcos(flota);
+	}
+
+	@Benchmark
+	public double calcularCapacidadTotal() {
+		return llena.calcularCapacidadTotal();
+	}
+}
@@ -0,0 +1,96 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.metricas.MetricasPuerto;
+import puertos.metricas.RepositorioMedido;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Costo de medir las operaciones: sin métricas (medicion = "ninguna",
+ * solo se revisa que no hay), midiendo solo ControlPuerto ("control"),
+ * también el repositorio con RepositorioMedido ("completa"), o todo
+ * pero con el tiempo de solo una de cada 16 llamadas ("muestreo").
+ * - rotarBarco: sale el barco más antiguo y llega uno nuevo (modo incremental).
+ * - buscarBarco: una búsqueda por matrícula en el repositorio.
+ * - calcularCapacidadTotal: recorre todos los barcos (sin modo incremental).
+ * Con el perfilador de GC se ve además que medir no crea objetos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(2)
+public class MetricasBenchmark {
+
+	@Param({ "ninguna", "control", "completa", "muestreo" })
+	private String medicion;
+
+	@Param({ "100000" })
+	private int tamanoFlota;
+
+	private RepositorioBarcos repositorio;
+	private ControlPuerto rotacion;
+	private ControlPuerto recorrido;
+	private int siguiente;
+	private int buscado;
+
+	@Setup(Level.Trial)
+	public void crearPuerto() {
+		MetricasPuerto metricas = new MetricasPuerto(medicion.equals("muestreo") ? 16 : 1);
+		RepositorioBarcos barcos = Flotas.crearRepositorio("MapaBarcos", tamanoFlota);
+		boolean medirRepositorio = medicion.equals("completa") || medicion.equals("muestreo");
+		repositorio = medirRepositorio ? new RepositorioMedido(barcos, metricas) : barcos;
+		rotacion = new ControlPuerto(repositorio, true);
+		recorrido = new ControlPuerto(repositorio);
+		if (!medicion.equals("ninguna")) {
+			rotacion.usarMetricas(metricas);
+			recorrido.usarMetricas(metricas);
+		}
+		siguiente = tamanoFlota;
+	}
+
+	@Benchmark
+	public Barco rotarBarco() throws BarcoException {
+		Barco saliente = rotacion.retirarBarco(Flotas.crearMatricula(siguiente - tamanoFlota));
+		Barco barco = Flotas.crearBarco(siguiente++);
+		if (barco instanceof Velero) {
+			rotacion.adicionarBarco(barco.getMatricula(), barco.getNacionalidad(), barco.getVolumen(),
+					'v', ((Velero) barco).getPasajeros(), false);
+		} else {
+			rotacion.adicionarBarco(barco.getMatricula(), barco.getNacionalidad(), barco.getVolumen(),
+					'c', 0, ((Carguero) barco).getLiquidos());
+		}
+		return saliente;
+	}
+
+	@Benchmark
+	public Barco buscarBarco() {
+		buscado = (buscado + 7919) % tamanoFlota;
+		return repositorio.buscarBarco(Flotas.crearMatricula(siguiente - tamanoFlota + buscado));
+	}
+
+	@Benchmark
+	public double calcularCapacidadTotal() {
+		return recorrido.calcularCapacidadTotal();
+	}
+}
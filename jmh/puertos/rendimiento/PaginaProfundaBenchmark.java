@@ -0,0 +1,77 @@
+package puertos.rendimiento;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.persistencia.FiltroBarcos;
+import puertos.persistencia.PaginaBarcos;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Tiempo de pedir una página lejana (después del 90% de los barcos) y
+ * una página filtrada por tipo y rango de volumen, en cada repositorio.
+ * Como comparación, paginaConSalto hace lo que se haría sin consultarPagina:
+ * ordenar todos los barcos y saltar hasta la página.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx3g" })
+public class PaginaProfundaBenchmark {
+	private static final int TAMANO_PAGINA = 50;
+
+	@Param({ "1000000" })
+	private int tamanoFlota;
+
+	@Param({ "ListaBarcos", "MapaBarcos", "MapaBarcosConcurrente", "ColumnasBarcos" })
+	private String repositorio;
+
+	private RepositorioBarcos barcos;
+	private String continuacionProfunda;
+	private FiltroBarcos cargueros;
+
+	@Setup
+	public void crearFlota() {
+		barcos = Flotas.crearRepositorio(repositorio, tamanoFlota);
+		// el primer barco con volumen 900 está después del 90% de la flota
+		continuacionProfunda = barcos.consultarPagina(
+				FiltroBarcos.todos().conVolumenEntre(900, 1000), 1, null).getContinuacion();
+		cargueros = FiltroBarcos.todos().soloTipo(Carguero.class).conVolumenEntre(400, 410);
+	}
+
+	@Benchmark
+	public PaginaBarcos paginaProfunda() {
+		return barcos.consultarPagina(FiltroBarcos.todos(), TAMANO_PAGINA, continuacionProfunda);
+	}
+
+	@Benchmark
+	public PaginaBarcos paginaFiltrada() {
+		return barcos.consultarPagina(cargueros, TAMANO_PAGINA, null);
+	}
+
+	@Benchmark
+	public List<Barco> paginaConSalto() {
+		List<Barco> ordenados = new ArrayList<Barco>(barcos.consultarBarcos());
+		ordenados.sort(Comparator.comparingDouble(Barco::getVolumen));
+		int desde = tamanoFlota / 10 * 9;
+		return ordenados.subList(desde, desde + TAMANO_PAGINA);
+	}
+}
@@ -0,0 +1,100 @@
+package puertos.rendimiento;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.ControlPuerto;
+import puertos.control.ResultadoRegistro;
+import puertos.entidades.Barco;
+import puertos.persistencia.MapaBarcosConcurrente;
+import puertos.persistencia.RepositorioBarcos;
+import puertos.persistencia.RepositorioParticionado;
+import puertos.persistencia.RepositorioProceso;
+
+/**
+ * Cómo cambia el rendimiento con la cantidad de particiones de un
+ * RepositorioParticionado, con las particiones en este proceso
+ * (MapaBarcosConcurrente) o cada una en su propio proceso (RepositorioProceso):
+ * - registrar: registros por segundo con ControlPuerto desde 4 hilos, cada
+ *   uno con matrículas nuevas (la verificación de matrícula repetida y el
+ *   registro van a la partición dueña).
+ * - calcularCapacidadTotal: con tamanoFlota barcos ya registrados, lo que
+ *   tarda cada partición en calcular su total, al mismo tiempo, y sumarlos.
+ * Solo hay ganancia si el equipo tiene por lo menos tantos núcleos como particiones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticionesBenchmark {
+
+	@Param({ "1", "2", "4" })
+	private int particiones;
+
+	@Param({ "local", "proceso" })
+	private String modo;
+
+	@Param({ "100000" })
+	private int tamanoFlota;
+
+	private RepositorioParticionado repositorio;
+	private ControlPuerto control;
+	private AtomicInteger siguiente;
+
+	@Setup(Level.Trial)
+	public void crearParticiones() throws IOException {
+		List<RepositorioBarcos> repositorios = new ArrayList<RepositorioBarcos>();
+		for (int i = 0; i < particiones; i++) {
+			repositorios.add(modo.equals("proceso") ? new RepositorioProceso("-Xmx512m")
+					: new MapaBarcosConcurrente());
+		}
+		repositorio = new RepositorioParticionado(repositorios);
+		List<Barco> flota = new ArrayList<Barco>(tamanoFlota);
+		for (int i = 0; i < tamanoFlota; i++) {
+			flota.add(Flotas.crearBarco(i));
+		}
+		repositorio.adicionarBarcos(flota);
+		control = new ControlPuerto(repositorio);
+		siguiente = new AtomicInteger(tamanoFlota);
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrarParticiones() throws IOException {
+		repositorio.close();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public ResultadoRegistro registrar() {
+		Barco barco = Flotas.crearBarco(siguiente.getAndIncrement());
+		return control.registrarBarco(barco.getMatricula(), barco.getNacionalidad(), barco.getVolumen(),
+				'c', 0, false);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	public double calcularCapacidadTotal() {
+		return repositorio.calcularCapacidadTotal();
+	}
+}
@@ -0,0 +1,103 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.control.ResultadoRegistro;
+
+/**
+ * Costo de rechazar barcos (como en una carga masiva con muchos errores):
+ * cada operación intenta registrar un barco que se rechaza, rotando entre
+ * matrícula repetida, volumen incorrecto y tipo desconocido.
+ * - conExcepcion: adicionarBarco, con la traza de la pila (como antes).
+ * - sinTraza: adicionarBarco con usarErroresSinTraza(true).
+ * - conResultado: registrarBarco, que no crea excepciones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RechazosBenchmark {
+
+	@Param({ "10000" })
+	private int tamanoFlota;
+
+	private ControlPuerto control;
+	private ControlPuerto controlSinTraza;
+	private int intento;
+
+	@Setup(Level.Trial)
+	public void llenarPuerto() {
+		control = new ControlPuerto(Flotas.crearRepositorio("MapaBarcos", tamanoFlota));
+		controlSinTraza = new ControlPuerto(Flotas.crearRepositorio("MapaBarcos", tamanoFlota));
+		controlSinTraza.usarErroresSinTraza(true);
+	}
+
+	@Benchmark
+	public String conExcepcion() {
+		try {
+			adicionarRechazado(control);
+			return null;
+		} catch (BarcoException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Benchmark
+	public String sinTraza() {
+		try {
+			adicionarRechazado(controlSinTraza);
+			return null;
+		} catch (BarcoException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Benchmark
+	public ResultadoRegistro conResultado() {
+		int numero = intento++;
+		String matricula = Flotas.crearMatricula(numero % tamanoFlota);
+		switch (numero % 3) {
+		case 0:
+			return control.registrarBarco(matricula, "chilena", 100, 'v', 5, false);
+		case 1:
+			return control.registrarBarco("nuevo", "chilena", 5000, 'c', 0, true);
+		default:
+			return control.registrarBarco("nuevo", "chilena", 100, 'x', 0, false);
+		}
+	}
+
+	/**
+	 * Con los mismos datos de conResultado
+	 */
+	private void adicionarRechazado(ControlPuerto puerto) throws BarcoException {
+		int numero = intento++;
+		String matricula = Flotas.crearMatricula(numero % tamanoFlota);
+		switch (numero % 3) {
+		case 0:
+			puerto.adicionarBarco(matricula, "chilena", 100, 'v', 5, false);
+			break;
+		case 1:
+			puerto.adicionarBarco("nuevo", "chilena", 5000, 'c', 0, true);
+			break;
+		default:
+			puerto.adicionarBarco("nuevo", "chilena", 100, 'x', 0, false);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.ControlPuerto;
+import puertos.control.ResumenCapacidad;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Costo de obtener las estadísticas por nacionalidad y por tipo:
+ * recorriendo los barcos una vez por cada grupo (como se haría sin el
+ * resumen), con un solo recorrido (secuencial o paralelo), y leyendo el
+ * resumen que se mantiene en el modo incremental.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResumenCapacidadBenchmark {
+
+	@Param({ "10000", "1000000" })
+	private int tamanoFlota;
+
+	private RepositorioBarcos repositorio;
+	private ControlPuerto recorrido;
+	private ControlPuerto paralelo;
+	private ControlPuerto incremental;
+
+	@Setup
+	public void crearFlota() {
+		repositorio = Flotas.crearRepositorio("MapaBarcos", tamanoFlota);
+		recorrido = new ControlPuerto(repositorio);
+		paralelo = new ControlPuerto(repositorio);
+		paralelo.usarCalculoParalelo(ForkJoinPool.commonPool(), 0);
+		incremental = new ControlPuerto(repositorio, true);
+	}
+
+	/**
+	 * Un recorrido con filtro por cada nacionalidad y por cada tipo
+	 */
+	@Benchmark
+	public double recorridoPorGrupo() {
+		double suma = 0;
+		for (String nacionalidad : Flotas.NACIONALIDADES) {
+			for (Barco barco : repositorio.consultarBarcos()) {
+				if (nacionalidad.equals(barco.getNacionalidad())) {
+					suma += barco.calcularCapacidad();
+				}
+			}
+		}
+		for (Class<?> tipo : new Class<?>[] { Velero.class, Carguero.class }) {
+			for (Barco barco : repositorio.consultarBarcos()) {
+				if (tipo.isInstance(barco)) {
+					suma += barco.calcularCapacidad();
+				}
+			}
+		}
+		return suma;
+	}
+
+	@Benchmark
+	public ResumenCapacidad unRecorrido() {
+		return recorrido.calcularResumen();
+	}
+
+	@Benchmark
+	public ResumenCapacidad unRecorridoParalelo() {
+		return paralelo.calcularResumen();
+	}
+
+	@Benchmark
+	public ResumenCapacidad incremental() {
+		return incremental.consultarResumen();
+	}
+}
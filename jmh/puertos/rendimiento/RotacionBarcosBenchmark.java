@@ -0,0 +1,79 @@
+package puertos.rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Rotación de barcos en un puerto lleno (modo incremental): en cada
+ * operación sale el barco más antiguo y llega uno nuevo, así que la flota
+ * siempre tiene tamanoFlota barcos. Las iteraciones son largas (millones
+ * de llegadas y salidas) para ver que el tiempo por operación (con sus
+ * percentiles) y la memoria no crecen: al final de cada iteración se 
+ * imprime la memoria usada después de una recolección.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 6, time = 20)
+@Fork(value = 1, jvmArgs = { "-Xmx3g" })
+public class RotacionBarcosBenchmark {
+
+	@Param({ "MapaBarcos", "MapaBarcosConcurrente", "ColumnasBarcos" })
+	private String repositorio;
+
+	@Param({ "100000", "1000000" })
+	private int tamanoFlota;
+
+	private ControlPuerto control;
+	private int siguiente;
+
+	@Setup(Level.Trial)
+	public void llenarPuerto() {
+		RepositorioBarcos barcos = Flotas.crearRepositorio(repositorio, tamanoFlota);
+		control = new ControlPuerto(barcos, true);
+		siguiente = tamanoFlota;
+	}
+
+	@Benchmark
+	public Barco rotarBarco() throws BarcoException {
+		Barco saliente = control.retirarBarco(Flotas.crearMatricula(siguiente - tamanoFlota));
+		Barco barco = Flotas.crearBarco(siguiente++);
+		if (barco instanceof Velero) {
+			control.adicionarBarco(barco.getMatricula(), barco.getNacionalidad(), barco.getVolumen(),
+					'v', ((Velero) barco).getPasajeros(), false);
+		} else {
+			control.adicionarBarco(barco.getMatricula(), barco.getNacionalidad(), barco.getVolumen(),
+					'c', 0, ((Carguero) barco).getLiquidos());
+		}
+		return saliente;
+	}
+
+	@TearDown(Level.Iteration)
+	public void medirMemoria() {
+		System.gc();
+		Runtime memoria = Runtime.getRuntime();
+		System.out.printf("%n%d barcos rotados, memoria usada: %.1f MB%n", 
+				siguiente - tamanoFlota, (memoria.totalMemory() - memoria.freeMemory()) / 1e6);
+	}
+}
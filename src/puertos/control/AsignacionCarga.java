@@ -0,0 +1,119 @@
+package puertos.control;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carga;
+
+/**
+ * Resultado de repartir cargas entre los barcos del puerto: el barco que 
+ * le tocó a cada carga (en el mismo orden en que se dieron las cargas),
+ * o ninguno si no cupo.
+ * 
+ * @version 1.0
+ */
+public class AsignacionCarga {
+	private List<? extends Carga> cargas;
+	private Barco[] barcos;
+	private int[] barcoDeCarga;
+
+	AsignacionCarga(List<? extends Carga> cargas, Barco[] barcos, int[] barcoDeCarga) {
+		this.cargas = cargas;
+		this.barcos = barcos;
+		this.barcoDeCarga = barcoDeCarga;
+	}
+
+	/**
+	 * @return la cantidad de cargas que se debían repartir
+	 */
+	public int getCantidadCargas() {
+		return barcoDeCarga.length;
+	}
+
+	/**
+	 * @param posicion	la posición de la carga en la lista dada (desde 0)
+	 * @return el barco donde va la carga, o null si no cupo en ninguno
+	 */
+	public Barco getBarco(int posicion) {
+		int barco = barcoDeCarga[posicion];
+		return (barco < 0) ? null : barcos[barco];
+	}
+
+	public int getAsignadas() {
+		int asignadas = 0;
+		for (int barco : barcoDeCarga) {
+			if (barco >= 0) {
+				asignadas++;
+			}
+		}
+		return asignadas;
+	}
+
+	public int getSinAsignar() {
+		return barcoDeCarga.length - getAsignadas();
+	}
+
+	/**
+	 * @return la suma del volumen de las cargas que quedaron en algún barco, en m3
+	 */
+	public double getVolumenAsignado() {
+		double volumen = 0;
+		for (int carga = 0; carga < barcoDeCarga.length; carga++) {
+			if (barcoDeCarga[carga] >= 0) {
+				volumen += cargas.get(carga).getVolumen();
+			}
+		}
+		return volumen;
+	}
+
+	/**
+	 * @return las cargas que no cupieron en ningún barco
+	 */
+	public List<Carga> consultarSinAsignar() {
+		List<Carga> sinAsignar = new ArrayList<Carga>();
+		for (int carga = 0; carga < barcoDeCarga.length; carga++) {
+			if (barcoDeCarga[carga] < 0) {
+				sinAsignar.add(cargas.get(carga));
+			}
+		}
+		return sinAsignar;
+	}
+
+	/**
+	 * @return las cargas de cada barco (solo los barcos que recibieron alguna)
+	 */
+	public Map<Barco, List<Carga>> consultarCargasPorBarco() {
+		Map<Barco, List<Carga>> porBarco = new LinkedHashMap<Barco, List<Carga>>();
+		for (int carga = 0; carga < barcoDeCarga.length; carga++) {
+			if (barcoDeCarga[carga] >= 0) {
+				porBarco.computeIfAbsent(barcos[barcoDeCarga[carga]], 
+						barco -> new ArrayList<Carga>()).add(cargas.get(carga));
+			}
+		}
+		return porBarco;
+	}
+
+	/**
+	 * @return la cantidad de barcos que recibieron alguna carga
+	 */
+	public int getBarcosUsados() {
+		boolean[] usados = new boolean[barcos.length];
+		int cantidad = 0;
+		for (int barco : barcoDeCarga) {
+			if (barco >= 0 && !usados[barco]) {
+				usados[barco] = true;
+				cantidad++;
+			}
+		}
+		return cantidad;
+	}
+
+	@Override
+	public String toString() {
+		return getAsignadas() + " de " + barcoDeCarga.length + " cargas asignadas en "
+				+ getBarcosUsados() + " barcos";
+	}
+}
@@ -0,0 +1,360 @@
+package puertos.control;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carga;
+import puertos.entidades.Carguero;
+
+/**
+ * Reparte cargas entre los barcos según su capacidad (empaquetamiento en 
+ * recipientes de distinto tamaño). Primero se usa la heurística "mejor ajuste
+ * decreciente": las cargas se toman de mayor a menor (primero las líquidas,
+ * que tienen menos barcos posibles) y cada una va al barco donde queda menos
+ * espacio libre después de ponerla. Para encontrar ese barco, el espacio
+ * libre de los barcos está en dos árboles ordenados (los que llevan líquidos
+ * y los demás), así que cada carga toma tiempo logarítmico.
+ * Después, si se da un tiempo para mejorar, se intenta poner las cargas que
+ * quedaron sin barco moviendo a otro barco alguna de las ya asignadas, o 
+ * intercambiando cargas entre dos barcos, o cambiándolas por una más pequeña
+ * (cada cambio aumenta el volumen asignado).
+ * 
+ * @version 1.0
+ */
+class AsignadorCarga {
+
+	/**
+	 * Margen para comparar volúmenes, para que una carga que cabe exacta
+	 * no quede por fuera por el error de redondeo de las restas
+	 */
+	static final double TOLERANCIA = 1e-9;
+
+	/**
+	 * En la mejora, cuántos barcos (los de más espacio libre) se revisan
+	 * para cada carga sin asignar
+	 */
+	static final int CANDIDATOS_MEJORA = 32;
+
+	/**
+	 * El espacio libre de un barco, como elemento de los árboles; 
+	 * solo se modifica cuando está por fuera del árbol
+	 */
+	private static class Espacio implements Comparable<Espacio> {
+		final int barco;
+		double libre;
+
+		Espacio(int barco, double libre) {
+			this.barco = barco;
+			this.libre = libre;
+		}
+
+		@Override
+		public int compareTo(Espacio otro) {
+			int comparacion = Double.compare(libre, otro.libre);
+			return (comparacion != 0) ? comparacion : Integer.compare(barco, otro.barco);
+		}
+	}
+
+	private List<? extends Carga> cargas;
+	private double[] volumenes;
+	private boolean[] liquidas;
+	private Barco[] barcos;
+	private Espacio[] espacios;
+	private TreeSet<Espacio> espaciosLiquidos = new TreeSet<Espacio>();
+	private TreeSet<Espacio> espaciosSecos = new TreeSet<Espacio>();
+	// para buscar en los árboles sin crear objetos (barco -1 va antes 
+	// de todos los que tienen el mismo espacio libre)
+	private Espacio busqueda = new Espacio(-1, 0);
+
+	/** Barco de cada carga (posición en barcos), o -1 si no tiene */
+	private int[] barcoDeCarga;
+	/** Las cargas de cada barco, como listas enlazadas en arreglos */
+	private int[] primeraCarga;
+	private int[] siguienteCarga;
+
+	/**
+	 * @param barcos	los barcos disponibles
+	 * @param cargas	las cargas que se deben repartir
+	 * @throws IllegalArgumentException si alguna carga tiene volumen negativo
+	 */
+	AsignadorCarga(List<Barco> barcos, List<? extends Carga> cargas) {
+		this.cargas = cargas;
+		volumenes = new double[cargas.size()];
+		liquidas = new boolean[volumenes.length];
+		for (int carga = 0; carga < volumenes.length; carga++) {
+			volumenes[carga] = cargas.get(carga).getVolumen();
+			liquidas[carga] = cargas.get(carga).getLiquida();
+			if (!(volumenes[carga] >= 0)) {
+				throw new IllegalArgumentException("Volumen de carga incorrecto: " + cargas.get(carga));
+			}
+		}
+		barcoDeCarga = new int[volumenes.length];
+		Arrays.fill(barcoDeCarga, -1);
+		siguienteCarga = new int[volumenes.length];
+
+		this.barcos = barcos.toArray(new Barco[0]);
+		espacios = new Espacio[this.barcos.length];
+		primeraCarga = new int[this.barcos.length];
+		Arrays.fill(primeraCarga, -1);
+		for (int barco = 0; barco < espacios.length; barco++) {
+			espacios[barco] = new Espacio(barco, this.barcos[barco].calcularCapacidad());
+			arbolDe(barco).add(espacios[barco]);
+		}
+	}
+
+	/**
+	 * @param nanosegundosMejora	el tiempo máximo para la fase de mejora
+	 * 		(0 para solo usar la heurística)
+	 * @return la carga que quedó en cada barco
+	 */
+	AsignacionCarga asignar(long nanosegundosMejora) {
+		long limite = System.nanoTime() + nanosegundosMejora;
+		int[] orden = ordenarCargas();
+		for (int carga : orden) {
+			int barco = buscarBarco(carga);
+			if (barco >= 0) {
+				poner(carga, barco);
+			}
+		}
+		if (nanosegundosMejora > 0) {
+			mejorar(orden, limite);
+		}
+		return new AsignacionCarga(cargas, barcos, barcoDeCarga);
+	}
+
+	/**
+	 * @return las posiciones de las cargas: primero las líquidas y luego
+	 * 		las demás, cada grupo de mayor a menor volumen
+	 */
+	private int[] ordenarCargas() {
+		Integer[] orden = new Integer[volumenes.length];
+		for (int carga = 0; carga < orden.length; carga++) {
+			orden[carga] = carga;
+		}
+		Arrays.sort(orden, (carga1, carga2) -> {
+			boolean liquida1 = esLiquida(carga1);
+			if (liquida1 != esLiquida(carga2)) {
+				return liquida1 ? -1 : 1;
+			}
+			return Double.compare(volumenes[carga2], volumenes[carga1]);
+		});
+		int[] resultado = new int[orden.length];
+		for (int posicion = 0; posicion < orden.length; posicion++) {
+			resultado[posicion] = orden[posicion];
+		}
+		return resultado;
+	}
+
+	/**
+	 * Mientras quede tiempo, y mientras se logre poner alguna carga, 
+	 * se recorren las cargas sin asignar (de mayor a menor). Termina porque
+	 * cada cambio aumenta el volumen asignado.
+	 */
+	private void mejorar(int[] orden, long limite) {
+		boolean mejoro = true;
+		while (mejoro) {
+			mejoro = false;
+			for (int carga : orden) {
+				if (barcoDeCarga[carga] >= 0) {
+					continue;
+				}
+				if (System.nanoTime() - limite >= 0) {
+					return;
+				}
+				int[] candidatos = buscarCandidatos(carga);
+				if (moverOtra(carga, candidatos) || intercambiar(carga, candidatos)
+						|| cambiarPorMenor(carga, candidatos)) {
+					mejoro = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return los barcos con más espacio libre que pueden llevar la carga
+	 * 		(hasta CANDIDATOS_MEJORA de cada árbol)
+	 */
+	private int[] buscarCandidatos(int carga) {
+		int secos = esLiquida(carga) ? 0 : Math.min(CANDIDATOS_MEJORA, espaciosSecos.size());
+		int liquidos = Math.min(CANDIDATOS_MEJORA, espaciosLiquidos.size());
+		int[] candidatos = new int[secos + liquidos];
+		Iterator<Espacio> mayores = espaciosSecos.descendingIterator();
+		for (int i = 0; i < secos; i++) {
+			candidatos[i] = mayores.next().barco;
+		}
+		mayores = espaciosLiquidos.descendingIterator();
+		for (int i = secos; i < candidatos.length; i++) {
+			candidatos[i] = mayores.next().barco;
+		}
+		return candidatos;
+	}
+
+	/**
+	 * Busca un barco candidato con una carga que se pueda mover a otro barco
+	 * dejando espacio suficiente (de las que sirven se mueve la más pequeña)
+	 * 
+	 * @return true si se pudo poner la carga
+	 */
+	private boolean moverOtra(int carga, int[] candidatos) {
+		for (int barco : candidatos) {
+			double falta = volumenes[carga] - espacios[barco].libre;
+			if (falta <= TOLERANCIA) {
+				poner(carga, barco);
+				return true;
+			}
+			// se saca el barco del árbol para que lo que se mueva no vuelva a él
+			TreeSet<Espacio> arbol = arbolDe(barco);
+			arbol.remove(espacios[barco]);
+			int movida = -1;
+			int destino = -1;
+			for (int otra = primeraCarga[barco]; otra >= 0; otra = siguienteCarga[otra]) {
+				if (volumenes[otra] + TOLERANCIA >= falta 
+						&& (movida < 0 || volumenes[otra] < volumenes[movida])) {
+					int barcoOtra = buscarBarco(otra);
+					if (barcoOtra >= 0) {
+						movida = otra;
+						destino = barcoOtra;
+					}
+				}
+			}
+			arbol.add(espacios[barco]);
+			if (movida >= 0) {
+				quitar(movida);
+				poner(movida, destino);
+				poner(carga, barco);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Busca dos barcos candidatos donde, al cambiar una carga del primero
+	 * por una más pequeña del segundo, en el primero quede espacio suficiente
+	 * (y la diferencia quepa en el segundo)
+	 * 
+	 * @return true si se pudo poner la carga
+	 */
+	private boolean intercambiar(int carga, int[] candidatos) {
+		for (int barco : candidatos) {
+			double falta = volumenes[carga] - espacios[barco].libre;
+			for (int otro : candidatos) {
+				if (otro == barco) {
+					continue;
+				}
+				for (int sale = primeraCarga[barco]; sale >= 0; sale = siguienteCarga[sale]) {
+					if (!puedeIr(sale, otro)) {
+						continue;
+					}
+					for (int entra = primeraCarga[otro]; entra >= 0; entra = siguienteCarga[entra]) {
+						double diferencia = volumenes[sale] - volumenes[entra];
+						if (diferencia + TOLERANCIA >= falta 
+								&& diferencia <= espacios[otro].libre + TOLERANCIA
+								&& puedeIr(entra, barco)) {
+							quitar(sale);
+							quitar(entra);
+							poner(sale, otro);
+							poner(entra, barco);
+							poner(carga, barco);
+							return true;
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Si no se logra poner la carga sin sacar otra, se cambia por la carga
+	 * más pequeña (de un barco candidato) que le deje espacio; así queda 
+	 * más volumen asignado, y la que sale se puede intentar poner después.
+	 * 
+	 * @return true si se hizo el cambio
+	 */
+	private boolean cambiarPorMenor(int carga, int[] candidatos) {
+		int cambiada = -1;
+		for (int barco : candidatos) {
+			double falta = volumenes[carga] - espacios[barco].libre;
+			for (int otra = primeraCarga[barco]; otra >= 0; otra = siguienteCarga[otra]) {
+				if (volumenes[otra] + TOLERANCIA >= falta && volumenes[otra] < volumenes[carga]
+						&& (cambiada < 0 || volumenes[otra] < volumenes[cambiada])) {
+					cambiada = otra;
+				}
+			}
+		}
+		if (cambiada < 0) {
+			return false;
+		}
+		int barco = barcoDeCarga[cambiada];
+		quitar(cambiada);
+		poner(carga, barco);
+		return true;
+	}
+
+	/**
+	 * @return el barco (de los que pueden llevar la carga) donde queda menos
+	 * 		espacio libre después de ponerla, o -1 si no cabe en ninguno
+	 */
+	private int buscarBarco(int carga) {
+		busqueda.libre = volumenes[carga] - TOLERANCIA;
+		Espacio mejor = espaciosLiquidos.ceiling(busqueda);
+		if (!esLiquida(carga)) {
+			Espacio seco = espaciosSecos.ceiling(busqueda);
+			if (mejor == null || (seco != null && seco.compareTo(mejor) < 0)) {
+				mejor = seco;
+			}
+		}
+		return (mejor == null) ? -1 : mejor.barco;
+	}
+
+	private void poner(int carga, int barco) {
+		TreeSet<Espacio> arbol = arbolDe(barco);
+		Espacio espacio = espacios[barco];
+		arbol.remove(espacio);
+		espacio.libre = Math.max(espacio.libre - volumenes[carga], 0);
+		arbol.add(espacio);
+		barcoDeCarga[carga] = barco;
+		siguienteCarga[carga] = primeraCarga[barco];
+		primeraCarga[barco] = carga;
+	}
+
+	private void quitar(int carga) {
+		int barco = barcoDeCarga[carga];
+		if (primeraCarga[barco] == carga) {
+			primeraCarga[barco] = siguienteCarga[carga];
+		} else {
+			int anterior = primeraCarga[barco];
+			while (siguienteCarga[anterior] != carga) {
+				anterior = siguienteCarga[anterior];
+			}
+			siguienteCarga[anterior] = siguienteCarga[carga];
+		}
+		TreeSet<Espacio> arbol = arbolDe(barco);
+		Espacio espacio = espacios[barco];
+		arbol.remove(espacio);
+		espacio.libre += volumenes[carga];
+		arbol.add(espacio);
+		barcoDeCarga[carga] = -1;
+	}
+
+	/**
+	 * @return true si el barco puede llevar la carga (sin revisar el espacio)
+	 */
+	private boolean puedeIr(int carga, int barco) {
+		return !esLiquida(carga) || arbolDe(barco) == espaciosLiquidos;
+	}
+
+	private boolean esLiquida(int carga) {
+		return liquidas[carga];
+	}
+
+	private TreeSet<Espacio> arbolDe(int barco) {
+		Barco datos = barcos[barco];
+		boolean liquidos = (datos instanceof Carguero) && ((Carguero) datos).getLiquidos();
+		return liquidos ? espaciosLiquidos : espaciosSecos;
+	}
+}
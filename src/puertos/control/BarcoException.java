@@ -4,11 +4,21 @@ package puertos.control;
  * Excepciones relacionadas con el registro de barcos en el puerto,
  * expecialmente por no cumplir alguna regla del negocio.
  * 
- * @version 1.0
+ * @version 1.1
  */
 public class BarcoException extends Exception {
 
 	public BarcoException(String mensaje) {
 		super(mensaje);
 	}
+
+	/**
+	 * @param conTraza	si es false, no se guarda la traza de la pila (ni se
+	 * 			permiten excepciones suprimidas), así que crearla cuesta 
+	 * 			mucho menos; sirve cuando los rechazos son frecuentes y 
+	 * 			solo interesa el mensaje
+	 */
+	public BarcoException(String mensaje, boolean conTraza) {
+		super(mensaje, null, conTraza, conTraza);
+	}
 }
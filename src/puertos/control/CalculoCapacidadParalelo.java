@@ -0,0 +1,64 @@
+package puertos.control;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import puertos.entidades.Barco;
+
+/**
+ * Tarea (fork-join) que calcula la capacidad de una parte de la lista de
+ * barcos: si la parte es grande la divide en dos mitades que se calculan
+ * en paralelo, y si es pequeña la suma directamente (con suma compensada).
+ * La lista debe permitir acceso directo por posición (RandomAccess).
+ * 
+ * @version 1.2
+ */
+class CalculoCapacidadParalelo extends RecursiveTask<Double> {
+	private static final long serialVersionUID = 1L;
+
+	private final List<Barco> barcos;
+	private final int desde;
+	private final int hasta;
+	private final int tamanoBloque;
+
+	/**
+	 * @param barcos	la lista completa de barcos
+	 * @param desde	la primera posición que se calcula
+	 * @param hasta	la posición siguiente a la última que se calcula
+	 * @param tamanoBloque	cantidad de barcos a partir de la cual ya no se divide
+	 */
+	CalculoCapacidadParalelo(List<Barco> barcos, int desde, int hasta, int tamanoBloque) {
+		this.barcos = barcos;
+		this.desde = desde;
+		this.hasta = hasta;
+		this.tamanoBloque = tamanoBloque;
+	}
+
+	@Override
+	protected Double compute() {
+		if (hasta - desde <= tamanoBloque) {
+			// la misma suma compensada de SumaCompensada, en variables locales
+			double suma = 0;
+			double compensacion = 0;
+			for (int i = desde; i < hasta; i++) {
+				double valor = barcos.get(i).calcularCapacidad();
+				double nuevaSuma = suma + valor;
+				if (Math.abs(suma) >= Math.abs(valor)) {
+					compensacion += (suma - nuevaSuma) + valor;
+				} else {
+					compensacion += (valor - nuevaSuma) + suma;
+				}
+				suma = nuevaSuma;
+			}
+			return suma + compensacion;
+		}
+		int mitad = (desde + hasta) >>> 1;
+		CalculoCapacidadParalelo izquierda = 
+				new CalculoCapacidadParalelo(barcos, desde, mitad, tamanoBloque);
+		CalculoCapacidadParalelo derecha = 
+				new CalculoCapacidadParalelo(barcos, mitad, hasta, tamanoBloque);
+		izquierda.fork();
+		double totalDerecha = derecha.compute();
+		return izquierda.join() + totalDerecha;
+	}
+}
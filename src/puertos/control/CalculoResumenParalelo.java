@@ -0,0 +1,50 @@
+package puertos.control;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import puertos.entidades.Barco;
+
+/**
+ * Tarea (fork-join) que calcula el resumen de capacidad de una parte de
+ * la lista de barcos, dividiéndola en mitades mientras sea grande, y
+ * combinando luego los resúmenes de las dos mitades.
+ * La lista debe permitir acceso directo por posición (RandomAccess).
+ * 
+ * @version 1.0
+ */
+class CalculoResumenParalelo extends RecursiveTask<ResumenCapacidad> {
+	private static final long serialVersionUID = 1L;
+
+	private final List<Barco> barcos;
+	private final int desde;
+	private final int hasta;
+	private final int tamanoBloque;
+
+	CalculoResumenParalelo(List<Barco> barcos, int desde, int hasta, int tamanoBloque) {
+		this.barcos = barcos;
+		this.desde = desde;
+		this.hasta = hasta;
+		this.tamanoBloque = tamanoBloque;
+	}
+
+	@Override
+	protected ResumenCapacidad compute() {
+		if (hasta - desde <= tamanoBloque) {
+			ResumenCapacidad resumen = new ResumenCapacidad();
+			for (int i = desde; i < hasta; i++) {
+				resumen.agregar(barcos.get(i));
+			}
+			return resumen;
+		}
+		int mitad = (desde + hasta) >>> 1;
+		CalculoResumenParalelo izquierda = 
+				new CalculoResumenParalelo(barcos, desde, mitad, tamanoBloque);
+		CalculoResumenParalelo derecha = 
+				new CalculoResumenParalelo(barcos, mitad, hasta, tamanoBloque);
+		izquierda.fork();
+		ResumenCapacidad resumen = derecha.compute();
+		resumen.combinar(izquierda.join());
+		return resumen;
+	}
+}
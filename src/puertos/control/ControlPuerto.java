@@ -1,10 +1,27 @@
 package puertos.control;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import puertos.entidades.Barco;
+import puertos.entidades.Carga;
 import puertos.entidades.Carguero;
 import puertos.entidades.Velero;
+import puertos.eventos.CanalEventos;
+import puertos.eventos.TipoEvento;
+import puertos.metricas.MetricasPuerto;
+import puertos.metricas.Operacion;
+import puertos.metricas.Rechazo;
 import puertos.persistencia.ListaBarcos;
 import puertos.persistencia.RepositorioBarcos;
 
@@ -12,12 +29,53 @@ import puertos.persistencia.RepositorioBarcos;
  * Clase donde se registran los barcos que llegan al puerto, y tiene la
  * principales funciones del programa (lógica el negocio).
  * 
- * @version 4.1
+ * @version 4.14
  */
 public class ControlPuerto {
 
 	private RepositorioBarcos repositorio;
 	final double VOLUMEN_MAXIMO = 1000;
+	
+	/**
+	 * Capacidad total, resumen por grupos e índice por capacidad que se van
+	 * actualizando con cada barco registrado. Son null cuando no se usa
+	 * el modo incremental.
+	 */
+	private SumaCompensada capacidadAcumulada;
+	private ResumenCapacidad resumenAcumulado;
+	private IndiceCapacidad indiceCapacidad;
+	
+	/**
+	 * Candados por matrícula (cada uno cubre las matrículas con el mismo
+	 * residuo de su hash): el cambio en el repositorio y la actualización
+	 * de lo que se mantiene en el modo incremental se hacen con el candado
+	 * de la matrícula, así que las operaciones sobre un mismo barco quedan
+	 * en el mismo orden en los dos (nunca se quita del resumen o del índice
+	 * un barco antes de haberlo agregado). Barcos distintos casi siempre
+	 * tienen candados distintos, y no se esperan entre sí.
+	 */
+	private static final int CANDADOS = 64;
+	private final ReentrantLock[] candados = crearCandados();
+	
+	/**
+	 * Hilos con que se calcula la capacidad en paralelo, 
+	 * o null si se calcula de forma secuencial.
+	 */
+	private ForkJoinPool hilosCalculo;
+	private int umbralParalelo;
+	
+	/**
+	 * Donde se registran los tiempos de las operaciones y los rechazos,
+	 * o null si no se miden.
+	 */
+	private MetricasPuerto metricas;
+	private boolean erroresSinTraza;
+	
+	/**
+	 * Donde se publican las llegadas, salidas y actualizaciones de barcos,
+	 * o null si no se publican.
+	 */
+	private volatile CanalEventos eventos;
 
 	public ControlPuerto() {
 		repositorio = new ListaBarcos();
@@ -27,19 +85,344 @@ public class ControlPuerto {
 		this.repositorio = repositorio;
 	}
 
+	/**
+	 * @param repositorio	donde se guardan los barcos
+	 * @param capacidadIncremental	si es true, la capacidad total (el resumen
+	 * 			por grupos y el índice por capacidad) se mantiene actualizada
+	 * 			cada vez que se registra un barco, así que calcularCapacidadTotal,
+	 * 			consultarResumen y las consultas por capacidad no tienen que
+	 * 			recorrer todos los barcos.
+	 * 			Para esto, los barcos solo se deben adicionar, retirar y 
+	 * 			actualizar por medio de esta clase (no directamente en
+	 * 			el repositorio).
+	 */
+	public ControlPuerto(RepositorioBarcos repositorio, boolean capacidadIncremental) {
+		this.repositorio = repositorio;
+		if (capacidadIncremental) {
+			capacidadAcumulada = new SumaCompensada();
+			capacidadAcumulada.sumar(repositorio.calcularCapacidadTotal());
+			resumenAcumulado = calcularResumen();
+			indiceCapacidad = new IndiceCapacidad();
+			for (Barco barco : repositorio.consultarBarcos()) {
+				indiceCapacidad.agregar(barco);
+			}
+		}
+	}
+
+	/**
+	 * Hace que calcularCapacidadTotal divida los barcos entre varios hilos,
+	 * cuando hay al menos cierta cantidad de barcos (si hay menos, el costo 
+	 * de repartir el trabajo es mayor que la ganancia, y se calcula de forma
+	 * secuencial). No tiene efecto en el modo incremental.
+	 * El resultado puede diferir del secuencial por el orden de las sumas,
+	 * pero como máximo en el error de redondeo de la suma secuencial:
+	 * cantidad de barcos × 1.1e-16 × capacidad total.
+	 * 
+	 * @param hilos	los hilos (ForkJoinPool) donde se hace el cálculo,
+	 * 			por ejemplo ForkJoinPool.commonPool()
+	 * @param umbral	cantidad mínima de barcos para calcular en paralelo
+	 */
+	public void usarCalculoParalelo(ForkJoinPool hilos, int umbral) {
+		this.hilosCalculo = hilos;
+		this.umbralParalelo = umbral;
+	}
+
+	/**
+	 * Vuelve al cálculo secuencial de la capacidad total
+	 */
+	public void usarCalculoSecuencial() {
+		this.hilosCalculo = null;
+	}
+
+	/**
+	 * Hace que las BarcoException de las reglas del negocio se creen sin
+	 * la traza de la pila, que es lo que más cuesta al crearlas, para quienes
+	 * usan adicionarBarco con muchos rechazos y no necesitan saber dónde se 
+	 * lanzó (el mensaje es el mismo). Para no crear excepciones, se usa 
+	 * registrarBarco.
+	 * 
+	 * @param sinTraza	true para crearlas sin traza, false (por defecto) con traza
+	 */
+	public void usarErroresSinTraza(boolean sinTraza) {
+		this.erroresSinTraza = sinTraza;
+	}
+
+	/**
+	 * Empieza a medir el tiempo de adicionarBarco, adicionarBarcos,
+	 * retirarBarco, actualizarBarco y calcularCapacidadTotal, y a contar
+	 * los rechazos por cada regla del negocio. Para medir también el
+	 * repositorio, se usa un RepositorioMedido con las mismas métricas.
+	 * Sin métricas (por defecto), cada operación solo revisa que no hay.
+	 * 
+	 * @param metricas	donde se registran, o null para dejar de medir
+	 */
+	public void usarMetricas(MetricasPuerto metricas) {
+		this.metricas = metricas;
+	}
+
+	/**
+	 * @return las métricas que se están usando, o null si no se mide
+	 */
+	public MetricasPuerto getMetricas() {
+		return metricas;
+	}
+
+	/**
+	 * Empieza a publicar en el canal un evento por cada barco que queda
+	 * registrado (con adicionarBarco, registrarBarco o adicionarBarcos),
+	 * que se retira o que se actualiza, después de guardarlo en el
+	 * repositorio y con el mismo candado de la matrícula, así que los eventos
+	 * de un mismo barco salen en el orden en que se hicieron los cambios.
+	 * Si el canal espera cuando está lleno, estas operaciones esperan con él.
+	 * 
+	 * @param eventos	donde se publican, o null para dejar de publicar
+	 */
+	public void usarEventos(CanalEventos eventos) {
+		this.eventos = eventos;
+	}
+
+	/**
+	 * @return el canal donde se publican los eventos, o null si no se publican
+	 */
+	public CanalEventos getEventos() {
+		return eventos;
+	}
+
 	/**
 	 * Calcula la capacidad de todos los barcos en el puerto, 
 	 * para poder determinar la carga que puede recibir.
+	 * En el modo incremental solo retorna el valor que ya se tiene calculado.
 	 * 
+	 * @see #usarCalculoParalelo(ForkJoinPool, int)
 	 * @return la capacidad total de los barcos, en m3
 	 */
 	public double calcularCapacidadTotal() {
-		double capacidadTotal = 0;
+		long inicio = iniciarMedicion(Operacion.CAPACIDAD_TOTAL);
+		try {
+			if (capacidadAcumulada != null) {
+				return capacidadAcumulada.getValor();
+			}
+			// solo se arma la lista si se va a calcular en paralelo
+			ForkJoinPool hilos = hilosCalculo;
+			if (hilos != null && repositorio.contarBarcos() >= umbralParalelo) {
+				return calcularCapacidadParalela(hilos, repositorio.consultarBarcos());
+			}
+			return repositorio.calcularCapacidadTotal();
+		} finally {
+			terminarMedicion(Operacion.CAPACIDAD_TOTAL, inicio);
+		}
+	}
+
+	private double calcularCapacidadParalela(ForkJoinPool hilos, List<Barco> barcos) {
+		if (!(barcos instanceof RandomAccess)) {
+			barcos = new ArrayList<Barco>(barcos);
+		}
+		return hilos.invoke(new CalculoCapacidadParalelo(barcos, 0, barcos.size(), 
+				calcularTamanoBloque(hilos, barcos.size())));
+	}
+
+	/**
+	 * Para repartir bien el trabajo se hacen unos cuatro bloques por hilo
+	 */
+	private static int calcularTamanoBloque(ForkJoinPool hilos, int cantidad) {
+		return Math.max(cantidad / (hilos.getParallelism() * 4), 1024);
+	}
+
+	/**
+	 * Consulta las estadísticas de los barcos del puerto (cantidad, capacidad
+	 * y volumen) en total, por nacionalidad, por tipo de barco y para los 
+	 * cargueros que llevan líquidos. En el modo incremental se retorna una
+	 * copia del resumen que ya se tiene; si no, se calcula (en paralelo, 
+	 * si así se configuró).
+	 * 
+	 * @return el resumen de los barcos registrados
+	 */
+	public ResumenCapacidad consultarResumen() {
+		if (resumenAcumulado != null) {
+			return resumenAcumulado.copiar();
+		}
+		return calcularResumen();
+	}
+
+	/**
+	 * Calcula el resumen por grupos recorriendo todos los barcos una sola vez
+	 * (sin importar el modo incremental); si se configuró el cálculo en 
+	 * paralelo y hay suficientes barcos, el recorrido se divide entre los hilos.
+	 * 
+	 * @return el resumen de los barcos registrados
+	 */
+	public ResumenCapacidad calcularResumen() {
 		List<Barco> barcos = repositorio.consultarBarcos();
+		ForkJoinPool hilos = hilosCalculo;
+		if (hilos != null && barcos.size() >= umbralParalelo) {
+			if (!(barcos instanceof RandomAccess)) {
+				barcos = new ArrayList<Barco>(barcos);
+			}
+			return hilos.invoke(new CalculoResumenParalelo(barcos, 0, barcos.size(),
+					calcularTamanoBloque(hilos, barcos.size())));
+		}
+		ResumenCapacidad resumen = new ResumenCapacidad();
 		for (Barco barco : barcos) {
-			capacidadTotal += barco.calcularCapacidad();
+			resumen.agregar(barco);
+		}
+		return resumen;
+	}
+
+	/**
+	 * Consulta los barcos que más carga pueden recibir.
+	 * En el modo incremental se usa el índice por capacidad (tiempo 
+	 * logarítmico más la cantidad pedida); si no, se recorren todos los barcos.
+	 * 
+	 * @param cantidad	cuántos barcos se quieren
+	 * @return los barcos con mayor capacidad, de mayor a menor
+	 * 		(con la misma capacidad, por matrícula de mayor a menor)
+	 */
+	public List<Barco> consultarMayoresCapacidades(int cantidad) {
+		if (cantidad <= 0) {
+			return new ArrayList<Barco>();
+		}
+		if (indiceCapacidad != null) {
+			return indiceCapacidad.consultarMayores(cantidad);
+		}
+		// se guardan solo los mayores, con el menor de ellos de primero
+		PriorityQueue<Barco> mayores = new PriorityQueue<Barco>(
+				(barco1, barco2) -> IndiceCapacidad.comparar(barco1.calcularCapacidad(), barco1,
+						barco2.calcularCapacidad(), barco2));
+		for (Barco barco : repositorio.consultarBarcos()) {
+			mayores.add(barco);
+			if (mayores.size() > cantidad) {
+				mayores.poll();
+			}
+		}
+		List<Barco> resultado = new ArrayList<Barco>(mayores.size());
+		while (!mayores.isEmpty()) {
+			resultado.add(mayores.poll());
+		}
+		Collections.reverse(resultado);
+		return resultado;
+	}
+
+	/**
+	 * @param capacidadMinima	la carga que se desea poner, en m3
+	 * @return la cantidad de barcos que pueden recibir esa carga
+	 * 		(con capacidad mayor o igual); en el modo incremental se usa
+	 * 		el índice por capacidad
+	 */
+	public int contarBarcosConCapacidad(double capacidadMinima) {
+		if (indiceCapacidad != null) {
+			return indiceCapacidad.contarDesde(capacidadMinima);
+		}
+		int cantidad = 0;
+		for (Barco barco : repositorio.consultarBarcos()) {
+			if (barco.calcularCapacidad() >= capacidadMinima) {
+				cantidad++;
+			}
+		}
+		return cantidad;
+	}
+
+	/**
+	 * @param capacidadMinima	la capacidad mínima, en m3
+	 * @return la suma de la capacidad de los barcos con capacidad mayor
+	 * 		o igual a la mínima; en el modo incremental se usa el índice
+	 */
+	public double sumarCapacidadDesde(double capacidadMinima) {
+		if (indiceCapacidad != null) {
+			return indiceCapacidad.sumarDesde(capacidadMinima);
+		}
+		double suma = 0;
+		for (Barco barco : repositorio.consultarBarcos()) {
+			double capacidad = barco.calcularCapacidad();
+			if (capacidad >= capacidadMinima) {
+				suma += capacidad;
+			}
 		}
-		return capacidadTotal;
+		return suma;
+	}
+
+	/**
+	 * Busca el barco más pequeño donde cabe una carga, para no ocupar
+	 * un barco grande con una carga pequeña.
+	 * En el modo incremental se usa el índice por capacidad.
+	 * 
+	 * @param carga	el tamaño de la carga, en m3
+	 * @return el barco con la menor capacidad que sea mayor o igual a la
+	 * 		carga (con la misma capacidad, el de menor matrícula),
+	 * 		o null si la carga no cabe en ningún barco
+	 */
+	public Barco buscarBarcoParaCarga(double carga) {
+		if (indiceCapacidad != null) {
+			return indiceCapacidad.buscarMenorDesde(carga);
+		}
+		Barco menor = null;
+		double capacidadMenor = 0;
+		for (Barco barco : repositorio.consultarBarcos()) {
+			double capacidad = barco.calcularCapacidad();
+			if (capacidad >= carga && (menor == null 
+					|| IndiceCapacidad.comparar(capacidad, barco, capacidadMenor, menor) < 0)) {
+				menor = barco;
+				capacidadMenor = capacidad;
+			}
+		}
+		return menor;
+	}
+
+	/**
+	 * Reparte las cargas entre los barcos del puerto, según la capacidad de
+	 * cada barco (en un barco pueden ir varias cargas mientras quepan).
+	 * Las cargas líquidas solo van en cargueros que lleven líquidos.
+	 * Se usa la heurística de mejor ajuste decreciente, que no siempre 
+	 * encuentra el mejor reparto posible.
+	 * 
+	 * @param cargas	las cargas que se desean poner
+	 * @return el barco que le tocó a cada carga (o ninguno, si no cupo)
+	 */
+	public AsignacionCarga asignarCarga(List<? extends Carga> cargas) {
+		return asignarCarga(cargas, 0);
+	}
+
+	/**
+	 * Igual que asignarCarga(List), pero después de la heurística se usa
+	 * hasta cierto tiempo para intentar poner las cargas que no cupieron,
+	 * moviendo cargas ya asignadas a otros barcos.
+	 * 
+	 * @param cargas	las cargas que se desean poner
+	 * @param milisegundosMejora	el tiempo máximo para la mejora
+	 * @return el barco que le tocó a cada carga (o ninguno, si no cupo)
+	 */
+	public AsignacionCarga asignarCarga(List<? extends Carga> cargas, long milisegundosMejora) {
+		AsignadorCarga asignador = new AsignadorCarga(repositorio.consultarBarcos(), cargas);
+		return asignador.asignar(TimeUnit.MILLISECONDS.toNanos(milisegundosMejora));
+	}
+
+	/**
+	 * Calcula la capacidad total recorriendo todos los barcos del repositorio
+	 * (sin importar el modo), usando suma compensada.
+	 * 
+	 * @return la capacidad total de los barcos, en m3
+	 */
+	public double recalcularCapacidadTotal() {
+		SumaCompensada capacidadTotal = new SumaCompensada();
+		for (Barco barco : repositorio.consultarBarcos()) {
+			capacidadTotal.sumar(barco.calcularCapacidad());
+		}
+		return capacidadTotal.getValor();
+	}
+
+	/**
+	 * Compara la capacidad que se tiene acumulada (modo incremental)
+	 * con la que resulta de recorrer todos los barcos.
+	 * 
+	 * @return true si los dos valores coinciden (con una tolerancia relativa
+	 * 		de 1e-9), o si no se está usando el modo incremental
+	 */
+	public boolean verificarCapacidadTotal() {
+		if (capacidadAcumulada == null) {
+			return true;
+		}
+		double capacidadReal = recalcularCapacidadTotal();
+		double diferencia = Math.abs(capacidadAcumulada.getValor() - capacidadReal);
+		return diferencia <= 1e-9 * Math.max(1, Math.abs(capacidadReal));
 	}
 
 	/**
@@ -47,39 +430,429 @@ public class ControlPuerto {
 	 * guarda.
 	 * 
 	 * @see puertos.entidades.Barco#Barco(String, String, double)
+	 * @see #registrarBarco(String, String, double, char, int, boolean)
 	 * @param tipo      qué tipo de barco es: 'v' para velero, 'c' para carguero
 	 * @param pasajeros la cantidad de pasajeros que lleva el barco 
 	 * 					(solo sirve para veleros)
 	 * @param liquidos  indicación (true/false) de si puede llevar líquidos o no
 	 *                  (solo aplica para cargueros)
 	 * @throws BarcoException cuando algunos de las reglas del negocio no se cumple
+	 * 		(matrícula repetida, volumen incorrecto o tipo desconocido)
 	 */
 	public void adicionarBarco(String matricula, String nacionalidad, double volumen, char tipo, int pasajeros,
 			boolean liquidos) throws BarcoException {
+		ResultadoRegistro resultado = registrarBarco(matricula, nacionalidad, volumen, tipo, 
+				pasajeros, liquidos);
+		if (resultado != ResultadoRegistro.REGISTRADO && resultado != ResultadoRegistro.FALLA_REPOSITORIO) {
+			throw crearError(resultado);
+		}
+	}
 
-		if (existeMatricula(matricula)) {
-			throw new BarcoException("No se puede guardar: " +
-						"Ya existe un barco registrado con esa matrícula");
+	/**
+	 * Registra un barco con las mismas reglas de adicionarBarco, pero en 
+	 * lugar de lanzar una excepción cuando no se cumple alguna, retorna
+	 * la razón. Así no se crea la excepción (con la traza de la pila), que
+	 * es lo que más cuesta cuando hay muchos rechazos, por ejemplo en una
+	 * carga masiva.
+	 * 
+	 * @see #adicionarBarco(String, String, double, char, int, boolean)
+	 * @return REGISTRADO si el barco quedó guardado, o la razón por la que no
+	 */
+	public ResultadoRegistro registrarBarco(String matricula, String nacionalidad, double volumen, 
+			char tipo, int pasajeros, boolean liquidos) {
+		long inicio = iniciarMedicion(Operacion.REGISTRAR_BARCO);
+		try {
+			ResultadoRegistro resultado = validarBarco(matricula, volumen, tipo);
+			if (resultado == null) {
+				resultado = guardarBarco(crearBarco(matricula, nacionalidad, volumen, tipo, 
+						pasajeros, liquidos));
+			}
+			if (resultado != ResultadoRegistro.REGISTRADO) {
+				contarRechazo(resultado);
+			}
+			return resultado;
+		} finally {
+			terminarMedicion(Operacion.REGISTRAR_BARCO, inicio);
 		}
+	}
 
+	/**
+	 * Revisa las reglas para registrar un barco, sin registrarlo: que la 
+	 * matrícula no esté registrada, que el volumen esté permitido y que 
+	 * el tipo exista ('v' o 'c'), en ese orden.
+	 * 
+	 * @return null si se cumplen todas las reglas, o la razón de la 
+	 * 		primera que no se cumple
+	 */
+	public ResultadoRegistro validarBarco(String matricula, double volumen, char tipo) {
+		if (existeMatricula(matricula)) {
+			return ResultadoRegistro.MATRICULA_REPETIDA;
+		}
 		if (!esVolumenPermitido(volumen)) {
-			throw new BarcoException("Volumen incorrecto: " +
-						"debe estar entre 0 y " + VOLUMEN_MAXIMO);
+			return ResultadoRegistro.VOLUMEN_INCORRECTO;
+		}
+		if (!esTipoConocido(tipo)) {
+			return ResultadoRegistro.TIPO_DESCONOCIDO;
 		}
+		return null;
+	}
 
+	private ResultadoRegistro guardarBarco(Barco barco) {
+		// otra terminal pudo registrar la misma matrícula después de la 
+		// validación, por eso se adiciona solo si todavía no existe
+		ReentrantLock candado = obtenerCandado(barco.getMatricula());
+		candado.lock();
+		try {
+			if (repositorio.adicionarSiNoExiste(barco)) {
+				registrarAdicion(barco);
+				publicarEvento(TipoEvento.LLEGADA, barco);
+				return ResultadoRegistro.REGISTRADO;
+			}
+		} finally {
+			candado.unlock();
+		}
+		if (existeMatricula(barco.getMatricula())) {
+			return ResultadoRegistro.MATRICULA_REPETIDA;
+		}
+		return ResultadoRegistro.FALLA_REPOSITORIO;
+	}
+
+	/**
+	 * Se retira un barco del puerto (cuando sale), es decir, se elimina del
+	 * repositorio. En el modo incremental se descuenta de la capacidad
+	 * total, del resumen y del índice por capacidad (en tiempo logarítmico).
+	 * 
+	 * @param matricula	la matrícula del barco que sale
+	 * @return el barco que se retiró
+	 * @throws BarcoException si no hay un barco registrado con esa matrícula
+	 */
+	public Barco retirarBarco(String matricula) throws BarcoException {
+		long inicio = iniciarMedicion(Operacion.RETIRAR_BARCO);
+		try {
+			Barco barco;
+			ReentrantLock candado = obtenerCandado(matricula);
+			candado.lock();
+			try {
+				barco = repositorio.eliminarBarco(matricula);
+				if (barco != null) {
+					registrarRetiro(barco);
+					publicarEvento(TipoEvento.SALIDA, barco);
+				}
+			} finally {
+				candado.unlock();
+			}
+			if (barco == null) {
+				throw crearErrorMatriculaInexistente();
+			}
+			return barco;
+		} finally {
+			terminarMedicion(Operacion.RETIRAR_BARCO, inicio);
+		}
+	}
+
+	/**
+	 * Se cambian los datos de un barco ya registrado (con las mismas 
+	 * reglas de adicionarBarco para el volumen). 
+	 * 
+	 * @see #adicionarBarco(String, String, double, char, int, boolean)
+	 * @param matricula	la matrícula del barco que se actualiza (no cambia)
+	 * @throws BarcoException si no hay un barco con esa matrícula, o el
+	 * 		volumen o el tipo no son correctos
+	 */
+	public void actualizarBarco(String matricula, String nacionalidad, double volumen, char tipo, 
+			int pasajeros, boolean liquidos) throws BarcoException {
+		long inicio = iniciarMedicion(Operacion.ACTUALIZAR_BARCO);
+		try {
+			if (!esVolumenPermitido(volumen)) {
+				contarRechazo(ResultadoRegistro.VOLUMEN_INCORRECTO);
+				throw crearError(ResultadoRegistro.VOLUMEN_INCORRECTO);
+			}
+			if (!esTipoConocido(tipo)) {
+				contarRechazo(ResultadoRegistro.TIPO_DESCONOCIDO);
+				throw crearError(ResultadoRegistro.TIPO_DESCONOCIDO);
+			}
+			Barco barco = crearBarco(matricula, nacionalidad, volumen, tipo, pasajeros, liquidos);
+			Barco anterior;
+			ReentrantLock candado = obtenerCandado(matricula);
+			candado.lock();
+			try {
+				anterior = repositorio.actualizarBarco(barco);
+				if (anterior != null) {
+					registrarRetiro(anterior);
+					registrarAdicion(barco);
+					publicarEvento(TipoEvento.ACTUALIZACION, barco);
+				}
+			} finally {
+				candado.unlock();
+			}
+			if (anterior == null) {
+				throw crearErrorMatriculaInexistente();
+			}
+		} finally {
+			terminarMedicion(Operacion.ACTUALIZAR_BARCO, inicio);
+		}
+	}
+
+	/**
+	 * @return el barco del tipo indicado ('v' o 'c'), o null si el tipo no existe
+	 * 		(se debe revisar antes con esTipoConocido)
+	 */
+	private static Barco crearBarco(String matricula, String nacionalidad, double volumen, 
+			char tipo, int pasajeros, boolean liquidos) {
 		switch (tipo) {
 		case 'v':
 		case 'V':
-			repositorio.adicionarBarco(
-					new Velero(matricula, nacionalidad, volumen, pasajeros));
-			break;
+			return new Velero(matricula, nacionalidad, volumen, pasajeros);
 		case 'c':
 		case 'C':
-			repositorio.adicionarBarco(
-					new Carguero(matricula, nacionalidad, volumen, liquidos));
-			break;
+			return new Carguero(matricula, nacionalidad, volumen, liquidos);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Registra un lote de barcos (por ejemplo, los que llegan en un día).
+	 * Primero se valida todo el lote, con las mismas reglas de adicionarBarco
+	 * (matrícula que no esté registrada, ni repetida en el mismo lote, 
+	 * y volumen permitido), y luego se guardan en el repositorio, en una 
+	 * sola operación, los barcos que cumplen las reglas.
+	 * En lugar de lanzar una excepción por cada barco que no cumple,
+	 * se retorna el resultado de cada uno.
+	 * 
+	 * @param barcos	los barcos que se desean registrar
+	 * @return	el reporte con el resultado de cada barco 
+	 * 		(en el mismo orden en que vienen en la colección)
+	 */
+	public ReporteLote adicionarBarcos(Collection<? extends Barco> barcos) {
+		long inicio = iniciarMedicion(Operacion.REGISTRAR_LOTE);
+		try {
+			return validarYGuardarLote(barcos);
+		} finally {
+			terminarMedicion(Operacion.REGISTRAR_LOTE, inicio);
+		}
+	}
+
+	private ReporteLote validarYGuardarLote(Collection<? extends Barco> barcos) {
+		ReporteLote reporte = new ReporteLote(barcos.size());
+		List<Barco> aceptados = new ArrayList<Barco>(barcos.size());
+		Set<String> matriculasLote = new HashSet<String>(
+				(int) (barcos.size() / 0.75f) + 1);
+		int fila = 0;
+		for (Barco barco : barcos) {
+			if (existeMatricula(barco.getMatricula()) 
+					|| matriculasLote.contains(barco.getMatricula())) {
+				reporte.setResultado(fila, ResultadoRegistro.MATRICULA_REPETIDA);
+				contarRechazo(Rechazo.MATRICULA_REPETIDA);
+			}
+			else if (!esVolumenPermitido(barco.getVolumen())) {
+				reporte.setResultado(fila, ResultadoRegistro.VOLUMEN_INCORRECTO);
+				contarRechazo(Rechazo.VOLUMEN_INCORRECTO);
+			}
+			else {
+				// la matrícula solo queda tomada si el barco se acepta
+				matriculasLote.add(barco.getMatricula());
+				reporte.setResultado(fila, ResultadoRegistro.REGISTRADO);
+				aceptados.add(barco);
+			}
+			fila++;
+		}
+
+		if (aceptados.isEmpty()) {
+			return reporte;
+		}
+		boolean[] tomados = tomarCandados(aceptados);
+		try {
+			guardarLote(reporte, aceptados);
+		} finally {
+			soltarCandados(tomados);
+		}
+		return reporte;
+	}
+
+	/**
+	 * Guarda los barcos aceptados del lote (con sus candados tomados),
+	 * y deja en el reporte los que al final no quedaron guardados.
+	 * Si el repositorio falla (retorna false o lanza una excepción), se
+	 * revisa barco por barco, porque una parte del lote pudo quedar guardada
+	 * (por ejemplo, en las particiones que no fallaron).
+	 */
+	private void guardarLote(ReporteLote reporte, List<Barco> aceptados) {
+		boolean guardados;
+		try {
+			guardados = repositorio.adicionarBarcos(aceptados);
+		} catch (RuntimeException e) {
+			guardados = false;
+		}
+		int aceptado = 0;
+		for (int fila = 0; fila < reporte.getFilas(); fila++) {
+			if (reporte.getResultado(fila) != ResultadoRegistro.REGISTRADO) {
+				continue;
+			}
+			Barco barco = aceptados.get(aceptado++);
+			if (!guardados) {
+				// se revisa cuáles quedaron guardados: otra terminal pudo 
+				// registrar alguna de las matrículas, o el repositorio falló
+				Barco guardado;
+				try {
+					guardado = repositorio.buscarBarco(barco.getMatricula());
+				} catch (RuntimeException e) {
+					guardado = null;
+				}
+				if (guardado == null) {
+					reporte.setResultado(fila, ResultadoRegistro.FALLA_REPOSITORIO);
+					continue;
+				}
+				if (!esMismoBarco(guardado, barco)) {
+					reporte.setResultado(fila, ResultadoRegistro.MATRICULA_REPETIDA);
+					contarRechazo(Rechazo.MATRICULA_REPETIDA);
+					continue;
+				}
+			}
+			registrarAdicion(barco);
+			publicarEvento(TipoEvento.LLEGADA, barco);
+		}
+	}
+
+	/**
+	 * Compara los datos (no el objeto), porque algunos repositorios
+	 * entregan una copia del barco que se guardó (por ejemplo, los que
+	 * están en otro proceso o en una base de datos)
+	 */
+	private static boolean esMismoBarco(Barco guardado, Barco barco) {
+		if (guardado == barco) {
+			return true;
+		}
+		if (guardado.getClass() != barco.getClass()
+				|| !guardado.getMatricula().equals(barco.getMatricula())
+				|| !Objects.equals(guardado.getNacionalidad(), barco.getNacionalidad())
+				|| Double.compare(guardado.getVolumen(), barco.getVolumen()) != 0) {
+			return false;
+		}
+		if (barco instanceof Velero) {
+			return ((Velero) guardado).getPasajeros() == ((Velero) barco).getPasajeros();
+		}
+		if (barco instanceof Carguero) {
+			return ((Carguero) guardado).getLiquidos() == ((Carguero) barco).getLiquidos();
+		}
+		return true;
+	}
+
+	private static ReentrantLock[] crearCandados() {
+		ReentrantLock[] candados = new ReentrantLock[CANDADOS];
+		for (int i = 0; i < CANDADOS; i++) {
+			candados[i] = new ReentrantLock();
+		}
+		return candados;
+	}
+
+	private static int indiceCandado(String matricula) {
+		int hash = matricula.hashCode();
+		return (hash ^ (hash >>> 16)) & (CANDADOS - 1);
+	}
+
+	private ReentrantLock obtenerCandado(String matricula) {
+		return candados[indiceCandado(matricula)];
+	}
+
+	/**
+	 * Toma los candados de todas las matrículas del lote, siempre en el
+	 * mismo orden (por su posición), para que dos lotes no se bloqueen
+	 * mutuamente
+	 * @return cuáles candados se tomaron
+	 */
+	private boolean[] tomarCandados(List<Barco> barcos) {
+		boolean[] tomados = new boolean[CANDADOS];
+		for (Barco barco : barcos) {
+			tomados[indiceCandado(barco.getMatricula())] = true;
+		}
+		for (int i = 0; i < CANDADOS; i++) {
+			if (tomados[i]) {
+				candados[i].lock();
+			}
+		}
+		return tomados;
+	}
+
+	private void soltarCandados(boolean[] tomados) {
+		for (int i = CANDADOS - 1; i >= 0; i--) {
+			if (tomados[i]) {
+				candados[i].unlock();
+			}
+		}
+	}
+
+	/**
+	 * Actualiza lo que se mantiene en el modo incremental, 
+	 * cuando un barco quedó guardado en el repositorio
+	 */
+	private void registrarAdicion(Barco barco) {
+		if (capacidadAcumulada != null) {
+			capacidadAcumulada.sumar(barco.calcularCapacidad());
+			resumenAcumulado.agregar(barco);
+			indiceCapacidad.agregar(barco);
+		}
+	}
+
+	/**
+	 * Descuenta lo que se mantiene en el modo incremental, 
+	 * cuando un barco salió del repositorio
+	 */
+	private void registrarRetiro(Barco barco) {
+		if (capacidadAcumulada != null) {
+			capacidadAcumulada.restar(barco.calcularCapacidad());
+			resumenAcumulado.quitar(barco);
+			indiceCapacidad.quitar(barco);
+		}
+	}
+
+	private void publicarEvento(TipoEvento tipo, Barco barco) {
+		CanalEventos canal = eventos;
+		if (canal != null) {
+			canal.publicar(tipo, barco);
+		}
+	}
+
+	/**
+	 * @return el valor de System.nanoTime() si se está midiendo el tiempo
+	 * 		de esta llamada, o 0
+	 */
+	private long iniciarMedicion(Operacion operacion) {
+		MetricasPuerto medicion = metricas;
+		return (medicion != null) ? medicion.iniciar(operacion) : 0;
+	}
+
+	/**
+	 * Registra el tiempo de la operación, si se empezó a medir al iniciarla
+	 */
+	private void terminarMedicion(Operacion operacion, long inicio) {
+		MetricasPuerto medicion = metricas;
+		if (medicion != null) {
+			medicion.terminar(operacion, inicio);
 		}
+	}
 
+	private void contarRechazo(Rechazo rechazo) {
+		MetricasPuerto medicion = metricas;
+		if (medicion != null) {
+			medicion.contarRechazo(rechazo);
+		}
+	}
+
+	private void contarRechazo(ResultadoRegistro resultado) {
+		switch (resultado) {
+		case MATRICULA_REPETIDA:
+			contarRechazo(Rechazo.MATRICULA_REPETIDA);
+			break;
+		case VOLUMEN_INCORRECTO:
+			contarRechazo(Rechazo.VOLUMEN_INCORRECTO);
+			break;
+		case TIPO_DESCONOCIDO:
+			contarRechazo(Rechazo.TIPO_DESCONOCIDO);
+			break;
+		default:
+			break;
+		}
 	}
 
 	/**
@@ -93,16 +866,54 @@ public class ControlPuerto {
 		return (barcoBuscado != null);
 	}
 
+	/**
+	 * @return la excepción con el mensaje que corresponde a la razón del 
+	 * 		rechazo, sin la traza de la pila si así se configuró
+	 */
+	private BarcoException crearError(ResultadoRegistro razon) {
+		String mensaje;
+		switch (razon) {
+		case MATRICULA_REPETIDA:
+			mensaje = "No se puede guardar: " +
+					"Ya existe un barco registrado con esa matrícula";
+			break;
+		case VOLUMEN_INCORRECTO:
+			mensaje = "Volumen incorrecto: " +
+					"debe estar entre 0 y " + VOLUMEN_MAXIMO;
+			break;
+		case TIPO_DESCONOCIDO:
+			mensaje = "Tipo de barco desconocido: " +
+					"debe ser 'v' (velero) o 'c' (carguero)";
+			break;
+		default:
+			mensaje = "No se pudo guardar el barco: " + razon;
+		}
+		return new BarcoException(mensaje, !erroresSinTraza);
+	}
+
+	private BarcoException crearErrorMatriculaInexistente() {
+		contarRechazo(Rechazo.MATRICULA_INEXISTENTE);
+		return new BarcoException("No existe un barco registrado con esa matrícula", 
+				!erroresSinTraza);
+	}
+
 	/**
 	 * Valida que el volumen de un barco se conserve en los rangos permitidos
 	 * 
 	 * @param volumen el volumen que se desea evaluar
 	 * @return si el volumen es aceptado o no
 	 */
-	private boolean esVolumenPermitido(double volumen) {
+	boolean esVolumenPermitido(double volumen) {
 		if (volumen < 0 || volumen > VOLUMEN_MAXIMO) {
 			return false;
 		}
 		return true;
 	}
+
+	/**
+	 * @return si el tipo es de un barco que se puede crear ('v' o 'c')
+	 */
+	static boolean esTipoConocido(char tipo) {
+		return tipo == 'v' || tipo == 'V' || tipo == 'c' || tipo == 'C';
+	}
 }
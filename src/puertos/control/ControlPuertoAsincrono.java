@@ -0,0 +1,225 @@
+package puertos.control;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carga;
+
+/**
+ * Fachada asíncrona de ControlPuerto: cada operación se hace en otro hilo
+ * y retorna de inmediato un CompletableFuture con el resultado, para que
+ * quien llama (por ejemplo, el hilo de eventos de la ventana) no se quede
+ * bloqueado cuando el repositorio es lento (un archivo, una base de datos).
+ * Si la operación falla, el CompletableFuture termina con la misma
+ * excepción (por ejemplo, BarcoException).
+ *
+ * Para no acumular trabajo sin límite, solo se aceptan cierta cantidad de
+ * operaciones pendientes; las que llegan cuando ya se alcanzó el límite
+ * se rechazan de inmediato (el CompletableFuture termina con
+ * RejectedExecutionException), sin esperar ni ocupar un hilo.
+ *
+ * Las operaciones pendientes se ejecutan al mismo tiempo, así que el
+ * repositorio debe permitir el acceso desde varios hilos (por ejemplo,
+ * MapaBarcosConcurrente). Si la máquina virtual tiene hilos virtuales
+ * (Java 21 o posterior) se usa un hilo virtual por operación; si no,
+ * hilos (daemon) que se reutilizan.
+ *
+ * @version 1.0
+ */
+public class ControlPuertoAsincrono implements AutoCloseable {
+	public static final int MAXIMO_PENDIENTES = 256;
+
+	/**
+	 * Una operación de ControlPuerto, que puede lanzar BarcoException
+	 */
+	private interface Operacion<T> {
+		T ejecutar() throws BarcoException;
+	}
+
+	private ControlPuerto puerto;
+	private ExecutorService hilos;
+	private Semaphore permisos;
+	private int maximoPendientes;
+	private boolean hilosPropios;
+
+	/**
+	 * Con el máximo de operaciones pendientes por defecto (MAXIMO_PENDIENTES)
+	 */
+	public ControlPuertoAsincrono(ControlPuerto puerto) {
+		this(puerto, MAXIMO_PENDIENTES);
+	}
+
+	/**
+	 * @param puerto	el control donde se hacen las operaciones
+	 * @param maximoPendientes	cuántas operaciones pueden estar pendientes
+	 * 			(esperando o ejecutándose) al mismo tiempo
+	 */
+	public ControlPuertoAsincrono(ControlPuerto puerto, int maximoPendientes) {
+		this(puerto, maximoPendientes, crearHilos());
+		hilosPropios = true;
+	}
+
+	/**
+	 * @param hilos	donde se ejecutan las operaciones; no se cierra con close()
+	 */
+	public ControlPuertoAsincrono(ControlPuerto puerto, int maximoPendientes, ExecutorService hilos) {
+		if (maximoPendientes <= 0) {
+			throw new IllegalArgumentException("El máximo de operaciones pendientes debe ser positivo");
+		}
+		this.puerto = puerto;
+		this.maximoPendientes = maximoPendientes;
+		this.hilos = hilos;
+		permisos = new Semaphore(maximoPendientes);
+	}
+
+	/**
+	 * @see ControlPuerto#adicionarBarco(String, String, double, char, int, boolean)
+	 */
+	public CompletableFuture<Void> adicionarBarco(String matricula, String nacionalidad, double volumen,
+			char tipo, int pasajeros, boolean liquidos) {
+		return ejecutar(() -> {
+			puerto.adicionarBarco(matricula, nacionalidad, volumen, tipo, pasajeros, liquidos);
+			return null;
+		});
+	}
+
+	/**
+	 * @see ControlPuerto#adicionarBarcos(java.util.Collection)
+	 */
+	public CompletableFuture<ReporteLote> adicionarBarcos(List<? extends Barco> barcos) {
+		return ejecutar(() -> puerto.adicionarBarcos(barcos));
+	}
+
+	/**
+	 * @see ControlPuerto#retirarBarco(String)
+	 */
+	public CompletableFuture<Barco> retirarBarco(String matricula) {
+		return ejecutar(() -> puerto.retirarBarco(matricula));
+	}
+
+	/**
+	 * @see ControlPuerto#actualizarBarco(String, String, double, char, int, boolean)
+	 */
+	public CompletableFuture<Void> actualizarBarco(String matricula, String nacionalidad, double volumen,
+			char tipo, int pasajeros, boolean liquidos) {
+		return ejecutar(() -> {
+			puerto.actualizarBarco(matricula, nacionalidad, volumen, tipo, pasajeros, liquidos);
+			return null;
+		});
+	}
+
+	/**
+	 * @see ControlPuerto#calcularCapacidadTotal()
+	 */
+	public CompletableFuture<Double> calcularCapacidadTotal() {
+		return ejecutar(() -> puerto.calcularCapacidadTotal());
+	}
+
+	/**
+	 * @see ControlPuerto#consultarResumen()
+	 */
+	public CompletableFuture<ResumenCapacidad> consultarResumen() {
+		return ejecutar(() -> puerto.consultarResumen());
+	}
+
+	/**
+	 * @see ControlPuerto#buscarBarcoParaCarga(double)
+	 */
+	public CompletableFuture<Barco> buscarBarcoParaCarga(double carga) {
+		return ejecutar(() -> puerto.buscarBarcoParaCarga(carga));
+	}
+
+	/**
+	 * @see ControlPuerto#asignarCarga(List, long)
+	 */
+	public CompletableFuture<AsignacionCarga> asignarCarga(List<? extends Carga> cargas,
+			long milisegundosMejora) {
+		return ejecutar(() -> puerto.asignarCarga(cargas, milisegundosMejora));
+	}
+
+	/**
+	 * @return cuántas operaciones están esperando o ejecutándose
+	 */
+	public int getPendientes() {
+		return maximoPendientes - permisos.availablePermits();
+	}
+
+	public int getMaximoPendientes() {
+		return maximoPendientes;
+	}
+
+	public ControlPuerto getPuerto() {
+		return puerto;
+	}
+
+	/**
+	 * No se aceptan más operaciones; las pendientes se terminan
+	 * (sin esperarlas). Si los hilos se recibieron en el constructor,
+	 * no se cierran.
+	 */
+	@Override
+	public void close() {
+		if (hilosPropios) {
+			hilos.shutdown();
+		}
+	}
+
+	/**
+	 * Toma un permiso (o rechaza la operación si no hay) y la ejecuta en
+	 * otro hilo. El permiso se devuelve antes de completar el resultado,
+	 * para que lo que se encadene al CompletableFuture pueda pedir otra
+	 * operación sin que se rechace.
+	 */
+	private <T> CompletableFuture<T> ejecutar(Operacion<T> operacion) {
+		CompletableFuture<T> resultado = new CompletableFuture<T>();
+		if (!permisos.tryAcquire()) {
+			resultado.completeExceptionally(new RejectedExecutionException(
+					"Hay demasiadas operaciones pendientes (" + maximoPendientes + ")"));
+			return resultado;
+		}
+		try {
+			hilos.execute(() -> {
+				T valor;
+				try {
+					valor = operacion.ejecutar();
+				} catch (Throwable error) {
+					permisos.release();
+					resultado.completeExceptionally(error);
+					return;
+				}
+				permisos.release();
+				resultado.complete(valor);
+			});
+		} catch (RejectedExecutionException error) {
+			permisos.release();
+			resultado.completeExceptionally(error);
+		}
+		return resultado;
+	}
+
+	/**
+	 * Un hilo virtual por tarea si existe Executors.newVirtualThreadPerTaskExecutor
+	 * (se busca por reflexión para que compile con Java 11), o si no,
+	 * hilos daemon que se reutilizan (y se terminan cuando no se usan).
+	 */
+	private static ExecutorService crearHilos() {
+		try {
+			Method virtuales = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtuales.invoke(null);
+		} catch (ReflectiveOperationException noHayHilosVirtuales) {
+			AtomicInteger contador = new AtomicInteger();
+			return Executors.newCachedThreadPool(tarea -> {
+				Thread hilo = new Thread(tarea, "puerto-asincrono-" + contador.incrementAndGet());
+				hilo.setDaemon(true);
+				return hilo;
+			});
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package puertos.control;
+
+/**
+ * Cantidad de barcos, capacidad y volumen total de un grupo de barcos
+ * (por ejemplo, los de una nacionalidad).
+ * La capacidad y el volumen se acumulan con suma compensada, como la
+ * capacidad total de ControlPuerto, para que después de muchas adiciones
+ * y retiros los grupos no se alejen del total por el redondeo.
+ * 
+ * @version 1.1
+ */
+public class EstadisticaGrupo {
+	private long cantidad;
+	private SumaCompensada capacidad = new SumaCompensada();
+	private SumaCompensada volumen = new SumaCompensada();
+
+	void agregar(double capacidadBarco, double volumenBarco) {
+		cantidad++;
+		capacidad.sumar(capacidadBarco);
+		volumen.sumar(volumenBarco);
+	}
+
+	void quitar(double capacidadBarco, double volumenBarco) {
+		cantidad--;
+		capacidad.restar(capacidadBarco);
+		volumen.restar(volumenBarco);
+	}
+
+	void combinar(EstadisticaGrupo otra) {
+		cantidad += otra.cantidad;
+		capacidad.combinar(otra.capacidad);
+		volumen.combinar(otra.volumen);
+	}
+
+	EstadisticaGrupo copiar() {
+		EstadisticaGrupo copia = new EstadisticaGrupo();
+		copia.combinar(this);
+		return copia;
+	}
+
+	/**
+	 * @return la cantidad de barcos del grupo
+	 */
+	public long getCantidad() {
+		return cantidad;
+	}
+
+	/**
+	 * @return la suma de la capacidad de los barcos del grupo, en m3
+	 */
+	public double getCapacidad() {
+		return capacidad.getValor();
+	}
+
+	/**
+	 * @return la suma del volumen de los barcos del grupo, en m3
+	 */
+	public double getVolumen() {
+		return volumen.getValor();
+	}
+
+	@Override
+	public String toString() {
+		return cantidad + " barcos, capacidad " + getCapacidad() + " m3, volumen " + getVolumen() + " m3";
+	}
+}
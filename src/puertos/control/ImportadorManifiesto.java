@@ -0,0 +1,751 @@
+package puertos.control;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Registra en el puerto los barcos de un manifiesto: un archivo de texto
+ * (UTF-8) con un barco por línea, como los que entrega cada día la
+ * autoridad portuaria:
+ * <pre>
+ * matricula,nacionalidad,volumen,tipo,pasajeros,liquidos
+ * </pre>
+ * El tipo es 'v' (velero) o 'c' (carguero); pasajeros y liquidos se pueden
+ * omitir (se toman como 0 y false). Un campo puede ir entre comillas dobles
+ * (como los escribe ExportadorBarcos), y entonces puede tener el separador y
+ * comillas (escritas dos veces: ""), pero no saltos de línea (ExportadorBarcos
+ * no exporta a CSV los barcos que los tienen). Una nacionalidad vacía se
+ * registra como "", no como null. Si la primera línea es el encabezado (los
+ * nombres de los campos, en ese orden, desde matricula hasta tipo por lo
+ * menos), se ignora.
+ *
+ * El archivo se lee por bloques (nunca completo) y el trabajo se hace en
+ * tres etapas, cada una en su propio hilo: leer las filas y convertirlas
+ * en barcos, validarlas con las reglas de ControlPuerto, y registrarlas
+ * por lotes con ControlPuerto.adicionarBarcos. Las etapas se pasan los
+ * lotes por colas de tamaño fijo, así que la memoria que se usa no depende
+ * del tamaño del archivo.
+ * Las filas rechazadas se escriben en otro archivo, con el número de línea
+ * y el motivo (ver ResultadoRegistro y las constantes de esta clase).
+ *
+ * @version 1.4
+ */
+public class ImportadorManifiesto {
+	/** La fila no tiene los campos esperados o algún número no es válido */
+	public static final String FORMATO_INCORRECTO = "FORMATO_INCORRECTO";
+	/** El tipo de barco no es 'v' ni 'c' */
+	public static final String TIPO_DESCONOCIDO = ResultadoRegistro.TIPO_DESCONOCIDO.name();
+	/** La línea no cabe en el búfer de lectura */
+	public static final String LINEA_DEMASIADO_LARGA = "LINEA_DEMASIADO_LARGA";
+
+	private static final int CAMPOS = 6;
+	/** Los nombres de los campos, como van en el encabezado */
+	private static final String[] NOMBRES_CAMPOS = { "matricula", "nacionalidad", "volumen",
+			"tipo", "pasajeros", "liquidos" };
+	private static final int LOTES_EN_COLA = 4;
+	private static final int LARGO_MAXIMO_RECHAZO = 80;
+	private static final int TEXTOS_REPETIDOS = 64;
+	private static final double[] POTENCIAS_DIEZ = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5,
+			1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17,
+			1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private ControlPuerto control;
+	private int tamanoLote = 8192;
+	private int tamanoBufer = 1 << 20;
+	private byte separador = ',';
+
+	/**
+	 * @param control	donde se registran los barcos (con sus reglas)
+	 */
+	public ImportadorManifiesto(ControlPuerto control) {
+		this.control = control;
+	}
+
+	/**
+	 * @param tamanoLote	cantidad de filas que se registran en cada lote
+	 * 			(por defecto 8192)
+	 */
+	public void setTamanoLote(int tamanoLote) {
+		if (tamanoLote <= 0) {
+			throw new IllegalArgumentException("El tamaño del lote debe ser positivo");
+		}
+		this.tamanoLote = tamanoLote;
+	}
+
+	/**
+	 * @param separador	el carácter (ASCII) que separa los campos
+	 * 			(por defecto la coma)
+	 */
+	public void setSeparador(char separador) {
+		if (separador >= 128 || separador == '\n' || separador == '\r') {
+			throw new IllegalArgumentException("Separador no permitido: " + separador);
+		}
+		this.separador = (byte) separador;
+	}
+
+	/**
+	 * @param tamanoBufer	cantidad de bytes que se leen del archivo cada vez;
+	 * 			también es el largo máximo de una línea
+	 */
+	void setTamanoBufer(int tamanoBufer) {
+		this.tamanoBufer = tamanoBufer;
+	}
+
+	/**
+	 * Registra todos los barcos del manifiesto.
+	 * No se debe llamar desde varios hilos a la vez con el mismo importador.
+	 *
+	 * @param manifiesto	el archivo con los barcos
+	 * @param rechazados	el archivo donde se escriben las filas rechazadas
+	 * 			(se crea o se reemplaza), o null si no se quieren guardar
+	 * @return	el reporte con la cantidad de filas y la velocidad de la importación
+	 * @throws IOException	si no se puede leer el manifiesto o escribir los rechazos
+	 */
+	public ReporteImportacion importar(Path manifiesto, Path rechazados) throws IOException {
+		return new Importacion().ejecutar(manifiesto, rechazados);
+	}
+
+	/**
+	 * Filas que pasan de una etapa a la siguiente: los barcos leídos
+	 * (con su número de línea) y las filas que ya se rechazaron
+	 */
+	private static class Lote {
+		final Barco[] barcos;
+		final long[] lineas;
+		int cantidad;
+		final List<Rechazo> rechazos = new ArrayList<Rechazo>();
+
+		Lote(int tamano) {
+			barcos = new Barco[tamano];
+			lineas = new long[tamano];
+		}
+
+		void adicionar(Barco barco, long linea) {
+			barcos[cantidad] = barco;
+			lineas[cantidad] = linea;
+			cantidad++;
+		}
+
+		boolean estaLleno() {
+			return cantidad + rechazos.size() >= barcos.length;
+		}
+	}
+
+	/** Marca el final del manifiesto en las colas */
+	private static final Lote FIN = new Lote(0);
+
+	private static class Rechazo {
+		final long linea;
+		final String motivo;
+		final String fila;
+
+		Rechazo(long linea, String motivo, String fila) {
+			this.linea = linea;
+			this.motivo = motivo;
+			this.fila = fila;
+		}
+	}
+
+	/**
+	 * El estado de una importación: las colas entre las etapas, el primer
+	 * error que ocurra en cualquiera de ellas, y lo que usa la lectura
+	 */
+	private class Importacion {
+		private BlockingQueue<Lote> colaValidacion = new ArrayBlockingQueue<Lote>(LOTES_EN_COLA);
+		private BlockingQueue<Lote> colaRegistro = new ArrayBlockingQueue<Lote>(LOTES_EN_COLA);
+		private volatile Throwable fallo;
+		private Writer salidaRechazos;
+		private long filas;
+		private long registradas;
+
+		private Lote loteActual = new Lote(tamanoLote);
+		private int[] iniciosCampo = new int[CAMPOS];
+		private int[] finesCampo = new int[CAMPOS];
+		private boolean[] comillasDobles = new boolean[CAMPOS];
+		private String[] textosRepetidos = new String[TEXTOS_REPETIDOS];
+		private byte[][] bytesRepetidos = new byte[TEXTOS_REPETIDOS][];
+
+		ReporteImportacion ejecutar(Path manifiesto, Path rechazados) throws IOException {
+			long inicio = System.nanoTime();
+			Thread validador = crearHilo(this::validar, "importador-validacion");
+			Thread registrador = crearHilo(this::registrar, "importador-registro");
+			try (FileChannel canal = FileChannel.open(manifiesto, StandardOpenOption.READ);
+					Writer salida = (rechazados == null) ? null
+							: Files.newBufferedWriter(rechazados, StandardCharsets.UTF_8)) {
+				salidaRechazos = salida;
+				if (salida != null) {
+					salida.write("linea,motivo,fila\n");
+				}
+				validador.start();
+				registrador.start();
+				try {
+					if (leer(canal)) {
+						entregar(colaValidacion, FIN);
+					}
+				} catch (IOException | RuntimeException | Error e) {
+					fallar(e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					fallar(e);
+				} finally {
+					esperar(validador);
+					esperar(registrador);
+				}
+				lanzarFallo();
+			}
+			return new ReporteImportacion(filas, registradas, System.nanoTime() - inicio);
+		}
+
+		/**
+		 * Primera etapa: lee el archivo por bloques, separa las líneas
+		 * (una línea puede quedar partida entre dos bloques) y arma los lotes.
+		 * @return false si otra etapa falló y se dejó de leer
+		 */
+		private boolean leer(FileChannel canal) throws IOException, InterruptedException {
+			ByteBuffer bufer = ByteBuffer.allocate(tamanoBufer);
+			byte[] datos = bufer.array();
+			long linea = 0;
+			boolean descartando = false;
+			int revisado = 0;
+			while (true) {
+				int leidos = canal.read(bufer);
+				int fin = bufer.position();
+				int inicio = 0;
+				for (int i = revisado; i < fin; i++) {
+					if (datos[i] != '\n') {
+						continue;
+					}
+					if (descartando) {
+						descartando = false;
+					} else if (!procesarLinea(datos, inicio, i, ++linea)) {
+						return false;
+					}
+					inicio = i + 1;
+				}
+				if (leidos < 0) {
+					if (!descartando && inicio < fin && !procesarLinea(datos, inicio, fin, ++linea)) {
+						return false;
+					}
+					break;
+				}
+				if (inicio == 0 && fin == datos.length) {
+					// la línea no cabe en el búfer: se rechaza y se descarta
+					// lo que sigue hasta el próximo salto de línea
+					if (!descartando) {
+						filas++;
+						String comienzo = new String(datos, 0,
+								Math.min(fin, LARGO_MAXIMO_RECHAZO), StandardCharsets.UTF_8);
+						loteActual.rechazos.add(new Rechazo(++linea, LINEA_DEMASIADO_LARGA, comienzo));
+						if (!entregarSiEstaLleno()) {
+							return false;
+						}
+					}
+					descartando = true;
+					bufer.clear();
+					revisado = 0;
+					continue;
+				}
+				System.arraycopy(datos, inicio, datos, 0, fin - inicio);
+				bufer.position(fin - inicio);
+				revisado = fin - inicio;
+			}
+			return entregar(colaValidacion, loteActual);
+		}
+
+		private boolean procesarLinea(byte[] datos, int inicio, int fin, long linea)
+				throws InterruptedException {
+			if (fin > inicio && datos[fin - 1] == '\r') {
+				fin--;
+			}
+			if (fin == inicio || (linea == 1 && esEncabezado(datos, inicio, fin, separador))) {
+				return true;
+			}
+			filas++;
+			leerFila(datos, inicio, fin, linea);
+			return entregarSiEstaLleno();
+		}
+
+		private boolean entregarSiEstaLleno() throws InterruptedException {
+			if (!loteActual.estaLleno()) {
+				return true;
+			}
+			Lote lleno = loteActual;
+			loteActual = new Lote(tamanoLote);
+			return entregar(colaValidacion, lleno);
+		}
+
+		/**
+		 * Convierte la fila en un barco y lo adiciona al lote actual, o la
+		 * rechaza si no tiene el formato correcto. Los números se leen
+		 * directamente de los bytes, sin crear un String por cada campo.
+		 */
+		private void leerFila(byte[] datos, int inicio, int fin, long linea) {
+			int campos = 0;
+			int i = inicio;
+			while (campos <= CAMPOS) {
+				int siguiente = separarCampo(datos, i, fin, Math.min(campos, CAMPOS - 1));
+				if (siguiente < 0) {
+					rechazarFila(datos, inicio, fin, linea, FORMATO_INCORRECTO);
+					return;
+				}
+				campos++;
+				if (siguiente >= fin) {
+					break;
+				}
+				i = siguiente + 1;
+			}
+			if (campos < 4 || campos > CAMPOS || largoCampo(0) == 0) {
+				rechazarFila(datos, inicio, fin, linea, FORMATO_INCORRECTO);
+				return;
+			}
+
+			double volumen = leerDecimal(datos, iniciosCampo[2], finesCampo[2]);
+			long pasajeros = (campos > 4 && largoCampo(4) > 0)
+					? leerEntero(datos, iniciosCampo[4], finesCampo[4]) : 0;
+			int liquidos = (campos > 5 && largoCampo(5) > 0)
+					? leerLogico(datos, iniciosCampo[5], finesCampo[5]) : 0;
+			if (Double.isNaN(volumen) || pasajeros == Long.MIN_VALUE || liquidos < 0) {
+				rechazarFila(datos, inicio, fin, linea, FORMATO_INCORRECTO);
+				return;
+			}
+			byte tipo = (largoCampo(3) == 1) ? datos[iniciosCampo[3]] : 0;
+			if (tipo != 'v' && tipo != 'V' && tipo != 'c' && tipo != 'C') {
+				rechazarFila(datos, inicio, fin, linea, TIPO_DESCONOCIDO);
+				return;
+			}
+
+			String matricula = crearTexto(datos, 0);
+			String nacionalidad = comillasDobles[1] ? crearTexto(datos, 1)
+					: crearTextoRepetido(datos, iniciosCampo[1], finesCampo[1]);
+			Barco barco;
+			if (tipo == 'v' || tipo == 'V') {
+				barco = new Velero(matricula, nacionalidad, volumen, (int) pasajeros);
+			} else {
+				barco = new Carguero(matricula, nacionalidad, volumen, liquidos == 1);
+			}
+			loteActual.adicionar(barco, linea);
+		}
+
+		/**
+		 * Encuentra el campo que empieza en inicio (sin los espacios de los
+		 * lados ni las comillas, si las tiene) y lo deja en la posición campo
+		 * de iniciosCampo y finesCampo
+		 * @return la posición del separador que termina el campo (o fin), o
+		 * 		-1 si unas comillas no se cierran o hay algo después de ellas
+		 */
+		private int separarCampo(byte[] datos, int inicio, int fin, int campo) {
+			while (inicio < fin && (datos[inicio] == ' ' || datos[inicio] == '\t')) {
+				inicio++;
+			}
+			comillasDobles[campo] = false;
+			if (inicio == fin || datos[inicio] != '"') {
+				int i = inicio;
+				while (i < fin && datos[i] != separador) {
+					i++;
+				}
+				iniciosCampo[campo] = inicio;
+				finesCampo[campo] = i;
+				recortar(datos, campo);
+				return i;
+			}
+			int i = inicio + 1;
+			while (true) {
+				if (i >= fin) {
+					return -1;
+				}
+				if (datos[i] == '"') {
+					if (i + 1 < fin && datos[i + 1] == '"') {
+						comillasDobles[campo] = true;
+						i += 2;
+						continue;
+					}
+					break;
+				}
+				i++;
+			}
+			iniciosCampo[campo] = inicio + 1;
+			finesCampo[campo] = i;
+			i++;
+			while (i < fin && (datos[i] == ' ' || datos[i] == '\t')) {
+				i++;
+			}
+			return (i == fin || datos[i] == separador) ? i : -1;
+		}
+
+		/**
+		 * @return el texto del campo, con una sola comilla donde van dos
+		 */
+		private String crearTexto(byte[] datos, int campo) {
+			String texto = new String(datos, iniciosCampo[campo], largoCampo(campo), StandardCharsets.UTF_8);
+			return comillasDobles[campo] ? texto.replace("\"\"", "\"") : texto;
+		}
+
+		private void recortar(byte[] datos, int campo) {
+			int inicio = iniciosCampo[campo];
+			int fin = finesCampo[campo];
+			while (inicio < fin && (datos[inicio] == ' ' || datos[inicio] == '\t')) {
+				inicio++;
+			}
+			while (fin > inicio && (datos[fin - 1] == ' ' || datos[fin - 1] == '\t')) {
+				fin--;
+			}
+			iniciosCampo[campo] = inicio;
+			finesCampo[campo] = fin;
+		}
+
+		private int largoCampo(int campo) {
+			return finesCampo[campo] - iniciosCampo[campo];
+		}
+
+		private void rechazarFila(byte[] datos, int inicio, int fin, long linea, String motivo) {
+			String fila = new String(datos, inicio, fin - inicio, StandardCharsets.UTF_8);
+			loteActual.rechazos.add(new Rechazo(linea, motivo, fila));
+		}
+
+		/**
+		 * Las nacionalidades se repiten mucho, así que se reutiliza el String
+		 * si los bytes son iguales a los de uno creado antes
+		 */
+		private String crearTextoRepetido(byte[] datos, int inicio, int fin) {
+			int hash = 0;
+			for (int i = inicio; i < fin; i++) {
+				hash = 31 * hash + datos[i];
+			}
+			int casilla = (hash ^ (hash >>> 16)) & (TEXTOS_REPETIDOS - 1);
+			byte[] guardado = bytesRepetidos[casilla];
+			if (guardado != null && Arrays.equals(guardado, 0, guardado.length, datos, inicio, fin)) {
+				return textosRepetidos[casilla];
+			}
+			String texto = new String(datos, inicio, fin - inicio, StandardCharsets.UTF_8);
+			bytesRepetidos[casilla] = Arrays.copyOfRange(datos, inicio, fin);
+			textosRepetidos[casilla] = texto;
+			return texto;
+		}
+
+		/**
+		 * Segunda etapa: quita de cada lote los barcos que no cumplen
+		 * las reglas de ControlPuerto que no dependen del repositorio
+		 */
+		private void validar() {
+			try {
+				Lote lote;
+				while ((lote = tomar(colaValidacion)) != null) {
+					if (lote != FIN) {
+						validarLote(lote);
+					}
+					if (!entregar(colaRegistro, lote) || lote == FIN) {
+						return;
+					}
+				}
+			} catch (Throwable e) {
+				fallar(e);
+			}
+		}
+
+		private void validarLote(Lote lote) {
+			int aceptados = 0;
+			for (int i = 0; i < lote.cantidad; i++) {
+				Barco barco = lote.barcos[i];
+				if (control.esVolumenPermitido(barco.getVolumen())) {
+					lote.barcos[aceptados] = barco;
+					lote.lineas[aceptados] = lote.lineas[i];
+					aceptados++;
+				} else {
+					lote.rechazos.add(new Rechazo(lote.lineas[i],
+							ResultadoRegistro.VOLUMEN_INCORRECTO.name(), formatear(barco)));
+				}
+			}
+			Arrays.fill(lote.barcos, aceptados, lote.cantidad, null);
+			lote.cantidad = aceptados;
+		}
+
+		/**
+		 * Tercera etapa: registra cada lote en una sola operación (allí se
+		 * revisan las matrículas repetidas) y escribe las filas rechazadas
+		 */
+		private void registrar() {
+			try {
+				Lote lote;
+				while ((lote = tomar(colaRegistro)) != null && lote != FIN) {
+					registrarLote(lote);
+				}
+			} catch (Throwable e) {
+				fallar(e);
+			}
+		}
+
+		private void registrarLote(Lote lote) throws IOException {
+			if (lote.cantidad > 0) {
+				List<Barco> barcos = Arrays.asList(lote.barcos).subList(0, lote.cantidad);
+				ReporteLote reporte = control.adicionarBarcos(barcos);
+				registradas += reporte.getRegistrados();
+				if (reporte.getRechazados() > 0) {
+					for (int fila : reporte.consultarFilasRechazadas()) {
+						lote.rechazos.add(new Rechazo(lote.lineas[fila],
+								reporte.getResultado(fila).name(), formatear(lote.barcos[fila])));
+					}
+				}
+			}
+			if (salidaRechazos == null || lote.rechazos.isEmpty()) {
+				return;
+			}
+			lote.rechazos.sort(Comparator.comparingLong(rechazo -> rechazo.linea));
+			for (Rechazo rechazo : lote.rechazos) {
+				salidaRechazos.write(rechazo.linea + "," + rechazo.motivo + "," + rechazo.fila + "\n");
+			}
+		}
+
+		/**
+		 * @return los datos del barco en el formato del manifiesto
+		 */
+		private String formatear(Barco barco) {
+			char s = (char) separador;
+			String fila = barco.getMatricula() + s + barco.getNacionalidad() + s + barco.getVolumen() + s;
+			if (barco instanceof Velero) {
+				return fila + "v" + s + ((Velero) barco).getPasajeros() + s + "false";
+			}
+			return fila + "c" + s + "0" + s + ((Carguero) barco).getLiquidos();
+		}
+
+		/**
+		 * Pone el lote en la cola; si está llena, espera a que haya espacio
+		 * @return false si alguna etapa falló (y el lote no se entregó)
+		 */
+		private boolean entregar(BlockingQueue<Lote> cola, Lote lote) throws InterruptedException {
+			while (fallo == null) {
+				if (cola.offer(lote, 10, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return el siguiente lote de la cola, o null si alguna etapa falló
+		 */
+		private Lote tomar(BlockingQueue<Lote> cola) throws InterruptedException {
+			while (fallo == null) {
+				Lote lote = cola.poll(10, TimeUnit.MILLISECONDS);
+				if (lote != null) {
+					return lote;
+				}
+			}
+			return null;
+		}
+
+		private synchronized void fallar(Throwable error) {
+			if (fallo == null) {
+				fallo = error;
+			}
+		}
+
+		private void lanzarFallo() throws IOException {
+			Throwable error = fallo;
+			if (error == null) {
+				return;
+			}
+			if (error instanceof IOException) {
+				throw (IOException) error;
+			}
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			}
+			if (error instanceof Error) {
+				throw (Error) error;
+			}
+			if (error instanceof InterruptedException) {
+				throw new InterruptedIOException("Se interrumpió la importación");
+			}
+			throw new IOException(error);
+		}
+	}
+
+	private static Thread crearHilo(Runnable tarea, String nombre) {
+		Thread hilo = new Thread(tarea, nombre);
+		hilo.setDaemon(true);
+		return hilo;
+	}
+
+	/**
+	 * Espera a que termine el hilo, aunque se interrumpa el hilo actual
+	 */
+	private static void esperar(Thread hilo) {
+		boolean interrumpido = false;
+		while (hilo.isAlive()) {
+			try {
+				hilo.join();
+			} catch (InterruptedException e) {
+				interrumpido = true;
+			}
+		}
+		if (interrumpido) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return true si la fila completa son los nombres de los campos
+	 * 		(sin importar mayúsculas ni espacios), y no un barco cuya
+	 * 		matrícula empieza como el encabezado
+	 */
+	private static boolean esEncabezado(byte[] datos, int inicio, int fin, byte separador) {
+		int campos = 0;
+		int desde = inicio;
+		for (int i = inicio; i <= fin; i++) {
+			if (i == fin || datos[i] == separador) {
+				int inicioCampo = desde;
+				int finCampo = i;
+				while (inicioCampo < finCampo && (datos[inicioCampo] == ' ' || datos[inicioCampo] == '\t')) {
+					inicioCampo++;
+				}
+				while (finCampo > inicioCampo && (datos[finCampo - 1] == ' ' || datos[finCampo - 1] == '\t')) {
+					finCampo--;
+				}
+				if (campos == CAMPOS || !esIgual(datos, inicioCampo, finCampo, NOMBRES_CAMPOS[campos])) {
+					return false;
+				}
+				campos++;
+				desde = i + 1;
+			}
+		}
+		return campos >= 4;
+	}
+
+	/**
+	 * Lee un número decimal (con signo y punto opcionales) de los bytes.
+	 * Con hasta 15 dígitos se calcula con una sola división, que da el
+	 * mismo resultado que Double.parseDouble; en los demás casos (muchos
+	 * dígitos, exponente) se usa Double.parseDouble, pero solo con dígitos,
+	 * signos, punto y exponente (no acepta "NaN", "Infinity" ni los sufijos
+	 * de tipo, como "12d" o "1f").
+	 * @return el número, o NaN si no es un número válido (o no es finito)
+	 */
+	static double leerDecimal(byte[] datos, int inicio, int fin) {
+		int i = inicio;
+		boolean negativo = false;
+		if (i < fin && (datos[i] == '-' || datos[i] == '+')) {
+			negativo = (datos[i] == '-');
+			i++;
+		}
+		long mantisa = 0;
+		int digitos = 0;
+		int decimales = 0;
+		boolean punto = false;
+		for (; i < fin; i++) {
+			byte c = datos[i];
+			if (c >= '0' && c <= '9') {
+				mantisa = mantisa * 10 + (c - '0');
+				digitos++;
+				if (punto) {
+					decimales++;
+				}
+				if (digitos > 15) {
+					return leerDecimalLento(datos, inicio, fin);
+				}
+			} else if (c == '.' && !punto) {
+				punto = true;
+			} else {
+				return leerDecimalLento(datos, inicio, fin);
+			}
+		}
+		if (digitos == 0) {
+			return Double.NaN;
+		}
+		double valor = mantisa / POTENCIAS_DIEZ[decimales];
+		return negativo ? -valor : valor;
+	}
+
+	private static double leerDecimalLento(byte[] datos, int inicio, int fin) {
+		for (int i = inicio; i < fin; i++) {
+			byte c = datos[i];
+			if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+				return Double.NaN;
+			}
+		}
+		try {
+			double valor = Double.parseDouble(new String(datos, inicio, fin - inicio,
+					StandardCharsets.ISO_8859_1));
+			return Double.isInfinite(valor) ? Double.NaN : valor;
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * @return el número entero (que cabe en un int),
+	 * 		o Long.MIN_VALUE si no es un número válido
+	 */
+	static long leerEntero(byte[] datos, int inicio, int fin) {
+		int i = inicio;
+		boolean negativo = false;
+		if (i < fin && (datos[i] == '-' || datos[i] == '+')) {
+			negativo = (datos[i] == '-');
+			i++;
+		}
+		if (i == fin || fin - i > 10) {
+			return Long.MIN_VALUE;
+		}
+		long valor = 0;
+		for (; i < fin; i++) {
+			byte c = datos[i];
+			if (c < '0' || c > '9') {
+				return Long.MIN_VALUE;
+			}
+			valor = valor * 10 + (c - '0');
+		}
+		valor = negativo ? -valor : valor;
+		if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+			return Long.MIN_VALUE;
+		}
+		return valor;
+	}
+
+	/**
+	 * @return 1 (true, si, 1), 0 (false, no, 0) o -1 si no es un valor válido
+	 */
+	static int leerLogico(byte[] datos, int inicio, int fin) {
+		if (esIgual(datos, inicio, fin, "true") || esIgual(datos, inicio, fin, "si")
+				|| esIgual(datos, inicio, fin, "1")) {
+			return 1;
+		}
+		if (esIgual(datos, inicio, fin, "false") || esIgual(datos, inicio, fin, "no")
+				|| esIgual(datos, inicio, fin, "0")) {
+			return 0;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compara los bytes con un texto ASCII en minúsculas, sin importar
+	 * si los bytes están en mayúsculas
+	 */
+	private static boolean esIgual(byte[] datos, int inicio, int fin, String texto) {
+		if (fin - inicio != texto.length()) {
+			return false;
+		}
+		for (int i = 0; i < texto.length(); i++) {
+			if ((datos[inicio + i] | 0x20) != texto.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,244 @@
+package puertos.control;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import puertos.entidades.Barco;
+
+/**
+ * Índice de los barcos ordenados por capacidad (y, con la misma capacidad,
+ * por matrícula), para responder en tiempo logarítmico qué barcos pueden
+ * recibir cierta carga. Es un árbol binario de búsqueda balanceado con
+ * prioridades aleatorias (treap), donde cada nodo guarda además la
+ * cantidad de barcos y la suma de capacidades de su subárbol.
+ * ControlPuerto lo mantiene actualizado en el modo incremental.
+ *
+ * @version 1.2
+ */
+class IndiceCapacidad {
+
+	private static class Nodo {
+		final Barco barco;
+		final double capacidad;
+		final int prioridad;
+		Nodo izquierdo;
+		Nodo derecho;
+		int cantidad;
+		double suma;
+
+		Nodo(Barco barco, int prioridad) {
+			this.barco = barco;
+			this.capacidad = barco.calcularCapacidad();
+			this.prioridad = prioridad;
+			cantidad = 1;
+			suma = capacidad;
+		}
+	}
+
+	private Nodo raiz;
+	private long semilla = 0x9E3779B97F4A7C15L;
+
+	synchronized void agregar(Barco barco) {
+		raiz = insertar(raiz, new Nodo(barco, siguientePrioridad()));
+	}
+
+	/**
+	 * Quita el barco con la misma matrícula y capacidad (no tiene que ser
+	 * el mismo objeto que se agregó)
+	 * @return true si el barco estaba en el índice
+	 */
+	synchronized boolean quitar(Barco barco) {
+		int antes = cantidad(raiz);
+		raiz = quitar(raiz, barco.calcularCapacidad(), barco);
+		return cantidad(raiz) < antes;
+	}
+
+	synchronized int getCantidad() {
+		return cantidad(raiz);
+	}
+
+	/**
+	 * @param cantidad	cuántos barcos se quieren
+	 * @return los barcos con mayor capacidad, de mayor a menor
+	 */
+	synchronized List<Barco> consultarMayores(int cantidad) {
+		List<Barco> mayores = new ArrayList<Barco>(Math.min(cantidad, cantidad(raiz)));
+		Deque<Nodo> pendientes = new ArrayDeque<Nodo>();
+		Nodo nodo = raiz;
+		while (mayores.size() < cantidad && (nodo != null || !pendientes.isEmpty())) {
+			while (nodo != null) {
+				pendientes.push(nodo);
+				nodo = nodo.derecho;
+			}
+			nodo = pendientes.pop();
+			mayores.add(nodo.barco);
+			nodo = nodo.izquierdo;
+		}
+		return mayores;
+	}
+
+	/**
+	 * @return la cantidad de barcos con capacidad mayor o igual al mínimo
+	 */
+	synchronized int contarDesde(double capacidadMinima) {
+		int cantidad = 0;
+		Nodo nodo = raiz;
+		while (nodo != null) {
+			if (nodo.capacidad >= capacidadMinima) {
+				cantidad += 1 + cantidad(nodo.derecho);
+				nodo = nodo.izquierdo;
+			} else {
+				nodo = nodo.derecho;
+			}
+		}
+		return cantidad;
+	}
+
+	/**
+	 * @return la suma de las capacidades mayores o iguales al mínimo
+	 */
+	synchronized double sumarDesde(double capacidadMinima) {
+		double suma = 0;
+		Nodo nodo = raiz;
+		while (nodo != null) {
+			if (nodo.capacidad >= capacidadMinima) {
+				suma += nodo.capacidad + suma(nodo.derecho);
+				nodo = nodo.izquierdo;
+			} else {
+				nodo = nodo.derecho;
+			}
+		}
+		return suma;
+	}
+
+	/**
+	 * @return el barco con la menor capacidad que sea mayor o igual
+	 * 		al mínimo, o null si ninguno alcanza
+	 */
+	synchronized Barco buscarMenorDesde(double capacidadMinima) {
+		Barco menor = null;
+		Nodo nodo = raiz;
+		while (nodo != null) {
+			if (nodo.capacidad >= capacidadMinima) {
+				menor = nodo.barco;
+				nodo = nodo.izquierdo;
+			} else {
+				nodo = nodo.derecho;
+			}
+		}
+		return menor;
+	}
+
+	/**
+	 * El orden del índice: por capacidad y, con la misma, por matrícula
+	 */
+	static int comparar(double capacidad1, Barco barco1, double capacidad2, Barco barco2) {
+		int comparacion = Double.compare(capacidad1, capacidad2);
+		return (comparacion != 0) ? comparacion
+				: barco1.getMatricula().compareTo(barco2.getMatricula());
+	}
+
+	private Nodo insertar(Nodo nodo, Nodo nuevo) {
+		if (nodo == null) {
+			return nuevo;
+		}
+		if (comparar(nuevo.capacidad, nuevo.barco, nodo.capacidad, nodo.barco) < 0) {
+			nodo.izquierdo = insertar(nodo.izquierdo, nuevo);
+			if (nodo.izquierdo.prioridad > nodo.prioridad) {
+				return rotarDerecha(nodo);
+			}
+		} else {
+			nodo.derecho = insertar(nodo.derecho, nuevo);
+			if (nodo.derecho.prioridad > nodo.prioridad) {
+				return rotarIzquierda(nodo);
+			}
+		}
+		actualizar(nodo);
+		return nodo;
+	}
+
+	private Nodo quitar(Nodo nodo, double capacidad, Barco barco) {
+		if (nodo == null) {
+			return null;
+		}
+		int comparacion = comparar(capacidad, barco, nodo.capacidad, nodo.barco);
+		if (comparacion == 0) {
+			return unir(nodo.izquierdo, nodo.derecho);
+		}
+		if (comparacion < 0) {
+			nodo.izquierdo = quitar(nodo.izquierdo, capacidad, barco);
+		} else {
+			nodo.derecho = quitar(nodo.derecho, capacidad, barco);
+		}
+		actualizar(nodo);
+		return nodo;
+	}
+
+	/**
+	 * Une dos subárboles donde todo lo del izquierdo es menor que lo del 
+	 * derecho, dejando arriba el nodo con mayor prioridad
+	 */
+	private static Nodo unir(Nodo izquierdo, Nodo derecho) {
+		if (izquierdo == null) {
+			return derecho;
+		}
+		if (derecho == null) {
+			return izquierdo;
+		}
+		if (izquierdo.prioridad > derecho.prioridad) {
+			izquierdo.derecho = unir(izquierdo.derecho, derecho);
+			actualizar(izquierdo);
+			return izquierdo;
+		}
+		derecho.izquierdo = unir(izquierdo, derecho.izquierdo);
+		actualizar(derecho);
+		return derecho;
+	}
+
+	private static Nodo rotarDerecha(Nodo nodo) {
+		Nodo izquierdo = nodo.izquierdo;
+		nodo.izquierdo = izquierdo.derecho;
+		izquierdo.derecho = nodo;
+		actualizar(nodo);
+		actualizar(izquierdo);
+		return izquierdo;
+	}
+
+	private static Nodo rotarIzquierda(Nodo nodo) {
+		Nodo derecho = nodo.derecho;
+		nodo.derecho = derecho.izquierdo;
+		derecho.izquierdo = nodo;
+		actualizar(nodo);
+		actualizar(derecho);
+		return derecho;
+	}
+
+	/**
+	 * La suma se vuelve a calcular con la de los hijos (no se le suma ni
+	 * resta a la anterior), para que el error de redondeo no se acumule
+	 */
+	private static void actualizar(Nodo nodo) {
+		nodo.cantidad = 1 + cantidad(nodo.izquierdo) + cantidad(nodo.derecho);
+		nodo.suma = suma(nodo.izquierdo) + nodo.capacidad + suma(nodo.derecho);
+	}
+
+	private static int cantidad(Nodo nodo) {
+		return (nodo == null) ? 0 : nodo.cantidad;
+	}
+
+	private static double suma(Nodo nodo) {
+		return (nodo == null) ? 0 : nodo.suma;
+	}
+
+	/**
+	 * Números pseudoaleatorios (xorshift) para las prioridades de los nodos
+	 */
+	private int siguientePrioridad() {
+		semilla ^= semilla << 13;
+		semilla ^= semilla >>> 7;
+		semilla ^= semilla << 17;
+		return (int) (semilla >>> 32);
+	}
+}
@@ -0,0 +1,55 @@
+package puertos.control;
+
+/**
+ * Resultado de importar un manifiesto: cuántas filas se leyeron,
+ * cuántas quedaron registradas, cuántas se rechazaron y cuánto se demoró.
+ *
+ * @version 1.0
+ */
+public class ReporteImportacion {
+	private long filas;
+	private long registradas;
+	private long nanosegundos;
+
+	ReporteImportacion(long filas, long registradas, long nanosegundos) {
+		this.filas = filas;
+		this.registradas = registradas;
+		this.nanosegundos = nanosegundos;
+	}
+
+	/**
+	 * @return la cantidad de filas con datos que tenía el manifiesto
+	 * 		(sin contar el encabezado ni las líneas vacías)
+	 */
+	public long getFilas() {
+		return filas;
+	}
+
+	public long getRegistradas() {
+		return registradas;
+	}
+
+	public long getRechazadas() {
+		return filas - registradas;
+	}
+
+	/**
+	 * @return el tiempo que tomó la importación, en segundos
+	 */
+	public double getSegundos() {
+		return nanosegundos / 1e9;
+	}
+
+	/**
+	 * @return la velocidad de la importación, en filas por segundo
+	 */
+	public double getFilasPorSegundo() {
+		return (nanosegundos == 0) ? 0 : filas * 1e9 / nanosegundos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d filas en %.3f s (%.0f filas/s): %d registradas, %d rechazadas",
+				filas, getSegundos(), getFilasPorSegundo(), registradas, getRechazadas());
+	}
+}
@@ -0,0 +1,73 @@
+package puertos.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de registrar un lote de barcos: para cada fila (en el mismo 
+ * orden del lote) se guarda un código (ResultadoRegistro) de un byte.
+ * 
+ * @version 1.0
+ */
+public class ReporteLote {
+	private byte[] resultados;
+
+	ReporteLote(int filas) {
+		resultados = new byte[filas];
+	}
+
+	void setResultado(int fila, ResultadoRegistro resultado) {
+		resultados[fila] = (byte) resultado.ordinal();
+	}
+
+	/**
+	 * @param fila	la posición del barco en el lote (desde 0)
+	 * @return	el resultado de registrar ese barco
+	 */
+	public ResultadoRegistro getResultado(int fila) {
+		return ResultadoRegistro.deCodigo(resultados[fila]);
+	}
+
+	/**
+	 * @return la cantidad de barcos (filas) que tenía el lote
+	 */
+	public int getFilas() {
+		return resultados.length;
+	}
+
+	/**
+	 * @param resultado	el resultado que se quiere contar
+	 * @return	la cantidad de filas del lote que tuvieron ese resultado
+	 */
+	public int contar(ResultadoRegistro resultado) {
+		byte codigo = (byte) resultado.ordinal();
+		int cantidad = 0;
+		for (byte actual : resultados) {
+			if (actual == codigo) {
+				cantidad++;
+			}
+		}
+		return cantidad;
+	}
+
+	public int getRegistrados() {
+		return contar(ResultadoRegistro.REGISTRADO);
+	}
+
+	public int getRechazados() {
+		return resultados.length - getRegistrados();
+	}
+
+	/**
+	 * @return las posiciones de los barcos que no se registraron
+	 */
+	public List<Integer> consultarFilasRechazadas() {
+		List<Integer> filas = new ArrayList<Integer>(getRechazados());
+		for (int fila = 0; fila < resultados.length; fila++) {
+			if (getResultado(fila) != ResultadoRegistro.REGISTRADO) {
+				filas.add(fila);
+			}
+		}
+		return filas;
+	}
+}
@@ -0,0 +1,29 @@
+package puertos.control;
+
+/**
+ * Resultado de intentar registrar un barco en el puerto:
+ * si quedó registrado o la razón por la que no se pudo registrar.
+ * 
+ * @version 1.1
+ */
+public enum ResultadoRegistro {
+	/** El barco quedó registrado */
+	REGISTRADO,
+	/** Ya hay un barco con esa matrícula (en el puerto o en el mismo lote) */
+	MATRICULA_REPETIDA,
+	/** El volumen no está entre 0 y el volumen máximo permitido */
+	VOLUMEN_INCORRECTO,
+	/** El tipo de barco no es 'v' (velero) ni 'c' (carguero) */
+	TIPO_DESCONOCIDO,
+	/** El barco cumplía las reglas, pero el repositorio no lo pudo guardar */
+	FALLA_REPOSITORIO;
+
+	private static final ResultadoRegistro[] VALORES = values();
+
+	/**
+	 * @return el resultado que corresponde al código dado (su ordinal)
+	 */
+	static ResultadoRegistro deCodigo(byte codigo) {
+		return VALORES[codigo];
+	}
+}
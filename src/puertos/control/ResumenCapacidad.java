@@ -0,0 +1,132 @@
+package puertos.control;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+
+/**
+ * Estadísticas de los barcos del puerto (cantidad, capacidad y volumen),
+ * en total y agrupadas por nacionalidad, por tipo de barco, y para los
+ * cargueros que pueden llevar líquidos; todas se calculan en un solo recorrido.
+ * ControlPuerto puede mantener un resumen actualizado con cada barco que
+ * se registra (ver consultarResumen); a quien lo consulta se le entrega
+ * una copia, que no cambia.
+ * 
+ * @version 1.2
+ */
+public class ResumenCapacidad {
+	private EstadisticaGrupo total;
+	private Map<String, EstadisticaGrupo> porNacionalidad;
+	private Map<TipoBarco, EstadisticaGrupo> porTipo;
+	private EstadisticaGrupo liquidos;
+
+	ResumenCapacidad() {
+		total = new EstadisticaGrupo();
+		porNacionalidad = new HashMap<String, EstadisticaGrupo>();
+		porTipo = new EnumMap<TipoBarco, EstadisticaGrupo>(TipoBarco.class);
+		for (TipoBarco tipo : TipoBarco.values()) {
+			porTipo.put(tipo, new EstadisticaGrupo());
+		}
+		liquidos = new EstadisticaGrupo();
+	}
+
+	synchronized void agregar(Barco barco) {
+		double capacidad = barco.calcularCapacidad();
+		double volumen = barco.getVolumen();
+		total.agregar(capacidad, volumen);
+		porNacionalidad.computeIfAbsent(barco.getNacionalidad(), 
+				nacionalidad -> new EstadisticaGrupo()).agregar(capacidad, volumen);
+		TipoBarco tipo = TipoBarco.de(barco);
+		if (tipo != null) {
+			porTipo.get(tipo).agregar(capacidad, volumen);
+		}
+		if (llevaLiquidos(barco)) {
+			liquidos.agregar(capacidad, volumen);
+		}
+	}
+
+	/**
+	 * Quita un barco que se agregó antes (si no está en su grupo de
+	 * nacionalidad, no cambia nada)
+	 */
+	synchronized void quitar(Barco barco) {
+		double capacidad = barco.calcularCapacidad();
+		double volumen = barco.getVolumen();
+		EstadisticaGrupo grupo = porNacionalidad.get(barco.getNacionalidad());
+		if (grupo == null) {
+			// el barco no se agregó a este resumen: se deja como está, en
+			// lugar de dejar grupos con cantidades negativas
+			return;
+		}
+		total.quitar(capacidad, volumen);
+		grupo.quitar(capacidad, volumen);
+		if (grupo.getCantidad() == 0) {
+			porNacionalidad.remove(barco.getNacionalidad());
+		}
+		TipoBarco tipo = TipoBarco.de(barco);
+		if (tipo != null) {
+			porTipo.get(tipo).quitar(capacidad, volumen);
+		}
+		if (llevaLiquidos(barco)) {
+			liquidos.quitar(capacidad, volumen);
+		}
+	}
+
+	/**
+	 * Suma a este resumen las estadísticas de otro (por ejemplo, el de
+	 * otra parte de la lista de barcos, calculada en otro hilo)
+	 */
+	synchronized void combinar(ResumenCapacidad otro) {
+		total.combinar(otro.total);
+		for (Map.Entry<String, EstadisticaGrupo> grupo : otro.porNacionalidad.entrySet()) {
+			porNacionalidad.computeIfAbsent(grupo.getKey(), 
+					nacionalidad -> new EstadisticaGrupo()).combinar(grupo.getValue());
+		}
+		for (TipoBarco tipo : TipoBarco.values()) {
+			porTipo.get(tipo).combinar(otro.porTipo.get(tipo));
+		}
+		liquidos.combinar(otro.liquidos);
+	}
+
+	synchronized ResumenCapacidad copiar() {
+		ResumenCapacidad copia = new ResumenCapacidad();
+		copia.combinar(this);
+		return copia;
+	}
+
+	private static boolean llevaLiquidos(Barco barco) {
+		return (barco instanceof Carguero) && ((Carguero) barco).getLiquidos();
+	}
+
+	/**
+	 * @return las estadísticas de todos los barcos
+	 */
+	public EstadisticaGrupo getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return las estadísticas de cada nacionalidad que tiene barcos
+	 */
+	public Map<String, EstadisticaGrupo> getPorNacionalidad() {
+		return Collections.unmodifiableMap(porNacionalidad);
+	}
+
+	/**
+	 * @return las estadísticas de cada tipo de barco
+	 */
+	public Map<TipoBarco, EstadisticaGrupo> getPorTipo() {
+		return Collections.unmodifiableMap(porTipo);
+	}
+
+	/**
+	 * @return las estadísticas de los cargueros que pueden llevar líquidos
+	 */
+	public EstadisticaGrupo getCapacesDeLiquidos() {
+		return liquidos;
+	}
+}
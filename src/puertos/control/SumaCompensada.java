@@ -0,0 +1,69 @@
+package puertos.control;
+
+/**
+ * Acumulador de valores double que usa suma compensada (Kahan-Babuska, 
+ * o de Neumaier), para que el error de redondeo no crezca al sumar
+ * (y restar) millones de valores.
+ * Los métodos son sincronizados, así que se puede compartir entre hilos.
+ * 
+ * @version 1.1
+ */
+public class SumaCompensada {
+	private double suma;
+	private double compensacion;
+
+	/**
+	 * Adiciona un valor a la suma.
+	 * @param valor	el valor que se suma (puede ser negativo)
+	 */
+	public synchronized void sumar(double valor) {
+		double nuevaSuma = suma + valor;
+		if (Math.abs(suma) >= Math.abs(valor)) {
+			compensacion += (suma - nuevaSuma) + valor;
+		} else {
+			compensacion += (valor - nuevaSuma) + suma;
+		}
+		suma = nuevaSuma;
+	}
+
+	/**
+	 * Adiciona el valor de otra suma, con su compensación (así no se pierde
+	 * el error que ya se había corregido en la otra)
+	 * @param otra	la suma que se adiciona (no cambia)
+	 */
+	public void combinar(SumaCompensada otra) {
+		double sumaOtra;
+		double compensacionOtra;
+		synchronized (otra) {
+			sumaOtra = otra.suma;
+			compensacionOtra = otra.compensacion;
+		}
+		synchronized (this) {
+			sumar(sumaOtra);
+			compensacion += compensacionOtra;
+		}
+	}
+
+	/**
+	 * Quita un valor de la suma (por ejemplo, cuando un barco sale del puerto).
+	 * @param valor	el valor que se resta
+	 */
+	public void restar(double valor) {
+		sumar(-valor);
+	}
+
+	/**
+	 * @return	el valor acumulado, incluyendo la compensación del error
+	 */
+	public synchronized double getValor() {
+		return suma + compensacion;
+	}
+
+	/**
+	 * Deja la suma en cero.
+	 */
+	public synchronized void reiniciar() {
+		suma = 0;
+		compensacion = 0;
+	}
+}
@@ -0,0 +1,27 @@
+package puertos.control;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Los tipos de barco que maneja el puerto, para agrupar las estadísticas.
+ * 
+ * @version 1.0
+ */
+public enum TipoBarco {
+	VELERO, CARGUERO;
+
+	/**
+	 * @return el tipo del barco dado, o null si no es de un tipo conocido
+	 */
+	public static TipoBarco de(Barco barco) {
+		if (barco instanceof Velero) {
+			return VELERO;
+		}
+		if (barco instanceof Carguero) {
+			return CARGUERO;
+		}
+		return null;
+	}
+}
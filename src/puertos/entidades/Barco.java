@@ -4,7 +4,7 @@ package puertos.entidades;
  * Información de un barco que llega a un puerto,
  * y del que se desea conocer su capacidad de carga.
  * 
- * @version 2.0
+ * @version 2.3
  */
 public abstract class Barco {
 	private String matricula;
@@ -26,6 +26,10 @@ public abstract class Barco {
 		return matricula;
 	}
 
+	public String getNacionalidad() {
+		return nacionalidad;
+	}
+
 	public double getVolumen() {
 		return volumen;
 	}
@@ -0,0 +1,54 @@
+package puertos.entidades;
+
+/**
+ * Un lote de carga que se debe poner en alguno de los barcos del puerto.
+ * Las cargas líquidas solo se pueden poner en cargueros que lleven líquidos.
+ * 
+ * @version 1.0
+ */
+public class Carga {
+	private String codigo;
+	private double volumen;
+	private boolean liquida;
+
+	/**
+	 * @param codigo	el código que identifica la carga
+	 * @param volumen	el espacio que ocupa la carga, en m3
+	 * @param liquida	indicación de si es una carga líquida o no
+	 */
+	public Carga(String codigo, double volumen, boolean liquida) {
+		this.codigo = codigo;
+		this.volumen = volumen;
+		this.liquida = liquida;
+	}
+
+	public String getCodigo() {
+		return codigo;
+	}
+
+	public double getVolumen() {
+		return volumen;
+	}
+
+	public boolean getLiquida() {
+		return liquida;
+	}
+
+	/**
+	 * @param barco	el barco donde se quiere poner la carga
+	 * @return true si el tipo de barco puede llevar esta carga (sin revisar
+	 * 		si tiene espacio): las cargas líquidas solo van en cargueros 
+	 * 		que lleven líquidos; las demás, en cualquier barco
+	 */
+	public boolean puedeIrEn(Barco barco) {
+		if (!liquida) {
+			return true;
+		}
+		return (barco instanceof Carguero) && ((Carguero) barco).getLiquidos();
+	}
+
+	@Override
+	public String toString() {
+		return codigo + " (" + volumen + " m3" + (liquida ? ", líquida)" : ")");
+	}
+}
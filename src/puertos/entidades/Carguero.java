@@ -3,7 +3,7 @@ package puertos.entidades;
 /**
  * Un barco que transporta carga entre puertos, tiene buena capacidad de carga.
  * 
- * @version 2.5
+ * @version 2.6
  */
 public class Carguero extends Barco {
 	private boolean liquidos;
@@ -24,8 +24,20 @@ public class Carguero extends Barco {
 
 	@Override
 	public double calcularCapacidad() {
-		double capacidad = getVolumen() * 0.8;
-		if (this.liquidos) {
+		return calcularCapacidad(getVolumen(), this.liquidos);
+	}
+
+	/**
+	 * Aplica la regla de capacidad de un carguero a los datos dados, para 
+	 * poder calcularla sin tener el objeto (por ejemplo, en un repositorio 
+	 * que guarda los datos en arreglos).
+	 * @param volumen	el volumen del carguero, en m3
+	 * @param liquidos	si puede llevar líquidos o no
+	 * @return	La capacidad de carga, en metros cúbicos
+	 */
+	public static double calcularCapacidad(double volumen, boolean liquidos) {
+		double capacidad = volumen * 0.8;
+		if (liquidos) {
 			capacidad-= 40;
 		}
 		return (capacidad < 0) ? 0 : capacidad;
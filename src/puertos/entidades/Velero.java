@@ -3,7 +3,7 @@ package puertos.entidades;
 /**
  * Un barco deportivo, que lleva pasajeros, no tiene mucha capacida de carga.
  * 
- * @version 2.5
+ * @version 2.6
  */
 public class Velero extends Barco {
 	private int pasajeros;
@@ -24,8 +24,20 @@ public class Velero extends Barco {
 
 	@Override
 	public double calcularCapacidad() {
-		double capacidad = getVolumen() * 0.5;
-		if (this.pasajeros > 10) {
+		return calcularCapacidad(getVolumen(), this.pasajeros);
+	}
+
+	/**
+	 * Aplica la regla de capacidad de un velero a los datos dados, para 
+	 * poder calcularla sin tener el objeto (por ejemplo, en un repositorio 
+	 * que guarda los datos en arreglos).
+	 * @param volumen	el volumen del velero, en m3
+	 * @param pasajeros	la cantidad de pasajeros que lleva
+	 * @return	La capacidad de carga, en metros cúbicos
+	 */
+	public static double calcularCapacidad(double volumen, int pasajeros) {
+		double capacidad = volumen * 0.5;
+		if (pasajeros > 10) {
 			capacidad-= 10;
 		}
 		return (capacidad < 0) ? 0 : capacidad;
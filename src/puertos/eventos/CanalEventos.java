@@ -0,0 +1,236 @@
+package puertos.eventos;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import puertos.entidades.Barco;
+
+/**
+ * Canal de eventos del puerto (llegadas, salidas y actualizaciones de
+ * barcos) para otros sistemas (facturación, aduana, tableros), que así no
+ * tienen que consultar todos los barcos y compararlos para saber qué cambió.
+ *
+ * Es un buffer circular (ring buffer, al estilo del Disruptor) con un
+ * arreglo de eventos que se crea una sola vez: publicar no crea objetos
+ * ni usa bloqueos entre quien publica y quienes consumen. Cada evento
+ * tiene un número de secuencia; el cursor es el último publicado, y cada
+ * suscripción, en su propio hilo, lleva la secuencia del último que
+ * procesó. Un espacio del arreglo solo se reutiliza cuando todas las
+ * suscripciones ya procesaron el evento que tenía.
+ *
+ * Publica un solo hilo a la vez (publicar es synchronized). Cuando el canal
+ * está lleno porque alguna suscripción va atrasada, quien publica espera
+ * (contrapresión) o descarta el evento, según se configure.
+ *
+ * @version 1.0
+ */
+public class CanalEventos {
+	private final EventoBarco[] eventos;
+	private final int mascara;
+	private final EstrategiaEspera estrategia;
+	private final boolean esperarSiLleno;
+	/** La secuencia del último evento publicado (-1 si no hay) */
+	private final AtomicLong cursor = new AtomicLong(-1);
+	private volatile Suscripcion[] suscripciones = new Suscripcion[0];
+	/** Para cambiar el arreglo de suscripciones (quitar no puede esperar a quien publica) */
+	private final Object cerrojoSuscripciones = new Object();
+	/** La menor secuencia de las suscripciones la última vez que se revisó */
+	private long minimoProcesado = -1;
+	private final AtomicLong descartados = new AtomicLong();
+	private final AtomicInteger numeroSuscripcion = new AtomicInteger();
+
+	/** Para la estrategia BLOQUEAR: las suscripciones esperan en hayEventos */
+	private final ReentrantLock cerrojo = new ReentrantLock();
+	private final Condition hayEventos = cerrojo.newCondition();
+	private final AtomicInteger esperando = new AtomicInteger();
+
+	/**
+	 * @param capacidad	cantidad de eventos que caben en el canal
+	 * 			(una potencia de 2)
+	 * @param estrategia	qué hacen las suscripciones mientras no hay eventos
+	 * @param esperarSiLleno	si es true, quien publica espera a que haya
+	 * 			espacio (y con él, quien registra el barco en ControlPuerto);
+	 * 			si es false, el evento se descarta y se cuenta
+	 */
+	public CanalEventos(int capacidad, EstrategiaEspera estrategia, boolean esperarSiLleno) {
+		if (capacidad < 1 || Integer.bitCount(capacidad) != 1) {
+			throw new IllegalArgumentException("La capacidad debe ser una potencia de 2");
+		}
+		this.eventos = new EventoBarco[capacidad];
+		for (int i = 0; i < capacidad; i++) {
+			eventos[i] = new EventoBarco();
+		}
+		this.mascara = capacidad - 1;
+		this.estrategia = estrategia;
+		this.esperarSiLleno = esperarSiLleno;
+	}
+
+	/**
+	 * Publica un evento para todas las suscripciones
+	 * @return true si se publicó, o false si se descartó porque el canal
+	 * 		estaba lleno (solo si no se espera)
+	 */
+	public synchronized boolean publicar(TipoEvento tipo, Barco barco) {
+		long siguiente = cursor.get() + 1;
+		long limite = siguiente - eventos.length;
+		if (limite > minimoProcesado) {
+			minimoProcesado = calcularMinimoProcesado(siguiente - 1);
+			int intentos = 0;
+			while (limite > minimoProcesado) {
+				if (!esperarSiLleno) {
+					descartados.incrementAndGet();
+					return false;
+				}
+				estrategia.esperar(intentos++);
+				minimoProcesado = calcularMinimoProcesado(siguiente - 1);
+			}
+		}
+		eventos[(int) siguiente & mascara].asignar(siguiente, tipo, barco, System.nanoTime());
+		cursor.set(siguiente);
+		if (esperando.get() > 0) {
+			cerrojo.lock();
+			try {
+				hayEventos.signalAll();
+			} finally {
+				cerrojo.unlock();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Crea una suscripción que recibe, en su propio hilo, los eventos que
+	 * se publiquen desde ahora
+	 * @param consumidor	quien procesa los eventos
+	 * @param tamanoLote	la cantidad máxima de eventos por lote
+	 * @return la suscripción (ya iniciada), para cancelarla
+	 */
+	public Suscripcion suscribir(ConsumidorEventos consumidor, int tamanoLote) {
+		if (tamanoLote < 1) {
+			throw new IllegalArgumentException("El tamaño del lote debe ser positivo");
+		}
+		Suscripcion suscripcion;
+		// con el bloqueo de publicar, para que el cursor no cambie mientras tanto
+		synchronized (this) {
+			long desde = cursor.get();
+			suscripcion = new Suscripcion(this, consumidor, tamanoLote, desde,
+					"eventos-" + numeroSuscripcion.incrementAndGet());
+			synchronized (cerrojoSuscripciones) {
+				Suscripcion[] actuales = suscripciones;
+				Suscripcion[] nuevas = Arrays.copyOf(actuales, actuales.length + 1);
+				nuevas[actuales.length] = suscripcion;
+				suscripciones = nuevas;
+			}
+			minimoProcesado = Math.min(minimoProcesado, desde);
+		}
+		suscripcion.iniciar();
+		return suscripcion;
+	}
+
+	/**
+	 * Quita la suscripción, para que no se espere por ella (aunque quien
+	 * publica esté esperando, con el canal lleno)
+	 */
+	void quitar(Suscripcion suscripcion) {
+		synchronized (cerrojoSuscripciones) {
+			Suscripcion[] actuales = suscripciones;
+			Suscripcion[] nuevas = new Suscripcion[actuales.length];
+			int cantidad = 0;
+			for (Suscripcion otra : actuales) {
+				if (otra != suscripcion) {
+					nuevas[cantidad++] = otra;
+				}
+			}
+			suscripciones = Arrays.copyOf(nuevas, cantidad);
+		}
+	}
+
+	/**
+	 * @return la menor secuencia procesada por las suscripciones,
+	 * 		o la dada si no hay suscripciones
+	 */
+	private long calcularMinimoProcesado(long sinSuscripciones) {
+		long minimo = sinSuscripciones;
+		for (Suscripcion suscripcion : suscripciones) {
+			minimo = Math.min(minimo, suscripcion.getSecuencia());
+		}
+		return minimo;
+	}
+
+	EventoBarco obtener(long secuencia) {
+		return eventos[(int) secuencia & mascara];
+	}
+
+	long getCursor() {
+		return cursor.get();
+	}
+
+	/**
+	 * Espera a que se publique el evento con la secuencia dada (o un rato,
+	 * para que la suscripción revise si sigue activa)
+	 */
+	void esperarEvento(long secuencia, int intentos) {
+		if (estrategia != EstrategiaEspera.BLOQUEAR) {
+			estrategia.esperar(intentos);
+			return;
+		}
+		cerrojo.lock();
+		esperando.incrementAndGet();
+		try {
+			// quien publica revisa "esperando" después de mover el cursor
+			if (cursor.get() < secuencia) {
+				hayEventos.awaitNanos(TimeUnit.MILLISECONDS.toNanos(10));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			esperando.decrementAndGet();
+			cerrojo.unlock();
+		}
+	}
+
+	/**
+	 * Despierta a las suscripciones bloqueadas (para que revisen si se cancelaron)
+	 */
+	void despertar() {
+		cerrojo.lock();
+		try {
+			hayEventos.signalAll();
+		} finally {
+			cerrojo.unlock();
+		}
+	}
+
+	public int getCapacidad() {
+		return eventos.length;
+	}
+
+	public EstrategiaEspera getEstrategia() {
+		return estrategia;
+	}
+
+	/**
+	 * @return la cantidad de eventos publicados
+	 */
+	public long getPublicados() {
+		return cursor.get() + 1;
+	}
+
+	/**
+	 * @return la cantidad de eventos que no se publicaron porque el canal estaba lleno
+	 */
+	public long getDescartados() {
+		return descartados.get();
+	}
+
+	/**
+	 * @return la cantidad de suscripciones activas
+	 */
+	public int getSuscripciones() {
+		return suscripciones.length;
+	}
+}
@@ -0,0 +1,21 @@
+package puertos.eventos;
+
+/**
+ * Quien procesa los eventos de una suscripción a un CanalEventos.
+ * Se llama desde el hilo de la suscripción, con los eventos en orden.
+ *
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ConsumidorEventos {
+
+	/**
+	 * Procesa un evento. Los eventos llegan por lotes (todos los que se
+	 * han publicado, hasta el tamaño de lote de la suscripción), así que
+	 * el trabajo costoso (como escribir en un archivo o en la red) se puede
+	 * hacer una vez por lote, cuando finDeLote es true.
+	 * @param evento	el evento, que no se debe guardar (se reutiliza)
+	 * @param finDeLote	true si es el último evento del lote
+	 */
+	public abstract void procesar(EventoBarco evento, boolean finDeLote);
+}
@@ -0,0 +1,57 @@
+package puertos.eventos;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lo que hace el hilo de una suscripción mientras no hay eventos nuevos
+ * (y lo que hace quien publica mientras el canal está lleno, si espera).
+ * Entre más activa la espera, menos tarda un evento en llegar, pero más
+ * procesador se usa sin hacer nada: OCUPADA solo tiene sentido con un
+ * núcleo libre por cada suscripción.
+ *
+ * @version 1.0
+ */
+public enum EstrategiaEspera {
+	/** Revisa continuamente (Thread.onSpinWait) */
+	OCUPADA,
+	/** Revisa unas veces y luego le cede el procesador a otros hilos (Thread.yield) */
+	CEDER,
+	/** Revisa, cede y luego duerme 50 microsegundos entre revisiones */
+	DORMIR,
+	/** Se bloquea hasta que se publique un evento (quien publica lo despierta) */
+	BLOQUEAR;
+
+	private static final int REVISIONES = 100;
+	private static final long SIESTA_NANOS = 50_000;
+
+	/**
+	 * Espera un poco antes de volver a revisar. En BLOQUEAR la suscripción
+	 * se bloquea en el canal; aquí solo duerme (para quien publica).
+	 * @param intentos	cuántas veces se ha revisado sin éxito
+	 */
+	void esperar(int intentos) {
+		switch (this) {
+		case OCUPADA:
+			Thread.onSpinWait();
+			break;
+		case CEDER:
+			if (intentos < REVISIONES) {
+				Thread.onSpinWait();
+			} else {
+				Thread.yield();
+			}
+			break;
+		case DORMIR:
+			if (intentos < REVISIONES) {
+				Thread.onSpinWait();
+			} else if (intentos < 2 * REVISIONES) {
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(SIESTA_NANOS);
+			}
+			break;
+		default:
+			LockSupport.parkNanos(SIESTA_NANOS);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package puertos.eventos;
+
+import puertos.entidades.Barco;
+
+/**
+ * Un evento en el CanalEventos. Los objetos se crean una sola vez, al
+ * crear el canal, y se reutilizan cuando el canal da la vuelta, así que
+ * quien consume un evento no lo debe guardar: debe copiar lo que necesite
+ * (el barco sí se puede guardar, porque no cambia).
+ *
+ * @version 1.0
+ */
+public class EventoBarco {
+	private long secuencia;
+	private TipoEvento tipo;
+	private Barco barco;
+	private long instante;
+
+	EventoBarco() {
+	}
+
+	void asignar(long secuencia, TipoEvento tipo, Barco barco, long instante) {
+		this.secuencia = secuencia;
+		this.tipo = tipo;
+		this.barco = barco;
+		this.instante = instante;
+	}
+
+	/**
+	 * @return el número del evento en el canal (desde 0, sin saltos)
+	 */
+	public long getSecuencia() {
+		return secuencia;
+	}
+
+	public TipoEvento getTipo() {
+		return tipo;
+	}
+
+	/**
+	 * @return el barco que llegó o salió, o el barco con los nuevos datos
+	 * 		(en una actualización)
+	 */
+	public Barco getBarco() {
+		return barco;
+	}
+
+	/**
+	 * @return el valor de System.nanoTime() cuando se publicó
+	 * 		(para medir cuánto tarda en llegar a quien lo consume)
+	 */
+	public long getInstante() {
+		return instante;
+	}
+
+	@Override
+	public String toString() {
+		return secuencia + " " + tipo + " " + ((barco == null) ? null : barco.getMatricula());
+	}
+}
@@ -0,0 +1,122 @@
+package puertos.eventos;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Una suscripción a un CanalEventos: un hilo que le pasa los eventos, por
+ * lotes y en orden, a un ConsumidorEventos. Después de cada lote publica
+ * la secuencia del último evento procesado, que es lo que le indica al
+ * canal que ya puede reutilizar esos espacios.
+ * Si el consumidor lanza una excepción con un evento, se cuenta y se
+ * sigue con el siguiente.
+ *
+ * @version 1.0
+ */
+public class Suscripcion {
+	private final CanalEventos canal;
+	private final ConsumidorEventos consumidor;
+	private final int tamanoLote;
+	/** La secuencia del último evento procesado */
+	private final AtomicLong secuencia;
+	private final Thread hilo;
+	private volatile boolean activa = true;
+	private final AtomicLong procesados = new AtomicLong();
+	private final AtomicLong lotes = new AtomicLong();
+	private final AtomicLong errores = new AtomicLong();
+
+	Suscripcion(CanalEventos canal, ConsumidorEventos consumidor, int tamanoLote, long desde,
+			String nombre) {
+		this.canal = canal;
+		this.consumidor = consumidor;
+		this.tamanoLote = tamanoLote;
+		this.secuencia = new AtomicLong(desde);
+		this.hilo = new Thread(this::procesarEventos, nombre);
+		this.hilo.setDaemon(true);
+	}
+
+	void iniciar() {
+		hilo.start();
+	}
+
+	private void procesarEventos() {
+		try {
+			long siguiente = secuencia.get() + 1;
+			int intentos = 0;
+			while (activa) {
+				long disponible = canal.getCursor();
+				if (disponible < siguiente) {
+					canal.esperarEvento(siguiente, intentos++);
+					continue;
+				}
+				intentos = 0;
+				long ultimo = Math.min(disponible, siguiente + tamanoLote - 1);
+				for (long actual = siguiente; actual <= ultimo; actual++) {
+					try {
+						consumidor.procesar(canal.obtener(actual), actual == ultimo);
+					} catch (RuntimeException e) {
+						errores.incrementAndGet();
+					}
+				}
+				secuencia.lazySet(ultimo);
+				procesados.lazySet(procesados.get() + ultimo - siguiente + 1);
+				lotes.lazySet(lotes.get() + 1);
+				siguiente = ultimo + 1;
+			}
+		} finally {
+			canal.quitar(this);
+		}
+	}
+
+	/**
+	 * Detiene el hilo (después de terminar el lote que está procesando)
+	 * y quita la suscripción del canal. Si se llama desde otro hilo,
+	 * espera a que termine.
+	 */
+	public void cancelar() {
+		activa = false;
+		canal.despertar();
+		if (Thread.currentThread() != hilo) {
+			try {
+				hilo.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public boolean estaActiva() {
+		return activa;
+	}
+
+	/**
+	 * @return la secuencia del último evento procesado
+	 */
+	public long getSecuencia() {
+		return secuencia.get();
+	}
+
+	public int getTamanoLote() {
+		return tamanoLote;
+	}
+
+	/**
+	 * @return la cantidad de eventos procesados
+	 */
+	public long getProcesados() {
+		return procesados.get();
+	}
+
+	/**
+	 * @return la cantidad de lotes (en promedio, procesados / lotes eventos por lote)
+	 */
+	public long getLotes() {
+		return lotes.get();
+	}
+
+	/**
+	 * @return la cantidad de eventos con los que el consumidor lanzó una excepción
+	 */
+	public long getErrores() {
+		return errores.get();
+	}
+}
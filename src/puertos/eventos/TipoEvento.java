@@ -0,0 +1,15 @@
+package puertos.eventos;
+
+/**
+ * Los cambios en el puerto que se publican como eventos
+ *
+ * @version 1.0
+ */
+public enum TipoEvento {
+	/** Un barco quedó registrado (ControlPuerto.adicionarBarco o adicionarBarcos) */
+	LLEGADA,
+	/** Un barco salió del puerto (ControlPuerto.retirarBarco) */
+	SALIDA,
+	/** Cambiaron los datos de un barco (ControlPuerto.actualizarBarco) */
+	ACTUALIZACION
+}
@@ -6,6 +6,8 @@ import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.swing.ButtonGroup;
 import javax.swing.ButtonModel;
@@ -18,21 +20,26 @@ import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JSeparator;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.border.EmptyBorder;
 
 import puertos.control.BarcoException;
 import puertos.control.ControlPuerto;
+import puertos.control.ControlPuertoAsincrono;
+import puertos.persistencia.MapaBarcosConcurrente;
 
 /**
  * Interfaz gráfica sencilla que permite hacer algunas operaciones
  * con barcos en un puerto, principalmente para pruebas.
  * Esta ventana se generó con el WindowsBuilder (plugin de Eclipse).
- * @version 1.5
+ * Las operaciones se hacen con ControlPuertoAsincrono, para que el hilo
+ * de eventos no se bloquee; el resultado se muestra cuando termina.
+ * @version 1.6
  */
 public class VentanaControlBarcos extends JFrame {
 	
-	private ControlPuerto puerto;
+	private ControlPuertoAsincrono puerto;
 
 	private JPanel contentPane;
 	private JTextField campoNacionalidad;
@@ -42,6 +49,8 @@ public class VentanaControlBarcos extends JFrame {
 	private final ButtonGroup opcionesTipoBarco = new ButtonGroup();
 	private JCheckBox checkLiquidos;
 	private JTextField campoMatricula;
+	private JButton btnCrearBarco;
+	private JButton btnCalcularCapacidad;
 
 	/**
 	 * Launch the application.
@@ -64,7 +73,7 @@ public class VentanaControlBarcos extends JFrame {
 	 */
 	public VentanaControlBarcos() {
 		
-		puerto = new ControlPuerto();
+		puerto = new ControlPuertoAsincrono(new ControlPuerto(new MapaBarcosConcurrente()));
 		
 		setTitle("Control Barcos");
 		setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
@@ -95,7 +104,7 @@ public class VentanaControlBarcos extends JFrame {
 		constraintslblMatrcula.gridy = 1;
 		contentPane.add(lblMatrcula, constraintslblMatrcula);
 		
-		JButton btnCrearBarco = new JButton("Crear Barco");
+		btnCrearBarco = new JButton("Crear Barco");
 		btnCrearBarco.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				crearBarco();
@@ -244,7 +253,7 @@ public class VentanaControlBarcos extends JFrame {
 		constraintsLblCapacidadTotal.gridy = 10;
 		contentPane.add(lblCapacidadTotal, constraintsLblCapacidadTotal);
 		
-		JButton btnCalcularCapacidad = new JButton("Calcular Capacidad");
+		btnCalcularCapacidad = new JButton("Calcular Capacidad");
 		btnCalcularCapacidad.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				calcularCapacidad();
@@ -271,6 +280,7 @@ public class VentanaControlBarcos extends JFrame {
 	 * Acciones que se toman cuando se presiona el botón "crear Barco".
 	 * Se deben obtener los datos necesarios, enviarlos a la clase
 	 * de control y mostrar mensaje (dependiendo del resultado).
+	 * Mientras se registra, el botón queda deshabilitado.
 	 */
 	public void crearBarco() {
 		String matricula = campoMatricula.getText();
@@ -288,14 +298,38 @@ public class VentanaControlBarcos extends JFrame {
 			return;
 		}
 		
-		try {
-			puerto.adicionarBarco(matricula, nacionalidad, volumen, tipo, pasajeros, liquidos);
-			JOptionPane.showMessageDialog(this,"Barco registrado");
+		btnCrearBarco.setEnabled(false);
+		puerto.adicionarBarco(matricula, nacionalidad, volumen, tipo, pasajeros, liquidos)
+				.whenComplete((sinValor, error) -> SwingUtilities.invokeLater(() -> {
+					btnCrearBarco.setEnabled(true);
+					if (error == null) {
+						JOptionPane.showMessageDialog(this,"Barco registrado");
+					}
+					else {
+						mostrarError(error, "Error en registro");
+					}
+				}));
+	}
+	
+	/**
+	 * Muestra el mensaje de la excepción con que terminó una operación
+	 * (si es de las reglas del negocio o porque hay muchas pendientes)
+	 */
+	private void mostrarError(Throwable error, String titulo) {
+		if (error instanceof CompletionException && error.getCause() != null) {
+			error = error.getCause();
+		}
+		String mensaje;
+		if (error instanceof BarcoException) {
+			mensaje = error.getMessage();
+		}
+		else if (error instanceof RejectedExecutionException) {
+			mensaje = "El puerto está ocupado, intente de nuevo";
 		}
-		catch (BarcoException errorRegistro) {
-			JOptionPane.showMessageDialog(this,errorRegistro.getMessage(), 
-					"Error en registro",JOptionPane.WARNING_MESSAGE);
+		else {
+			mensaje = "Error inesperado: " + error;
 		}
+		JOptionPane.showMessageDialog(this, mensaje, titulo, JOptionPane.WARNING_MESSAGE);
 	}
 	
 	private boolean validarCampoObligatorio(String valor) {
@@ -309,9 +343,19 @@ public class VentanaControlBarcos extends JFrame {
 	 * Acciones que se toman cuando se presiona el botón "calcular capacidad".
 	 * Se deben obtener los datos necesarios, enviarlos a la clase
 	 * de control y mostrar el valor en el campo correspondiente
+	 * (cuando termine el cálculo).
 	 */
 	public void calcularCapacidad() {
-		double capacidad = puerto.calcularCapacidadTotal();
-		campoCapacidad.setText(""+capacidad);
+		btnCalcularCapacidad.setEnabled(false);
+		puerto.calcularCapacidadTotal()
+				.whenComplete((capacidad, error) -> SwingUtilities.invokeLater(() -> {
+					btnCalcularCapacidad.setEnabled(true);
+					if (error == null) {
+						campoCapacidad.setText(""+capacidad);
+					}
+					else {
+						mostrarError(error, "Error en el cálculo");
+					}
+				}));
 	}
 }
@@ -0,0 +1,95 @@
+package puertos.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de tiempos (en nanosegundos) con precisión relativa fija,
+ * al estilo de HdrHistogram: los valores menores que 128 tienen cada uno
+ * su casilla, y de ahí en adelante cada potencia de 2 se divide en 64
+ * casillas, así que el error de un percentil es menor que 1/64 (1.6 %)
+ * del valor. Cubre hasta MAXIMO (unos 18 minutos); los valores mayores
+ * se cuentan en la última casilla.
+ *
+ * Registrar un valor no crea objetos ni usa bloqueos (solo contadores
+ * atómicos), así que se puede usar desde varios hilos en las operaciones
+ * que se miden. Para consultarlo se toma una instantánea.
+ *
+ * @version 1.0
+ */
+public class HistogramaLatencia {
+	public static final long MAXIMO = (1L << 40) - 1;
+
+	private static final int BITS_SUBCASILLAS = 7;
+	private static final int SUBCASILLAS = 1 << BITS_SUBCASILLAS;
+	private static final int MITAD = SUBCASILLAS / 2;
+	static final int CASILLAS = indice(MAXIMO) + 1;
+
+	private final AtomicLongArray conteos = new AtomicLongArray(CASILLAS);
+	private final AtomicLong suma = new AtomicLong();
+	private final AtomicLong maximo = new AtomicLong();
+
+	/**
+	 * @param nanos	el tiempo que se midió; los negativos se cuentan como 0
+	 */
+	public void registrar(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		conteos.incrementAndGet(indice(Math.min(nanos, MAXIMO)));
+		suma.addAndGet(nanos);
+		long anterior = maximo.get();
+		while (nanos > anterior && !maximo.compareAndSet(anterior, nanos)) {
+			anterior = maximo.get();
+		}
+	}
+
+	/**
+	 * Copia los conteos actuales. Si se está registrando al mismo tiempo,
+	 * la copia puede incluir una parte de esos registros.
+	 */
+	public InstantaneaHistograma tomarInstantanea() {
+		long[] copia = new long[CASILLAS];
+		long cantidad = 0;
+		for (int i = 0; i < CASILLAS; i++) {
+			copia[i] = conteos.get(i);
+			cantidad += copia[i];
+		}
+		return new InstantaneaHistograma(copia, cantidad, suma.get(), maximo.get());
+	}
+
+	/**
+	 * Vuelve a cero (los registros concurrentes pueden quedar a medias)
+	 */
+	public void reiniciar() {
+		for (int i = 0; i < CASILLAS; i++) {
+			conteos.set(i, 0);
+		}
+		suma.set(0);
+		maximo.set(0);
+	}
+
+	/**
+	 * @return la casilla donde se cuenta el valor (entre 0 y MAXIMO)
+	 */
+	static int indice(long valor) {
+		if (valor < SUBCASILLAS) {
+			return (int) valor;
+		}
+		int desplazamiento = (63 - Long.numberOfLeadingZeros(valor)) - (BITS_SUBCASILLAS - 1);
+		int subcasilla = (int) (valor >>> desplazamiento) - MITAD;
+		return SUBCASILLAS + (desplazamiento - 1) * MITAD + subcasilla;
+	}
+
+	/**
+	 * @return el mayor valor que se cuenta en la casilla
+	 */
+	static long valorMaximo(int indice) {
+		if (indice < SUBCASILLAS) {
+			return indice;
+		}
+		int desplazamiento = (indice - SUBCASILLAS) / MITAD + 1;
+		long subcasilla = (indice - SUBCASILLAS) % MITAD + MITAD;
+		return ((subcasilla + 1) << desplazamiento) - 1;
+	}
+}
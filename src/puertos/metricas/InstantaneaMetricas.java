@@ -0,0 +1,99 @@
+package puertos.metricas;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Copia de las métricas del puerto en un momento dado, que se puede
+ * consultar o exportar en CSV (por ejemplo, para un archivo o un tablero).
+ *
+ * @version 1.0
+ */
+public class InstantaneaMetricas {
+	private Map<Operacion, InstantaneaHistograma> tiempos;
+	private Map<Operacion, Long> llamadas;
+	private Map<Operacion, Long> fallas;
+	private Map<Rechazo, Long> rechazos;
+
+	InstantaneaMetricas(Map<Operacion, InstantaneaHistograma> tiempos, Map<Operacion, Long> llamadas,
+			Map<Operacion, Long> fallas, Map<Rechazo, Long> rechazos) {
+		this.tiempos = tiempos;
+		this.llamadas = llamadas;
+		this.fallas = fallas;
+		this.rechazos = rechazos;
+	}
+
+	/**
+	 * @return los tiempos de la operación (de las llamadas que se midieron,
+	 * 		según el muestreo)
+	 */
+	public InstantaneaHistograma getTiempos(Operacion operacion) {
+		return tiempos.get(operacion);
+	}
+
+	/**
+	 * @return cuántas veces se hizo la operación (incluyendo las que
+	 * 		fallaron o se rechazaron)
+	 */
+	public long getCantidad(Operacion operacion) {
+		return llamadas.get(operacion);
+	}
+
+	public long getFallas(Operacion operacion) {
+		return fallas.get(operacion);
+	}
+
+	public long getRechazos(Rechazo rechazo) {
+		return rechazos.get(rechazo);
+	}
+
+	public Map<Rechazo, Long> getRechazos() {
+		return Collections.unmodifiableMap(rechazos);
+	}
+
+	/**
+	 * Escribe las métricas en CSV: primero una línea por cada operación
+	 * que se hizo al menos una vez, con cuántas llamadas se midieron y
+	 * los tiempos en microsegundos (operacion,cantidad,fallas,medidas,
+	 * promedio_us,p50_us,p90_us,p99_us,p999_us,maximo_us),
+	 * y luego una línea por cada razón de rechazo (rechazo,cantidad).
+	 * Los decimales siempre van con punto, sin importar el idioma del sistema.
+	 */
+	public void exportar(Appendable salida) throws IOException {
+		salida.append("operacion,cantidad,fallas,medidas,promedio_us,p50_us,p90_us,p99_us,p999_us,maximo_us\n");
+		for (Map.Entry<Operacion, InstantaneaHistograma> entrada : tiempos.entrySet()) {
+			Operacion operacion = entrada.getKey();
+			InstantaneaHistograma histograma = entrada.getValue();
+			if (llamadas.get(operacion) == 0) {
+				continue;
+			}
+			salida.append(operacion.name()).append(',')
+					.append(llamadas.get(operacion).toString()).append(',')
+					.append(fallas.get(operacion).toString()).append(',')
+					.append(Long.toString(histograma.getCantidad()));
+			salida.append(String.format(Locale.ROOT, ",%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+					histograma.getPromedio() / 1e3, histograma.getPercentil(50) / 1e3,
+					histograma.getPercentil(90) / 1e3, histograma.getPercentil(99) / 1e3,
+					histograma.getPercentil(99.9) / 1e3, histograma.getMaximo() / 1e3));
+		}
+		salida.append("rechazo,cantidad\n");
+		for (Map.Entry<Rechazo, Long> entrada : rechazos.entrySet()) {
+			salida.append(entrada.getKey().name()).append(',')
+					.append(entrada.getValue().toString()).append('\n');
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder texto = new StringBuilder();
+		try {
+			exportar(texto);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return texto.toString();
+	}
+}
@@ -0,0 +1,130 @@
+package puertos.metricas;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Métricas de las operaciones del puerto: cuántas veces se hizo cada
+ * operación, un histograma de sus tiempos, cuántas fallaron con una
+ * excepción inesperada y cuántas se rechazaron por cada regla del negocio.
+ * Registrar no crea objetos ni usa bloqueos, así que se puede usar
+ * desde varios hilos en las operaciones que se miden.
+ *
+ * Leer el reloj (System.nanoTime) cuesta unas decenas de nanosegundos,
+ * que es mucho para una búsqueda en memoria; por eso se puede medir el
+ * tiempo solo de una de cada cierta cantidad de llamadas (muestreo),
+ * aunque se siguen contando todas.
+ *
+ * Se conecta con ControlPuerto.usarMetricas y con RepositorioMedido
+ * (pueden compartir el mismo objeto).
+ *
+ * @version 1.0
+ */
+public class MetricasPuerto {
+	private static final Operacion[] OPERACIONES = Operacion.values();
+	private static final Rechazo[] RECHAZOS = Rechazo.values();
+
+	private final HistogramaLatencia[] tiempos;
+	private final AtomicLongArray llamadas;
+	private final AtomicLongArray fallas;
+	private final AtomicLongArray rechazos;
+	private final int muestreo;
+
+	/**
+	 * Se mide el tiempo de todas las llamadas
+	 */
+	public MetricasPuerto() {
+		this(1);
+	}
+
+	/**
+	 * @param muestreo	de cada cuántas llamadas se mide el tiempo de una;
+	 * 			debe ser una potencia de 2 (1 para medirlas todas)
+	 */
+	public MetricasPuerto(int muestreo) {
+		if (muestreo <= 0 || Integer.bitCount(muestreo) != 1) {
+			throw new IllegalArgumentException("El muestreo debe ser una potencia de 2");
+		}
+		this.muestreo = muestreo;
+		tiempos = new HistogramaLatencia[OPERACIONES.length];
+		for (int i = 0; i < tiempos.length; i++) {
+			tiempos[i] = new HistogramaLatencia();
+		}
+		llamadas = new AtomicLongArray(OPERACIONES.length);
+		fallas = new AtomicLongArray(OPERACIONES.length);
+		rechazos = new AtomicLongArray(RECHAZOS.length);
+	}
+
+	public int getMuestreo() {
+		return muestreo;
+	}
+
+	/**
+	 * Cuenta una llamada a la operación, al empezarla
+	 * @return el valor de System.nanoTime() si se va a medir el tiempo de 
+	 * 		esta llamada, o 0 si no (se le debe pasar a terminar)
+	 */
+	public long iniciar(Operacion operacion) {
+		long llamada = llamadas.incrementAndGet(operacion.ordinal());
+		return ((llamada & (muestreo - 1)) == 0) ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Registra el tiempo de una operación que terminó (bien o mal)
+	 * @param inicio	lo que retornó iniciar
+	 */
+	public void terminar(Operacion operacion, long inicio) {
+		if (inicio != 0) {
+			tiempos[operacion.ordinal()].registrar(System.nanoTime() - inicio);
+		}
+	}
+
+	/**
+	 * Cuenta una operación que terminó con una excepción inesperada
+	 * (su tiempo se registra aparte, con registrar)
+	 */
+	public void registrarFalla(Operacion operacion) {
+		fallas.incrementAndGet(operacion.ordinal());
+	}
+
+	public void contarRechazo(Rechazo rechazo) {
+		rechazos.incrementAndGet(rechazo.ordinal());
+	}
+
+	/**
+	 * Copia todos los contadores e histogramas
+	 */
+	public InstantaneaMetricas tomarInstantanea() {
+		Map<Operacion, InstantaneaHistograma> copiaTiempos = 
+				new EnumMap<Operacion, InstantaneaHistograma>(Operacion.class);
+		Map<Operacion, Long> copiaLlamadas = new EnumMap<Operacion, Long>(Operacion.class);
+		Map<Operacion, Long> copiaFallas = new EnumMap<Operacion, Long>(Operacion.class);
+		for (Operacion operacion : OPERACIONES) {
+			copiaTiempos.put(operacion, tiempos[operacion.ordinal()].tomarInstantanea());
+			copiaLlamadas.put(operacion, llamadas.get(operacion.ordinal()));
+			copiaFallas.put(operacion, fallas.get(operacion.ordinal()));
+		}
+		Map<Rechazo, Long> copiaRechazos = new EnumMap<Rechazo, Long>(Rechazo.class);
+		for (Rechazo rechazo : RECHAZOS) {
+			copiaRechazos.put(rechazo, rechazos.get(rechazo.ordinal()));
+		}
+		return new InstantaneaMetricas(copiaTiempos, copiaLlamadas, copiaFallas, copiaRechazos);
+	}
+
+	/**
+	 * Vuelve todo a cero, por ejemplo después de exportar
+	 */
+	public void reiniciar() {
+		for (HistogramaLatencia histograma : tiempos) {
+			histograma.reiniciar();
+		}
+		for (int i = 0; i < OPERACIONES.length; i++) {
+			llamadas.set(i, 0);
+			fallas.set(i, 0);
+		}
+		for (int i = 0; i < rechazos.length(); i++) {
+			rechazos.set(i, 0);
+		}
+	}
+}
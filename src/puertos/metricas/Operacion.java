@@ -0,0 +1,34 @@
+package puertos.metricas;
+
+/**
+ * Las operaciones cuyo tiempo se mide: las del repositorio (con
+ * RepositorioMedido) y las de ControlPuerto.
+ *
+ * @version 1.0
+ */
+public enum Operacion {
+	/** RepositorioBarcos.adicionarBarco y adicionarSiNoExiste */
+	ADICIONAR,
+	/** RepositorioBarcos.adicionarBarcos */
+	ADICIONAR_LOTE,
+	/** RepositorioBarcos.buscarBarco */
+	BUSCAR,
+	/** RepositorioBarcos.consultarBarcos, recorrerBarcos y consultarPagina */
+	CONSULTAR,
+	/** RepositorioBarcos.calcularCapacidadTotal */
+	CALCULAR_CAPACIDAD,
+	/** RepositorioBarcos.eliminarBarco */
+	ELIMINAR,
+	/** RepositorioBarcos.actualizarBarco */
+	ACTUALIZAR,
+	/** ControlPuerto.adicionarBarco */
+	REGISTRAR_BARCO,
+	/** ControlPuerto.adicionarBarcos */
+	REGISTRAR_LOTE,
+	/** ControlPuerto.retirarBarco */
+	RETIRAR_BARCO,
+	/** ControlPuerto.actualizarBarco */
+	ACTUALIZAR_BARCO,
+	/** ControlPuerto.calcularCapacidadTotal */
+	CAPACIDAD_TOTAL
+}
@@ -0,0 +1,18 @@
+package puertos.metricas;
+
+/**
+ * Las razones por las que ControlPuerto no acepta una operación
+ * (por las reglas del negocio), que se cuentan por separado.
+ *
+ * @version 1.1
+ */
+public enum Rechazo {
+	/** Ya hay un barco con esa matrícula */
+	MATRICULA_REPETIDA,
+	/** No hay un barco con esa matrícula (al retirar o actualizar) */
+	MATRICULA_INEXISTENTE,
+	/** El volumen no está entre 0 y el volumen máximo permitido */
+	VOLUMEN_INCORRECTO,
+	/** El tipo de barco no es 'v' ni 'c' */
+	TIPO_DESCONOCIDO
+}
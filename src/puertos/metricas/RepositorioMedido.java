@@ -0,0 +1,184 @@
+package puertos.metricas;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.FiltroBarcos;
+import puertos.persistencia.PaginaBarcos;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Repositorio que le pasa todas las operaciones a otro, midiendo el
+ * tiempo de cada una (y contando las que fallan con una excepción) en
+ * unas MetricasPuerto. Se usa en lugar del repositorio original, por
+ * ejemplo: new ControlPuerto(new RepositorioMedido(repositorio, metricas)).
+ * El tiempo de consultarBarcos es solo lo que demora en entregar la lista
+ * (no lo que se haga luego con ella).
+ *
+ * @version 1.1
+ */
+public class RepositorioMedido implements RepositorioBarcos {
+	private RepositorioBarcos repositorio;
+	private MetricasPuerto metricas;
+
+	public RepositorioMedido(RepositorioBarcos repositorio, MetricasPuerto metricas) {
+		this.repositorio = repositorio;
+		this.metricas = metricas;
+	}
+
+	public RepositorioBarcos getRepositorio() {
+		return repositorio;
+	}
+
+	public MetricasPuerto getMetricas() {
+		return metricas;
+	}
+
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		long inicio = metricas.iniciar(Operacion.ADICIONAR);
+		try {
+			return repositorio.adicionarBarco(barco);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.ADICIONAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.ADICIONAR, inicio);
+		}
+	}
+
+	@Override
+	public boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+		long inicio = metricas.iniciar(Operacion.ADICIONAR_LOTE);
+		try {
+			return repositorio.adicionarBarcos(barcos);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.ADICIONAR_LOTE);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.ADICIONAR_LOTE, inicio);
+		}
+	}
+
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		long inicio = metricas.iniciar(Operacion.ADICIONAR);
+		try {
+			return repositorio.adicionarSiNoExiste(barco);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.ADICIONAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.ADICIONAR, inicio);
+		}
+	}
+
+	@Override
+	public Barco buscarBarco(String matricula) {
+		long inicio = metricas.iniciar(Operacion.BUSCAR);
+		try {
+			return repositorio.buscarBarco(matricula);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.BUSCAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.BUSCAR, inicio);
+		}
+	}
+
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		long inicio = metricas.iniciar(Operacion.ELIMINAR);
+		try {
+			return repositorio.eliminarBarco(matricula);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.ELIMINAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.ELIMINAR, inicio);
+		}
+	}
+
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		long inicio = metricas.iniciar(Operacion.ACTUALIZAR);
+		try {
+			return repositorio.actualizarBarco(barco);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.ACTUALIZAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.ACTUALIZAR, inicio);
+		}
+	}
+
+	@Override
+	public List<Barco> consultarBarcos() {
+		long inicio = metricas.iniciar(Operacion.CONSULTAR);
+		try {
+			return repositorio.consultarBarcos();
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.CONSULTAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.CONSULTAR, inicio);
+		}
+	}
+
+	@Override
+	public int contarBarcos() {
+		long inicio = metricas.iniciar(Operacion.CONSULTAR);
+		try {
+			return repositorio.contarBarcos();
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.CONSULTAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.CONSULTAR, inicio);
+		}
+	}
+
+	/**
+	 * El tiempo incluye lo que haga el visitante con cada barco
+	 */
+	@Override
+	public void recorrerBarcos(Consumer<? super Barco> visitante) {
+		long inicio = metricas.iniciar(Operacion.CONSULTAR);
+		try {
+			repositorio.recorrerBarcos(visitante);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.CONSULTAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.CONSULTAR, inicio);
+		}
+	}
+
+	@Override
+	public PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		long inicio = metricas.iniciar(Operacion.CONSULTAR);
+		try {
+			return repositorio.consultarPagina(filtro, tamano, continuacion);
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.CONSULTAR);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.CONSULTAR, inicio);
+		}
+	}
+
+	@Override
+	public double calcularCapacidadTotal() {
+		long inicio = metricas.iniciar(Operacion.CALCULAR_CAPACIDAD);
+		try {
+			return repositorio.calcularCapacidadTotal();
+		} catch (RuntimeException e) {
+			metricas.registrarFalla(Operacion.CALCULAR_CAPACIDAD);
+			throw e;
+		} finally {
+			metricas.terminar(Operacion.CALCULAR_CAPACIDAD, inicio);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package puertos.persistencia;
+
+import java.util.Arrays;
+
+/**
+ * Anillo de hashing consistente, para repartir las matrículas entre varias
+ * particiones. Cada partición ocupa varios puntos (nodos virtuales) en un
+ * anillo de valores de 64 bits, y cada matrícula le pertenece a la partición
+ * del primer punto que hay desde el hash de la matrícula (dando la vuelta
+ * al final). Así, al adicionar una partición, solo cambian de dueño las
+ * matrículas que pasan a la nueva (más o menos 1/n de todas), y no se
+ * mueven barcos entre las particiones que ya había.
+ *
+ * Los puntos se guardan ordenados en un arreglo, y se buscan con búsqueda
+ * binaria. No se puede modificar desde varios hilos a la vez.
+ *
+ * @version 1.1
+ */
+public class AnilloParticiones {
+	/** Nodos virtuales por partición: con más, el reparto es más parejo */
+	public static final int NODOS_POR_PARTICION = 128;
+
+	private final int nodosPorParticion;
+	private long[] puntos = new long[0];
+	private int[] duenos = new int[0];
+	private int particiones;
+
+	public AnilloParticiones() {
+		this(NODOS_POR_PARTICION);
+	}
+
+	/**
+	 * @param nodosPorParticion	la cantidad de puntos de cada partición en el anillo
+	 */
+	public AnilloParticiones(int nodosPorParticion) {
+		if (nodosPorParticion < 1) {
+			throw new IllegalArgumentException("Cada partición debe tener al menos un nodo");
+		}
+		this.nodosPorParticion = nodosPorParticion;
+	}
+
+	/**
+	 * @return otro anillo con los mismos puntos, que se puede modificar
+	 * 		sin cambiar este
+	 */
+	public AnilloParticiones copiar() {
+		AnilloParticiones copia = new AnilloParticiones(nodosPorParticion);
+		// los arreglos no se modifican, siempre se reemplazan
+		copia.puntos = puntos;
+		copia.duenos = duenos;
+		copia.particiones = particiones;
+		return copia;
+	}
+
+	/**
+	 * Pone en el anillo los puntos de una nueva partición
+	 * @return el número de la nueva partición (desde 0)
+	 */
+	public int adicionarParticion() {
+		int particion = particiones++;
+		int cantidad = puntos.length + nodosPorParticion;
+		long[] nuevosPuntos = new long[cantidad];
+		int[] nuevosDuenos = new int[cantidad];
+		// se mezclan los puntos actuales (ordenados) con los nuevos (ordenados)
+		long[] agregados = new long[nodosPorParticion];
+		for (int nodo = 0; nodo < nodosPorParticion; nodo++) {
+			agregados[nodo] = FiltroBloom.calcularHash(particion + "#" + nodo);
+		}
+		Arrays.sort(agregados);
+		int actual = 0;
+		int agregado = 0;
+		for (int i = 0; i < cantidad; i++) {
+			if (agregado == agregados.length
+					|| (actual < puntos.length && puntos[actual] <= agregados[agregado])) {
+				nuevosPuntos[i] = puntos[actual];
+				nuevosDuenos[i] = duenos[actual++];
+			} else {
+				nuevosPuntos[i] = agregados[agregado++];
+				nuevosDuenos[i] = particion;
+			}
+		}
+		puntos = nuevosPuntos;
+		duenos = nuevosDuenos;
+		return particion;
+	}
+
+	/**
+	 * @return el número de la partición a la que le pertenece la matrícula
+	 * @throws IllegalStateException si no hay particiones
+	 */
+	public int obtenerParticion(String matricula) {
+		if (particiones == 0) {
+			throw new IllegalStateException("No hay particiones");
+		}
+		int posicion = Arrays.binarySearch(puntos, FiltroBloom.calcularHash(matricula));
+		if (posicion < 0) {
+			posicion = -posicion - 1;
+		}
+		return duenos[(posicion == puntos.length) ? 0 : posicion];
+	}
+
+	/**
+	 * @return la cantidad de particiones
+	 */
+	public int getParticiones() {
+		return particiones;
+	}
+}
@@ -0,0 +1,443 @@
+package puertos.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import puertos.entidades.Barco;
+
+/**
+ * Repositorio que guarda los barcos en un archivo, para no perder el
+ * registro cuando el programa se reinicia. Las operaciones se van agregando
+ * al final del archivo (nunca se modifica lo que ya está escrito),
+ * y en memoria se tiene un MapaBarcos con todos los barcos para las consultas.
+ *
+ * Cada registro del archivo tiene: longitud (int), suma de verificación
+ * CRC32 (int), el tipo de operación (1 byte: adicionar, actualizar o
+ * eliminar) y el barco, o solo la matrícula para eliminar (ver CodificadorBarcos).
+ * Los barcos eliminados siguen ocupando espacio en el archivo (no se compacta).
+ * Al abrir el archivo se vuelven a leer todos los registros; si el último
+ * quedó incompleto o dañado (por ejemplo, porque el programa se cerró
+ * mientras se escribía), se descarta y se corta el archivo en ese punto.
+ *
+ * Las consultas que recorren los barcos lo hacen con el bloqueo del
+ * repositorio (consultarBarcos entrega una copia), para que una adición
+ * desde otro hilo no cambie el MapaBarcos mientras se recorre.
+ *
+ * @version 1.3
+ */
+public class ArchivoBarcos implements RepositorioBarcos, Closeable {
+	private static final int TAMANO_ENCABEZADO = 8;
+	private static final int LONGITUD_MAXIMA = 1 << 17;
+	private static final int TAMANO_BUFER = 1 << 20;
+	private static final byte ADICIONAR = 'A';
+	private static final byte ACTUALIZAR = 'M';
+	private static final byte ELIMINAR = 'E';
+
+	private FileChannel canal;
+	private PoliticaSincronizacion politica;
+	private MapaBarcos barcos;
+	private ByteBuffer bufer;
+	private CRC32 crc;
+	private int registrosPendientes;
+	private long bytesDescartados;
+	private ScheduledExecutorService sincronizador;
+
+	/**
+	 * Abre (o crea) el archivo y carga los barcos que ya tiene.
+	 * @param archivo	la ruta del archivo donde se guardan los barcos
+	 * @param politica	cada cuánto se fuerza la escritura en el disco
+	 * @throws IOException	si no se puede abrir o leer el archivo
+	 */
+	public ArchivoBarcos(Path archivo, PoliticaSincronizacion politica) throws IOException {
+		this.politica = politica;
+		canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		barcos = new MapaBarcos();
+		bufer = ByteBuffer.allocate(TAMANO_BUFER);
+		crc = new CRC32();
+		try {
+			recuperar();
+		} catch (IOException | RuntimeException e) {
+			canal.close();
+			throw e;
+		}
+		if (politica.getMilisegundos() > 0) {
+			sincronizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+				Thread hilo = new Thread(tarea, "sincronizador-" + archivo.getFileName());
+				hilo.setDaemon(true);
+				return hilo;
+			});
+			sincronizador.scheduleAtFixedRate(this::sincronizarPeriodicamente,
+					politica.getMilisegundos(), politica.getMilisegundos(),
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Lee todos los registros válidos del archivo. Si encuentra un registro
+	 * incompleto o dañado, corta el archivo desde ese registro.
+	 */
+	private void recuperar() throws IOException {
+		long posicionValida = 0;
+		boolean danado = false;
+		bufer.clear();
+		canal.position(0);
+		while (!danado) {
+			int leidos = canal.read(bufer);
+			bufer.flip();
+			while (bufer.remaining() >= TAMANO_ENCABEZADO) {
+				int inicio = bufer.position();
+				int longitud = bufer.getInt();
+				int suma = bufer.getInt();
+				if (longitud <= 0 || longitud > LONGITUD_MAXIMA) {
+					danado = true;
+					break;
+				}
+				if (bufer.remaining() < longitud) {
+					bufer.position(inicio);
+					break;
+				}
+				ByteBuffer carga = bufer.slice();
+				carga.limit(longitud);
+				bufer.position(bufer.position() + longitud);
+				if (!aplicar(carga, suma)) {
+					danado = true;
+					break;
+				}
+				posicionValida += TAMANO_ENCABEZADO + longitud;
+			}
+			if (leidos < 0) {
+				break;
+			}
+			bufer.compact();
+		}
+		bufer.clear();
+
+		bytesDescartados = canal.size() - posicionValida;
+		if (bytesDescartados > 0) {
+			canal.truncate(posicionValida);
+			canal.force(true);
+		}
+		canal.position(posicionValida);
+	}
+
+	/**
+	 * Aplica un registro leído del archivo, si su suma de verificación es correcta
+	 * @return false si el registro está dañado
+	 */
+	private boolean aplicar(ByteBuffer carga, int suma) {
+		crc.reset();
+		crc.update(carga.duplicate());
+		if ((int) crc.getValue() != suma) {
+			return false;
+		}
+		try {
+			byte operacion = carga.get();
+			switch (operacion) {
+			case ADICIONAR:
+				barcos.adicionarBarco(CodificadorBarcos.leer(carga));
+				return true;
+			case ACTUALIZAR:
+				barcos.actualizarBarco(CodificadorBarcos.leer(carga));
+				return true;
+			case ELIMINAR:
+				barcos.eliminarBarco(CodificadorBarcos.leerTexto(carga));
+				return true;
+			default:
+				return false;
+			}
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return una copia de la lista de barcos (la del MapaBarcos cambia con
+	 * 		cada adición, y se recorrería sin el bloqueo)
+	 */
+	@Override
+	public synchronized List<Barco> consultarBarcos() {
+		return new ArrayList<Barco>(barcos.consultarBarcos());
+	}
+
+	/**
+	 * Recorre los barcos con el bloqueo del repositorio, sin copiarlos
+	 * (el visitante no debe modificar este repositorio)
+	 */
+	@Override
+	public synchronized void recorrerBarcos(Consumer<? super Barco> visitante) {
+		barcos.recorrerBarcos(visitante);
+	}
+
+	@Override
+	public synchronized int contarBarcos() {
+		return barcos.contarBarcos();
+	}
+
+	@Override
+	public synchronized double calcularCapacidadTotal() {
+		return barcos.calcularCapacidadTotal();
+	}
+
+	@Override
+	public synchronized PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano,
+			String continuacion) {
+		return barcos.consultarPagina(filtro, tamano, continuacion);
+	}
+
+	@Override
+	public synchronized Barco buscarBarco(String matricula) {
+		return barcos.buscarBarco(matricula);
+	}
+
+	/**
+	 * Escribe el barco al final del archivo y luego lo adiciona en memoria.
+	 * Si ya hay un barco con la misma matrícula no se guarda.
+	 */
+	@Override
+	public synchronized boolean adicionarBarco(Barco barco) {
+		if (barcos.buscarBarco(barco.getMatricula()) != null) {
+			return false;
+		}
+		if (!escribirRegistro(ADICIONAR, barco, null)) {
+			return false;
+		}
+		return barcos.adicionarBarco(barco);
+	}
+
+	/**
+	 * Escribe al final del archivo un registro de eliminación (solo con la
+	 * matrícula) y luego elimina el barco en memoria.
+	 * @return el barco eliminado, o null si no existía o no se pudo escribir
+	 */
+	@Override
+	public synchronized Barco eliminarBarco(String matricula) {
+		if (barcos.buscarBarco(matricula) == null
+				|| !escribirRegistro(ELIMINAR, null, matricula)) {
+			return null;
+		}
+		return barcos.eliminarBarco(matricula);
+	}
+
+	/**
+	 * Escribe al final del archivo el barco con sus nuevos datos y luego
+	 * lo actualiza en memoria.
+	 * @return el barco anterior, o null si no existía o no se pudo escribir
+	 */
+	@Override
+	public synchronized Barco actualizarBarco(Barco barco) {
+		if (barcos.buscarBarco(barco.getMatricula()) == null
+				|| !escribirRegistro(ACTUALIZAR, barco, null)) {
+			return null;
+		}
+		return barcos.actualizarBarco(barco);
+	}
+
+	/**
+	 * Escribe un solo registro (con el barco, o con la matrícula si
+	 * el barco es null) y sincroniza según la política
+	 * @return false si no se pudo escribir
+	 */
+	private boolean escribirRegistro(byte operacion, Barco barco, String matricula) {
+		long posicionAnterior = -1;
+		try {
+			posicionAnterior = canal.position();
+			bufer.clear();
+			if (barco != null) {
+				codificar(operacion, barco);
+			} else {
+				codificarEliminacion(matricula);
+			}
+			escribirBufer();
+			registrosEscritos(1);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			deshacerEscritura(posicionAnterior);
+			return false;
+		}
+	}
+
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		return adicionarBarco(barco);
+	}
+
+	/**
+	 * Escribe todos los barcos del lote seguidos en el archivo y,
+	 * según la política, sincroniza una sola vez para todo el lote.
+	 * Los barcos con una matrícula que ya existe no se guardan.
+	 */
+	@Override
+	public synchronized boolean adicionarBarcos(Collection<? extends Barco> nuevos) {
+		boolean guardados = true;
+		Set<String> matriculas = new HashSet<String>();
+		long posicionAnterior = -1;
+		int escritos = 0;
+		try {
+			posicionAnterior = canal.position();
+			bufer.clear();
+			for (Barco barco : nuevos) {
+				if (barcos.buscarBarco(barco.getMatricula()) != null
+						|| !matriculas.add(barco.getMatricula())) {
+					guardados = false;
+					continue;
+				}
+				if (bufer.remaining() < TAMANO_ENCABEZADO + 1
+						+ CodificadorBarcos.calcularTamanoMaximo(barco)) {
+					escribirBufer();
+					bufer.clear();
+				}
+				codificar(ADICIONAR, barco);
+				escritos++;
+			}
+			escribirBufer();
+			registrosEscritos(escritos);
+		} catch (IOException | RuntimeException e) {
+			deshacerEscritura(posicionAnterior);
+			return false;
+		}
+		for (Barco barco : nuevos) {
+			if (matriculas.remove(barco.getMatricula())) {
+				barcos.adicionarBarco(barco);
+			}
+		}
+		return guardados;
+	}
+
+	/**
+	 * Agrega al buffer el registro (encabezado y datos) para adicionar
+	 * o actualizar el barco
+	 */
+	private void codificar(byte operacion, Barco barco) {
+		int inicio = bufer.position();
+		bufer.position(inicio + TAMANO_ENCABEZADO);
+		bufer.put(operacion);
+		CodificadorBarcos.escribir(barco, bufer);
+		completarEncabezado(inicio);
+	}
+
+	/**
+	 * Agrega al buffer el registro para eliminar el barco con esa matrícula
+	 */
+	private void codificarEliminacion(String matricula) {
+		int inicio = bufer.position();
+		bufer.position(inicio + TAMANO_ENCABEZADO);
+		bufer.put(ELIMINAR);
+		CodificadorBarcos.escribirTexto(matricula, bufer);
+		completarEncabezado(inicio);
+	}
+
+	/**
+	 * Escribe la longitud y la suma de verificación del registro que 
+	 * empieza en la posición dada del buffer
+	 */
+	private void completarEncabezado(int inicio) {
+		int longitud = bufer.position() - inicio - TAMANO_ENCABEZADO;
+
+		ByteBuffer carga = bufer.duplicate();
+		carga.limit(bufer.position()).position(inicio + TAMANO_ENCABEZADO);
+		crc.reset();
+		crc.update(carga);
+		bufer.putInt(inicio, longitud);
+		bufer.putInt(inicio + 4, (int) crc.getValue());
+	}
+
+	private void escribirBufer() throws IOException {
+		bufer.flip();
+		while (bufer.hasRemaining()) {
+			canal.write(bufer);
+		}
+	}
+
+	/**
+	 * Si la escritura falló, se intenta quitar lo que alcanzó a quedar en el archivo
+	 */
+	private void deshacerEscritura(long posicionAnterior) {
+		if (posicionAnterior < 0) {
+			return;
+		}
+		try {
+			canal.truncate(posicionAnterior);
+			canal.position(posicionAnterior);
+		} catch (IOException e) {
+			// al abrir el archivo de nuevo se descarta el registro incompleto
+		}
+	}
+
+	private void registrosEscritos(int cantidad) throws IOException {
+		registrosPendientes += cantidad;
+		int cadaRegistros = politica.getRegistros();
+		if (cadaRegistros > 0 && registrosPendientes >= cadaRegistros) {
+			canal.force(false);
+			registrosPendientes = 0;
+		}
+	}
+
+	/**
+	 * Fuerza que todo lo escrito hasta ahora quede en el disco.
+	 * @throws IOException si falla la escritura en el disco
+	 */
+	public void sincronizar() throws IOException {
+		int pendientes;
+		synchronized (this) {
+			pendientes = registrosPendientes;
+			if (pendientes == 0) {
+				return;
+			}
+			registrosPendientes = 0;
+		}
+		// se hace fuera del bloqueo para que las escrituras puedan seguir
+		try {
+			canal.force(false);
+		} catch (IOException e) {
+			synchronized (this) {
+				registrosPendientes += pendientes;
+			}
+			throw e;
+		}
+	}
+
+	private void sincronizarPeriodicamente() {
+		try {
+			sincronizar();
+		} catch (IOException e) {
+			// los registros siguen pendientes, se intenta en el siguiente intervalo
+		}
+	}
+
+	/**
+	 * @return la cantidad de bytes que se descartaron al abrir el archivo,
+	 * 		por tener un registro incompleto o dañado al final
+	 */
+	public long getBytesDescartados() {
+		return bytesDescartados;
+	}
+
+	/**
+	 * Sincroniza lo que falte y cierra el archivo.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (sincronizador != null) {
+			sincronizador.shutdown();
+		}
+		if (canal.isOpen()) {
+			canal.force(true);
+			canal.close();
+		}
+	}
+}
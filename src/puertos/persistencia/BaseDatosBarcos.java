@@ -0,0 +1,461 @@
+package puertos.persistencia;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Repositorio que guarda los barcos en una base de datos relacional (JDBC),
+ * en una sola tabla para los dos tipos de barco: el tipo es una letra
+ * ('V' o 'C'), y pasajeros (de los veleros) y liquidos (de los cargueros)
+ * quedan en NULL cuando no aplican. La columna orden (identidad) es el
+ * orden de llegada, y la matrícula tiene un índice único, con el que se
+ * buscan los barcos y se evita que una matrícula quede dos veces.
+ *
+ * Las sentencias se preparan una sola vez y se reutilizan. Los lotes
+ * (adicionarBarcos) se insertan con varias filas por sentencia y con
+ * batch de JDBC, en una sola transacción. La capacidad total se calcula
+ * en la base de datos, con una sola consulta que aplica las reglas de
+ * Velero y Carguero (el resultado puede diferir en el redondeo, por el
+ * orden de la suma). Las páginas también se consultan en la base de datos,
+ * con el índice por volumen y orden.
+ *
+ * Usa una sola conexión, así que las operaciones se sincronizan.
+ * Se probó con H2; el SQL es estándar (identidad, FETCH FIRST).
+ *
+ * Las adiciones retornan false solo si la matrícula ya existe (violación
+ * del índice único); los demás errores de la base de datos (por ejemplo,
+ * si se pierde la conexión) lanzan IllegalStateException, como en las
+ * demás operaciones.
+ *
+ * @version 1.2
+ */
+public class BaseDatosBarcos implements RepositorioBarcos, Closeable {
+	/** Cuántos barcos se insertan en cada sentencia de un lote */
+	static final int FILAS_POR_INSERCION = 32;
+
+	private static final String COLUMNAS = "matricula, nacionalidad, volumen, tipo, pasajeros, liquidos";
+	private static final String SELECCION = "SELECT " + COLUMNAS + ", orden FROM barcos";
+	private static final String CAPACIDAD_VELERO =
+			"volumen * 0.5 - CASE WHEN pasajeros > 10 THEN 10 ELSE 0 END";
+	private static final String CAPACIDAD_CARGUERO =
+			"volumen * 0.8 - CASE WHEN liquidos THEN 40 ELSE 0 END";
+
+	private Connection conexion;
+	private PreparedStatement insercion;
+	private PreparedStatement insercionVarias;
+	private PreparedStatement busqueda;
+	private PreparedStatement eliminacion;
+	private PreparedStatement actualizacion;
+	private PreparedStatement capacidadTotal;
+	private PreparedStatement conteo;
+	/** Las sentencias de las páginas, que dependen del filtro */
+	private Map<String, PreparedStatement> sentenciasPagina = new HashMap<String, PreparedStatement>();
+
+	/**
+	 * @param url	la URL JDBC de la base de datos
+	 * 			(por ejemplo, "jdbc:h2:mem:puerto" para una en memoria)
+	 * @throws SQLException	si no se puede conectar o crear la tabla
+	 */
+	public BaseDatosBarcos(String url) throws SQLException {
+		this(DriverManager.getConnection(url));
+	}
+
+	/**
+	 * Crea la tabla (si no existe) y prepara las sentencias.
+	 * @param conexion	la conexión que se usa (y se cierra con close())
+	 * @throws SQLException	si no se puede crear la tabla
+	 */
+	public BaseDatosBarcos(Connection conexion) throws SQLException {
+		this.conexion = conexion;
+		try {
+			crearTabla();
+			insercion = conexion.prepareStatement(crearInsercion(1));
+			insercionVarias = conexion.prepareStatement(crearInsercion(FILAS_POR_INSERCION));
+			busqueda = conexion.prepareStatement(SELECCION + " WHERE matricula = ?");
+			eliminacion = conexion.prepareStatement("DELETE FROM barcos WHERE matricula = ?");
+			actualizacion = conexion.prepareStatement("UPDATE barcos SET nacionalidad = ?, "
+					+ "volumen = ?, tipo = ?, pasajeros = ?, liquidos = ? WHERE matricula = ?");
+			conteo = conexion.prepareStatement("SELECT COUNT(*) FROM barcos");
+			capacidadTotal = conexion.prepareStatement("SELECT SUM(CASE WHEN tipo = 'V' THEN "
+					+ noNegativo(CAPACIDAD_VELERO) + " ELSE " + noNegativo(CAPACIDAD_CARGUERO)
+					+ " END) FROM barcos");
+		} catch (SQLException e) {
+			conexion.close();
+			throw e;
+		}
+	}
+
+	private void crearTabla() throws SQLException {
+		try (Statement sentencia = conexion.createStatement()) {
+			sentencia.execute("CREATE TABLE IF NOT EXISTS barcos ("
+					+ "orden BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+					+ "matricula VARCHAR(255) NOT NULL, "
+					+ "nacionalidad VARCHAR(255), "
+					+ "volumen DOUBLE PRECISION NOT NULL, "
+					+ "tipo CHAR(1) NOT NULL, "
+					+ "pasajeros INTEGER, "
+					+ "liquidos BOOLEAN, "
+					+ "CONSTRAINT barcos_matricula UNIQUE (matricula))");
+			sentencia.execute("CREATE INDEX IF NOT EXISTS barcos_volumen ON barcos (volumen, orden)");
+		}
+	}
+
+	private static String crearInsercion(int filas) {
+		StringBuilder sql = new StringBuilder("INSERT INTO barcos (" + COLUMNAS + ") VALUES ");
+		for (int i = 0; i < filas; i++) {
+			sql.append((i == 0) ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+		}
+		return sql.toString();
+	}
+
+	private static String noNegativo(String expresion) {
+		return "CASE WHEN " + expresion + " < 0 THEN 0 ELSE " + expresion + " END";
+	}
+
+	/**
+	 * @return false si la matrícula ya existe
+	 * @throws IllegalStateException si hay otro error en la base de datos
+	 */
+	@Override
+	public synchronized boolean adicionarBarco(Barco barco) {
+		try {
+			asignarBarco(insercion, 1, barco);
+			return insercion.executeUpdate() == 1;
+		} catch (SQLException e) {
+			if (esMatriculaRepetida(e)) {
+				return false;
+			}
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * Como la matrícula tiene un índice único, la base de datos no deja
+	 * guardar dos veces la misma (aunque se intente desde otra conexión).
+	 */
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		return adicionarBarco(barco);
+	}
+
+	/**
+	 * Se insertan de a FILAS_POR_INSERCION barcos por sentencia, todas en
+	 * un batch y en una sola transacción: si alguno falla, no se guarda ninguno.
+	 * @return false si alguna matrícula ya existe (y no se guardó ninguno)
+	 * @throws IllegalStateException si hay otro error en la base de datos
+	 */
+	@Override
+	public synchronized boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+		if (barcos.isEmpty()) {
+			return true;
+		}
+		try {
+			conexion.setAutoCommit(false);
+			try {
+				Iterator<? extends Barco> iterador = barcos.iterator();
+				int grupos = barcos.size() / FILAS_POR_INSERCION;
+				for (int grupo = 0; grupo < grupos; grupo++) {
+					for (int fila = 0; fila < FILAS_POR_INSERCION; fila++) {
+						asignarBarco(insercionVarias, fila * 6 + 1, iterador.next());
+					}
+					insercionVarias.addBatch();
+				}
+				if (grupos > 0) {
+					insercionVarias.executeBatch();
+				}
+				if (iterador.hasNext()) {
+					while (iterador.hasNext()) {
+						asignarBarco(insercion, 1, iterador.next());
+						insercion.addBatch();
+					}
+					insercion.executeBatch();
+				}
+				conexion.commit();
+				return true;
+			} catch (SQLException | RuntimeException e) {
+				insercionVarias.clearBatch();
+				insercion.clearBatch();
+				conexion.rollback();
+				if (e instanceof RuntimeException) {
+					throw (RuntimeException) e;
+				}
+				if (esMatriculaRepetida((SQLException) e)) {
+					return false;
+				}
+				throw crearError((SQLException) e);
+			} finally {
+				conexion.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	@Override
+	public synchronized Barco buscarBarco(String matricula) {
+		try {
+			busqueda.setString(1, matricula);
+			try (ResultSet resultado = busqueda.executeQuery()) {
+				return resultado.next() ? leerBarco(resultado) : null;
+			}
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	@Override
+	public synchronized Barco eliminarBarco(String matricula) {
+		Barco barco = buscarBarco(matricula);
+		if (barco == null) {
+			return null;
+		}
+		try {
+			eliminacion.setString(1, matricula);
+			return (eliminacion.executeUpdate() == 1) ? barco : null;
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * El barco conserva su orden de llegada
+	 */
+	@Override
+	public synchronized Barco actualizarBarco(Barco barco) {
+		Barco anterior = buscarBarco(barco.getMatricula());
+		if (anterior == null) {
+			return null;
+		}
+		try {
+			actualizacion.setString(1, barco.getNacionalidad());
+			actualizacion.setDouble(2, barco.getVolumen());
+			asignarTipo(actualizacion, 3, barco);
+			actualizacion.setString(6, barco.getMatricula());
+			return (actualizacion.executeUpdate() == 1) ? anterior : null;
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * @return los barcos en orden de llegada (una lista nueva cada vez)
+	 */
+	@Override
+	public synchronized List<Barco> consultarBarcos() {
+		List<Barco> barcos = new ArrayList<Barco>();
+		recorrerBarcos(barcos::add);
+		return barcos;
+	}
+
+	/**
+	 * Se cuentan en la base de datos (sin traer los barcos)
+	 */
+	@Override
+	public synchronized int contarBarcos() {
+		try (ResultSet resultado = conteo.executeQuery()) {
+			resultado.next();
+			return resultado.getInt(1);
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * Recorre el resultado de la consulta sin guardar todos los barcos
+	 */
+	@Override
+	public synchronized void recorrerBarcos(Consumer<? super Barco> visitante) {
+		try (Statement sentencia = conexion.createStatement()) {
+			sentencia.setFetchSize(1000);
+			try (ResultSet resultado = sentencia.executeQuery(SELECCION + " ORDER BY orden")) {
+				while (resultado.next()) {
+					visitante.accept(leerBarco(resultado));
+				}
+			}
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * Se consultan en la base de datos solo los barcos de la página (más
+	 * uno, para saber si hay más), desde la clave de la continuación
+	 */
+	@Override
+	public synchronized PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		SeleccionPagina.validarTamano(tamano);
+		ClaveVolumen desde = ClaveVolumen.limiteInferior(filtro, continuacion);
+		boolean veleros = filtro.aceptaTipo(Velero.class);
+		boolean cargueros = filtro.aceptaTipo(Carguero.class);
+		List<Barco> barcos = new ArrayList<Barco>(Math.min(tamano, 64));
+		if (!veleros && !cargueros) {
+			return new PaginaBarcos(barcos, null);
+		}
+		boolean conMinimo = !Double.isInfinite(desde.volumen);
+		boolean conMaximo = !Double.isInfinite(filtro.getVolumenMaximo());
+		StringBuilder sql = new StringBuilder(SELECCION).append(" WHERE 1 = 1");
+		if (conMinimo) {
+			sql.append(" AND (volumen > ? OR (volumen = ? AND orden > ?))");
+		}
+		if (conMaximo) {
+			sql.append(" AND volumen <= ?");
+		}
+		if (veleros != cargueros) {
+			sql.append(veleros ? " AND tipo = 'V'" : " AND tipo = 'C'");
+		}
+		sql.append(" ORDER BY volumen, orden FETCH FIRST ? ROWS ONLY");
+		try {
+			PreparedStatement sentencia = prepararPagina(sql.toString());
+			int parametro = 1;
+			if (conMinimo) {
+				sentencia.setDouble(parametro++, desde.volumen);
+				sentencia.setDouble(parametro++, desde.volumen);
+				sentencia.setLong(parametro++, desde.orden);
+			}
+			if (conMaximo) {
+				sentencia.setDouble(parametro++, filtro.getVolumenMaximo());
+			}
+			sentencia.setInt(parametro, tamano + 1);
+			String siguiente = null;
+			long ordenUltimo = 0;
+			try (ResultSet resultado = sentencia.executeQuery()) {
+				while (resultado.next()) {
+					if (barcos.size() == tamano) {
+						siguiente = ClaveVolumen.crearContinuacion(
+								barcos.get(tamano - 1).getVolumen(), ordenUltimo);
+						break;
+					}
+					barcos.add(leerBarco(resultado));
+					ordenUltimo = resultado.getLong(7);
+				}
+			}
+			return new PaginaBarcos(barcos, siguiente);
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	private PreparedStatement prepararPagina(String sql) throws SQLException {
+		PreparedStatement sentencia = sentenciasPagina.get(sql);
+		if (sentencia == null) {
+			sentencia = conexion.prepareStatement(sql);
+			sentenciasPagina.put(sql, sentencia);
+		}
+		return sentencia;
+	}
+
+	/**
+	 * Se calcula en la base de datos, con las reglas de capacidad
+	 * de Velero y Carguero (sin traer los barcos)
+	 */
+	@Override
+	public synchronized double calcularCapacidadTotal() {
+		try (ResultSet resultado = capacidadTotal.executeQuery()) {
+			resultado.next();
+			return resultado.getDouble(1);
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * Cierra las sentencias y la conexión
+	 */
+	@Override
+	public synchronized void close() {
+		try {
+			conexion.close();
+		} catch (SQLException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * Pone los datos del barco en los seis parámetros que empiezan en la posición dada
+	 */
+	private static void asignarBarco(PreparedStatement sentencia, int posicion, Barco barco)
+			throws SQLException {
+		sentencia.setString(posicion, barco.getMatricula());
+		sentencia.setString(posicion + 1, barco.getNacionalidad());
+		sentencia.setDouble(posicion + 2, barco.getVolumen());
+		asignarTipo(sentencia, posicion + 3, barco);
+	}
+
+	/**
+	 * Pone el tipo, los pasajeros y liquidos en los tres parámetros que
+	 * empiezan en la posición dada
+	 */
+	private static void asignarTipo(PreparedStatement sentencia, int posicion, Barco barco)
+			throws SQLException {
+		if (barco instanceof Velero) {
+			sentencia.setString(posicion, "V");
+			sentencia.setInt(posicion + 1, ((Velero) barco).getPasajeros());
+			sentencia.setNull(posicion + 2, Types.BOOLEAN);
+		} else if (barco instanceof Carguero) {
+			sentencia.setString(posicion, "C");
+			sentencia.setNull(posicion + 1, Types.INTEGER);
+			sentencia.setBoolean(posicion + 2, ((Carguero) barco).getLiquidos());
+		} else {
+			throw new IllegalArgumentException("Tipo de barco desconocido: "
+					+ barco.getClass().getName());
+		}
+	}
+
+	/**
+	 * Crea el barco con la fila actual (con las columnas de SELECCION)
+	 */
+	private static Barco leerBarco(ResultSet resultado) throws SQLException {
+		String matricula = resultado.getString(1);
+		String nacionalidad = resultado.getString(2);
+		double volumen = resultado.getDouble(3);
+		if ("V".equals(resultado.getString(4))) {
+			return new Velero(matricula, nacionalidad, volumen, resultado.getInt(5));
+		}
+		return new Carguero(matricula, nacionalidad, volumen, resultado.getBoolean(6));
+	}
+
+	/**
+	 * @return true si el error es una violación de una restricción de
+	 * 		integridad (SQLState 23xxx), como la del índice único de la
+	 * 		matrícula; en un batch puede venir en la causa o en la siguiente
+	 */
+	static boolean esMatriculaRepetida(SQLException e) {
+		for (Throwable error = e; error != null; error = error.getCause()) {
+			if (error instanceof SQLIntegrityConstraintViolationException) {
+				return true;
+			}
+			if (error instanceof SQLException) {
+				SQLException errorSql = (SQLException) error;
+				String estado = errorSql.getSQLState();
+				if ((estado != null && estado.startsWith("23"))
+						|| (errorSql.getNextException() != null
+								&& esMatriculaRepetida(errorSql.getNextException()))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static IllegalStateException crearError(SQLException e) {
+		return new IllegalStateException("Error en la base de datos: " + e.getMessage(), e);
+	}
+}
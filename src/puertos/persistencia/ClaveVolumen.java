@@ -0,0 +1,79 @@
+package puertos.persistencia;
+
+/**
+ * Clave de los índices por volumen: el volumen del barco y su orden de
+ * llegada (que es único), para que los barcos con el mismo volumen también
+ * tengan un orden fijo. La continuación de una página es la clave del
+ * último barco de la página, escrita como texto.
+ *
+ * @version 1.0
+ */
+class ClaveVolumen implements Comparable<ClaveVolumen> {
+	final double volumen;
+	final long orden;
+
+	ClaveVolumen(double volumen, long orden) {
+		this.volumen = volumen;
+		this.orden = orden;
+	}
+
+	@Override
+	public int compareTo(ClaveVolumen otra) {
+		return comparar(volumen, orden, otra.volumen, otra.orden);
+	}
+
+	static int comparar(double volumen1, long orden1, double volumen2, long orden2) {
+		int comparacion = Double.compare(volumen1, volumen2);
+		return (comparacion != 0) ? comparacion : Long.compare(orden1, orden2);
+	}
+
+	@Override
+	public boolean equals(Object otro) {
+		return (otro instanceof ClaveVolumen) && compareTo((ClaveVolumen) otro) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Double.hashCode(volumen) * 31 + Long.hashCode(orden);
+	}
+
+	/**
+	 * @return la continuación que corresponde a un barco con este volumen y orden
+	 */
+	static String crearContinuacion(double volumen, long orden) {
+		return Long.toHexString(Double.doubleToRawLongBits(volumen)) + ":" + Long.toHexString(orden);
+	}
+
+	/**
+	 * La clave desde la que empieza una consulta (sin incluirla): la de la 
+	 * continuación, o la anterior al volumen mínimo del filtro, la que sea mayor.
+	 * Como los órdenes de llegada no son negativos, ningún barco tiene
+	 * la clave del volumen mínimo con orden Long.MIN_VALUE.
+	 * @throws IllegalArgumentException si la continuación no es válida
+	 */
+	static ClaveVolumen limiteInferior(FiltroBarcos filtro, String continuacion) {
+		ClaveVolumen limite = new ClaveVolumen(filtro.getVolumenMinimo(), Long.MIN_VALUE);
+		if (continuacion == null) {
+			return limite;
+		}
+		int separador = continuacion.indexOf(':');
+		try {
+			if (separador < 0) {
+				throw new NumberFormatException();
+			}
+			ClaveVolumen clave = new ClaveVolumen(
+					Double.longBitsToDouble(Long.parseUnsignedLong(continuacion.substring(0, separador), 16)),
+					Long.parseUnsignedLong(continuacion.substring(separador + 1), 16));
+			return (clave.compareTo(limite) > 0) ? clave : limite;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Continuación inválida: " + continuacion);
+		}
+	}
+
+	/**
+	 * @return la última clave que puede tener un barco del filtro (incluida)
+	 */
+	static ClaveVolumen limiteSuperior(FiltroBarcos filtro) {
+		return new ClaveVolumen(filtro.getVolumenMaximo(), Long.MAX_VALUE);
+	}
+}
@@ -0,0 +1,104 @@
+package puertos.persistencia;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Convierte un barco (Velero o Carguero) a bytes y viceversa, para
+ * guardarlo en un archivo. El formato es:
+ * tipo (1 byte: 'V' o 'C'), volumen (double), pasajeros (int, para veleros)
+ * o líquidos (1 byte, para cargueros), matrícula y nacionalidad
+ * (cada una con su longitud en un short y luego los bytes en UTF-8).
+ * Para eliminar un barco solo se guarda su matrícula, con el mismo formato.
+ * 
+ * @version 1.1
+ */
+class CodificadorBarcos {
+	static final byte VELERO = 'V';
+	static final byte CARGUERO = 'C';
+
+	private CodificadorBarcos() {
+	}
+
+	/**
+	 * @return la cantidad máxima de bytes que puede ocupar el barco codificado
+	 */
+	static int calcularTamanoMaximo(Barco barco) {
+		return 1 + 8 + 4 + calcularTamano(barco.getMatricula()) 
+				+ calcularTamano(barco.getNacionalidad());
+	}
+
+	/**
+	 * Escribe el barco en el buffer, desde su posición actual.
+	 * @throws IllegalArgumentException si el barco no es Velero ni Carguero
+	 */
+	static void escribir(Barco barco, ByteBuffer destino) {
+		if (barco instanceof Velero) {
+			destino.put(VELERO);
+			destino.putDouble(barco.getVolumen());
+			destino.putInt(((Velero) barco).getPasajeros());
+		} else if (barco instanceof Carguero) {
+			destino.put(CARGUERO);
+			destino.putDouble(barco.getVolumen());
+			destino.put((byte) (((Carguero) barco).getLiquidos() ? 1 : 0));
+		} else {
+			throw new IllegalArgumentException("Tipo de barco desconocido: " 
+					+ barco.getClass().getName());
+		}
+		escribirTexto(barco.getMatricula(), destino);
+		escribirTexto(barco.getNacionalidad(), destino);
+	}
+
+	/**
+	 * Lee un barco desde la posición actual del buffer.
+	 * @throws IllegalArgumentException si el tipo de barco no es válido
+	 * @throws java.nio.BufferUnderflowException si faltan bytes
+	 */
+	static Barco leer(ByteBuffer origen) {
+		byte tipo = origen.get();
+		double volumen = origen.getDouble();
+		if (tipo == VELERO) {
+			int pasajeros = origen.getInt();
+			String matricula = leerTexto(origen);
+			return new Velero(matricula, leerTexto(origen), volumen, pasajeros);
+		}
+		if (tipo == CARGUERO) {
+			boolean liquidos = origen.get() != 0;
+			String matricula = leerTexto(origen);
+			return new Carguero(matricula, leerTexto(origen), volumen, liquidos);
+		}
+		throw new IllegalArgumentException("Tipo de barco desconocido: " + tipo);
+	}
+
+	private static int calcularTamano(String texto) {
+		// en UTF-8 cada carácter (char) ocupa como máximo 3 bytes
+		return 2 + ((texto == null) ? 0 : texto.length() * 3);
+	}
+
+	static void escribirTexto(String texto, ByteBuffer destino) {
+		if (texto == null) {
+			destino.putShort((short) -1);
+			return;
+		}
+		byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Texto demasiado largo para guardar");
+		}
+		destino.putShort((short) bytes.length);
+		destino.put(bytes);
+	}
+
+	static String leerTexto(ByteBuffer origen) {
+		short longitud = origen.getShort();
+		if (longitud < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[longitud];
+		origen.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
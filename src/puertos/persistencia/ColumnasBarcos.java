@@ -0,0 +1,679 @@
+package puertos.persistencia;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Repositorio en memoria que guarda los datos de los barcos por columnas
+ * (un arreglo de tipos primitivos por cada dato) en lugar de un objeto
+ * Barco por cada uno. Así ocupa menos memoria y la capacidad total se
+ * calcula recorriendo los arreglos, sin crear ni visitar objetos.
+ * Los objetos Barco solo se crean cuando se consultan o se buscan.
+ * Para consultar por páginas se tiene un arreglo con las posiciones de los
+ * barcos ordenadas por volumen, que se actualiza en la siguiente consulta
+ * después de adicionar (o actualizar) barcos; con el mismo volumen, el
+ * orden es el de llegada de cada fila, que no cambia al compactar (así una
+ * continuación sigue sirviendo aunque se eliminen barcos).
+ * Al eliminar un barco solo se marca su fila y se quita de la tabla hash;
+ * las filas marcadas se quitan en una sola pasada (conservando el orden)
+ * antes de consultar los barcos, o cuando son más de la mitad.
+ * Las matrículas se guardan seguidas en un solo arreglo de bytes (en UTF-8,
+ * cada una precedida de su longitud), no como un String por barco, y las
+ * nacionalidades como códigos de su propio diccionario (Nacionalidades),
+ * que se vuelve a crear al compactar si tiene más nacionalidades que barcos.
+ *
+ * @version 1.5
+ */
+public class ColumnasBarcos implements RepositorioBarcos {
+	private static final byte VELERO = 0;
+	private static final byte CARGUERO = 1;
+	private static final byte ELIMINADO = 2;
+	private static final int VACIA = -1;
+	/** Longitud máxima de una matrícula, en bytes (la longitud se guarda en 1 o 2 bytes) */
+	private static final int LONGITUD_MAXIMA = 0x7FFF;
+
+	/** Cantidad de filas usadas, incluyendo las eliminadas */
+	private int cantidad;
+	private int eliminados;
+	private double[] volumenes;
+	private byte[] tipos;
+	private int[] pasajeros;
+	private long[] liquidos;
+	/** Las matrículas, una tras otra y en el mismo orden de las filas */
+	private byte[] arenaMatriculas;
+	private int usadoArena;
+	/** Posición de la matrícula de cada fila en arenaMatriculas */
+	private int[] inicioMatriculas;
+	private int[] nacionalidades;
+	/**
+	 * Orden de llegada de cada fila (no cambia al compactar), que es lo que
+	 * va en la continuación de las páginas junto con el volumen
+	 */
+	private long[] llegadas;
+	private long secuencia;
+	private Nacionalidades diccionario = new Nacionalidades();
+	/** Tabla hash por matrícula: cada casilla tiene la posición del barco o VACIA */
+	private int[] tablaMatriculas;
+	/** Posiciones de los barcos ordenadas por volumen (y por posición) */
+	private int[] ordenVolumen = new int[0];
+	/** Filas de ordenVolumen que se actualizaron y ya no están en su lugar */
+	private long[] desordenadas;
+	private int cantidadDesordenadas;
+
+	public ColumnasBarcos() {
+		this(16);
+	}
+
+	/**
+	 * @param capacidadInicial	cantidad de barcos que se espera guardar,
+	 * 			para evitar que los arreglos crezcan varias veces
+	 */
+	public ColumnasBarcos(int capacidadInicial) {
+		int capacidad = Math.max(capacidadInicial, 16);
+		volumenes = new double[capacidad];
+		tipos = new byte[capacidad];
+		pasajeros = new int[capacidad];
+		liquidos = new long[(capacidad + 63) >>> 6];
+		desordenadas = new long[liquidos.length];
+		arenaMatriculas = new byte[capacidad * 8];
+		inicioMatriculas = new int[capacidad];
+		nacionalidades = new int[capacidad];
+		llegadas = new long[capacidad];
+		tablaMatriculas = crearTabla(capacidad);
+	}
+
+	/**
+	 * @return una lista que crea cada barco solo cuando se pide; si después
+	 * 		se eliminan barcos, se debe volver a consultar
+	 */
+	@Override
+	public List<Barco> consultarBarcos() {
+		compactar();
+		return new BarcosPerezosos();
+	}
+
+	/**
+	 * Lista que crea cada barco solo cuando se pide (cada vez que se pide)
+	 */
+	private class BarcosPerezosos extends AbstractList<Barco> implements RandomAccess {
+		@Override
+		public Barco get(int indice) {
+			if (indice >= cantidad) {
+				throw new IndexOutOfBoundsException(indice);
+			}
+			return materializar(indice);
+		}
+
+		@Override
+		public int size() {
+			return cantidad;
+		}
+	}
+
+	/**
+	 * Copia los datos del barco en las columnas.
+	 * Si ya hay un barco con la misma matrícula no se guarda.
+	 */
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		if (buscarPosicion(barco.getMatricula()) != VACIA) {
+			return false;
+		}
+		validarTipo(barco);
+		byte[] matricula = barco.getMatricula().getBytes(StandardCharsets.UTF_8);
+		if (matricula.length > LONGITUD_MAXIMA) {
+			throw new IllegalArgumentException("Matrícula demasiado larga: " + barco.getMatricula());
+		}
+		if (cantidad == volumenes.length) {
+			// si hay bastantes filas eliminadas, se reutiliza su espacio
+			if (eliminados >= cantidad / 4 && eliminados > 0) {
+				compactar();
+			} else {
+				crecer();
+			}
+		}
+		int indice = cantidad;
+		llegadas[indice] = secuencia++;
+		escribirFila(indice, barco);
+		escribirMatricula(indice, matricula);
+		insertarEnTabla(tablaMatriculas, dispersar(barco.getMatricula()), indice);
+		cantidad++;
+		return true;
+	}
+
+	/**
+	 * Marca la fila del barco como eliminada y la quita de la tabla hash
+	 * (tiempo constante). Cuando las filas eliminadas son más de la mitad,
+	 * se compactan los arreglos.
+	 */
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		int indice = buscarPosicion(matricula);
+		if (indice == VACIA) {
+			return null;
+		}
+		Barco barco = materializar(indice);
+		quitarDeTabla(indice);
+		tipos[indice] = ELIMINADO;
+		eliminados++;
+		if (eliminados > cantidad / 2) {
+			compactar();
+		}
+		return barco;
+	}
+
+	/**
+	 * Escribe los nuevos datos en la misma fila. Si cambia el volumen,
+	 * la fila se vuelve a ubicar en el orden por volumen en la siguiente
+	 * consulta por páginas.
+	 */
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		int indice = buscarPosicion(barco.getMatricula());
+		if (indice == VACIA) {
+			return null;
+		}
+		validarTipo(barco);
+		Barco anterior = materializar(indice);
+		if (Double.compare(volumenes[indice], barco.getVolumen()) != 0 
+				&& indice < ordenVolumen.length && !estaMarcada(desordenadas, indice)) {
+			desordenadas[indice >>> 6] |= 1L << indice;
+			cantidadDesordenadas++;
+		}
+		escribirFila(indice, barco);
+		return anterior;
+	}
+
+	private static void validarTipo(Barco barco) {
+		if (!(barco instanceof Velero) && !(barco instanceof Carguero)) {
+			throw new IllegalArgumentException("Tipo de barco desconocido: "
+					+ barco.getClass().getName());
+		}
+	}
+
+	/**
+	 * Copia en las columnas los datos del barco (menos la matrícula)
+	 */
+	private void escribirFila(int indice, Barco barco) {
+		liquidos[indice >>> 6] &= ~(1L << indice);
+		if (barco instanceof Velero) {
+			tipos[indice] = VELERO;
+			pasajeros[indice] = ((Velero) barco).getPasajeros();
+		} else {
+			tipos[indice] = CARGUERO;
+			pasajeros[indice] = 0;
+			if (((Carguero) barco).getLiquidos()) {
+				liquidos[indice >>> 6] |= 1L << indice;
+			}
+		}
+		volumenes[indice] = barco.getVolumen();
+		nacionalidades[indice] = diccionario.codificar(barco.getNacionalidad());
+	}
+
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		return adicionarBarco(barco);
+	}
+
+	@Override
+	public Barco buscarBarco(String matricula) {
+		int indice = buscarPosicion(matricula);
+		return (indice == VACIA) ? null : materializar(indice);
+	}
+
+	/**
+	 * Calcula la capacidad total con un ciclo sobre los arreglos, aplicando
+	 * las reglas de Velero y Carguero sin crear ningún objeto Barco.
+	 */
+	@Override
+	public double calcularCapacidadTotal() {
+		double capacidadTotal = 0;
+		for (int i = 0; i < cantidad; i++) {
+			if (tipos[i] == VELERO) {
+				capacidadTotal += Velero.calcularCapacidad(volumenes[i], pasajeros[i]);
+			} else if (tipos[i] == CARGUERO) {
+				boolean llevaLiquidos = ((liquidos[i >>> 6] >>> i) & 1L) != 0;
+				capacidadTotal += Carguero.calcularCapacidad(volumenes[i], llevaLiquidos);
+			}
+		}
+		return capacidadTotal;
+	}
+
+	/**
+	 * Busca en el arreglo ordenado por volumen dónde empieza la página
+	 * y crea solo los barcos de la página.
+	 */
+	@Override
+	public PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		SeleccionPagina.validarTamano(tamano);
+		ClaveVolumen desde = ClaveVolumen.limiteInferior(filtro, continuacion);
+		compactar();
+		actualizarOrdenVolumen();
+		boolean veleros = filtro.aceptaTipo(Velero.class);
+		boolean cargueros = filtro.aceptaTipo(Carguero.class);
+
+		int bajo = 0;
+		int alto = ordenVolumen.length;
+		while (bajo < alto) {
+			int medio = (bajo + alto) >>> 1;
+			int posicion = ordenVolumen[medio];
+			if (ClaveVolumen.comparar(volumenes[posicion], llegadas[posicion], desde.volumen, desde.orden) <= 0) {
+				bajo = medio + 1;
+			} else {
+				alto = medio;
+			}
+		}
+		List<Barco> barcos = new ArrayList<Barco>(Math.min(tamano, 64));
+		int ultima = -1;
+		for (int i = bajo; i < ordenVolumen.length; i++) {
+			int posicion = ordenVolumen[i];
+			if (Double.compare(volumenes[posicion], filtro.getVolumenMaximo()) > 0) {
+				break;
+			}
+			if (!((tipos[posicion] == VELERO) ? veleros : cargueros)) {
+				continue;
+			}
+			if (barcos.size() == tamano) {
+				return new PaginaBarcos(barcos, 
+						ClaveVolumen.crearContinuacion(volumenes[ultima], llegadas[ultima]));
+			}
+			barcos.add(materializar(posicion));
+			ultima = posicion;
+		}
+		return new PaginaBarcos(barcos, null);
+	}
+
+	/**
+	 * Ordena por volumen los barcos adicionados (o actualizados) desde la
+	 * última consulta y los mezcla con los que siguen ordenados.
+	 * Debe llamarse sin filas eliminadas (después de compactar).
+	 */
+	private void actualizarOrdenVolumen() {
+		if (ordenVolumen.length == cantidad && cantidadDesordenadas == 0) {
+			return;
+		}
+		int[] ordenados = ordenVolumen;
+		if (cantidadDesordenadas > 0) {
+			ordenados = new int[ordenVolumen.length - cantidadDesordenadas];
+			int i = 0;
+			for (int posicion : ordenVolumen) {
+				if (!estaMarcada(desordenadas, posicion)) {
+					ordenados[i++] = posicion;
+				}
+			}
+		}
+		int[] nuevos = new int[cantidad - ordenados.length];
+		int n = 0;
+		for (int posicion = 0; posicion < ordenVolumen.length && cantidadDesordenadas > 0; posicion++) {
+			if (estaMarcada(desordenadas, posicion)) {
+				nuevos[n++] = posicion;
+			}
+		}
+		for (int posicion = ordenVolumen.length; posicion < cantidad; posicion++) {
+			nuevos[n++] = posicion;
+		}
+		Arrays.fill(desordenadas, 0L);
+		cantidadDesordenadas = 0;
+		ordenarPorVolumen(nuevos, 0, nuevos.length, new int[nuevos.length]);
+
+		int[] mezcla = new int[cantidad];
+		int i = 0;
+		int j = 0;
+		for (int k = 0; k < cantidad; k++) {
+			if (j == nuevos.length 
+					|| (i < ordenados.length && esMenor(ordenados[i], nuevos[j]))) {
+				mezcla[k] = ordenados[i++];
+			} else {
+				mezcla[k] = nuevos[j++];
+			}
+		}
+		ordenVolumen = mezcla;
+	}
+
+	/**
+	 * Quita las filas eliminadas, pasando las siguientes hacia arriba
+	 * (conservan su orden, y sus matrículas se corren en el arreglo de bytes),
+	 * y vuelve a construir la tabla hash.
+	 * En el orden por volumen las posiciones solo cambian de número, así
+	 * que no hay que volver a ordenar.
+	 */
+	private void compactar() {
+		if (eliminados == 0) {
+			return;
+		}
+		int[] nuevaPosicion = new int[cantidad];
+		int destino = 0;
+		int destinoArena = 0;
+		for (int i = 0; i < cantidad; i++) {
+			if (tipos[i] == ELIMINADO) {
+				nuevaPosicion[i] = VACIA;
+				continue;
+			}
+			nuevaPosicion[i] = destino;
+			// las matrículas están en el orden de las filas, así que se
+			// pueden correr en el mismo arreglo
+			int inicio = inicioMatriculas[i];
+			int bytes = inicioTexto(inicio) - inicio + longitudMatricula(inicio);
+			System.arraycopy(arenaMatriculas, inicio, arenaMatriculas, destinoArena, bytes);
+			inicioMatriculas[destino] = destinoArena;
+			destinoArena += bytes;
+			if (destino != i) {
+				moverFila(i, destino);
+			}
+			destino++;
+		}
+		usadoArena = destinoArena;
+		// se borran las marcas de las filas que quedaron libres
+		long conservar = (1L << destino) - 1;
+		for (int palabra = destino >>> 6; palabra < liquidos.length; palabra++) {
+			liquidos[palabra] &= conservar;
+			desordenadas[palabra] &= conservar;
+			conservar = 0;
+		}
+		// las marcas de las filas eliminadas se perdieron: se cuentan las que quedan
+		cantidadDesordenadas = 0;
+		for (long palabra : desordenadas) {
+			cantidadDesordenadas += Long.bitCount(palabra);
+		}
+
+		int ordenados = 0;
+		for (int posicion : ordenVolumen) {
+			if (nuevaPosicion[posicion] != VACIA) {
+				ordenVolumen[ordenados++] = nuevaPosicion[posicion];
+			}
+		}
+		ordenVolumen = Arrays.copyOf(ordenVolumen, ordenados);
+
+		cantidad = destino;
+		eliminados = 0;
+		Arrays.fill(tablaMatriculas, VACIA);
+		for (int i = 0; i < cantidad; i++) {
+			insertarEnTabla(tablaMatriculas, dispersar(i), i);
+		}
+		if (diccionario.getCantidad() > cantidad) {
+			// seguro hay nacionalidades que ya no usa ningún barco
+			Nacionalidades usadas = new Nacionalidades();
+			for (int i = 0; i < cantidad; i++) {
+				nacionalidades[i] = usadas.codificar(diccionario.decodificar(nacionalidades[i]));
+			}
+			diccionario = usadas;
+		}
+	}
+
+	private void moverFila(int origen, int destino) {
+		volumenes[destino] = volumenes[origen];
+		tipos[destino] = tipos[origen];
+		pasajeros[destino] = pasajeros[origen];
+		nacionalidades[destino] = nacionalidades[origen];
+		llegadas[destino] = llegadas[origen];
+		copiarMarca(liquidos, origen, destino);
+		copiarMarca(desordenadas, origen, destino);
+	}
+
+	private static void copiarMarca(long[] marcas, int origen, int destino) {
+		if (estaMarcada(marcas, origen)) {
+			marcas[destino >>> 6] |= 1L << destino;
+		} else {
+			marcas[destino >>> 6] &= ~(1L << destino);
+		}
+	}
+
+	private static boolean estaMarcada(long[] marcas, int indice) {
+		return ((marcas[indice >>> 6] >>> indice) & 1L) != 0;
+	}
+
+	/**
+	 * Ordenamiento por mezcla (merge sort) de las posiciones, por volumen
+	 */
+	private void ordenarPorVolumen(int[] posiciones, int desde, int hasta, int[] temporal) {
+		if (hasta - desde < 2) {
+			return;
+		}
+		int medio = (desde + hasta) >>> 1;
+		ordenarPorVolumen(posiciones, desde, medio, temporal);
+		ordenarPorVolumen(posiciones, medio, hasta, temporal);
+		if (!esMenor(posiciones[medio], posiciones[medio - 1])) {
+			return;
+		}
+		System.arraycopy(posiciones, desde, temporal, desde, hasta - desde);
+		int i = desde;
+		int j = medio;
+		for (int k = desde; k < hasta; k++) {
+			if (j == hasta || (i < medio && !esMenor(temporal[j], temporal[i]))) {
+				posiciones[k] = temporal[i++];
+			} else {
+				posiciones[k] = temporal[j++];
+			}
+		}
+	}
+
+	private boolean esMenor(int posicion1, int posicion2) {
+		return ClaveVolumen.comparar(volumenes[posicion1], llegadas[posicion1],
+				volumenes[posicion2], llegadas[posicion2]) < 0;
+	}
+
+	/**
+	 * @return la cantidad de barcos guardados
+	 */
+	public int getCantidad() {
+		return cantidad - eliminados;
+	}
+
+	/**
+	 * @return la cantidad de nacionalidades en el diccionario del repositorio
+	 * 		(incluyendo las de barcos eliminados, hasta que se compacta)
+	 */
+	public int getCantidadNacionalidades() {
+		return diccionario.getCantidad();
+	}
+
+	/**
+	 * @return la cantidad de bytes usados en el arreglo de las matrículas
+	 * 		(incluyendo los de barcos eliminados que aún no se compactan)
+	 */
+	public int getBytesMatriculas() {
+		return usadoArena;
+	}
+
+	private Barco materializar(int indice) {
+		String matricula = leerMatricula(indice);
+		String nacionalidad = diccionario.decodificar(nacionalidades[indice]);
+		if (tipos[indice] == VELERO) {
+			return new Velero(matricula, nacionalidad, volumenes[indice], pasajeros[indice]);
+		}
+		boolean llevaLiquidos = ((liquidos[indice >>> 6] >>> indice) & 1L) != 0;
+		return new Carguero(matricula, nacionalidad, volumenes[indice], llevaLiquidos);
+	}
+
+	/**
+	 * Agrega la matrícula al final del arreglo de bytes, con su longitud
+	 * en un byte (menos de 128) o en dos (el primero con el bit alto en 1)
+	 */
+	private void escribirMatricula(int indice, byte[] matricula) {
+		int necesarios = usadoArena + matricula.length + 2;
+		if (necesarios > arenaMatriculas.length) {
+			arenaMatriculas = Arrays.copyOf(arenaMatriculas,
+					Math.max(necesarios, arenaMatriculas.length + (arenaMatriculas.length >> 1)));
+		}
+		inicioMatriculas[indice] = usadoArena;
+		if (matricula.length < 0x80) {
+			arenaMatriculas[usadoArena++] = (byte) matricula.length;
+		} else {
+			arenaMatriculas[usadoArena++] = (byte) (0x80 | (matricula.length >>> 8));
+			arenaMatriculas[usadoArena++] = (byte) matricula.length;
+		}
+		System.arraycopy(matricula, 0, arenaMatriculas, usadoArena, matricula.length);
+		usadoArena += matricula.length;
+	}
+
+	private String leerMatricula(int indice) {
+		int inicio = inicioMatriculas[indice];
+		return new String(arenaMatriculas, inicioTexto(inicio), longitudMatricula(inicio),
+				StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param inicio	la posición de una matrícula en el arreglo de bytes
+	 * @return la cantidad de bytes de la matrícula (sin la longitud)
+	 */
+	private int longitudMatricula(int inicio) {
+		int primero = arenaMatriculas[inicio];
+		return (primero >= 0) ? primero : ((primero & 0x7F) << 8) | (arenaMatriculas[inicio + 1] & 0xFF);
+	}
+
+	/**
+	 * @return la posición del primer byte de la matrícula (después de la longitud)
+	 */
+	private int inicioTexto(int inicio) {
+		return (arenaMatriculas[inicio] >= 0) ? inicio + 1 : inicio + 2;
+	}
+
+	/**
+	 * Compara sin crear un String: si la matrícula es ASCII, carácter por
+	 * byte; si no, con sus bytes en UTF-8
+	 */
+	private boolean esMatricula(int indice, String matricula) {
+		int inicio = inicioMatriculas[indice];
+		int longitud = longitudMatricula(inicio);
+		int texto = inicioTexto(inicio);
+		if (longitud < matricula.length()) {
+			return false;
+		}
+		if (longitud == matricula.length()) {
+			int i = 0;
+			while (i < longitud && matricula.charAt(i) < 0x80) {
+				if (arenaMatriculas[texto + i] != matricula.charAt(i)) {
+					return false;
+				}
+				i++;
+			}
+			if (i == longitud) {
+				return true;
+			}
+		}
+		byte[] bytes = matricula.getBytes(StandardCharsets.UTF_8);
+		return Arrays.equals(arenaMatriculas, texto, texto + longitud, bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Los arreglos crecen a 1.5 veces su tamaño, y la tabla hash se vuelve
+	 * a construir con el doble de casillas que barcos
+	 */
+	private void crecer() {
+		int capacidad = volumenes.length + (volumenes.length >> 1);
+		volumenes = Arrays.copyOf(volumenes, capacidad);
+		tipos = Arrays.copyOf(tipos, capacidad);
+		pasajeros = Arrays.copyOf(pasajeros, capacidad);
+		liquidos = Arrays.copyOf(liquidos, (capacidad + 63) >>> 6);
+		desordenadas = Arrays.copyOf(desordenadas, liquidos.length);
+		inicioMatriculas = Arrays.copyOf(inicioMatriculas, capacidad);
+		nacionalidades = Arrays.copyOf(nacionalidades, capacidad);
+		llegadas = Arrays.copyOf(llegadas, capacidad);
+		tablaMatriculas = crearTabla(capacidad);
+		for (int i = 0; i < cantidad; i++) {
+			if (tipos[i] != ELIMINADO) {
+				insertarEnTabla(tablaMatriculas, dispersar(i), i);
+			}
+		}
+	}
+
+	private int buscarPosicion(String matricula) {
+		int mascara = tablaMatriculas.length - 1;
+		int casilla = dispersar(matricula) & mascara;
+		int indice;
+		while ((indice = tablaMatriculas[casilla]) != VACIA) {
+			if (esMatricula(indice, matricula)) {
+				return indice;
+			}
+			casilla = (casilla + 1) & mascara;
+		}
+		return VACIA;
+	}
+
+	/**
+	 * Quita la fila de la tabla hash y corre hacia atrás las casillas
+	 * siguientes que lo necesiten, para que ninguna búsqueda se corte
+	 * en la casilla que queda vacía (sin marcas de borrado)
+	 */
+	private void quitarDeTabla(int indice) {
+		int mascara = tablaMatriculas.length - 1;
+		int vacia = dispersar(indice) & mascara;
+		while (tablaMatriculas[vacia] != indice) {
+			vacia = (vacia + 1) & mascara;
+		}
+		int casilla = vacia;
+		while (true) {
+			casilla = (casilla + 1) & mascara;
+			int otro = tablaMatriculas[casilla];
+			if (otro == VACIA) {
+				break;
+			}
+			int ideal = dispersar(otro) & mascara;
+			// se puede mover si su casilla ideal no está entre la vacía
+			// (sin incluirla) y la actual, recorriendo en círculo
+			if (((casilla - ideal) & mascara) >= ((casilla - vacia) & mascara)) {
+				tablaMatriculas[vacia] = otro;
+				vacia = casilla;
+			}
+		}
+		tablaMatriculas[vacia] = VACIA;
+	}
+
+	private static int[] crearTabla(int capacidad) {
+		int casillas = Integer.highestOneBit(capacidad * 2 - 1) << 1;
+		int[] tabla = new int[casillas];
+		Arrays.fill(tabla, VACIA);
+		return tabla;
+	}
+
+	private static void insertarEnTabla(int[] tabla, int hash, int indice) {
+		int mascara = tabla.length - 1;
+		int casilla = hash & mascara;
+		while (tabla[casilla] != VACIA) {
+			casilla = (casilla + 1) & mascara;
+		}
+		tabla[casilla] = indice;
+	}
+
+	/**
+	 * El hash se calcula sobre los bytes en UTF-8 (como String.hashCode,
+	 * que da lo mismo si la matrícula es ASCII), para que sea el mismo
+	 * desde el String o desde el arreglo de bytes
+	 */
+	private static int dispersar(String matricula) {
+		int hash = 0;
+		for (int i = 0; i < matricula.length(); i++) {
+			char caracter = matricula.charAt(i);
+			if (caracter >= 0x80) {
+				byte[] bytes = matricula.getBytes(StandardCharsets.UTF_8);
+				return dispersar(bytes, 0, bytes.length);
+			}
+			hash = 31 * hash + caracter;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * @return el hash de la matrícula de la fila
+	 */
+	private int dispersar(int indice) {
+		int inicio = inicioMatriculas[indice];
+		return dispersar(arenaMatriculas, inicioTexto(inicio), longitudMatricula(inicio));
+	}
+
+	private static int dispersar(byte[] bytes, int desde, int longitud) {
+		int hash = 0;
+		for (int i = desde; i < desde + longitud; i++) {
+			hash = 31 * hash + (bytes[i] & 0xFF);
+		}
+		return hash ^ (hash >>> 16);
+	}
+}
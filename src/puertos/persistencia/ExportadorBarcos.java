@@ -0,0 +1,419 @@
+package puertos.persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Exporta todos los barcos de un repositorio a un archivo CSV o JSON
+ * (por ejemplo, para los auditores), opcionalmente comprimido con gzip.
+ *
+ * Los barcos se reciben uno a uno (RepositorioBarcos.recorrerBarcos)
+ * y se escriben directamente como bytes en un búfer directo que se vacía
+ * en el archivo por medio de un FileChannel cada vez que se llena; así la
+ * memoria que se usa es la misma para mil que para diez millones de barcos.
+ * Los búferes directos se reutilizan entre exportaciones.
+ * Si la exportación falla, el archivo queda incompleto.
+ *
+ * El CSV se puede volver a leer con ImportadorManifiesto. Como el
+ * importador lee un barco por línea, un barco con saltos de línea en la
+ * matrícula o la nacionalidad no se puede exportar a CSV (la exportación
+ * falla; en JSON se escriben escapados). Una nacionalidad null se escribe
+ * en CSV como un campo vacío, y al importarla queda como "" (en JSON se
+ * escribe null).
+ *
+ * @version 1.2
+ */
+public class ExportadorBarcos {
+	private static final int TAMANO_BUFER = 1 << 18;
+	private static final int BUFERES_GUARDADOS = 8;
+	private static final byte[] ENCABEZADO_GZIP = { 0x1f, (byte) 0x8b, Deflater.DEFLATED,
+			0, 0, 0, 0, 0, 0, (byte) 0xff };
+	private static final byte[] SIN_DATOS = new byte[0];
+	private static final String ENCABEZADO_CSV = "matricula,nacionalidad,volumen,tipo,pasajeros,liquidos\n";
+
+	/** Búferes directos libres (crearlos es costoso, por eso se reutilizan) */
+	private static final BlockingQueue<ByteBuffer> BUFERES_LIBRES =
+			new ArrayBlockingQueue<ByteBuffer>(BUFERES_GUARDADOS);
+
+	private FormatoExportacion formato;
+	private boolean comprimir;
+
+	/**
+	 * @param formato	el formato del archivo que se escribe
+	 */
+	public ExportadorBarcos(FormatoExportacion formato) {
+		this.formato = formato;
+	}
+
+	/**
+	 * @param comprimir	si es true, el archivo se escribe comprimido con gzip
+	 * 			(con el nivel de compresión más rápido)
+	 */
+	public void setComprimir(boolean comprimir) {
+		this.comprimir = comprimir;
+	}
+
+	/**
+	 * Escribe todos los barcos del repositorio en el archivo
+	 * (si ya existe, se reemplaza).
+	 *
+	 * @param repositorio	de donde se toman los barcos
+	 * @param archivo	la ruta del archivo que se escribe
+	 * @return	la cantidad de barcos exportados
+	 * @throws IOException	si no se puede escribir el archivo
+	 */
+	public long exportar(RepositorioBarcos repositorio, Path archivo) throws IOException {
+		FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		Exportacion exportacion = new Exportacion(canal);
+		try {
+			exportacion.iniciar();
+			repositorio.recorrerBarcos(exportacion::escribir);
+			exportacion.terminar();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			exportacion.cerrar();
+		}
+		return exportacion.cantidad;
+	}
+
+	private static ByteBuffer tomarBufer() {
+		ByteBuffer bufer = BUFERES_LIBRES.poll();
+		return (bufer != null) ? bufer : ByteBuffer.allocateDirect(TAMANO_BUFER);
+	}
+
+	private static void devolverBufer(ByteBuffer bufer) {
+		bufer.clear();
+		bufer.order(ByteOrder.BIG_ENDIAN);
+		BUFERES_LIBRES.offer(bufer);
+	}
+
+	/**
+	 * El estado de una exportación: el archivo, el búfer donde se escriben
+	 * los barcos y, si se comprime, el búfer con los datos comprimidos
+	 */
+	private class Exportacion {
+		private FileChannel canal;
+		private ByteBuffer bufer;
+		private ByteBuffer comprimido;
+		private Deflater compresor;
+		private CRC32 crc;
+		private long cantidad;
+		private byte[] digitos = new byte[20];
+
+		Exportacion(FileChannel canal) {
+			this.canal = canal;
+			bufer = tomarBufer();
+			if (comprimir) {
+				comprimido = tomarBufer();
+				compresor = new Deflater(Deflater.BEST_SPEED, true);
+				crc = new CRC32();
+			}
+		}
+
+		void iniciar() {
+			if (comprimido != null) {
+				comprimido.put(ENCABEZADO_GZIP);
+			}
+			escribirAscii((formato == FormatoExportacion.CSV) ? ENCABEZADO_CSV : "[");
+		}
+
+		/**
+		 * Escribe un barco; se llama por cada barco del repositorio
+		 */
+		void escribir(Barco barco) {
+			try {
+				if (formato == FormatoExportacion.CSV) {
+					revisarLineas(barco);
+				}
+				asegurarEspacio(barco);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (formato == FormatoExportacion.CSV) {
+				escribirCsv(barco);
+			} else {
+				escribirJson(barco);
+			}
+			cantidad++;
+		}
+
+		private void escribirCsv(Barco barco) {
+			escribirTextoCsv(barco.getMatricula());
+			bufer.put((byte) ',');
+			escribirTextoCsv(barco.getNacionalidad());
+			bufer.put((byte) ',');
+			escribirDecimal(barco.getVolumen());
+			if (barco instanceof Velero) {
+				escribirAscii(",v,");
+				escribirEntero(((Velero) barco).getPasajeros());
+				escribirAscii(",false\n");
+			} else {
+				escribirAscii(",c,0,");
+				escribirAscii(((Carguero) barco).getLiquidos() ? "true\n" : "false\n");
+			}
+		}
+
+		/**
+		 * En CSV cada barco ocupa una línea, así que los textos no
+		 * pueden tener saltos de línea
+		 */
+		private void revisarLineas(Barco barco) throws IOException {
+			if (tieneSaltoLinea(barco.getMatricula()) || tieneSaltoLinea(barco.getNacionalidad())) {
+				throw new IOException("El barco " + barco.getMatricula()
+						+ " tiene saltos de línea, que no se pueden exportar a CSV");
+			}
+		}
+
+		private boolean tieneSaltoLinea(String texto) {
+			return texto != null && (texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0);
+		}
+
+		private void escribirJson(Barco barco) {
+			escribirAscii((cantidad == 0) ? "\n{\"matricula\":" : ",\n{\"matricula\":");
+			escribirTextoJson(barco.getMatricula());
+			escribirAscii(",\"nacionalidad\":");
+			escribirTextoJson(barco.getNacionalidad());
+			escribirAscii(",\"volumen\":");
+			escribirDecimal(barco.getVolumen());
+			if (barco instanceof Velero) {
+				escribirAscii(",\"tipo\":\"velero\",\"pasajeros\":");
+				escribirEntero(((Velero) barco).getPasajeros());
+				escribirAscii("}");
+			} else {
+				escribirAscii(",\"tipo\":\"carguero\",\"liquidos\":");
+				escribirAscii(((Carguero) barco).getLiquidos() ? "true}" : "false}");
+			}
+		}
+
+		/**
+		 * Los textos van entre comillas solo si tienen comas o comillas, o
+		 * empiezan o terminan con espacios (que al leerlos sin comillas se
+		 * quitarían); las comillas internas se duplican. Un texto null se
+		 * escribe como un campo vacío.
+		 */
+		private void escribirTextoCsv(String texto) {
+			if (texto == null) {
+				return;
+			}
+			boolean comillas = !texto.isEmpty() && (esEspacio(texto.charAt(0))
+					|| esEspacio(texto.charAt(texto.length() - 1)));
+			for (int i = 0; i < texto.length() && !comillas; i++) {
+				char c = texto.charAt(i);
+				comillas = (c == ',' || c == '"');
+			}
+			if (!comillas) {
+				escribirUtf8(texto);
+				return;
+			}
+			bufer.put((byte) '"');
+			for (int i = 0; i < texto.length(); i++) {
+				char c = texto.charAt(i);
+				if (c == '"') {
+					bufer.put((byte) '"');
+				}
+				i += escribirCaracter(texto, i) - 1;
+			}
+			bufer.put((byte) '"');
+		}
+
+		private boolean esEspacio(char c) {
+			return c == ' ' || c == '\t';
+		}
+
+		private void escribirTextoJson(String texto) {
+			if (texto == null) {
+				escribirAscii("null");
+				return;
+			}
+			bufer.put((byte) '"');
+			for (int i = 0; i < texto.length(); i++) {
+				char c = texto.charAt(i);
+				if (c == '"' || c == '\\') {
+					bufer.put((byte) '\\').put((byte) c);
+				} else if (c == '\n') {
+					escribirAscii("\\n");
+				} else if (c < 0x20) {
+					escribirAscii("\\u00");
+					bufer.put((byte) Character.forDigit(c >> 4, 16));
+					bufer.put((byte) Character.forDigit(c & 0xF, 16));
+				} else {
+					i += escribirCaracter(texto, i) - 1;
+				}
+			}
+			bufer.put((byte) '"');
+		}
+
+		private void escribirUtf8(String texto) {
+			for (int i = 0; i < texto.length(); i++) {
+				char c = texto.charAt(i);
+				if (c < 0x80) {
+					bufer.put((byte) c);
+				} else {
+					i += escribirCaracter(texto, i) - 1;
+				}
+			}
+		}
+
+		/**
+		 * Escribe en UTF-8 el carácter que está en la posición dada (si es
+		 * la primera mitad de un par sustituto, se escribe el par completo)
+		 * @return la cantidad de char que se escribieron (1 o 2)
+		 */
+		private int escribirCaracter(String texto, int posicion) {
+			int codigo = texto.codePointAt(posicion);
+			if (codigo < 0x80) {
+				bufer.put((byte) codigo);
+			} else if (codigo < 0x800) {
+				bufer.put((byte) (0xC0 | (codigo >> 6)));
+				bufer.put((byte) (0x80 | (codigo & 0x3F)));
+			} else if (Character.isSurrogate((char) codigo) && codigo < 0x10000) {
+				bufer.put((byte) '?');
+			} else if (codigo < 0x10000) {
+				bufer.put((byte) (0xE0 | (codigo >> 12)));
+				bufer.put((byte) (0x80 | ((codigo >> 6) & 0x3F)));
+				bufer.put((byte) (0x80 | (codigo & 0x3F)));
+			} else {
+				bufer.put((byte) (0xF0 | (codigo >> 18)));
+				bufer.put((byte) (0x80 | ((codigo >> 12) & 0x3F)));
+				bufer.put((byte) (0x80 | ((codigo >> 6) & 0x3F)));
+				bufer.put((byte) (0x80 | (codigo & 0x3F)));
+			}
+			return Character.charCount(codigo);
+		}
+
+		private void escribirAscii(String texto) {
+			for (int i = 0; i < texto.length(); i++) {
+				bufer.put((byte) texto.charAt(i));
+			}
+		}
+
+		/**
+		 * Los volúmenes enteros se escriben sin decimales,
+		 * y los demás como Double.toString
+		 */
+		private void escribirDecimal(double valor) {
+			if (valor == (long) valor && Math.abs(valor) < 1e15) {
+				escribirEntero((long) valor);
+			} else if (Double.isFinite(valor) || formato == FormatoExportacion.CSV) {
+				escribirAscii(Double.toString(valor));
+			} else {
+				escribirAscii("null");
+			}
+		}
+
+		private void escribirEntero(long valor) {
+			if (valor < 0) {
+				bufer.put((byte) '-');
+				valor = -valor;
+			}
+			int posicion = digitos.length;
+			do {
+				digitos[--posicion] = (byte) ('0' + valor % 10);
+				valor /= 10;
+			} while (valor != 0);
+			bufer.put(digitos, posicion, digitos.length - posicion);
+		}
+
+		/**
+		 * Vacía el búfer si no tiene espacio para el barco
+		 * (en el peor caso, cada carácter ocupa 6 bytes en el archivo)
+		 */
+		private void asegurarEspacio(Barco barco) throws IOException {
+			int maximo = 128 + 6 * (largo(barco.getMatricula()) + largo(barco.getNacionalidad()));
+			if (bufer.remaining() >= maximo) {
+				return;
+			}
+			vaciar();
+			if (bufer.remaining() < maximo) {
+				throw new IOException("El barco " + barco.getMatricula()
+						+ " es demasiado grande para exportarlo");
+			}
+		}
+
+		private int largo(String texto) {
+			return (texto == null) ? 0 : texto.length();
+		}
+
+		/**
+		 * Escribe el contenido del búfer en el archivo (comprimido, si se pidió)
+		 */
+		private void vaciar() throws IOException {
+			bufer.flip();
+			if (comprimido == null) {
+				while (bufer.hasRemaining()) {
+					canal.write(bufer);
+				}
+			} else {
+				crc.update(bufer.duplicate());
+				compresor.setInput(bufer);
+				while (!compresor.needsInput()) {
+					compresor.deflate(comprimido);
+					if (!comprimido.hasRemaining()) {
+						escribirComprimido();
+					}
+				}
+				// el compresor mira lo que queda en el búfer cada vez que
+				// comprime, así que no se le puede dejar el búfer ya vaciado
+				compresor.setInput(SIN_DATOS);
+			}
+			bufer.clear();
+		}
+
+		private void escribirComprimido() throws IOException {
+			comprimido.flip();
+			while (comprimido.hasRemaining()) {
+				canal.write(comprimido);
+			}
+			comprimido.clear();
+		}
+
+		void terminar() throws IOException {
+			if (formato == FormatoExportacion.JSON) {
+				escribirAscii("\n]\n");
+			}
+			vaciar();
+			if (comprimido == null) {
+				return;
+			}
+			compresor.finish();
+			while (!compresor.finished()) {
+				compresor.deflate(comprimido);
+				if (!comprimido.hasRemaining()) {
+					escribirComprimido();
+				}
+			}
+			// el final de gzip: CRC32 y tamaño sin comprimir, en little-endian
+			if (comprimido.remaining() < 8) {
+				escribirComprimido();
+			}
+			comprimido.order(ByteOrder.LITTLE_ENDIAN);
+			comprimido.putInt((int) crc.getValue());
+			comprimido.putInt((int) compresor.getBytesRead());
+			escribirComprimido();
+		}
+
+		void cerrar() throws IOException {
+			devolverBufer(bufer);
+			if (comprimido != null) {
+				compresor.end();
+				devolverBufer(comprimido);
+			}
+			canal.close();
+		}
+	}
+}
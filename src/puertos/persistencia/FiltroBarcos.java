@@ -0,0 +1,93 @@
+package puertos.persistencia;
+
+import puertos.entidades.Barco;
+
+/**
+ * Condiciones que deben cumplir los barcos de una consulta por páginas
+ * (ver RepositorioBarcos.consultarPagina): el tipo de barco y un rango
+ * de volumen. Es inmutable: cada método retorna un filtro nuevo.
+ * <pre>
+ * FiltroBarcos.todos().soloTipo(Carguero.class).conVolumenEntre(100, 500)
+ * </pre>
+ *
+ * @version 1.0
+ */
+public class FiltroBarcos {
+	private static final FiltroBarcos TODOS = new FiltroBarcos(null,
+			Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+	private Class<? extends Barco> tipo;
+	private double volumenMinimo;
+	private double volumenMaximo;
+
+	private FiltroBarcos(Class<? extends Barco> tipo, double volumenMinimo, double volumenMaximo) {
+		this.tipo = tipo;
+		this.volumenMinimo = volumenMinimo;
+		this.volumenMaximo = volumenMaximo;
+	}
+
+	/**
+	 * @return el filtro que deja pasar todos los barcos
+	 */
+	public static FiltroBarcos todos() {
+		return TODOS;
+	}
+
+	/**
+	 * @param tipo	la clase de los barcos que se quieren (por ejemplo 
+	 * 			Velero.class), o null para todos los tipos
+	 * @return un filtro igual a este, pero solo con los barcos de ese tipo
+	 */
+	public FiltroBarcos soloTipo(Class<? extends Barco> tipo) {
+		return new FiltroBarcos(tipo, volumenMinimo, volumenMaximo);
+	}
+
+	/**
+	 * @param minimo	el volumen mínimo (incluido), en m3
+	 * @param maximo	el volumen máximo (incluido), en m3
+	 * @return un filtro igual a este, pero solo con los barcos en ese rango de volumen
+	 */
+	public FiltroBarcos conVolumenEntre(double minimo, double maximo) {
+		if (minimo > maximo) {
+			throw new IllegalArgumentException("El volumen mínimo es mayor que el máximo");
+		}
+		return new FiltroBarcos(tipo, minimo, maximo);
+	}
+
+	public Class<? extends Barco> getTipo() {
+		return tipo;
+	}
+
+	public double getVolumenMinimo() {
+		return volumenMinimo;
+	}
+
+	public double getVolumenMaximo() {
+		return volumenMaximo;
+	}
+
+	/**
+	 * @return true si el barco cumple todas las condiciones del filtro
+	 */
+	public boolean cumple(Barco barco) {
+		return aceptaTipo(barco.getClass()) && aceptaVolumen(barco.getVolumen());
+	}
+
+	/**
+	 * @param clase	la clase de un barco
+	 * @return true si los barcos de esa clase cumplen la condición del tipo
+	 */
+	boolean aceptaTipo(Class<?> clase) {
+		return tipo == null || tipo.isAssignableFrom(clase);
+	}
+
+	boolean aceptaVolumen(double volumen) {
+		return volumen >= volumenMinimo && volumen <= volumenMaximo;
+	}
+
+	@Override
+	public String toString() {
+		return "FiltroBarcos[tipo=" + ((tipo == null) ? "todos" : tipo.getSimpleName())
+				+ ", volumen=" + volumenMinimo + ".." + volumenMaximo + "]";
+	}
+}
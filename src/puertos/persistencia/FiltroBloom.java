@@ -0,0 +1,201 @@
+package puertos.persistencia;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom escalable para matrículas: dice si una matrícula
+ * seguro no se ha adicionado (puedeContener retorna false), o si tal vez
+ * sí (con una probabilidad de falso positivo que se configura).
+ *
+ * El filtro empieza con una capa dimensionada para la capacidad inicial;
+ * cuando se llena se agrega otra con el doble de capacidad y la mitad de
+ * la tasa de falsos positivos, así que la tasa total nunca pasa la
+ * configurada, aunque haya muchos más elementos que los previstos
+ * (Almeida et al., "Scalable Bloom Filters"). No se pueden quitar
+ * elementos.
+ *
+ * Consultar no usa bloqueos (los bits son un AtomicLongArray), así que
+ * se puede hacer desde varios hilos mientras otro adiciona.
+ *
+ * @version 1.0
+ */
+public class FiltroBloom {
+	/** Cada capa tiene la mitad de la tasa de falsos positivos de la anterior */
+	private static final double REDUCCION_TASA = 0.5;
+
+	private final double tasaFalsosPositivos;
+	private volatile Capa[] capas;
+	private long cantidad;
+
+	/**
+	 * Un filtro de Bloom de tamaño fijo
+	 */
+	private static class Capa {
+		private final AtomicLongArray bits;
+		private final long numeroBits;
+		private final int funciones;
+		private final long capacidad;
+		private long cantidad;
+
+		Capa(long capacidad, double tasa) {
+			long numero = (long) Math.ceil(-capacidad * Math.log(tasa) / (Math.log(2) * Math.log(2)));
+			this.numeroBits = ((numero + 63) / 64) * 64;
+			this.bits = new AtomicLongArray((int) (numeroBits / 64));
+			this.funciones = Math.max(1, (int) Math.ceil(-Math.log(tasa) / Math.log(2)));
+			this.capacidad = capacidad;
+		}
+
+		/**
+		 * Las posiciones son h1 + i * h2 (doble hashing)
+		 */
+		boolean contiene(long h1, long h2) {
+			for (int i = 0; i < funciones; i++) {
+				long bit = Math.floorMod(h1 + i * h2, numeroBits);
+				if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void adicionar(long h1, long h2) {
+			for (int i = 0; i < funciones; i++) {
+				long bit = Math.floorMod(h1 + i * h2, numeroBits);
+				long mascara = 1L << bit;
+				bits.getAndAccumulate((int) (bit >>> 6), mascara, (actual, nuevo) -> actual | nuevo);
+			}
+			cantidad++;
+		}
+
+		/**
+		 * @return la probabilidad de falso positivo con la cantidad actual
+		 */
+		double estimarTasa() {
+			return Math.pow(1 - Math.exp(-(double) funciones * cantidad / numeroBits), funciones);
+		}
+	}
+
+	/**
+	 * @param capacidadInicial	la cantidad de matrículas que se esperan
+	 * 			(si hay más, el filtro crece)
+	 * @param tasaFalsosPositivos	la probabilidad máxima de que el filtro
+	 * 			diga que tal vez contiene una matrícula que no se ha adicionado
+	 * 			(por ejemplo, 0.01)
+	 */
+	public FiltroBloom(int capacidadInicial, double tasaFalsosPositivos) {
+		if (capacidadInicial < 1) {
+			throw new IllegalArgumentException("La capacidad inicial debe ser positiva");
+		}
+		if (!(tasaFalsosPositivos > 0 && tasaFalsosPositivos < 1)) {
+			throw new IllegalArgumentException("La tasa de falsos positivos debe estar entre 0 y 1");
+		}
+		this.tasaFalsosPositivos = tasaFalsosPositivos;
+		this.capas = new Capa[] { new Capa(capacidadInicial, tasaFalsosPositivos * (1 - REDUCCION_TASA)) };
+	}
+
+	/**
+	 * @return false si la matrícula seguro no se ha adicionado, o true
+	 * 		si tal vez sí
+	 */
+	public boolean puedeContener(String matricula) {
+		long h1 = calcularHash(matricula);
+		long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+		for (Capa capa : capas) {
+			if (capa.contiene(h1, h2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adiciona la matrícula en la última capa (si no la contiene ya alguna),
+	 * agregando otra capa si la última está llena
+	 */
+	public synchronized void adicionar(String matricula) {
+		long h1 = calcularHash(matricula);
+		long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+		Capa[] actuales = capas;
+		for (Capa capa : actuales) {
+			if (capa.contiene(h1, h2)) {
+				return;
+			}
+		}
+		Capa ultima = actuales[actuales.length - 1];
+		if (ultima.cantidad >= ultima.capacidad) {
+			double tasa = tasaFalsosPositivos * (1 - REDUCCION_TASA)
+					* Math.pow(REDUCCION_TASA, actuales.length);
+			ultima = new Capa(ultima.capacidad * 2, tasa);
+			Capa[] nuevas = new Capa[actuales.length + 1];
+			System.arraycopy(actuales, 0, nuevas, 0, actuales.length);
+			nuevas[actuales.length] = ultima;
+			capas = nuevas;
+		}
+		ultima.adicionar(h1, h2);
+		cantidad++;
+	}
+
+	/**
+	 * @return la cantidad de matrículas adicionadas (sin contar las que
+	 * 		el filtro ya parecía contener)
+	 */
+	public synchronized long getCantidad() {
+		return cantidad;
+	}
+
+	public int getCapas() {
+		return capas.length;
+	}
+
+	/**
+	 * @return los bits de todas las capas (la memoria es un octavo, en bytes)
+	 */
+	public long getBits() {
+		long total = 0;
+		for (Capa capa : capas) {
+			total += capa.numeroBits;
+		}
+		return total;
+	}
+
+	public double getTasaFalsosPositivos() {
+		return tasaFalsosPositivos;
+	}
+
+	/**
+	 * @return la probabilidad de falso positivo con lo que se ha adicionado
+	 * 		(menor o igual a la configurada)
+	 */
+	public synchronized double estimarTasaFalsosPositivos() {
+		double ninguna = 1;
+		for (Capa capa : capas) {
+			ninguna *= 1 - capa.estimarTasa();
+		}
+		return 1 - ninguna;
+	}
+
+	/**
+	 * FNV-1a de 64 bits sobre los caracteres, mezclado al final para que
+	 * matrículas parecidas (como "B-1" y "B-2") queden lejos
+	 */
+	static long calcularHash(String texto) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < texto.length(); i++) {
+			hash ^= texto.charAt(i);
+			hash *= 0x100000001B3L;
+		}
+		return mezclar(hash);
+	}
+
+	/**
+	 * El paso final de MurmurHash3 (fmix64)
+	 */
+	private static long mezclar(long valor) {
+		valor ^= valor >>> 33;
+		valor *= 0xFF51AFD7ED558CCDL;
+		valor ^= valor >>> 33;
+		valor *= 0xC4CEB9FE1A85EC53L;
+		valor ^= valor >>> 33;
+		return valor;
+	}
+}
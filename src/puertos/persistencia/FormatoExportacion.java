@@ -0,0 +1,16 @@
+package puertos.persistencia;
+
+/**
+ * Formatos en que se pueden exportar los barcos (ver ExportadorBarcos).
+ *
+ * @version 1.0
+ */
+public enum FormatoExportacion {
+	/**
+	 * Una línea por barco, con los campos del manifiesto:
+	 * matricula,nacionalidad,volumen,tipo,pasajeros,liquidos
+	 */
+	CSV,
+	/** Un arreglo JSON con un objeto por barco */
+	JSON
+}
@@ -0,0 +1,464 @@
+package puertos.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Repositorio que se carga desde una instantánea (snapshot) binaria de los
+ * barcos, leída con un MappedByteBuffer: al cargar no se lee el archivo ni se
+ * crean los objetos Barco, solo se crean cuando buscarBarco o consultarBarcos
+ * los necesitan. Los barcos que se adicionan después de cargar se guardan
+ * en memoria (en un MapaBarcos) hasta que se guarde una nueva instantánea.
+ * Los barcos de la instantánea que se eliminan (o actualizan) se marcan en
+ * memoria con un bit por barco, sin cambiar el archivo; uno actualizado
+ * queda como adicionado después de cargar.
+ *
+ * Formato del archivo (todos los números en big-endian):
+ * <ul>
+ * <li>Encabezado (24 bytes): "BARC", versión, cantidad de barcos, capacidad
+ * 		de la tabla hash, posición de la tabla de textos y un int reservado.</li>
+ * <li>Un registro de 24 bytes por barco: tipo ('V' o 'C'), 3 bytes de relleno,
+ * 		pasajeros (velero) o líquidos 0/1 (carguero) en un int, volumen (double),
+ * 		y la posición de la matrícula y de la nacionalidad en la tabla de textos
+ * 		(o -1 si son null).</li>
+ * <li>Tabla hash por matrícula (direccionamiento abierto): un int por casilla
+ * 		con el número del barco más uno, o 0 si está vacía.</li>
+ * <li>Tabla de textos: cada texto con su longitud (short) y sus bytes en UTF-8.
+ * 		Las nacionalidades se guardan una sola vez.</li>
+ * </ul>
+ * Como se usa un solo MappedByteBuffer, el archivo no puede pasar de 2 GB
+ * (unos 80 millones de barcos).
+ *
+ * @version 1.2
+ */
+public class InstantaneaBarcos implements RepositorioBarcos {
+	private static final int MAGIA = 0x42415243; // "BARC"
+	private static final int VERSION = 1;
+	private static final int TAMANO_ENCABEZADO = 24;
+	private static final int TAMANO_REGISTRO = 24;
+
+	private ByteBuffer mapa;
+	private int cantidad;
+	private int mascaraTabla;
+	private int inicioTabla;
+	private int inicioTextos;
+	private MapaBarcos nuevos;
+	/** Un bit por barco de la instantánea: si se eliminó */
+	private long[] eliminados;
+	private int cantidadEliminados;
+	/** Los números de los barcos de la instantánea que no se han eliminado,
+	 * o null si hay que volver a calcularlos */
+	private int[] vigentes;
+
+	private InstantaneaBarcos(ByteBuffer mapa) throws IOException {
+		this.mapa = mapa;
+		if (mapa.capacity() < TAMANO_ENCABEZADO || mapa.getInt(0) != MAGIA) {
+			throw new IOException("El archivo no es una instantánea de barcos");
+		}
+		if (mapa.getInt(4) != VERSION) {
+			throw new IOException("Versión de instantánea no soportada: " + mapa.getInt(4));
+		}
+		cantidad = mapa.getInt(8);
+		mascaraTabla = mapa.getInt(12) - 1;
+		inicioTabla = TAMANO_ENCABEZADO + cantidad * TAMANO_REGISTRO;
+		inicioTextos = mapa.getInt(16);
+		nuevos = new MapaBarcos();
+		eliminados = new long[(cantidad + 63) >>> 6];
+	}
+
+	/**
+	 * Abre una instantánea sin leer los barcos (solo se mapea el archivo a memoria).
+	 * @param archivo	el archivo guardado con el método guardar
+	 * @return el repositorio con los barcos de la instantánea
+	 * @throws IOException si no se puede leer o el formato no es correcto
+	 */
+	public static InstantaneaBarcos cargar(Path archivo) throws IOException {
+		try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+			if (canal.size() > Integer.MAX_VALUE) {
+				throw new IOException("La instantánea es demasiado grande");
+			}
+			MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			return new InstantaneaBarcos(mapa);
+		}
+	}
+
+	/**
+	 * Guarda los barcos de este repositorio (los de la instantánea y
+	 * los adicionados después) en una nueva instantánea.
+	 * @param archivo	dónde se guarda; no debe ser el mismo archivo que se cargó
+	 * @throws IOException si no se puede escribir
+	 */
+	public void guardar(Path archivo) throws IOException {
+		guardar(this, archivo);
+	}
+
+	/**
+	 * Guarda todos los barcos de un repositorio en una instantánea.
+	 * @param repositorio	de donde se toman los barcos
+	 * @param archivo	dónde se guarda (si ya existe, se reemplaza)
+	 * @throws IOException si no se puede escribir, o los barcos no caben
+	 */
+	public static void guardar(RepositorioBarcos repositorio, Path archivo) throws IOException {
+		List<Barco> barcos = repositorio.consultarBarcos();
+		int cantidad = barcos.size();
+		int capacidadTabla = calcularCapacidadTabla(cantidad);
+
+		// primero se calcula dónde queda cada texto, para conocer el tamaño
+		int[] matriculas = new int[cantidad];
+		int[] nacionalidades = new int[cantidad];
+		Map<String, Integer> posicionesNacionalidad = new HashMap<String, Integer>();
+		long tamanoTextos = 0;
+		for (int i = 0; i < cantidad; i++) {
+			Barco barco = barcos.get(i);
+			matriculas[i] = (int) tamanoTextos;
+			tamanoTextos += calcularTamano(barco.getMatricula());
+			String nacionalidad = barco.getNacionalidad();
+			if (nacionalidad == null) {
+				nacionalidades[i] = -1;
+				continue;
+			}
+			Integer posicion = posicionesNacionalidad.get(nacionalidad);
+			if (posicion == null) {
+				posicion = (int) tamanoTextos;
+				posicionesNacionalidad.put(nacionalidad, posicion);
+				tamanoTextos += calcularTamano(nacionalidad);
+			}
+			nacionalidades[i] = posicion;
+		}
+		long inicioTabla = TAMANO_ENCABEZADO + (long) cantidad * TAMANO_REGISTRO;
+		long inicioTextos = inicioTabla + 4L * capacidadTabla;
+		long tamano = inicioTextos + tamanoTextos;
+		if (tamano > Integer.MAX_VALUE) {
+			throw new IOException("Hay demasiados barcos para una instantánea");
+		}
+
+		try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+			mapa.putInt(MAGIA).putInt(VERSION).putInt(cantidad).putInt(capacidadTabla)
+					.putInt((int) inicioTextos).putInt(0);
+
+			ByteBuffer textos = mapa.duplicate();
+			textos.position((int) inicioTextos);
+			int mascara = capacidadTabla - 1;
+			for (int i = 0; i < cantidad; i++) {
+				Barco barco = barcos.get(i);
+				int posicion = TAMANO_ENCABEZADO + i * TAMANO_REGISTRO;
+				if (barco instanceof Velero) {
+					mapa.put(posicion, CodificadorBarcos.VELERO);
+					mapa.putInt(posicion + 4, ((Velero) barco).getPasajeros());
+				} else if (barco instanceof Carguero) {
+					mapa.put(posicion, CodificadorBarcos.CARGUERO);
+					mapa.putInt(posicion + 4, ((Carguero) barco).getLiquidos() ? 1 : 0);
+				} else {
+					throw new IllegalArgumentException("Tipo de barco desconocido: "
+							+ barco.getClass().getName());
+				}
+				mapa.putDouble(posicion + 8, barco.getVolumen());
+				mapa.putInt(posicion + 16, matriculas[i]);
+				mapa.putInt(posicion + 20, nacionalidades[i]);
+
+				escribirTexto(barco.getMatricula(), textos);
+				if (posicionesNacionalidad.remove(barco.getNacionalidad()) != null) {
+					escribirTexto(barco.getNacionalidad(), textos);
+				}
+
+				int casilla = dispersar(barco.getMatricula()) & mascara;
+				while (mapa.getInt((int) inicioTabla + casilla * 4) != 0) {
+					casilla = (casilla + 1) & mascara;
+				}
+				mapa.putInt((int) inicioTabla + casilla * 4, i + 1);
+			}
+			mapa.force();
+		}
+	}
+
+	/**
+	 * @return una lista que crea cada barco solo cuando se pide; si después
+	 * 		se eliminan barcos, se debe volver a consultar
+	 */
+	@Override
+	public List<Barco> consultarBarcos() {
+		if (cantidadEliminados > 0 && vigentes == null) {
+			vigentes = new int[cantidad - cantidadEliminados];
+			int i = 0;
+			for (int indice = 0; indice < cantidad; indice++) {
+				if (!estaEliminado(indice)) {
+					vigentes[i++] = indice;
+				}
+			}
+		}
+		return new BarcosPerezosos((cantidadEliminados > 0) ? vigentes : null);
+	}
+
+	/**
+	 * Lista que crea cada barco de la instantánea solo cuando se pide
+	 * (cada vez que se pide), seguida por los barcos adicionados después.
+	 */
+	private class BarcosPerezosos extends AbstractList<Barco> implements RandomAccess {
+		/** Los barcos de la instantánea que se incluyen, o null si son todos */
+		private final int[] incluidos;
+		private final int enInstantanea;
+
+		BarcosPerezosos(int[] incluidos) {
+			this.incluidos = incluidos;
+			enInstantanea = (incluidos == null) ? cantidad : incluidos.length;
+		}
+
+		@Override
+		public Barco get(int indice) {
+			if (indice < enInstantanea) {
+				return materializar((incluidos == null) ? indice : incluidos[indice]);
+			}
+			return nuevos.consultarBarcos().get(indice - enInstantanea);
+		}
+
+		@Override
+		public int size() {
+			return enInstantanea + nuevos.consultarBarcos().size();
+		}
+	}
+
+	/**
+	 * Calcula la capacidad leyendo directamente los registros de la 
+	 * instantánea, sin crear los objetos Barco.
+	 */
+	@Override
+	public double calcularCapacidadTotal() {
+		double capacidadTotal = 0;
+		for (int indice = 0; indice < cantidad; indice++) {
+			if (cantidadEliminados > 0 && estaEliminado(indice)) {
+				continue;
+			}
+			int posicion = TAMANO_ENCABEZADO + indice * TAMANO_REGISTRO;
+			int datos = mapa.getInt(posicion + 4);
+			double volumen = mapa.getDouble(posicion + 8);
+			if (mapa.get(posicion) == CodificadorBarcos.VELERO) {
+				capacidadTotal += Velero.calcularCapacidad(volumen, datos);
+			} else {
+				capacidadTotal += Carguero.calcularCapacidad(volumen, datos != 0);
+			}
+		}
+		return capacidadTotal + nuevos.calcularCapacidadTotal();
+	}
+
+	/**
+	 * La instantánea no tiene índice por volumen, pero para armar la página
+	 * se leen solo el tipo y el volumen de cada registro, y se crean
+	 * únicamente los barcos de la página.
+	 */
+	@Override
+	public PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		SeleccionPagina seleccion = new SeleccionPagina(filtro, tamano, continuacion);
+		boolean veleros = filtro.aceptaTipo(Velero.class);
+		boolean cargueros = filtro.aceptaTipo(Carguero.class);
+		for (int indice = 0; indice < cantidad; indice++) {
+			if (cantidadEliminados > 0 && estaEliminado(indice)) {
+				continue;
+			}
+			int posicion = TAMANO_ENCABEZADO + indice * TAMANO_REGISTRO;
+			if ((mapa.get(posicion) == CodificadorBarcos.VELERO) ? veleros : cargueros) {
+				seleccion.considerar(mapa.getDouble(posicion + 8), indice);
+			}
+		}
+		List<Barco> adicionados = nuevos.consultarBarcos();
+		for (int i = 0; i < adicionados.size(); i++) {
+			Barco barco = adicionados.get(i);
+			if (filtro.aceptaTipo(barco.getClass())) {
+				seleccion.considerar(barco.getVolumen(), cantidad + i);
+			}
+		}
+		return seleccion.armar(orden -> (orden < cantidad) ? materializar((int) orden)
+				: adicionados.get((int) (orden - cantidad)));
+	}
+
+	/**
+	 * Adiciona el barco en memoria, si no hay otro con la misma matrícula
+	 * (ni en la instantánea ni entre los adicionados).
+	 */
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		if (buscarEnInstantanea(barco.getMatricula()) >= 0) {
+			return false;
+		}
+		return nuevos.adicionarBarco(barco);
+	}
+
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		return adicionarBarco(barco);
+	}
+
+	@Override
+	public Barco buscarBarco(String matricula) {
+		int indice = buscarEnInstantanea(matricula);
+		if (indice >= 0) {
+			return materializar(indice);
+		}
+		return nuevos.buscarBarco(matricula);
+	}
+
+	/**
+	 * Si el barco es de la instantánea, solo se marca como eliminado.
+	 */
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		int indice = buscarEnInstantanea(matricula);
+		if (indice < 0) {
+			return nuevos.eliminarBarco(matricula);
+		}
+		marcarEliminado(indice);
+		return materializar(indice);
+	}
+
+	/**
+	 * Un barco de la instantánea se marca como eliminado y el nuevo se
+	 * guarda con los adicionados (queda al final del orden de llegada).
+	 */
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		int indice = buscarEnInstantanea(barco.getMatricula());
+		if (indice < 0) {
+			return nuevos.actualizarBarco(barco);
+		}
+		marcarEliminado(indice);
+		nuevos.adicionarBarco(barco);
+		return materializar(indice);
+	}
+
+	private void marcarEliminado(int indice) {
+		eliminados[indice >>> 6] |= 1L << indice;
+		cantidadEliminados++;
+		vigentes = null;
+	}
+
+	private boolean estaEliminado(int indice) {
+		return ((eliminados[indice >>> 6] >>> indice) & 1L) != 0;
+	}
+
+	/**
+	 * @return la cantidad de barcos que había en la instantánea al cargarla
+	 */
+	public int getCantidadInstantanea() {
+		return cantidad;
+	}
+
+	/**
+	 * Busca la matrícula en la tabla hash de la instantánea, comparando
+	 * los bytes guardados sin crear objetos String.
+	 * @return el número del barco en la instantánea, o -1 si no está
+	 * 		(o si se eliminó)
+	 */
+	private int buscarEnInstantanea(String matricula) {
+		if (cantidad == 0) {
+			return -1;
+		}
+		byte[] buscada = matricula.getBytes(StandardCharsets.UTF_8);
+		int casilla = dispersar(matricula) & mascaraTabla;
+		int valor;
+		while ((valor = mapa.getInt(inicioTabla + casilla * 4)) != 0) {
+			int indice = valor - 1;
+			int posicionTexto = mapa.getInt(TAMANO_ENCABEZADO + indice * TAMANO_REGISTRO + 16);
+			if (sonIguales(posicionTexto, buscada)) {
+				return (cantidadEliminados > 0 && estaEliminado(indice)) ? -1 : indice;
+			}
+			casilla = (casilla + 1) & mascaraTabla;
+		}
+		return -1;
+	}
+
+	private boolean sonIguales(int posicionTexto, byte[] buscada) {
+		if (posicionTexto < 0) {
+			return false;
+		}
+		int posicion = inicioTextos + posicionTexto;
+		if (mapa.getShort(posicion) != buscada.length) {
+			return false;
+		}
+		posicion += 2;
+		for (int i = 0; i < buscada.length; i++) {
+			if (mapa.get(posicion + i) != buscada[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Crea el objeto Barco con los datos del registro dado de la instantánea
+	 */
+	private Barco materializar(int indice) {
+		int posicion = TAMANO_ENCABEZADO + indice * TAMANO_REGISTRO;
+		byte tipo = mapa.get(posicion);
+		int datos = mapa.getInt(posicion + 4);
+		double volumen = mapa.getDouble(posicion + 8);
+		String matricula = leerTexto(mapa.getInt(posicion + 16));
+		String nacionalidad = leerTexto(mapa.getInt(posicion + 20));
+		if (tipo == CodificadorBarcos.VELERO) {
+			return new Velero(matricula, nacionalidad, volumen, datos);
+		}
+		return new Carguero(matricula, nacionalidad, volumen, datos != 0);
+	}
+
+	private String leerTexto(int posicionTexto) {
+		if (posicionTexto < 0) {
+			return null;
+		}
+		ByteBuffer texto = mapa.duplicate();
+		texto.position(inicioTextos + posicionTexto);
+		byte[] bytes = new byte[texto.getShort()];
+		texto.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void escribirTexto(String texto, ByteBuffer destino) {
+		if (texto == null) {
+			return;
+		}
+		byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+		destino.putShort((short) bytes.length);
+		destino.put(bytes);
+	}
+
+	private static int calcularTamano(String texto) {
+		if (texto == null) {
+			return 0;
+		}
+		int longitud = texto.getBytes(StandardCharsets.UTF_8).length;
+		if (longitud > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Texto demasiado largo para guardar");
+		}
+		return 2 + longitud;
+	}
+
+	/**
+	 * La tabla tiene al menos el doble de casillas que barcos (potencia de 2)
+	 */
+	private static int calcularCapacidadTabla(int cantidad) {
+		int capacidad = 2;
+		while (capacidad < 2L * cantidad) {
+			capacidad <<= 1;
+		}
+		return capacidad;
+	}
+
+	private static int dispersar(String matricula) {
+		int hash = matricula.hashCode();
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,60 @@
+package puertos.persistencia;
+
+/**
+ * Indica hasta dónde puede crecer un RepositorioCache: por cantidad de
+ * entradas (barcos y matrículas que no existen) o por una estimación de
+ * los bytes que ocupan en memoria. Al pasar el límite se sacan las
+ * entradas que hace más tiempo no se usan.
+ *
+ * @version 1.0
+ */
+public class LimiteCache {
+	private int entradas;
+	private long bytes;
+
+	private LimiteCache(int entradas, long bytes) {
+		this.entradas = entradas;
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @param entradas	la cantidad máxima de entradas
+	 * @return un límite por cantidad de entradas
+	 */
+	public static LimiteCache porEntradas(int entradas) {
+		if (entradas < 1) {
+			throw new IllegalArgumentException("La cantidad de entradas debe ser positiva");
+		}
+		return new LimiteCache(entradas, 0);
+	}
+
+	/**
+	 * @param bytes	la cantidad máxima de bytes (estimados) de las entradas
+	 * @return un límite por memoria
+	 */
+	public static LimiteCache porBytes(long bytes) {
+		if (bytes < 1) {
+			throw new IllegalArgumentException("La cantidad de bytes debe ser positiva");
+		}
+		return new LimiteCache(0, bytes);
+	}
+
+	/**
+	 * @return la cantidad máxima de entradas, o 0 si el límite es por bytes
+	 */
+	public int getEntradas() {
+		return entradas;
+	}
+
+	/**
+	 * @return la cantidad máxima de bytes, o 0 si el límite es por entradas
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return (entradas > 0) ? entradas + " entrada(s)" : bytes + " bytes";
+	}
+}
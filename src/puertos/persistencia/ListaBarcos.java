@@ -1,6 +1,8 @@
 package puertos.persistencia;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import puertos.entidades.Barco;
 
@@ -8,18 +10,24 @@ import puertos.entidades.Barco;
  * Repositorio temporal que tiene la lista de barcos en memoria.
  * Generalmente usado para pruebas.
  * 
- * @version 1.0
+ * @version 1.3
  */
 public class ListaBarcos implements RepositorioBarcos {
 	private List<Barco> barcos;
+	private List<Barco> vistaBarcos;
 
 	public ListaBarcos() {
 		barcos = new ArrayList<Barco>();
+		vistaBarcos = Collections.unmodifiableList(barcos);
 	}
 	
+	/**
+	 * @return la lista de barcos, que no se puede modificar
+	 * 		(solo se adicionan barcos por medio del repositorio)
+	 */
 	@Override
 	public List<Barco> consultarBarcos() {
-		return barcos;
+		return vistaBarcos;
 	}
 	
 	@Override
@@ -27,13 +35,42 @@ public class ListaBarcos implements RepositorioBarcos {
 		return barcos.add(barco);
 	}
 	
+	@Override
+	public boolean adicionarBarcos(Collection<? extends Barco> nuevos) {
+		barcos.addAll(nuevos);
+		return true;
+	}
+	
 	@Override
 	public Barco buscarBarco(String matricula) {
-		for (Barco barco : barcos) {
-			if (barco.getMatricula().equals(matricula)) {
-				return barco;
+		int posicion = buscarPosicion(matricula);
+		return (posicion < 0) ? null : barcos.get(posicion);
+	}
+	
+	/**
+	 * Como no tiene índice, recorre la lista para encontrar el barco.
+	 */
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		int posicion = buscarPosicion(matricula);
+		return (posicion < 0) ? null : barcos.remove(posicion);
+	}
+	
+	/**
+	 * Reemplaza el barco en la misma posición de la lista.
+	 */
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		int posicion = buscarPosicion(barco.getMatricula());
+		return (posicion < 0) ? null : barcos.set(posicion, barco);
+	}
+	
+	private int buscarPosicion(String matricula) {
+		for (int posicion = 0; posicion < barcos.size(); posicion++) {
+			if (barcos.get(posicion).getMatricula().equals(matricula)) {
+				return posicion;
 			}
 		}
-		return null;
+		return -1;
 	}
 }
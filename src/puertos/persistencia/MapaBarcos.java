@@ -0,0 +1,192 @@
+package puertos.persistencia;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import puertos.entidades.Barco;
+
+/**
+ * Repositorio en memoria que, además de la lista de barcos,
+ * tiene un índice (tabla hash) por matrícula, para que la búsqueda
+ * de un barco no tenga que recorrer toda la lista.
+ * Los barcos se consultan en el orden en que fueron adicionados.
+ * También tiene un índice ordenado por volumen (TreeMap), para consultar
+ * por páginas y por rango de volumen sin recorrer todos los barcos.
+ * Al eliminar un barco se deja un hueco en la lista (para no mover los
+ * demás); los huecos se quitan en una sola pasada antes de consultar 
+ * la lista, o cuando son más de la mitad de la lista.
+ * 
+ * @version 1.2
+ */
+public class MapaBarcos implements RepositorioBarcos {
+	private List<Barco> barcos;
+	private List<Barco> vistaBarcos;
+	private Map<String, Entrada> indiceMatriculas;
+	private TreeMap<ClaveVolumen, Barco> indiceVolumen;
+	/** Orden de llegada del siguiente barco (no cambia al eliminar) */
+	private long secuencia;
+	/** Cantidad de huecos (null) que hay en la lista de barcos */
+	private int eliminados;
+
+	/**
+	 * Un barco, su clave en el índice por volumen y su posición en la lista
+	 */
+	private static class Entrada {
+		private Barco barco;
+		private ClaveVolumen clave;
+		private int posicion;
+
+		Entrada(Barco barco, ClaveVolumen clave, int posicion) {
+			this.barco = barco;
+			this.clave = clave;
+			this.posicion = posicion;
+		}
+	}
+
+	public MapaBarcos() {
+		this(16);
+	}
+
+	/**
+	 * @param capacidadInicial	cantidad de barcos que se espera guardar,
+	 * 			para evitar que la lista y el índice crezcan varias veces
+	 */
+	public MapaBarcos(int capacidadInicial) {
+		barcos = new ArrayList<Barco>(capacidadInicial);
+		indiceMatriculas = new HashMap<String, Entrada>(
+				(int) (capacidadInicial / 0.75f) + 1);
+		indiceVolumen = new TreeMap<ClaveVolumen, Barco>();
+		vistaBarcos = Collections.unmodifiableList(barcos);
+	}
+
+	/**
+	 * @return la lista de barcos, que no se puede modificar
+	 * 		(solo se adicionan barcos por medio del repositorio)
+	 */
+	@Override
+	public List<Barco> consultarBarcos() {
+		compactar();
+		return vistaBarcos;
+	}
+
+	/**
+	 * Usa el índice por volumen: solo recorre los barcos de la página
+	 * (y los del otro tipo que estén en medio, si se filtra por tipo).
+	 */
+	@Override
+	public PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		return PaginaBarcos.consultarIndice(indiceVolumen, filtro, tamano, continuacion);
+	}
+
+	/**
+	 * Adiciona el barco a la lista y a los índices.
+	 * Como la matrícula identifica al barco, si ya hay uno con la misma
+	 * matrícula no se guarda (y se retorna false).
+	 */
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		if (indiceMatriculas.containsKey(barco.getMatricula())) {
+			return false;
+		}
+		ClaveVolumen clave = new ClaveVolumen(barco.getVolumen(), secuencia++);
+		indiceMatriculas.put(barco.getMatricula(), new Entrada(barco, clave, barcos.size()));
+		indiceVolumen.put(clave, barco);
+		return barcos.add(barco);
+	}
+
+	/**
+	 * Como adicionarBarco ya verifica la matrícula, es lo mismo.
+	 * No es seguro para usar desde varios hilos (ver MapaBarcosConcurrente).
+	 */
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		return adicionarBarco(barco);
+	}
+
+	/**
+	 * Adiciona los barcos reservando antes el espacio para todos.
+	 * Los que tengan una matrícula que ya existe no se guardan.
+	 */
+	@Override
+	public boolean adicionarBarcos(Collection<? extends Barco> nuevos) {
+		if (barcos instanceof ArrayList) {
+			((ArrayList<Barco>) barcos).ensureCapacity(barcos.size() + nuevos.size());
+		}
+		boolean guardados = true;
+		for (Barco barco : nuevos) {
+			guardados &= adicionarBarco(barco);
+		}
+		return guardados;
+	}
+
+	@Override
+	public Barco buscarBarco(String matricula) {
+		Entrada entrada = indiceMatriculas.get(matricula);
+		return (entrada == null) ? null : entrada.barco;
+	}
+
+	/**
+	 * Quita el barco de los índices y deja un hueco en su posición de la
+	 * lista; cuando los huecos son más de la mitad, se compacta la lista
+	 * (así el costo de compactar, repartido entre los barcos eliminados,
+	 * es constante).
+	 */
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		Entrada entrada = indiceMatriculas.remove(matricula);
+		if (entrada == null) {
+			return null;
+		}
+		indiceVolumen.remove(entrada.clave);
+		barcos.set(entrada.posicion, null);
+		eliminados++;
+		if (eliminados > barcos.size() / 2) {
+			compactar();
+		}
+		return entrada.barco;
+	}
+
+	/**
+	 * El barco conserva su lugar en la lista y su orden de llegada
+	 * (en el índice por volumen solo cambia su volumen).
+	 */
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		Entrada entrada = indiceMatriculas.get(barco.getMatricula());
+		if (entrada == null) {
+			return null;
+		}
+		Barco anterior = entrada.barco;
+		indiceVolumen.remove(entrada.clave);
+		entrada.barco = barco;
+		entrada.clave = new ClaveVolumen(barco.getVolumen(), entrada.clave.orden);
+		indiceVolumen.put(entrada.clave, barco);
+		barcos.set(entrada.posicion, barco);
+		return anterior;
+	}
+
+	/**
+	 * Quita los huecos de la lista, conservando el orden de los barcos
+	 */
+	private void compactar() {
+		if (eliminados == 0) {
+			return;
+		}
+		int destino = 0;
+		for (int posicion = 0; posicion < barcos.size(); posicion++) {
+			Barco barco = barcos.get(posicion);
+			if (barco != null) {
+				barcos.set(destino, barco);
+				indiceMatriculas.get(barco.getMatricula()).posicion = destino;
+				destino++;
+			}
+		}
+		barcos.subList(destino, barcos.size()).clear();
+		eliminados = 0;
+	}
+}
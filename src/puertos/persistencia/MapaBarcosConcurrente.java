@@ -0,0 +1,179 @@
+package puertos.persistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import puertos.entidades.Barco;
+
+/**
+ * Repositorio en memoria que se puede usar desde varios hilos a la vez
+ * (por ejemplo, varias terminales registrando barcos), sin un bloqueo global.
+ * El índice por matrícula es un ConcurrentHashMap, así que la verificación
+ * de matrícula repetida y la adición son una sola operación atómica.
+ * El orden de llegada se guarda en un ConcurrentSkipListMap, por número 
+ * de secuencia, para poder consultar los barcos mientras otros hilos adicionan.
+ * Al eliminar o actualizar un barco, cada índice se actualiza en tiempo
+ * constante (tabla hash) o logarítmico (skip lists).
+ * 
+ * @version 1.4
+ */
+public class MapaBarcosConcurrente implements RepositorioBarcos {
+	private ConcurrentMap<String, Entrada> indiceMatriculas;
+	private ConcurrentNavigableMap<Long, Barco> barcosEnOrden;
+	private ConcurrentNavigableMap<ClaveVolumen, Barco> indiceVolumen;
+	private AtomicLong secuencia;
+
+	/**
+	 * Un barco, el número de secuencia con que quedó en el orden de llegada
+	 * y su clave en el índice por volumen. Mientras un hilo pone la entrada
+	 * en los índices ordenados la tiene bloqueada, para que otro hilo que
+	 * la elimine (o la reemplace) no la quite antes de que esté puesta.
+	 */
+	private static class Entrada {
+		private final Barco barco;
+		private final long orden;
+		private final ClaveVolumen clave;
+
+		Entrada(Barco barco, long orden) {
+			this.barco = barco;
+			this.orden = orden;
+			this.clave = new ClaveVolumen(barco.getVolumen(), orden);
+		}
+	}
+
+	public MapaBarcosConcurrente() {
+		indiceMatriculas = new ConcurrentHashMap<String, Entrada>();
+		barcosEnOrden = new ConcurrentSkipListMap<Long, Barco>();
+		indiceVolumen = new ConcurrentSkipListMap<ClaveVolumen, Barco>();
+		secuencia = new AtomicLong();
+	}
+
+	/**
+	 * Retorna una copia de los barcos registrados, en orden de llegada.
+	 * Si otros hilos están adicionando barcos, la copia puede o no incluirlos.
+	 */
+	@Override
+	public List<Barco> consultarBarcos() {
+		return new ArrayList<Barco>(barcosEnOrden.values());
+	}
+
+	/**
+	 * Con el tamaño del índice por matrícula (tiempo constante; contar
+	 * el orden de llegada recorrería toda la skip list)
+	 */
+	@Override
+	public int contarBarcos() {
+		return indiceMatriculas.size();
+	}
+
+	/**
+	 * Recorre los barcos en orden de llegada, sin copiarlos; si otros hilos
+	 * están adicionando, el recorrido puede o no incluir los nuevos barcos.
+	 */
+	@Override
+	public void recorrerBarcos(Consumer<? super Barco> visitante) {
+		for (Barco barco : barcosEnOrden.values()) {
+			visitante.accept(barco);
+		}
+	}
+
+	/**
+	 * Recorre los barcos sin copiarlos; si otros hilos están adicionando,
+	 * el total puede o no incluir los barcos que se adicionan mientras tanto.
+	 */
+	@Override
+	public double calcularCapacidadTotal() {
+		double capacidadTotal = 0;
+		for (Barco barco : barcosEnOrden.values()) {
+			capacidadTotal += barco.calcularCapacidad();
+		}
+		return capacidadTotal;
+	}
+
+	/**
+	 * Usa el índice por volumen (también un ConcurrentSkipListMap); si otros
+	 * hilos están adicionando, la página puede o no incluir los nuevos barcos.
+	 */
+	@Override
+	public PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		return PaginaBarcos.consultarIndice(indiceVolumen, filtro, tamano, continuacion);
+	}
+
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		return adicionarSiNoExiste(barco);
+	}
+
+	/**
+	 * El número de secuencia se toma antes de verificar la matrícula
+	 * (si ya existe, ese número no se usa).
+	 */
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		Entrada entrada = new Entrada(barco, secuencia.incrementAndGet());
+		synchronized (entrada) {
+			if (indiceMatriculas.putIfAbsent(barco.getMatricula(), entrada) != null) {
+				return false;
+			}
+			barcosEnOrden.put(entrada.orden, barco);
+			indiceVolumen.put(entrada.clave, barco);
+		}
+		return true;
+	}
+
+	/**
+	 * Quitar la matrícula del índice es la operación atómica: si dos hilos
+	 * eliminan el mismo barco, solo uno lo recibe.
+	 */
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		Entrada entrada = indiceMatriculas.remove(matricula);
+		if (entrada == null) {
+			return null;
+		}
+		synchronized (entrada) {
+			barcosEnOrden.remove(entrada.orden);
+			indiceVolumen.remove(entrada.clave);
+		}
+		return entrada.barco;
+	}
+
+	/**
+	 * Reemplaza la entrada en el índice por matrícula de forma atómica
+	 * (si otro hilo la cambió mientras tanto, se vuelve a intentar).
+	 * El barco conserva su orden de llegada.
+	 */
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		while (true) {
+			Entrada anterior = indiceMatriculas.get(barco.getMatricula());
+			if (anterior == null) {
+				return null;
+			}
+			Entrada nueva = new Entrada(barco, anterior.orden);
+			synchronized (anterior) {
+				synchronized (nueva) {
+					if (!indiceMatriculas.replace(barco.getMatricula(), anterior, nueva)) {
+						continue;
+					}
+					barcosEnOrden.put(nueva.orden, barco);
+					indiceVolumen.remove(anterior.clave);
+					indiceVolumen.put(nueva.clave, barco);
+				}
+			}
+			return anterior.barco;
+		}
+	}
+
+	@Override
+	public Barco buscarBarco(String matricula) {
+		Entrada entrada = indiceMatriculas.get(matricula);
+		return (entrada == null) ? null : entrada.barco;
+	}
+}
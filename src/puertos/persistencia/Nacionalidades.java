@@ -0,0 +1,64 @@
+package puertos.persistencia;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diccionario de nacionalidades de un repositorio (ColumnasBarcos): cada
+ * nacionalidad diferente recibe un código (un entero pequeño, desde 0) y
+ * el repositorio guarda el código en lugar del texto. Como hay pocas
+ * nacionalidades y muchos barcos, así no se repite el mismo texto en
+ * cada barco.
+ *
+ * Los códigos no se liberan, pero el diccionario es del repositorio (se
+ * libera con él), y el repositorio lo vuelve a crear cuando tiene más
+ * nacionalidades que barcos.
+ * Como el repositorio, no se debe usar desde varios hilos al mismo tiempo.
+ *
+ * @version 1.1
+ */
+class Nacionalidades {
+	/** El código de una nacionalidad null */
+	static final int SIN_NACIONALIDAD = -1;
+
+	private Map<String, Integer> codigos = new HashMap<String, Integer>();
+	private String[] nombres = new String[16];
+	private int cantidad;
+
+	/**
+	 * @param nacionalidad	la nacionalidad (puede ser null)
+	 * @return el código de la nacionalidad (se le asigna uno si es nueva),
+	 * 		o SIN_NACIONALIDAD si es null
+	 */
+	int codificar(String nacionalidad) {
+		if (nacionalidad == null) {
+			return SIN_NACIONALIDAD;
+		}
+		Integer codigo = codigos.get(nacionalidad);
+		if (codigo != null) {
+			return codigo;
+		}
+		if (cantidad == nombres.length) {
+			nombres = Arrays.copyOf(nombres, cantidad * 2);
+		}
+		nombres[cantidad] = nacionalidad;
+		codigos.put(nacionalidad, cantidad);
+		return cantidad++;
+	}
+
+	/**
+	 * @param codigo	un código retornado por codificar
+	 * @return la nacionalidad con ese código (siempre el mismo objeto String)
+	 */
+	String decodificar(int codigo) {
+		return (codigo == SIN_NACIONALIDAD) ? null : nombres[codigo];
+	}
+
+	/**
+	 * @return la cantidad de nacionalidades diferentes que hay en el diccionario
+	 */
+	int getCantidad() {
+		return cantidad;
+	}
+}
@@ -0,0 +1,75 @@
+package puertos.persistencia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import puertos.entidades.Barco;
+
+/**
+ * Una página del resultado de RepositorioBarcos.consultarPagina:
+ * los barcos de la página y la continuación para pedir la siguiente.
+ *
+ * @version 1.0
+ */
+public class PaginaBarcos {
+	private List<Barco> barcos;
+	private String continuacion;
+
+	PaginaBarcos(List<Barco> barcos, String continuacion) {
+		this.barcos = Collections.unmodifiableList(barcos);
+		this.continuacion = continuacion;
+	}
+
+	/**
+	 * @return los barcos de la página, ordenados por volumen
+	 * 		(y, con el mismo volumen, por orden de llegada)
+	 */
+	public List<Barco> getBarcos() {
+		return barcos;
+	}
+
+	/**
+	 * @return el texto que se pasa a consultarPagina para obtener la
+	 * 		siguiente página, o null si esta es la última
+	 */
+	public String getContinuacion() {
+		return continuacion;
+	}
+
+	public boolean hayMas() {
+		return continuacion != null;
+	}
+
+	/**
+	 * Arma una página recorriendo un índice por volumen, desde la continuación
+	 * y solo en el rango de volumen del filtro (sin ver los demás barcos)
+	 * @see RepositorioBarcos#consultarPagina(FiltroBarcos, int, String)
+	 */
+	static PaginaBarcos consultarIndice(NavigableMap<ClaveVolumen, Barco> indice,
+			FiltroBarcos filtro, int tamano, String continuacion) {
+		SeleccionPagina.validarTamano(tamano);
+		ClaveVolumen desde = ClaveVolumen.limiteInferior(filtro, continuacion);
+		ClaveVolumen hasta = ClaveVolumen.limiteSuperior(filtro);
+		List<Barco> barcos = new ArrayList<Barco>(Math.min(tamano, 64));
+		if (desde.compareTo(hasta) >= 0) {
+			return new PaginaBarcos(barcos, null);
+		}
+		ClaveVolumen ultima = null;
+		for (Map.Entry<ClaveVolumen, Barco> entrada 
+				: indice.subMap(desde, false, hasta, true).entrySet()) {
+			if (!filtro.aceptaTipo(entrada.getValue().getClass())) {
+				continue;
+			}
+			if (barcos.size() == tamano) {
+				return new PaginaBarcos(barcos, 
+						ClaveVolumen.crearContinuacion(ultima.volumen, ultima.orden));
+			}
+			barcos.add(entrada.getValue());
+			ultima = entrada.getKey();
+		}
+		return new PaginaBarcos(barcos, null);
+	}
+}
@@ -0,0 +1,82 @@
+package puertos.persistencia;
+
+/**
+ * Indica cada cuánto un repositorio en archivo fuerza (fsync) que lo 
+ * escrito quede realmente en el disco. Entre más seguido, menos registros
+ * se pierden si el sistema falla, pero menos escrituras por segundo se logran.
+ * 
+ * @version 1.0
+ */
+public class PoliticaSincronizacion {
+	private int registros;
+	private long milisegundos;
+
+	private PoliticaSincronizacion(int registros, long milisegundos) {
+		this.registros = registros;
+		this.milisegundos = milisegundos;
+	}
+
+	/**
+	 * @return una política que sincroniza después de cada escritura
+	 * 		(en el caso de un lote, una vez por todo el lote)
+	 */
+	public static PoliticaSincronizacion cadaEscritura() {
+		return new PoliticaSincronizacion(1, 0);
+	}
+
+	/**
+	 * @param registros	cantidad de registros escritos antes de sincronizar
+	 * @return una política que sincroniza cada cierta cantidad de registros
+	 */
+	public static PoliticaSincronizacion cadaRegistros(int registros) {
+		if (registros < 1) {
+			throw new IllegalArgumentException("La cantidad de registros debe ser positiva");
+		}
+		return new PoliticaSincronizacion(registros, 0);
+	}
+
+	/**
+	 * @param milisegundos	tiempo entre una sincronización y la siguiente
+	 * @return una política que sincroniza periódicamente (en otro hilo)
+	 */
+	public static PoliticaSincronizacion cadaIntervalo(long milisegundos) {
+		if (milisegundos < 1) {
+			throw new IllegalArgumentException("El intervalo debe ser positivo");
+		}
+		return new PoliticaSincronizacion(0, milisegundos);
+	}
+
+	/**
+	 * @return una política que nunca fuerza la sincronización
+	 * 		(el sistema operativo decide cuándo escribir en el disco),
+	 * 		salvo al cerrar el repositorio
+	 */
+	public static PoliticaSincronizacion nunca() {
+		return new PoliticaSincronizacion(0, 0);
+	}
+
+	/**
+	 * @return cada cuántos registros se sincroniza, o 0 si no es por registros
+	 */
+	public int getRegistros() {
+		return registros;
+	}
+
+	/**
+	 * @return cada cuántos milisegundos se sincroniza, o 0 si no es por tiempo
+	 */
+	public long getMilisegundos() {
+		return milisegundos;
+	}
+
+	@Override
+	public String toString() {
+		if (registros > 0) {
+			return "cada " + registros + " registro(s)";
+		}
+		if (milisegundos > 0) {
+			return "cada " + milisegundos + " ms";
+		}
+		return "nunca";
+	}
+}
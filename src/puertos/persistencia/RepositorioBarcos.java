@@ -1,14 +1,16 @@
 package puertos.persistencia;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import puertos.entidades.Barco;
 
 /**
  * Servicios relacionados con la gestión de los datos de los barcos
- * en un repositorio (consultar, adicionar, buscar).
+ * en un repositorio (consultar, adicionar, buscar, actualizar, eliminar).
  * 
- * @version 1.0
+ * @version 1.8
  */
 public interface RepositorioBarcos {
 	
@@ -21,6 +23,43 @@ public interface RepositorioBarcos {
 	 */
 	public abstract boolean adicionarBarco(Barco barco);
 	
+	/**
+	 * Adiciona varios barcos al repositorio en una sola operación.
+	 * Por defecto se adicionan uno a uno, pero cada repositorio puede
+	 * hacerlo de una forma más eficiente.
+	 * @param barcos	los barcos que se desean guardar, todos con 
+	 * 			matrículas diferentes y que no estén en el repositorio
+	 * @return	true si se pudieron guardar todos, o false si alguno falló
+	 * 		(por alguna falla en el repositorio, no por reglas del negocio)
+	 */
+	public default boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+		boolean guardados = true;
+		for (Barco barco : barcos) {
+			guardados &= adicionarBarco(barco);
+		}
+		return guardados;
+	}
+	
+	/**
+	 * Adiciona el barco solo si no hay otro con la misma matrícula,
+	 * como una sola operación (atómica), para que dos hilos que registran
+	 * la misma matrícula al mismo tiempo no puedan guardarla dos veces.
+	 * Por defecto se sincroniza sobre el repositorio; las implementaciones
+	 * que se usen desde varios hilos deben ofrecer algo mejor.
+	 * @param barco el objeto barco que se desea guardar,
+	 * 			debe ser diferente de null
+	 * @return true si se guardó, o false si ya había un barco con esa
+	 * 		matrícula (o si hubo alguna falla en el repositorio)
+	 */
+	public default boolean adicionarSiNoExiste(Barco barco) {
+		synchronized (this) {
+			if (buscarBarco(barco.getMatricula()) != null) {
+				return false;
+			}
+			return adicionarBarco(barco);
+		}
+	}
+	
 	/**
 	 * Busca un barco en la base de datos a partir de su matrícula
 	 * @param matricula	el número de matrícula del barco que se desea buscar,
@@ -29,10 +68,109 @@ public interface RepositorioBarcos {
 	 */
 	public abstract Barco buscarBarco(String matricula);
 	
+	/**
+	 * Elimina del repositorio el barco con la matrícula dada (por ejemplo,
+	 * cuando sale del puerto). Los repositorios con índices los actualizan
+	 * en tiempo constante o logarítmico.
+	 * @param matricula	la matrícula del barco que se desea eliminar
+	 * @return	el barco que se eliminó, o null si no había uno con esa matrícula
+	 */
+	public abstract Barco eliminarBarco(String matricula);
+	
+	/**
+	 * Reemplaza los datos del barco que tiene la misma matrícula.
+	 * Por defecto se elimina el anterior y se adiciona el nuevo (sincronizando
+	 * sobre el repositorio), así que queda de último en el orden de llegada;
+	 * los repositorios que pueden hacerlo le conservan su lugar.
+	 * @param barco	el barco con los nuevos datos, debe ser diferente de null
+	 * @return	el barco que tenía antes esa matrícula, o null si no había
+	 * 		ninguno (en ese caso no se guarda nada)
+	 */
+	public default Barco actualizarBarco(Barco barco) {
+		synchronized (this) {
+			Barco anterior = eliminarBarco(barco.getMatricula());
+			if (anterior != null) {
+				adicionarBarco(barco);
+			}
+			return anterior;
+		}
+	}
+	
 	/**
 	 * Consulta toda la lista de los barcos que hay registrados
 	 * @return	la lista (List) con los barcos.
 	 * 			En caso de no tener barcos registrados retorna una lista vacía.
 	 */
 	public List<Barco> consultarBarcos();
+	
+	/**
+	 * Cuenta los barcos registrados.
+	 * Por defecto es el tamaño de la lista de consultarBarcos; los
+	 * repositorios donde esa lista es una copia (o hay que leerla del
+	 * disco o de la red) lo cuentan sin armarla.
+	 * @return	la cantidad de barcos registrados
+	 */
+	public default int contarBarcos() {
+		return consultarBarcos().size();
+	}
+	
+	/**
+	 * Entrega los barcos registrados, uno a uno, a quien los va a procesar
+	 * (por ejemplo, para exportarlos), sin armar una lista nueva con todos.
+	 * Por defecto recorre la lista de consultarBarcos, que en la mayoría
+	 * de los repositorios no es una copia.
+	 * @param visitante	lo que se hace con cada barco
+	 */
+	public default void recorrerBarcos(Consumer<? super Barco> visitante) {
+		for (Barco barco : consultarBarcos()) {
+			visitante.accept(barco);
+		}
+	}
+	
+	/**
+	 * Consulta los barcos por páginas, en un orden fijo: por volumen y,
+	 * con el mismo volumen, por orden de llegada. Para pedir la siguiente
+	 * página se pasa la continuación de la anterior; como la continuación
+	 * indica dónde quedó la página (no un número de página), pedir una 
+	 * página lejana cuesta lo mismo que pedir la primera en los repositorios
+	 * con índice por volumen.
+	 * Por defecto se recorren todos los barcos (guardando solo los de la
+	 * página); los repositorios con índice solo recorren los de la página.
+	 * En el recorrido por defecto el orden de llegada es la posición en
+	 * consultarBarcos, así que si se eliminan barcos entre una página y la
+	 * siguiente, la continuación puede saltarse o repetir algunos barcos.
+	 * @param filtro	las condiciones de los barcos que se quieren
+	 * 			(FiltroBarcos.todos() para todos)
+	 * @param tamano	la cantidad máxima de barcos de la página
+	 * @param continuacion	la continuación de la página anterior,
+	 * 			o null para la primera página
+	 * @return	la página, con la continuación para pedir la siguiente
+	 * @throws IllegalArgumentException si la continuación no es válida
+	 */
+	public default PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		List<Barco> barcos = consultarBarcos();
+		SeleccionPagina seleccion = new SeleccionPagina(filtro, tamano, continuacion);
+		long orden = 0;
+		for (Barco barco : barcos) {
+			if (filtro.aceptaTipo(barco.getClass())) {
+				seleccion.considerar(barco.getVolumen(), orden);
+			}
+			orden++;
+		}
+		return seleccion.armar(posicion -> barcos.get((int) posicion));
+	}
+	
+	/**
+	 * Calcula la suma de la capacidad de todos los barcos registrados.
+	 * Por defecto recorre la lista de barcos, pero cada repositorio puede
+	 * hacerlo sin crear los objetos Barco (o pedírselo a la base de datos).
+	 * @return	la capacidad total, en m3 (0 si no hay barcos)
+	 */
+	public default double calcularCapacidadTotal() {
+		double capacidadTotal = 0;
+		for (Barco barco : consultarBarcos()) {
+			capacidadTotal += barco.calcularCapacidad();
+		}
+		return capacidadTotal;
+	}
 }
@@ -0,0 +1,217 @@
+package puertos.persistencia;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import puertos.entidades.Barco;
+
+/**
+ * Repositorio que tiene un FiltroBloom con las matrículas de otro
+ * repositorio más lento (en archivo o en base de datos), para responder
+ * que una matrícula no existe sin consultarlo. Al registrar un barco nuevo,
+ * ControlPuerto busca su matrícula, y casi siempre no existe: con el filtro
+ * esa búsqueda no va al disco o a la red (salvo los falsos positivos).
+ * Se usa en lugar del repositorio original, por ejemplo:
+ * new ControlPuerto(new RepositorioBloom(InstantaneaBarcos.cargar(ruta), 100000, 0.01)).
+ *
+ * Al crearlo, el filtro se llena con las matrículas que ya hay en el
+ * repositorio; luego se le adicionan las de los barcos que se adicionan
+ * por medio de este (antes de guardarlos, para que una búsqueda nunca
+ * diga que no existe un barco que ya se guardó). Si el repositorio original
+ * se modifica por otro lado, hay que llamar a reconstruir. Los barcos que
+ * se eliminan siguen en el filtro (solo aumentan los falsos positivos)
+ * hasta que se reconstruya.
+ *
+ * Las escrituras no se excluyen entre sí (el filtro es seguro entre hilos y
+ * el repositorio original tiene su propia sincronización): toman el candado
+ * de lectura, y solo reconstruir toma el de escritura, para que ninguna
+ * matrícula adicionada mientras se recorre el repositorio quede fuera del
+ * filtro nuevo.
+ *
+ * @version 1.2
+ */
+public class RepositorioBloom implements RepositorioBarcos {
+	private RepositorioBarcos repositorio;
+	private int capacidadInicial;
+	private double tasaFalsosPositivos;
+	private volatile FiltroBloom filtro;
+	private AtomicLong descartes = new AtomicLong();
+	private AtomicLong consultas = new AtomicLong();
+	private AtomicLong falsosPositivos = new AtomicLong();
+	private AtomicLong eliminados = new AtomicLong();
+	private ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+	/**
+	 * @param repositorio	el repositorio original
+	 * @param capacidadInicial	la cantidad de barcos que se esperan (si ya
+	 * 			hay más, el filtro se dimensiona para los que hay; y si luego
+	 * 			llegan más, el filtro crece)
+	 * @param tasaFalsosPositivos	la probabilidad máxima de que una matrícula
+	 * 			que no existe se busque en el repositorio original (por ejemplo, 0.01)
+	 */
+	public RepositorioBloom(RepositorioBarcos repositorio, int capacidadInicial, double tasaFalsosPositivos) {
+		this.repositorio = repositorio;
+		this.capacidadInicial = capacidadInicial;
+		this.tasaFalsosPositivos = tasaFalsosPositivos;
+		reconstruir();
+	}
+
+	public RepositorioBarcos getRepositorio() {
+		return repositorio;
+	}
+
+	public FiltroBloom getFiltro() {
+		return filtro;
+	}
+
+	/**
+	 * Vuelve a llenar el filtro con las matrículas del repositorio original
+	 * (por ejemplo, después de eliminar muchos barcos). Mientras tanto las
+	 * búsquedas usan el filtro anterior y las escrituras esperan.
+	 */
+	public void reconstruir() {
+		candado.writeLock().lock();
+		try {
+			List<String> matriculas = new ArrayList<String>();
+			repositorio.recorrerBarcos(barco -> matriculas.add(barco.getMatricula()));
+			FiltroBloom nuevo = new FiltroBloom(Math.max(capacidadInicial, matriculas.size()), tasaFalsosPositivos);
+			for (String matricula : matriculas) {
+				nuevo.adicionar(matricula);
+			}
+			filtro = nuevo;
+			eliminados.set(0);
+		} finally {
+			candado.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Si el filtro dice que la matrícula no existe, no se consulta el
+	 * repositorio original
+	 */
+	@Override
+	public Barco buscarBarco(String matricula) {
+		if (!filtro.puedeContener(matricula)) {
+			descartes.incrementAndGet();
+			return null;
+		}
+		consultas.incrementAndGet();
+		Barco barco = repositorio.buscarBarco(matricula);
+		if (barco == null) {
+			falsosPositivos.incrementAndGet();
+		}
+		return barco;
+	}
+
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		candado.readLock().lock();
+		try {
+			filtro.adicionar(barco.getMatricula());
+			return repositorio.adicionarBarco(barco);
+		} finally {
+			candado.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+		candado.readLock().lock();
+		try {
+			for (Barco barco : barcos) {
+				filtro.adicionar(barco.getMatricula());
+			}
+			return repositorio.adicionarBarcos(barcos);
+		} finally {
+			candado.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		candado.readLock().lock();
+		try {
+			filtro.adicionar(barco.getMatricula());
+			return repositorio.adicionarSiNoExiste(barco);
+		} finally {
+			candado.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		candado.readLock().lock();
+		try {
+			Barco barco = repositorio.eliminarBarco(matricula);
+			if (barco != null) {
+				eliminados.incrementAndGet();
+			}
+			return barco;
+		} finally {
+			candado.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		return repositorio.actualizarBarco(barco);
+	}
+
+	@Override
+	public List<Barco> consultarBarcos() {
+		return repositorio.consultarBarcos();
+	}
+
+	@Override
+	public int contarBarcos() {
+		return repositorio.contarBarcos();
+	}
+
+	@Override
+	public void recorrerBarcos(Consumer<? super Barco> visitante) {
+		repositorio.recorrerBarcos(visitante);
+	}
+
+	@Override
+	public PaginaBarcos consultarPagina(FiltroBarcos filtroBarcos, int tamano, String continuacion) {
+		return repositorio.consultarPagina(filtroBarcos, tamano, continuacion);
+	}
+
+	@Override
+	public double calcularCapacidadTotal() {
+		return repositorio.calcularCapacidadTotal();
+	}
+
+	/**
+	 * @return las búsquedas que el filtro respondió sin consultar el repositorio
+	 */
+	public long getDescartes() {
+		return descartes.get();
+	}
+
+	/**
+	 * @return las búsquedas que fueron al repositorio original
+	 */
+	public long getConsultas() {
+		return consultas.get();
+	}
+
+	/**
+	 * @return las búsquedas que fueron al repositorio original y no
+	 * 		encontraron el barco (falsos positivos del filtro, o barcos eliminados)
+	 */
+	public long getFalsosPositivos() {
+		return falsosPositivos.get();
+	}
+
+	/**
+	 * @return los barcos eliminados desde que se llenó el filtro
+	 */
+	public long getEliminados() {
+		return eliminados.get();
+	}
+}
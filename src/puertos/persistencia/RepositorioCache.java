@@ -0,0 +1,298 @@
+package puertos.persistencia;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import puertos.entidades.Barco;
+
+/**
+ * Repositorio que guarda en memoria los últimos barcos que se buscaron en
+ * otro repositorio más lento (en archivo o en base de datos), para que las
+ * búsquedas por matrícula repetidas (como la de ControlPuerto al registrar
+ * cada barco) no vayan al disco o a la red. También recuerda las matrículas
+ * que no existen, que es el caso más común al registrar barcos nuevos.
+ * Se usa en lugar del repositorio original, por ejemplo:
+ * new ControlPuerto(new RepositorioCache(baseDatos, LimiteCache.porEntradas(10000))).
+ *
+ * Las entradas están en un LinkedHashMap en orden de acceso, así que al
+ * pasar el límite se sacan las que hace más tiempo no se usan (LRU).
+ * Toda escritura por medio de este repositorio saca del cache la matrícula
+ * (no la guarda, para que una carga masiva no saque los barcos más buscados);
+ * si el repositorio original se modifica por otro lado, hay que llamar
+ * a invalidar o a vaciar. Las consultas de todos los barcos, las páginas
+ * y la capacidad total no usan el cache.
+ *
+ * Se puede usar desde varios hilos: el cache se bloquea solo para buscar
+ * o guardar una entrada, no mientras se consulta el repositorio original.
+ *
+ * @version 1.1
+ */
+public class RepositorioCache implements RepositorioBarcos {
+	/** Estimación de un nodo de LinkedHashMap y su casilla en la tabla */
+	private static final int BYTES_ENTRADA = 64;
+	/** Estimación de un objeto Velero o Carguero (sin sus textos) */
+	private static final int BYTES_BARCO = 32;
+
+	private RepositorioBarcos repositorio;
+	private LimiteCache limite;
+	/** Por matrícula; el valor es null si el barco no existe */
+	private LinkedHashMap<String, Barco> entradas;
+	private long bytesEstimados;
+	/** Cambia con cada escritura, para no guardar una búsqueda que se cruzó con ella */
+	private long version;
+	private long aciertos;
+	private long aciertosNegativos;
+	private long fallos;
+	private long desalojos;
+
+	public RepositorioCache(RepositorioBarcos repositorio, LimiteCache limite) {
+		this.repositorio = repositorio;
+		this.limite = limite;
+		this.entradas = new LinkedHashMap<String, Barco>(16, 0.75f, true);
+	}
+
+	public RepositorioBarcos getRepositorio() {
+		return repositorio;
+	}
+
+	public LimiteCache getLimite() {
+		return limite;
+	}
+
+	/**
+	 * Si la matrícula está en el cache (aunque sea como inexistente) no se
+	 * consulta el repositorio original.
+	 */
+	@Override
+	public Barco buscarBarco(String matricula) {
+		long versionBusqueda;
+		synchronized (this) {
+			Barco barco = entradas.get(matricula);
+			if (barco != null) {
+				aciertos++;
+				return barco;
+			}
+			if (entradas.containsKey(matricula)) {
+				aciertosNegativos++;
+				return null;
+			}
+			fallos++;
+			versionBusqueda = version;
+		}
+		Barco barco = repositorio.buscarBarco(matricula);
+		synchronized (this) {
+			if (version == versionBusqueda && !entradas.containsKey(matricula)) {
+				entradas.put(matricula, barco);
+				bytesEstimados += estimarBytes(matricula, barco);
+				desalojar();
+			}
+		}
+		return barco;
+	}
+
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		try {
+			return repositorio.adicionarBarco(barco);
+		} finally {
+			invalidar(barco.getMatricula());
+		}
+	}
+
+	@Override
+	public boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+		try {
+			return repositorio.adicionarBarcos(barcos);
+		} finally {
+			synchronized (this) {
+				for (Barco barco : barcos) {
+					invalidar(barco.getMatricula());
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		try {
+			return repositorio.adicionarSiNoExiste(barco);
+		} finally {
+			invalidar(barco.getMatricula());
+		}
+	}
+
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		try {
+			return repositorio.eliminarBarco(matricula);
+		} finally {
+			invalidar(matricula);
+		}
+	}
+
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		try {
+			return repositorio.actualizarBarco(barco);
+		} finally {
+			invalidar(barco.getMatricula());
+		}
+	}
+
+	@Override
+	public List<Barco> consultarBarcos() {
+		return repositorio.consultarBarcos();
+	}
+
+	@Override
+	public int contarBarcos() {
+		return repositorio.contarBarcos();
+	}
+
+	@Override
+	public void recorrerBarcos(Consumer<? super Barco> visitante) {
+		repositorio.recorrerBarcos(visitante);
+	}
+
+	@Override
+	public PaginaBarcos consultarPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		return repositorio.consultarPagina(filtro, tamano, continuacion);
+	}
+
+	@Override
+	public double calcularCapacidadTotal() {
+		return repositorio.calcularCapacidadTotal();
+	}
+
+	/**
+	 * Saca la matrícula del cache (por ejemplo, si el barco se modificó
+	 * en el repositorio original sin pasar por este)
+	 * @param matricula	la matrícula del barco
+	 */
+	public synchronized void invalidar(String matricula) {
+		version++;
+		if (entradas.containsKey(matricula)) {
+			bytesEstimados -= estimarBytes(matricula, entradas.remove(matricula));
+		}
+	}
+
+	/**
+	 * Saca todas las entradas del cache (las estadísticas se conservan)
+	 */
+	public synchronized void vaciar() {
+		version++;
+		entradas.clear();
+		bytesEstimados = 0;
+	}
+
+	/**
+	 * @return la cantidad de entradas (barcos y matrículas inexistentes)
+	 */
+	public synchronized int getEntradas() {
+		return entradas.size();
+	}
+
+	/**
+	 * @return la estimación de los bytes que ocupan las entradas
+	 */
+	public synchronized long getBytesEstimados() {
+		return bytesEstimados;
+	}
+
+	/**
+	 * @return las búsquedas que encontraron el barco en el cache
+	 */
+	public synchronized long getAciertos() {
+		return aciertos;
+	}
+
+	/**
+	 * @return las búsquedas que encontraron en el cache que la matrícula no existe
+	 */
+	public synchronized long getAciertosNegativos() {
+		return aciertosNegativos;
+	}
+
+	/**
+	 * @return las búsquedas que tuvieron que ir al repositorio original
+	 */
+	public synchronized long getFallos() {
+		return fallos;
+	}
+
+	/**
+	 * @return las entradas que se sacaron por pasar el límite
+	 */
+	public synchronized long getDesalojos() {
+		return desalojos;
+	}
+
+	/**
+	 * @return la fracción de las búsquedas que se resolvieron en el cache
+	 * 		(entre 0 y 1; 0 si no ha habido búsquedas)
+	 */
+	public synchronized double getTasaAciertos() {
+		long total = aciertos + aciertosNegativos + fallos;
+		return (total == 0) ? 0 : (double) (aciertos + aciertosNegativos) / total;
+	}
+
+	/**
+	 * Vuelve a cero las estadísticas (no cambia las entradas)
+	 */
+	public synchronized void reiniciarEstadisticas() {
+		aciertos = 0;
+		aciertosNegativos = 0;
+		fallos = 0;
+		desalojos = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d entrada(s), %d bytes, %d aciertos, %d aciertos negativos, "
+				+ "%d fallos, %d desalojos", entradas.size(), bytesEstimados, aciertos,
+				aciertosNegativos, fallos, desalojos);
+	}
+
+	/**
+	 * Saca las entradas que hace más tiempo no se usan hasta cumplir el límite
+	 */
+	private void desalojar() {
+		Iterator<Map.Entry<String, Barco>> iterador = entradas.entrySet().iterator();
+		while (excedeLimite() && iterador.hasNext()) {
+			Map.Entry<String, Barco> entrada = iterador.next();
+			bytesEstimados -= estimarBytes(entrada.getKey(), entrada.getValue());
+			iterador.remove();
+			desalojos++;
+		}
+	}
+
+	private boolean excedeLimite() {
+		if (limite.getEntradas() > 0) {
+			return entradas.size() > limite.getEntradas();
+		}
+		return bytesEstimados > limite.getBytes();
+	}
+
+	/**
+	 * @return una estimación de la memoria de una entrada: el nodo, la
+	 * 		matrícula y, si el barco existe, el barco con sus textos
+	 */
+	static long estimarBytes(String matricula, Barco barco) {
+		long bytes = BYTES_ENTRADA + estimarBytes(matricula);
+		if (barco != null) {
+			bytes += BYTES_BARCO + estimarBytes(barco.getMatricula()) + estimarBytes(barco.getNacionalidad());
+		}
+		return bytes;
+	}
+
+	/**
+	 * Un String con su arreglo (de un byte por carácter, si es Latin-1)
+	 */
+	private static long estimarBytes(String texto) {
+		return (texto == null) ? 0 : 24 + 16 + ((texto.length() + 7) & ~7);
+	}
+}
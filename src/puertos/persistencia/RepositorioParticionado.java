@@ -0,0 +1,409 @@
+package puertos.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import puertos.entidades.Barco;
+
+/**
+ * Repositorio que reparte los barcos entre varios repositorios (particiones)
+ * según la matrícula, con un AnilloParticiones (hashing consistente). Cada
+ * partición puede estar en este mismo proceso (por ejemplo, un
+ * MapaBarcosConcurrente) o en otro proceso (RepositorioProceso), así que
+ * los barcos no tienen que caber en un solo heap y los registros de
+ * matrículas diferentes no compiten por el mismo repositorio.
+ * Se usa en lugar de un solo repositorio, por ejemplo:
+ * new ControlPuerto(new RepositorioParticionado(Arrays.asList(p1, p2, p3))).
+ *
+ * Las operaciones con una matrícula (buscar, adicionar, eliminar,
+ * actualizar) van solo a la partición que es dueña de la matrícula, así que
+ * la verificación de matrícula repetida es la de esa partición. La capacidad
+ * total se le pide a todas las particiones al mismo tiempo (una tarea por
+ * partición) y se suman sus totales; los lotes se dividen por partición y
+ * también se guardan al mismo tiempo.
+ * consultarBarcos y recorrerBarcos entregan los barcos partición por
+ * partición (no en el orden de llegada entre particiones).
+ *
+ * Se pueden adicionar particiones: los barcos cuyas matrículas pasan a la
+ * nueva se mueven a ella. Mientras tanto las demás operaciones esperan
+ * (un bloqueo de lectura y escritura, que las operaciones normales toman
+ * solo para lectura).
+ *
+ * @version 1.3
+ */
+public class RepositorioParticionado implements RepositorioBarcos, Closeable {
+	private static final AtomicInteger numeroHilo = new AtomicInteger();
+
+	private AnilloParticiones anillo;
+	private final List<RepositorioBarcos> particiones = new ArrayList<RepositorioBarcos>();
+	private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+	/** Los hilos con que se consulta a todas las particiones al mismo tiempo */
+	private final ExecutorService hilos = Executors.newCachedThreadPool(tarea -> {
+		Thread hilo = new Thread(tarea, "particiones-" + numeroHilo.incrementAndGet());
+		hilo.setDaemon(true);
+		return hilo;
+	});
+
+	/**
+	 * @param particiones	los repositorios entre los que se reparten los
+	 * 			barcos (vacíos, o con los barcos que les corresponden)
+	 */
+	public RepositorioParticionado(List<? extends RepositorioBarcos> particiones) {
+		this(particiones, AnilloParticiones.NODOS_POR_PARTICION);
+	}
+
+	/**
+	 * @param particiones	los repositorios entre los que se reparten los barcos
+	 * @param nodosPorParticion	los puntos de cada partición en el anillo
+	 */
+	public RepositorioParticionado(List<? extends RepositorioBarcos> particiones, int nodosPorParticion) {
+		if (particiones.isEmpty()) {
+			throw new IllegalArgumentException("Debe haber al menos una partición");
+		}
+		this.anillo = new AnilloParticiones(nodosPorParticion);
+		for (RepositorioBarcos particion : particiones) {
+			anillo.adicionarParticion();
+			this.particiones.add(particion);
+		}
+	}
+
+	/**
+	 * Adiciona una partición y le mueve, desde las otras, los barcos cuyas
+	 * matrículas ahora le pertenecen. Primero se copian los barcos a la
+	 * nueva partición, y solo si se pudieron copiar se cambia el anillo
+	 * (y luego se eliminan de las otras).
+	 * @param particion	el repositorio nuevo (vacío)
+	 * @return la cantidad de barcos que se movieron
+	 * @throws IllegalStateException si no se pudieron copiar los barcos a la
+	 * 		nueva partición; en ese caso no se adiciona, y las particiones
+	 * 		que había quedan como estaban
+	 */
+	public int adicionarParticion(RepositorioBarcos particion) {
+		cerrojo.writeLock().lock();
+		try {
+			AnilloParticiones nuevoAnillo = anillo.copiar();
+			int nueva = nuevoAnillo.adicionarParticion();
+			List<List<Barco>> movidos = new ArrayList<List<Barco>>();
+			List<Barco> todos = new ArrayList<Barco>();
+			for (RepositorioBarcos anterior : particiones) {
+				List<Barco> barcos = new ArrayList<Barco>();
+				anterior.recorrerBarcos(barco -> {
+					if (nuevoAnillo.obtenerParticion(barco.getMatricula()) == nueva) {
+						barcos.add(barco);
+					}
+				});
+				movidos.add(barcos);
+				todos.addAll(barcos);
+			}
+			copiarBarcos(particion, todos);
+			anillo = nuevoAnillo;
+			particiones.add(particion);
+			for (int i = 0; i < movidos.size(); i++) {
+				for (Barco barco : movidos.get(i)) {
+					particiones.get(i).eliminarBarco(barco.getMatricula());
+				}
+			}
+			return todos.size();
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda los barcos en la nueva partición; si no se puede, quita de ella
+	 * los que alcanzaron a quedar (lo que se pueda) y lanza la excepción
+	 */
+	private static void copiarBarcos(RepositorioBarcos particion, List<Barco> barcos) {
+		RuntimeException causa = null;
+		try {
+			if (barcos.isEmpty() || particion.adicionarBarcos(barcos)) {
+				return;
+			}
+		} catch (RuntimeException e) {
+			causa = e;
+		}
+		for (Barco barco : barcos) {
+			try {
+				particion.eliminarBarco(barco.getMatricula());
+			} catch (RuntimeException e) {
+				// no está, o la partición tampoco responde
+			}
+		}
+		throw new IllegalStateException("No se pudieron mover los barcos a la nueva partición", causa);
+	}
+
+	/**
+	 * @return la cantidad de particiones
+	 */
+	public int getCantidadParticiones() {
+		cerrojo.readLock().lock();
+		try {
+			return particiones.size();
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param numero	el número de la partición (desde 0)
+	 * @return el repositorio de esa partición
+	 */
+	public RepositorioBarcos getParticion(int numero) {
+		cerrojo.readLock().lock();
+		try {
+			return particiones.get(numero);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return el número de la partición que es dueña de la matrícula
+	 */
+	public int obtenerParticion(String matricula) {
+		cerrojo.readLock().lock();
+		try {
+			return anillo.obtenerParticion(matricula);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return la partición dueña de la matrícula (se debe tener el bloqueo de lectura)
+	 */
+	private RepositorioBarcos dueno(String matricula) {
+		return particiones.get(anillo.obtenerParticion(matricula));
+	}
+
+	@Override
+	public boolean adicionarBarco(Barco barco) {
+		cerrojo.readLock().lock();
+		try {
+			return dueno(barco.getMatricula()).adicionarBarco(barco);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean adicionarSiNoExiste(Barco barco) {
+		cerrojo.readLock().lock();
+		try {
+			return dueno(barco.getMatricula()).adicionarSiNoExiste(barco);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Divide el lote por partición y guarda las partes al mismo tiempo
+	 */
+	@Override
+	public boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+		cerrojo.readLock().lock();
+		try {
+			List<List<Barco>> partes = new ArrayList<List<Barco>>(particiones.size());
+			for (int i = 0; i < particiones.size(); i++) {
+				partes.add(new ArrayList<Barco>());
+			}
+			for (Barco barco : barcos) {
+				partes.get(anillo.obtenerParticion(barco.getMatricula())).add(barco);
+			}
+			boolean guardados = true;
+			for (boolean guardada : consultarTodas((particion, numero) ->
+					partes.get(numero).isEmpty() || particion.adicionarBarcos(partes.get(numero)))) {
+				guardados &= guardada;
+			}
+			return guardados;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Barco buscarBarco(String matricula) {
+		cerrojo.readLock().lock();
+		try {
+			return dueno(matricula).buscarBarco(matricula);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Barco eliminarBarco(String matricula) {
+		cerrojo.readLock().lock();
+		try {
+			return dueno(matricula).eliminarBarco(matricula);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Barco actualizarBarco(Barco barco) {
+		cerrojo.readLock().lock();
+		try {
+			return dueno(barco.getMatricula()).actualizarBarco(barco);
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Barco> consultarBarcos() {
+		cerrojo.readLock().lock();
+		try {
+			List<Barco> barcos = new ArrayList<Barco>();
+			for (List<Barco> deParticion : consultarTodas((particion, numero) -> particion.consultarBarcos())) {
+				barcos.addAll(deParticion);
+			}
+			return barcos;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Cada partición cuenta sus barcos (al mismo tiempo), y se suman
+	 */
+	@Override
+	public int contarBarcos() {
+		cerrojo.readLock().lock();
+		try {
+			int cantidad = 0;
+			for (int deParticion : consultarTodas((particion, numero) -> particion.contarBarcos())) {
+				cantidad += deParticion;
+			}
+			return cantidad;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Recorre las particiones una tras otra (el visitante no tiene
+	 * que poderse usar desde varios hilos)
+	 */
+	@Override
+	public void recorrerBarcos(Consumer<? super Barco> visitante) {
+		cerrojo.readLock().lock();
+		try {
+			for (RepositorioBarcos particion : particiones) {
+				particion.recorrerBarcos(visitante);
+			}
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Cada partición calcula su total (al mismo tiempo), y se suman
+	 */
+	@Override
+	public double calcularCapacidadTotal() {
+		cerrojo.readLock().lock();
+		try {
+			double capacidadTotal = 0;
+			for (double capacidad : consultarTodas((particion, numero) -> particion.calcularCapacidadTotal())) {
+				capacidadTotal += capacidad;
+			}
+			return capacidadTotal;
+		} finally {
+			cerrojo.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Una consulta que se le hace a cada partición
+	 */
+	private interface ConsultaParticion<T> {
+		public abstract T consultar(RepositorioBarcos particion, int numero);
+	}
+
+	/**
+	 * Hace la consulta en todas las particiones al mismo tiempo (si hay más
+	 * de una) y espera todos los resultados (se debe tener el bloqueo de lectura).
+	 * Si alguna falla, se espera a que terminen las demás antes de lanzar la
+	 * excepción, para que quien la reciba vea todo lo que sí se hizo.
+	 * @return el resultado de cada partición, en orden
+	 */
+	private <T> List<T> consultarTodas(ConsultaParticion<T> consulta) {
+		List<T> resultados = new ArrayList<T>(particiones.size());
+		if (particiones.size() == 1) {
+			resultados.add(consulta.consultar(particiones.get(0), 0));
+			return resultados;
+		}
+		List<Future<T>> pendientes = new ArrayList<Future<T>>(particiones.size());
+		for (int i = 0; i < particiones.size(); i++) {
+			RepositorioBarcos particion = particiones.get(i);
+			int numero = i;
+			pendientes.add(hilos.submit(() -> consulta.consultar(particion, numero)));
+		}
+		Throwable error = null;
+		boolean interrumpido = false;
+		for (Future<T> pendiente : pendientes) {
+			while (true) {
+				try {
+					resultados.add(pendiente.get());
+					break;
+				} catch (ExecutionException e) {
+					if (error == null) {
+						error = e.getCause();
+					}
+					break;
+				} catch (InterruptedException e) {
+					interrumpido = true;
+				}
+			}
+		}
+		if (interrumpido) {
+			Thread.currentThread().interrupt();
+		}
+		if (error instanceof RuntimeException) {
+			throw (RuntimeException) error;
+		}
+		if (error != null) {
+			throw new IllegalStateException("Error en una partición: " + error, error);
+		}
+		return resultados;
+	}
+
+	/**
+	 * Cierra las particiones que se pueden cerrar (por ejemplo, las que
+	 * están en otros procesos) y los hilos de las consultas
+	 */
+	@Override
+	public void close() throws IOException {
+		cerrojo.writeLock().lock();
+		try {
+			hilos.shutdown();
+			IOException error = null;
+			for (RepositorioBarcos particion : particiones) {
+				if (particion instanceof Closeable) {
+					try {
+						((Closeable) particion).close();
+					} catch (IOException e) {
+						error = e;
+					}
+				}
+			}
+			if (error != null) {
+				throw error;
+			}
+		} finally {
+			cerrojo.writeLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package puertos.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import puertos.entidades.Barco;
+
+/**
+ * Repositorio cuyos barcos están en otro proceso de Java en el mismo equipo
+ * (un ServidorParticion, que se inicia con el mismo classpath), por ejemplo
+ * para que cada partición de un RepositorioParticionado tenga su propio
+ * heap y su propio recolector de basura. Se comunica con el proceso por su
+ * entrada y su salida estándar, una operación a la vez (las operaciones se
+ * sincronizan). El proceso termina con close(), o cuando termina este.
+ *
+ * Las adiciones retornan false solo si la matrícula ya existe; si la
+ * comunicación falla, o la operación falla en el proceso, todas las
+ * operaciones lanzan IllegalStateException.
+ *
+ * @version 1.2
+ */
+public class RepositorioProceso implements RepositorioBarcos, Closeable {
+	private Process proceso;
+	private DataOutputStream salida;
+	private DataInputStream entrada;
+
+	/**
+	 * Inicia el proceso de la partición
+	 * @param opcionesJvm	opciones para la máquina virtual del proceso
+	 * 			(por ejemplo, "-Xmx256m")
+	 * @throws IOException si no se puede iniciar el proceso
+	 */
+	public RepositorioProceso(String... opcionesJvm) throws IOException {
+		List<String> comando = new ArrayList<String>();
+		comando.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		comando.addAll(Arrays.asList(opcionesJvm));
+		comando.add("-cp");
+		comando.add(calcularClasspath());
+		comando.add(ServidorParticion.class.getName());
+		proceso = new ProcessBuilder(comando).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		salida = new DataOutputStream(new BufferedOutputStream(proceso.getOutputStream()));
+		entrada = new DataInputStream(new BufferedInputStream(proceso.getInputStream()));
+	}
+
+	/**
+	 * @return el classpath de este proceso, más el lugar de donde se cargó
+	 * 		ServidorParticion (que puede no estar en java.class.path, por
+	 * 		ejemplo si este proceso se inició con java -jar)
+	 */
+	private static String calcularClasspath() {
+		String classpath = System.getProperty("java.class.path");
+		CodeSource origen = ServidorParticion.class.getProtectionDomain().getCodeSource();
+		if (origen == null) {
+			return classpath;
+		}
+		try {
+			String ubicacion = Paths.get(origen.getLocation().toURI()).toString();
+			return classpath.isEmpty() ? ubicacion : classpath + File.pathSeparator + ubicacion;
+		} catch (URISyntaxException e) {
+			return classpath;
+		}
+	}
+
+	@Override
+	public synchronized boolean adicionarBarco(Barco barco) {
+		return adicionar(ServidorParticion.ADICIONAR, barco);
+	}
+
+	@Override
+	public synchronized boolean adicionarSiNoExiste(Barco barco) {
+		return adicionar(ServidorParticion.ADICIONAR_SI_NO_EXISTE, barco);
+	}
+
+	private boolean adicionar(byte operacion, Barco barco) {
+		try {
+			salida.writeByte(operacion);
+			ServidorParticion.escribirBarco(barco, salida);
+			leerRespuesta();
+			return entrada.readBoolean();
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * Envía todo el lote en una sola operación
+	 */
+	@Override
+	public synchronized boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+		try {
+			salida.writeByte(ServidorParticion.ADICIONAR_VARIOS);
+			ServidorParticion.escribirBarcos(new ArrayList<Barco>(barcos), salida);
+			leerRespuesta();
+			return entrada.readBoolean();
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	@Override
+	public synchronized Barco buscarBarco(String matricula) {
+		try {
+			salida.writeByte(ServidorParticion.BUSCAR);
+			salida.writeUTF(matricula);
+			leerRespuesta();
+			return ServidorParticion.leerBarco(entrada);
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	@Override
+	public synchronized Barco eliminarBarco(String matricula) {
+		try {
+			salida.writeByte(ServidorParticion.ELIMINAR);
+			salida.writeUTF(matricula);
+			leerRespuesta();
+			return ServidorParticion.leerBarco(entrada);
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	@Override
+	public synchronized Barco actualizarBarco(Barco barco) {
+		try {
+			salida.writeByte(ServidorParticion.ACTUALIZAR);
+			ServidorParticion.escribirBarco(barco, salida);
+			leerRespuesta();
+			return ServidorParticion.leerBarco(entrada);
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * @return una copia de los barcos que hay en el proceso
+	 */
+	@Override
+	public synchronized List<Barco> consultarBarcos() {
+		try {
+			salida.writeByte(ServidorParticion.CONSULTAR);
+			leerRespuesta();
+			return ServidorParticion.leerBarcos(entrada);
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * El proceso cuenta los barcos y solo envía la cantidad
+	 */
+	@Override
+	public synchronized int contarBarcos() {
+		try {
+			salida.writeByte(ServidorParticion.CONTAR);
+			leerRespuesta();
+			return entrada.readInt();
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * El proceso calcula la capacidad total y solo envía el resultado
+	 */
+	@Override
+	public synchronized double calcularCapacidadTotal() {
+		try {
+			salida.writeByte(ServidorParticion.CAPACIDAD);
+			leerRespuesta();
+			return entrada.readDouble();
+		} catch (IOException e) {
+			throw crearError(e);
+		}
+	}
+
+	/**
+	 * Envía la operación que se escribió y lee el inicio de la respuesta
+	 * @throws IllegalStateException si la operación lanzó una excepción en el proceso
+	 */
+	private void leerRespuesta() throws IOException {
+		salida.flush();
+		if (entrada.readByte() == ServidorParticion.ERROR) {
+			throw new IllegalStateException("Error en la partición: " + entrada.readUTF());
+		}
+	}
+
+	/**
+	 * Le pide al proceso que termine (y si no termina en unos segundos, lo termina)
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			salida.writeByte(ServidorParticion.CERRAR);
+			salida.close();
+		} catch (IOException e) {
+			// el proceso ya había terminado
+		}
+		try {
+			if (!proceso.waitFor(5, TimeUnit.SECONDS)) {
+				proceso.destroyForcibly();
+			}
+		} catch (InterruptedException e) {
+			proceso.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+		entrada.close();
+	}
+
+	private static IllegalStateException crearError(IOException e) {
+		return new IllegalStateException("Error en la comunicación con la partición: " + e.getMessage(), e);
+	}
+}
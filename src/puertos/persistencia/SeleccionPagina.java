@@ -0,0 +1,130 @@
+package puertos.persistencia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import puertos.entidades.Barco;
+
+/**
+ * Arma una página para los repositorios que no tienen un índice por
+ * volumen: se recorren todos los barcos y se guardan (en un montículo)
+ * solo las claves de los tamano + 1 menores que cumplen el filtro,
+ * así que no hay que ordenar todos los barcos.
+ *
+ * @version 1.0
+ */
+class SeleccionPagina {
+	private FiltroBarcos filtro;
+	private int tamano;
+	private ClaveVolumen desde;
+	/** Montículo de máximos: en la posición 0 está la mayor clave */
+	private double[] volumenes;
+	private long[] ordenes;
+	private int cantidad;
+
+	/**
+	 * @see RepositorioBarcos#consultarPagina(FiltroBarcos, int, String)
+	 */
+	SeleccionPagina(FiltroBarcos filtro, int tamano, String continuacion) {
+		validarTamano(tamano);
+		this.filtro = filtro;
+		this.tamano = tamano;
+		desde = ClaveVolumen.limiteInferior(filtro, continuacion);
+		int capacidad = (int) Math.min(tamano + 1L, 64);
+		volumenes = new double[capacidad];
+		ordenes = new long[capacidad];
+	}
+
+	static void validarTamano(int tamano) {
+		if (tamano <= 0) {
+			throw new IllegalArgumentException("El tamaño de la página debe ser positivo");
+		}
+	}
+
+	/**
+	 * Tiene en cuenta un barco que ya cumple la condición del tipo
+	 * @param volumen	el volumen del barco
+	 * @param orden	su orden de llegada (con el que luego se busca)
+	 */
+	void considerar(double volumen, long orden) {
+		if (!filtro.aceptaVolumen(volumen)
+				|| ClaveVolumen.comparar(volumen, orden, desde.volumen, desde.orden) <= 0) {
+			return;
+		}
+		if (cantidad <= tamano) {
+			if (cantidad == volumenes.length) {
+				int capacidad = (int) Math.min(tamano + 1L, volumenes.length * 2L);
+				volumenes = Arrays.copyOf(volumenes, capacidad);
+				ordenes = Arrays.copyOf(ordenes, capacidad);
+			}
+			int hijo = cantidad++;
+			while (hijo > 0) {
+				int padre = (hijo - 1) >>> 1;
+				if (ClaveVolumen.comparar(volumenes[padre], ordenes[padre], volumen, orden) >= 0) {
+					break;
+				}
+				volumenes[hijo] = volumenes[padre];
+				ordenes[hijo] = ordenes[padre];
+				hijo = padre;
+			}
+			volumenes[hijo] = volumen;
+			ordenes[hijo] = orden;
+		} else if (ClaveVolumen.comparar(volumen, orden, volumenes[0], ordenes[0]) < 0) {
+			reemplazarMayor(volumen, orden);
+		}
+	}
+
+	/**
+	 * Pone la clave dada en lugar de la mayor, y la baja hasta su posición
+	 */
+	private void reemplazarMayor(double volumen, long orden) {
+		int padre = 0;
+		while (true) {
+			int hijo = 2 * padre + 1;
+			if (hijo >= cantidad) {
+				break;
+			}
+			if (hijo + 1 < cantidad && ClaveVolumen.comparar(volumenes[hijo + 1], ordenes[hijo + 1],
+					volumenes[hijo], ordenes[hijo]) > 0) {
+				hijo++;
+			}
+			if (ClaveVolumen.comparar(volumenes[hijo], ordenes[hijo], volumen, orden) <= 0) {
+				break;
+			}
+			volumenes[padre] = volumenes[hijo];
+			ordenes[padre] = ordenes[hijo];
+			padre = hijo;
+		}
+		volumenes[padre] = volumen;
+		ordenes[padre] = orden;
+	}
+
+	/**
+	 * @param buscar	retorna el barco que tiene el orden de llegada dado
+	 * @return la página con los barcos seleccionados, de menor a mayor
+	 */
+	PaginaBarcos armar(LongFunction<Barco> buscar) {
+		int total = cantidad;
+		double[] volumenesOrdenados = new double[total];
+		long[] ordenesOrdenados = new long[total];
+		for (int i = total - 1; i >= 0; i--) {
+			volumenesOrdenados[i] = volumenes[0];
+			ordenesOrdenados[i] = ordenes[0];
+			cantidad--;
+			reemplazarMayor(volumenes[cantidad], ordenes[cantidad]);
+		}
+		int enPagina = Math.min(total, tamano);
+		List<Barco> barcos = new ArrayList<Barco>(enPagina);
+		for (int i = 0; i < enPagina; i++) {
+			barcos.add(buscar.apply(ordenesOrdenados[i]));
+		}
+		String continuacion = null;
+		if (total > tamano) {
+			continuacion = ClaveVolumen.crearContinuacion(volumenesOrdenados[enPagina - 1],
+					ordenesOrdenados[enPagina - 1]);
+		}
+		return new PaginaBarcos(barcos, continuacion);
+	}
+}
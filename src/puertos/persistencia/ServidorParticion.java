@@ -0,0 +1,199 @@
+package puertos.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import puertos.entidades.Barco;
+
+/**
+ * Programa que atiende una partición de barcos en su propio proceso (lo
+ * inicia RepositorioProceso): lee las operaciones por la entrada estándar,
+ * las hace en un MapaBarcosConcurrente y escribe las respuestas por la
+ * salida estándar. Atiende una operación a la vez, hasta que le piden
+ * cerrar o se cierra la entrada.
+ *
+ * Cada operación es un byte con su código y luego sus datos; los barcos
+ * van con su longitud (un int, -1 para null) y los bytes de CodificadorBarcos,
+ * y las matrículas con writeUTF. Cada respuesta empieza con un byte que
+ * indica si la operación se hizo (OK) o lanzó una excepción (ERROR, seguido
+ * del mensaje).
+ *
+ * @version 1.1
+ */
+public class ServidorParticion {
+	static final byte ADICIONAR = 1;
+	static final byte ADICIONAR_SI_NO_EXISTE = 2;
+	static final byte ADICIONAR_VARIOS = 3;
+	static final byte BUSCAR = 4;
+	static final byte ELIMINAR = 5;
+	static final byte ACTUALIZAR = 6;
+	static final byte CONSULTAR = 7;
+	static final byte CAPACIDAD = 8;
+	static final byte CERRAR = 9;
+	static final byte CONTAR = 10;
+
+	static final byte OK = 0;
+	static final byte ERROR = 1;
+
+	private RepositorioBarcos repositorio;
+	private DataInputStream entrada;
+	private DataOutputStream salida;
+
+	ServidorParticion(RepositorioBarcos repositorio, DataInputStream entrada, DataOutputStream salida) {
+		this.repositorio = repositorio;
+		this.entrada = entrada;
+		this.salida = salida;
+	}
+
+	public static void main(String[] args) throws IOException {
+		DataInputStream entrada = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(FileDescriptor.in)));
+		DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(FileDescriptor.out)));
+		// la salida estándar es para las respuestas: lo que se imprima va al error
+		System.setOut(System.err);
+		new ServidorParticion(new MapaBarcosConcurrente(), entrada, salida).atender();
+	}
+
+	/**
+	 * Atiende las operaciones hasta que le piden cerrar o se cierra la entrada
+	 */
+	void atender() throws IOException {
+		while (true) {
+			byte operacion;
+			try {
+				operacion = entrada.readByte();
+			} catch (EOFException e) {
+				return;
+			}
+			if (operacion == CERRAR) {
+				return;
+			}
+			// se leen los datos antes de hacer la operación, para que un error
+			// no deje datos sin leer
+			Barco barco = null;
+			String matricula = null;
+			List<Barco> barcos = null;
+			if (operacion == ADICIONAR || operacion == ADICIONAR_SI_NO_EXISTE || operacion == ACTUALIZAR) {
+				barco = leerBarco(entrada);
+			} else if (operacion == ADICIONAR_VARIOS) {
+				barcos = leerBarcos(entrada);
+			} else if (operacion == BUSCAR || operacion == ELIMINAR) {
+				matricula = entrada.readUTF();
+			}
+			try {
+				responder(operacion, barco, matricula, barcos);
+			} catch (RuntimeException e) {
+				salida.writeByte(ERROR);
+				salida.writeUTF(String.valueOf(e.getMessage()));
+			}
+			salida.flush();
+		}
+	}
+
+	private void responder(byte operacion, Barco barco, String matricula, List<Barco> barcos)
+			throws IOException {
+		switch (operacion) {
+		case ADICIONAR:
+			boolean adicionado = repositorio.adicionarBarco(barco);
+			salida.writeByte(OK);
+			salida.writeBoolean(adicionado);
+			break;
+		case ADICIONAR_SI_NO_EXISTE:
+			boolean nuevo = repositorio.adicionarSiNoExiste(barco);
+			salida.writeByte(OK);
+			salida.writeBoolean(nuevo);
+			break;
+		case ADICIONAR_VARIOS:
+			boolean guardados = repositorio.adicionarBarcos(barcos);
+			salida.writeByte(OK);
+			salida.writeBoolean(guardados);
+			break;
+		case BUSCAR:
+			Barco encontrado = repositorio.buscarBarco(matricula);
+			salida.writeByte(OK);
+			escribirBarco(encontrado, salida);
+			break;
+		case ELIMINAR:
+			Barco eliminado = repositorio.eliminarBarco(matricula);
+			salida.writeByte(OK);
+			escribirBarco(eliminado, salida);
+			break;
+		case ACTUALIZAR:
+			Barco anterior = repositorio.actualizarBarco(barco);
+			salida.writeByte(OK);
+			escribirBarco(anterior, salida);
+			break;
+		case CONSULTAR:
+			List<Barco> todos = repositorio.consultarBarcos();
+			salida.writeByte(OK);
+			escribirBarcos(todos, salida);
+			break;
+		case CAPACIDAD:
+			double capacidad = repositorio.calcularCapacidadTotal();
+			salida.writeByte(OK);
+			salida.writeDouble(capacidad);
+			break;
+		case CONTAR:
+			int cantidad = repositorio.contarBarcos();
+			salida.writeByte(OK);
+			salida.writeInt(cantidad);
+			break;
+		default:
+			throw new IllegalArgumentException("Operación desconocida: " + operacion);
+		}
+	}
+
+	/**
+	 * Escribe el barco (o null) con su longitud
+	 */
+	static void escribirBarco(Barco barco, DataOutputStream salida) throws IOException {
+		if (barco == null) {
+			salida.writeInt(-1);
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(CodificadorBarcos.calcularTamanoMaximo(barco));
+		CodificadorBarcos.escribir(barco, buffer);
+		salida.writeInt(buffer.position());
+		salida.write(buffer.array(), 0, buffer.position());
+	}
+
+	/**
+	 * @return el barco que escribió escribirBarco, o null
+	 */
+	static Barco leerBarco(DataInputStream entrada) throws IOException {
+		int longitud = entrada.readInt();
+		if (longitud < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[longitud];
+		entrada.readFully(bytes);
+		return CodificadorBarcos.leer(ByteBuffer.wrap(bytes));
+	}
+
+	static void escribirBarcos(List<? extends Barco> barcos, DataOutputStream salida) throws IOException {
+		salida.writeInt(barcos.size());
+		for (Barco barco : barcos) {
+			escribirBarco(barco, salida);
+		}
+	}
+
+	static List<Barco> leerBarcos(DataInputStream entrada) throws IOException {
+		int cantidad = entrada.readInt();
+		List<Barco> barcos = new ArrayList<Barco>(cantidad);
+		for (int i = 0; i < cantidad; i++) {
+			barcos.add(leerBarco(entrada));
+		}
+		return barcos;
+	}
+}
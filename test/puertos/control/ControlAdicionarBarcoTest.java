@@ -60,4 +60,53 @@ class ControlAdicionarBarcoTest {
 				() ->  control.adicionarBarco("003", "canadiense", volumen, 'c', 30, false));
 		assertFalse(control.existeMatricula("003"));
 	}
+	
+	/**
+	 * Se verifica que no permita adicionar un barco de un tipo que no existe
+	 */
+	@Test
+	void testAdicionarBarcoTipoDesconocido() {
+		ControlPuerto control = new ControlPuerto(new ListaBarcos());
+		BarcoException error = assertThrows(BarcoException.class,
+				() ->  control.adicionarBarco("004", "canadiense", 100, 'x', 0, false));
+		assertTrue(error.getMessage().startsWith("Tipo de barco desconocido"));
+		assertFalse(control.existeMatricula("004"));
+	}
+	
+	/**
+	 * registrarBarco retorna la razón del rechazo en lugar de lanzar la 
+	 * excepción, con las reglas en el mismo orden de adicionarBarco
+	 */
+	@Test
+	void testRegistrarBarcoConResultado() {
+		ControlPuerto control = new ControlPuerto(new ListaBarcos());
+		assertNull(control.validarBarco("123", 200, 'v'));
+		assertEquals(ResultadoRegistro.REGISTRADO, 
+				control.registrarBarco("123", "colombiana", 200, 'v', 10, false));
+		assertEquals(ResultadoRegistro.MATRICULA_REPETIDA, 
+				control.registrarBarco("123", "colombiana", 2000, 'x', 10, false));
+		assertEquals(ResultadoRegistro.VOLUMEN_INCORRECTO, 
+				control.registrarBarco("124", "colombiana", -1, 'x', 10, false));
+		assertEquals(ResultadoRegistro.TIPO_DESCONOCIDO, 
+				control.registrarBarco("125", "colombiana", 200, 'x', 10, false));
+		assertEquals(ResultadoRegistro.TIPO_DESCONOCIDO, control.validarBarco("125", 200, 'x'));
+		assertFalse(control.existeMatricula("125"));
+	}
+	
+	/**
+	 * Con errores sin traza, la excepción tiene el mismo mensaje pero 
+	 * no guarda la pila
+	 */
+	@Test
+	void testErroresSinTraza() {
+		ControlPuerto control = new ControlPuerto(new ListaBarcos());
+		BarcoException conTraza = assertThrows(BarcoException.class,
+				() ->  control.adicionarBarco("789", "italiano", -79, 'v', 10, true));
+		control.usarErroresSinTraza(true);
+		BarcoException sinTraza = assertThrows(BarcoException.class,
+				() ->  control.adicionarBarco("789", "italiano", -79, 'v', 10, true));
+		assertEquals(conTraza.getMessage(), sinTraza.getMessage());
+		assertTrue(conTraza.getStackTrace().length > 0);
+		assertEquals(0, sinTraza.getStackTrace().length);
+	}
 }
@@ -0,0 +1,82 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Pruebas del método adicionarBarcos (registro por lotes) de ControlPuerto.
+ */
+class ControlAdicionarBarcosTest {
+
+	/**
+	 * Un lote con barcos correctos, uno repetido en el mismo lote,
+	 * uno ya registrado en el puerto y otro con volumen incorrecto
+	 * @throws BarcoException 
+	 */
+	@Test
+	void testAdicionarLote() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos(), true);
+		control.adicionarBarco("245", "peruana", 100, 'v', 5, false);
+
+		List<Barco> lote = List.of(
+				new Velero("Vel-001", "colombiana", 100, 8),
+				new Carguero("Car-001", "peruana", 500, true),
+				new Velero("Vel-001", "chilena", 150, 15),
+				new Velero("245", "peruana", 100, 5),
+				new Carguero("003", "canadiense", 1500, false));
+		ReporteLote reporte = control.adicionarBarcos(lote);
+
+		assertEquals(5, reporte.getFilas());
+		assertEquals(ResultadoRegistro.REGISTRADO, reporte.getResultado(0));
+		assertEquals(ResultadoRegistro.REGISTRADO, reporte.getResultado(1));
+		assertEquals(ResultadoRegistro.MATRICULA_REPETIDA, reporte.getResultado(2));
+		assertEquals(ResultadoRegistro.MATRICULA_REPETIDA, reporte.getResultado(3));
+		assertEquals(ResultadoRegistro.VOLUMEN_INCORRECTO, reporte.getResultado(4));
+		assertEquals(2, reporte.getRegistrados());
+		assertEquals(List.of(2, 3, 4), reporte.consultarFilasRechazadas());
+
+		assertTrue(control.existeMatricula("Car-001"));
+		assertFalse(control.existeMatricula("003"));
+		assertEquals(50 + 50 + 360, control.calcularCapacidadTotal());
+		assertTrue(control.verificarCapacidadTotal());
+	}
+
+	/**
+	 * Una fila rechazada por el volumen no toma la matrícula: la siguiente
+	 * fila con la misma matrícula y volumen correcto se registra, como con
+	 * adicionarBarco
+	 */
+	@Test
+	void testRechazoPorVolumenNoTomaMatricula() {
+		MapaBarcos repositorio = new MapaBarcos();
+		ControlPuerto control = new ControlPuerto(repositorio);
+		ReporteLote reporte = control.adicionarBarcos(List.of(
+				new Velero("X", "chilena", 5000, 1),
+				new Velero("X", "chilena", 100, 1),
+				new Velero("X", "chilena", 200, 1)));
+
+		assertEquals(ResultadoRegistro.VOLUMEN_INCORRECTO, reporte.getResultado(0));
+		assertEquals(ResultadoRegistro.REGISTRADO, reporte.getResultado(1));
+		assertEquals(ResultadoRegistro.MATRICULA_REPETIDA, reporte.getResultado(2));
+		assertEquals(100, repositorio.buscarBarco("X").getVolumen());
+	}
+
+	/**
+	 * Un lote vacío no registra nada
+	 */
+	@Test
+	void testAdicionarLoteVacio() {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		ReporteLote reporte = control.adicionarBarcos(List.of());
+		assertEquals(0, reporte.getFilas());
+		assertEquals(0, control.calcularCapacidadTotal());
+	}
+}
@@ -0,0 +1,123 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carga;
+import puertos.entidades.Carguero;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Pruebas del reparto de cargas entre los barcos del puerto
+ * (ControlPuerto.asignarCarga).
+ */
+class ControlAsignarCargaTest {
+
+	/**
+	 * Con los barcos Vel-001 (capacidad 50), Car-001 (360, lleva líquidos)
+	 * y Car-002 (200), cada carga va al barco donde queda menos espacio,
+	 * y las líquidas solo van en Car-001
+	 */
+	@Test
+	void testMejorAjuste() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "colombiana", 250, 'c', 25, false);
+		List<Carga> cargas = List.of(new Carga("D-1", 190, false), new Carga("L-1", 300, true),
+				new Carga("D-2", 55, false), new Carga("L-2", 100, true), new Carga("D-3", 50, false));
+
+		AsignacionCarga asignacion = control.asignarCarga(cargas);
+
+		assertEquals("Car-002", asignacion.getBarco(0).getMatricula());
+		assertEquals("Car-001", asignacion.getBarco(1).getMatricula());
+		assertEquals("Car-001", asignacion.getBarco(2).getMatricula());
+		assertNull(asignacion.getBarco(3));
+		assertEquals("Vel-001", asignacion.getBarco(4).getMatricula());
+		assertEquals(4, asignacion.getAsignadas());
+		assertEquals(List.of(cargas.get(3)), asignacion.consultarSinAsignar());
+		assertEquals(595, asignacion.getVolumenAsignado());
+		assertEquals(3, asignacion.getBarcosUsados());
+	}
+
+	/**
+	 * Dos barcos de capacidad 16 y cargas que suman 31: la heurística deja
+	 * una carga por fuera, y la mejora la pone intercambiando cargas
+	 */
+	@Test
+	void testMejoraPoneMasCargas() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		control.adicionarBarco("Car-001", "peruana", 20, 'c', 0, false);
+		control.adicionarBarco("Car-002", "chilena", 20, 'c', 0, false);
+		List<Carga> cargas = new ArrayList<Carga>();
+		for (double volumen : new double[] { 5, 6, 7, 4, 4, 5 }) {
+			cargas.add(new Carga("C-" + cargas.size(), volumen, false));
+		}
+
+		assertEquals(5, control.asignarCarga(cargas).getAsignadas());
+		AsignacionCarga mejorada = control.asignarCarga(cargas, 1000);
+		assertEquals(6, mejorada.getAsignadas());
+		verificarAsignacion(cargas, mejorada);
+	}
+
+	/**
+	 * Con muchos barcos y cargas al azar, ningún barco queda con más carga
+	 * que su capacidad, las cargas líquidas quedan en cargueros que llevan
+	 * líquidos, y la mejora no disminuye el volumen asignado
+	 */
+	@Test
+	void testAsignacionValida() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		Random aleatorio = new Random(15);
+		for (int i = 0; i < 2000; i++) {
+			control.adicionarBarco("B-" + i, "mexicana", aleatorio.nextInt(1001),
+					aleatorio.nextBoolean() ? 'v' : 'c', aleatorio.nextInt(40), aleatorio.nextBoolean());
+		}
+		List<Carga> cargas = new ArrayList<Carga>();
+		for (int i = 0; i < 6000; i++) {
+			cargas.add(new Carga("C-" + i, 1 + aleatorio.nextInt(300) + aleatorio.nextDouble(),
+					aleatorio.nextInt(4) == 0));
+		}
+
+		AsignacionCarga heuristica = control.asignarCarga(cargas);
+		AsignacionCarga mejorada = control.asignarCarga(cargas, 200);
+
+		verificarAsignacion(cargas, heuristica);
+		verificarAsignacion(cargas, mejorada);
+		assertTrue(heuristica.getSinAsignar() > 0);
+		assertTrue(mejorada.getVolumenAsignado() >= heuristica.getVolumenAsignado());
+	}
+
+	/**
+	 * Una carga con volumen negativo no se puede repartir
+	 */
+	@Test
+	void testVolumenNegativo() {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		assertThrows(IllegalArgumentException.class, 
+				() -> control.asignarCarga(List.of(new Carga("C-1", -1, false))));
+	}
+
+	private void verificarAsignacion(List<Carga> cargas, AsignacionCarga asignacion) {
+		for (int i = 0; i < cargas.size(); i++) {
+			Barco barco = asignacion.getBarco(i);
+			if (barco != null && cargas.get(i).getLiquida()) {
+				assertTrue(((Carguero) barco).getLiquidos());
+			}
+		}
+		for (Map.Entry<Barco, List<Carga>> entrada : asignacion.consultarCargasPorBarco().entrySet()) {
+			double volumen = 0;
+			for (Carga carga : entrada.getValue()) {
+				volumen += carga.getVolumen();
+			}
+			assertTrue(volumen <= entrada.getKey().calcularCapacidad() + 1e-6);
+		}
+	}
+}
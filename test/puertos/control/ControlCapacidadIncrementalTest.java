@@ -0,0 +1,75 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Velero;
+import puertos.persistencia.ListaBarcos;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Pruebas de calcularCapacidadTotal de ControlPuerto en el modo
+ * incremental (la capacidad se actualiza con cada barco registrado).
+ */
+class ControlCapacidadIncrementalTest {
+
+	/**
+	 * Con los mismos barcos de ControlCalcularCapacidadTest 
+	 * debe dar la misma capacidad (675), incluso si se intenta 
+	 * registrar un barco repetido o con volumen incorrecto.
+	 * @throws BarcoException 
+	 */
+	@Test
+	void testCalcularIncremental() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos(), true);
+		assertEquals(0, control.calcularCapacidadTotal());
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "mexicano", 250, 'c', 25, false);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Car-002", "mexicano", 250, 'c', 25, false));
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Car-003", "mexicano", 2500, 'c', 25, false));
+		assertEquals(675, control.calcularCapacidadTotal());
+		assertTrue(control.verificarCapacidadTotal());
+	}
+
+	/**
+	 * Si el repositorio ya tiene barcos, la capacidad inicial los incluye
+	 */
+	@Test
+	void testRepositorioConBarcos() {
+		ListaBarcos repositorio = new ListaBarcos();
+		repositorio.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8));
+		ControlPuerto control = new ControlPuerto(repositorio, true);
+		assertEquals(50, control.calcularCapacidadTotal());
+	}
+
+	/**
+	 * Si se adicionan barcos directamente en el repositorio (sin pasar
+	 * por el control), la verificación debe detectar la diferencia
+	 */
+	@Test
+	void testVerificarCapacidadDesactualizada() {
+		ListaBarcos repositorio = new ListaBarcos();
+		ControlPuerto control = new ControlPuerto(repositorio, true);
+		repositorio.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8));
+		assertFalse(control.verificarCapacidadTotal());
+		assertEquals(50, control.recalcularCapacidadTotal());
+	}
+
+	/**
+	 * Al sumar muchas veces un valor que no tiene representación exacta
+	 * (0.1), la suma compensada no debe acumular error
+	 */
+	@Test
+	void testSumaCompensadaSinError() {
+		SumaCompensada suma = new SumaCompensada();
+		for (int i = 0; i < 10_000_000; i++) {
+			suma.sumar(0.1);
+		}
+		assertEquals(1_000_000.0, suma.getValor(), 1e-9);
+	}
+}
@@ -0,0 +1,90 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.MapaBarcos;
+import puertos.persistencia.MapaBarcosConcurrente;
+
+/**
+ * Pruebas de calcularCapacidadTotal de ControlPuerto con el cálculo en paralelo.
+ */
+class ControlCapacidadParalelaTest {
+
+	/**
+	 * Con muchos barcos, el cálculo en paralelo debe coincidir con el
+	 * secuencial, dentro de la tolerancia documentada
+	 */
+	@Test
+	void testParaleloIgualASecuencial() {
+		MapaBarcos repositorio = new MapaBarcos();
+		for (int i = 0; i < 200_000; i++) {
+			if (i % 2 == 0) {
+				repositorio.adicionarBarco(new Velero("V-" + i, "colombiana", (i % 1000) * 0.37, i % 20));
+			} else {
+				repositorio.adicionarBarco(new Carguero("C-" + i, "peruana", (i % 1000) * 0.91, i % 3 == 0));
+			}
+		}
+		ControlPuerto control = new ControlPuerto(repositorio);
+		double secuencial = control.calcularCapacidadTotal();
+
+		ForkJoinPool hilos = new ForkJoinPool(4);
+		try {
+			control.usarCalculoParalelo(hilos, 0);
+			double paralelo = control.calcularCapacidadTotal();
+			assertEquals(secuencial, paralelo, 200_000 * 1.1e-16 * secuencial);
+			assertEquals(control.recalcularCapacidadTotal(), paralelo, 1e-6);
+		} finally {
+			hilos.shutdown();
+		}
+	}
+
+	/**
+	 * Por debajo del umbral se calcula de forma secuencial
+	 * (mismos casos de ControlCalcularCapacidadTest)
+	 * @throws BarcoException 
+	 */
+	@Test
+	void testDebajoDelUmbral() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		control.usarCalculoParalelo(ForkJoinPool.commonPool(), 1000);
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "mexicano", 250, 'c', 25, false);
+		assertEquals(675, control.calcularCapacidadTotal());
+		control.usarCalculoParalelo(ForkJoinPool.commonPool(), 0);
+		assertEquals(675, control.calcularCapacidadTotal());
+	}
+
+	/**
+	 * Para decidir si se calcula en paralelo solo se cuentan los barcos:
+	 * la lista se consulta solo cuando se va a calcular en paralelo
+	 */
+	@Test
+	void testContarSinConsultarLista() throws BarcoException {
+		int[] consultas = new int[1];
+		ControlPuerto control = new ControlPuerto(new MapaBarcosConcurrente() {
+			@Override
+			public List<Barco> consultarBarcos() {
+				consultas[0]++;
+				return super.consultarBarcos();
+			}
+		});
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.usarCalculoParalelo(ForkJoinPool.commonPool(), 1000);
+		assertEquals(410, control.calcularCapacidadTotal());
+		assertEquals(0, consultas[0]);
+		control.usarCalculoParalelo(ForkJoinPool.commonPool(), 2);
+		assertEquals(410, control.calcularCapacidadTotal());
+		assertEquals(1, consultas[0]);
+	}
+}
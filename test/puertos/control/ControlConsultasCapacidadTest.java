@@ -0,0 +1,84 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Pruebas de las consultas por capacidad de ControlPuerto (los barcos con
+ * mayor capacidad, cuántos y cuánto suman desde cierta capacidad, y el
+ * barco más pequeño para una carga), con y sin el índice por capacidad.
+ */
+class ControlConsultasCapacidadTest {
+
+	/**
+	 * Con los barcos de ControlCalcularCapacidadTest (capacidades 50, 65,
+	 * 360 y 200), en los dos modos
+	 */
+	@Test
+	void testConsultasCapacidad() throws BarcoException {
+		for (boolean incremental : new boolean[] { false, true }) {
+			ControlPuerto control = new ControlPuerto(new MapaBarcos(), incremental);
+			control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+			control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+			control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+			control.adicionarBarco("Car-002", "colombiana", 250, 'c', 25, false);
+
+			assertEquals(List.of("Car-001", "Car-002"), 
+					matriculas(control.consultarMayoresCapacidades(2)));
+			assertEquals(4, control.consultarMayoresCapacidades(10).size());
+			assertTrue(control.consultarMayoresCapacidades(0).isEmpty());
+			assertEquals(3, control.contarBarcosConCapacidad(60));
+			assertEquals(625, control.sumarCapacidadDesde(60));
+			assertEquals(0, control.contarBarcosConCapacidad(361));
+			assertEquals("Vel-002", control.buscarBarcoParaCarga(55).getMatricula());
+			assertEquals("Car-002", control.buscarBarcoParaCarga(200).getMatricula());
+			assertEquals("Vel-001", control.buscarBarcoParaCarga(0).getMatricula());
+			assertNull(control.buscarBarcoParaCarga(400));
+		}
+	}
+
+	/**
+	 * Con muchos barcos (y muchas capacidades repetidas), el índice
+	 * da los mismos resultados que recorrer todos los barcos
+	 */
+	@Test
+	void testIndiceIgualARecorrido() throws BarcoException {
+		MapaBarcos repositorio = new MapaBarcos();
+		ControlPuerto conIndice = new ControlPuerto(repositorio, true);
+		ControlPuerto sinIndice = new ControlPuerto(repositorio);
+		Random aleatorio = new Random(14);
+		for (int i = 0; i < 20_000; i++) {
+			conIndice.adicionarBarco("B-" + i, "mexicana", aleatorio.nextInt(1001),
+					aleatorio.nextBoolean() ? 'v' : 'c', aleatorio.nextInt(40), aleatorio.nextBoolean());
+		}
+
+		assertEquals(matriculas(sinIndice.consultarMayoresCapacidades(100)),
+				matriculas(conIndice.consultarMayoresCapacidades(100)));
+		for (int i = 0; i < 200; i++) {
+			double capacidad = aleatorio.nextInt(1000) + aleatorio.nextDouble();
+			assertEquals(sinIndice.contarBarcosConCapacidad(capacidad),
+					conIndice.contarBarcosConCapacidad(capacidad));
+			assertEquals(sinIndice.sumarCapacidadDesde(capacidad),
+					conIndice.sumarCapacidadDesde(capacidad), 1e-6);
+			assertSame(sinIndice.buscarBarcoParaCarga(capacidad), 
+					conIndice.buscarBarcoParaCarga(capacidad));
+		}
+		assertEquals(conIndice.calcularCapacidadTotal(), conIndice.sumarCapacidadDesde(0), 1e-6);
+	}
+
+	private List<String> matriculas(List<Barco> barcos) {
+		List<String> matriculas = new ArrayList<String>();
+		for (Barco barco : barcos) {
+			matriculas.add(barco.getMatricula());
+		}
+		return matriculas;
+	}
+}
@@ -0,0 +1,107 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.metricas.InstantaneaMetricas;
+import puertos.metricas.MetricasPuerto;
+import puertos.metricas.Operacion;
+import puertos.metricas.Rechazo;
+import puertos.metricas.RepositorioMedido;
+import puertos.persistencia.ListaBarcos;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Pruebas de las métricas de ControlPuerto y del repositorio medido
+ */
+class ControlMetricasTest {
+
+	/**
+	 * Cuenta las operaciones del control y del repositorio, y los rechazos
+	 * por cada regla (también en los lotes)
+	 */
+	@Test
+	void testContarOperacionesYRechazos() throws BarcoException {
+		MetricasPuerto metricas = new MetricasPuerto();
+		ControlPuerto control = new ControlPuerto(new RepositorioMedido(new MapaBarcos(), metricas));
+		control.usarMetricas(metricas);
+
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		assertThrows(BarcoException.class, 
+				() -> control.adicionarBarco("Vel-001", "chilena", 50, 'v', 1, false));
+		assertThrows(BarcoException.class, 
+				() -> control.adicionarBarco("Vel-002", "chilena", 5000, 'v', 1, false));
+		assertThrows(BarcoException.class, () -> control.retirarBarco("Car-009"));
+		control.adicionarBarcos(Arrays.asList(new Velero("Vel-003", "chilena", 150, 15),
+				new Carguero("Car-001", "peruana", 500, true), new Carguero("Car-002", "peruana", -1, true)));
+		control.calcularCapacidadTotal();
+
+		InstantaneaMetricas instantanea = metricas.tomarInstantanea();
+		assertEquals(4, instantanea.getCantidad(Operacion.REGISTRAR_BARCO));
+		assertEquals(1, instantanea.getCantidad(Operacion.RETIRAR_BARCO));
+		assertEquals(1, instantanea.getCantidad(Operacion.REGISTRAR_LOTE));
+		assertEquals(1, instantanea.getCantidad(Operacion.CAPACIDAD_TOTAL));
+		assertEquals(1, instantanea.getCantidad(Operacion.CALCULAR_CAPACIDAD));
+		assertEquals(2, instantanea.getCantidad(Operacion.ADICIONAR));
+		assertEquals(1, instantanea.getCantidad(Operacion.ADICIONAR_LOTE));
+		assertEquals(4 + 3, instantanea.getCantidad(Operacion.BUSCAR));
+		assertEquals(2, instantanea.getRechazos(Rechazo.MATRICULA_REPETIDA));
+		assertEquals(2, instantanea.getRechazos(Rechazo.VOLUMEN_INCORRECTO));
+		assertEquals(1, instantanea.getRechazos(Rechazo.MATRICULA_INEXISTENTE));
+		assertTrue(instantanea.getTiempos(Operacion.REGISTRAR_BARCO).getPercentil(50) > 0);
+
+		String exportado = instantanea.toString();
+		assertTrue(exportado.startsWith("operacion,cantidad,fallas,medidas,"));
+		assertTrue(exportado.contains("\nREGISTRAR_BARCO,4,0,4,"));
+		assertTrue(exportado.contains("\nMATRICULA_REPETIDA,2\n"));
+		assertFalse(exportado.contains("ACTUALIZAR_BARCO"));
+
+		// sin métricas ya no se cuenta nada en el control
+		control.usarMetricas(null);
+		control.adicionarBarco("Vel-009", "chilena", 50, 'v', 1, false);
+		assertEquals(4, metricas.tomarInstantanea().getCantidad(Operacion.REGISTRAR_BARCO));
+	}
+
+	/**
+	 * Con muestreo se cuentan todas las llamadas, pero solo se mide
+	 * el tiempo de una de cada cuatro
+	 */
+	@Test
+	void testMuestreo() throws BarcoException {
+		MetricasPuerto metricas = new MetricasPuerto(4);
+		ControlPuerto control = new ControlPuerto(new RepositorioMedido(new MapaBarcos(), metricas));
+		control.usarMetricas(metricas);
+		for (int i = 0; i < 10; i++) {
+			control.adicionarBarco("Vel-" + i, "colombiana", 100, 'v', 8, false);
+		}
+		InstantaneaMetricas instantanea = metricas.tomarInstantanea();
+		assertEquals(10, instantanea.getCantidad(Operacion.REGISTRAR_BARCO));
+		assertEquals(2, instantanea.getTiempos(Operacion.REGISTRAR_BARCO).getCantidad());
+		assertEquals(10, instantanea.getCantidad(Operacion.BUSCAR));
+		assertThrows(IllegalArgumentException.class, () -> new MetricasPuerto(3));
+	}
+
+	/**
+	 * Las excepciones del repositorio se cuentan como fallas
+	 */
+	@Test
+	void testFallasDelRepositorio() {
+		MetricasPuerto metricas = new MetricasPuerto();
+		ControlPuerto control = new ControlPuerto(new RepositorioMedido(new ListaBarcos() {
+			@Override
+			public puertos.entidades.Barco eliminarBarco(String matricula) {
+				throw new IllegalStateException("sin conexión");
+			}
+		}, metricas));
+		assertThrows(IllegalStateException.class, () -> control.retirarBarco("Vel-001"));
+		InstantaneaMetricas instantanea = metricas.tomarInstantanea();
+		assertEquals(1, instantanea.getCantidad(Operacion.ELIMINAR));
+		assertEquals(1, instantanea.getFallas(Operacion.ELIMINAR));
+	}
+}
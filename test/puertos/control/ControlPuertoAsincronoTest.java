@@ -0,0 +1,93 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.MapaBarcosConcurrente;
+
+/**
+ * Pruebas de la fachada asíncrona: resultados, errores y el límite
+ * de operaciones pendientes.
+ */
+class ControlPuertoAsincronoTest {
+
+	/**
+	 * Repositorio donde adicionar se queda esperando hasta que se abra la
+	 * compuerta, para tener operaciones pendientes
+	 */
+	private static class RepositorioDetenido extends MapaBarcosConcurrente {
+		private CountDownLatch compuerta = new CountDownLatch(1);
+
+		@Override
+		public boolean adicionarSiNoExiste(Barco barco) {
+			try {
+				compuerta.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return super.adicionarSiNoExiste(barco);
+		}
+	}
+
+	/**
+	 * Con los barcos de ControlCalcularCapacidadTest (capacidad total 675);
+	 * los errores del negocio llegan como causa de la ExecutionException
+	 */
+	@Test
+	void testOperacionesYErrores() throws Exception {
+		try (ControlPuertoAsincrono puerto = new ControlPuertoAsincrono(
+				new ControlPuerto(new MapaBarcosConcurrente(), true))) {
+			CompletableFuture.allOf(
+					puerto.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false),
+					puerto.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false),
+					puerto.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true),
+					puerto.adicionarBarco("Car-002", "colombiana", 250, 'c', 25, false)).get();
+			assertEquals(675, puerto.calcularCapacidadTotal().get());
+
+			ExecutionException repetido = assertThrows(ExecutionException.class,
+					() -> puerto.adicionarBarco("Vel-001", "chilena", 50, 'v', 1, false).get());
+			assertTrue(repetido.getCause() instanceof BarcoException);
+			ExecutionException inexistente = assertThrows(ExecutionException.class,
+					() -> puerto.retirarBarco("Car-009").get());
+			assertTrue(inexistente.getCause() instanceof BarcoException);
+
+			assertEquals("Car-001", puerto.retirarBarco("Car-001").get().getMatricula());
+			assertEquals(315, puerto.calcularCapacidadTotal().get());
+			assertEquals(0, puerto.getPendientes());
+		}
+	}
+
+	/**
+	 * Cuando se alcanza el máximo de pendientes, las siguientes se rechazan
+	 * de inmediato; al terminar las pendientes se vuelven a aceptar
+	 */
+	@Test
+	void testRechazoPorPendientes() throws Exception {
+		RepositorioDetenido repositorio = new RepositorioDetenido();
+		try (ControlPuertoAsincrono puerto = new ControlPuertoAsincrono(
+				new ControlPuerto(repositorio), 2)) {
+			CompletableFuture<Void> primero = puerto.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+			CompletableFuture<Void> segundo = puerto.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+			assertEquals(2, puerto.getPendientes());
+
+			CompletableFuture<Double> rechazado = puerto.calcularCapacidadTotal();
+			assertTrue(rechazado.isCompletedExceptionally());
+			ExecutionException error = assertThrows(ExecutionException.class, () -> rechazado.get());
+			assertTrue(error.getCause() instanceof RejectedExecutionException);
+			assertFalse(primero.isDone());
+
+			repositorio.compuerta.countDown();
+			primero.get();
+			segundo.get();
+			assertEquals(0, puerto.getPendientes());
+			assertEquals(115, puerto.calcularCapacidadTotal().get());
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Velero;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Pruebas del resumen por grupos (consultarResumen) de ControlPuerto.
+ */
+class ControlResumenTest {
+
+	/**
+	 * Se registran los barcos de ControlCalcularCapacidadTest y se revisan
+	 * los grupos por nacionalidad, por tipo y de líquidos
+	 */
+	@Test
+	void testResumenPorGrupos() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		registrarBarcos(control);
+		verificarResumen(control.consultarResumen());
+	}
+
+	/**
+	 * En el modo incremental el resumen se mantiene con cada registro, y
+	 * una copia ya entregada no cambia al registrar otros barcos
+	 */
+	@Test
+	void testResumenIncremental() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos(), true);
+		ResumenCapacidad vacio = control.consultarResumen();
+		registrarBarcos(control);
+		verificarResumen(control.consultarResumen());
+		assertEquals(0, vacio.getTotal().getCantidad());
+		assertTrue(vacio.getPorNacionalidad().isEmpty());
+	}
+
+	/**
+	 * El resumen calculado en paralelo es igual al secuencial
+	 */
+	@Test
+	void testResumenParalelo() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		for (int i = 0; i < 50_000; i++) {
+			control.adicionarBarco("B-" + i, (i % 3 == 0) ? "chilena" : "peruana",
+					i % 1000, (i % 2 == 0) ? 'v' : 'c', i % 20, i % 5 == 0);
+		}
+		ResumenCapacidad secuencial = control.calcularResumen();
+		control.usarCalculoParalelo(ForkJoinPool.commonPool(), 0);
+		ResumenCapacidad paralelo = control.calcularResumen();
+
+		assertEquals(secuencial.getTotal().getCantidad(), paralelo.getTotal().getCantidad());
+		assertEquals(secuencial.getTotal().getCapacidad(), paralelo.getTotal().getCapacidad(), 1e-3);
+		assertEquals(secuencial.getPorNacionalidad().get("chilena").getCantidad(),
+				paralelo.getPorNacionalidad().get("chilena").getCantidad());
+		assertEquals(secuencial.getCapacesDeLiquidos().getVolumen(),
+				paralelo.getCapacesDeLiquidos().getVolumen(), 1e-3);
+		assertEquals(control.calcularCapacidadTotal(), paralelo.getTotal().getCapacidad(), 1e-3);
+	}
+
+	private void registrarBarcos(ControlPuerto control) throws BarcoException {
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "colombiana", 250, 'c', 25, false);
+	}
+
+	private void verificarResumen(ResumenCapacidad resumen) {
+		assertEquals(4, resumen.getTotal().getCantidad());
+		assertEquals(675, resumen.getTotal().getCapacidad());
+		assertEquals(1000, resumen.getTotal().getVolumen());
+
+		EstadisticaGrupo colombiana = resumen.getPorNacionalidad().get("colombiana");
+		assertEquals(2, colombiana.getCantidad());
+		assertEquals(250, colombiana.getCapacidad());
+		assertEquals(350, colombiana.getVolumen());
+		assertEquals(3, resumen.getPorNacionalidad().size());
+
+		assertEquals(2, resumen.getPorTipo().get(TipoBarco.VELERO).getCantidad());
+		assertEquals(115, resumen.getPorTipo().get(TipoBarco.VELERO).getCapacidad());
+		assertEquals(560, resumen.getPorTipo().get(TipoBarco.CARGUERO).getCapacidad());
+		assertEquals(1, resumen.getCapacesDeLiquidos().getCantidad());
+		assertEquals(360, resumen.getCapacesDeLiquidos().getCapacidad());
+	}
+
+	/**
+	 * Los grupos se suman con suma compensada: valores pequeños junto a
+	 * uno muy grande no se pierden, y al quitar el grande quedan completos
+	 * (con double sin compensar, el grupo quedaría en 0)
+	 */
+	@Test
+	void testGruposSinErrorDeRedondeo() {
+		ResumenCapacidad resumen = new ResumenCapacidad();
+		Velero grande = new Velero("V-0", "chilena", 2e16, 5);
+		resumen.agregar(grande);
+		for (int i = 1; i <= 1000; i++) {
+			resumen.agregar(new Velero("V-" + i, "chilena", 0.3, 5));
+		}
+		resumen.quitar(grande);
+
+		EstadisticaGrupo chilena = resumen.getPorNacionalidad().get("chilena");
+		assertEquals(1000, chilena.getCantidad());
+		assertEquals(150, chilena.getCapacidad(), 1e-9);
+		assertEquals(300, chilena.getVolumen(), 1e-9);
+		assertEquals(150, resumen.getPorTipo().get(TipoBarco.VELERO).getCapacidad(), 1e-9);
+		assertEquals(resumen.getTotal().getCapacidad(), chilena.getCapacidad());
+		assertEquals(150, resumen.copiar().getTotal().getCapacidad(), 1e-9);
+	}
+}
@@ -0,0 +1,181 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Barco;
+import puertos.persistencia.ColumnasBarcos;
+import puertos.persistencia.FiltroBarcos;
+import puertos.persistencia.ListaBarcos;
+import puertos.persistencia.MapaBarcos;
+import puertos.persistencia.MapaBarcosConcurrente;
+import puertos.persistencia.PaginaBarcos;
+import puertos.persistencia.RepositorioBarcos;
+
+/**
+ * Pruebas de retirar (cuando salen del puerto) y actualizar barcos,
+ * y de que la capacidad, el resumen y los índices sigan correctos.
+ */
+class ControlRetirarBarcoTest {
+
+	/**
+	 * Con los barcos de ControlCalcularCapacidadTest (capacidad total 675),
+	 * en los dos modos
+	 */
+	@Test
+	void testRetirarYActualizar() throws BarcoException {
+		for (boolean incremental : new boolean[] { false, true }) {
+			ControlPuerto control = new ControlPuerto(new MapaBarcos(), incremental);
+			control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+			control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+			control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+			control.adicionarBarco("Car-002", "colombiana", 250, 'c', 25, false);
+
+			assertEquals("Car-001", control.retirarBarco("Car-001").getMatricula());
+			assertEquals(315, control.calcularCapacidadTotal());
+			assertThrows(BarcoException.class, () -> control.retirarBarco("Car-001"));
+			assertNull(control.consultarResumen().getPorNacionalidad().get("peruana"));
+
+			// Car-002 pasa a tener capacidad 500 * 0.8 - 40 = 360
+			control.actualizarBarco("Car-002", "peruana", 500, 'c', 0, true);
+			assertEquals(475, control.calcularCapacidadTotal());
+			assertEquals(1, control.consultarResumen().getPorNacionalidad().get("peruana").getCantidad());
+			assertEquals(360, control.consultarResumen().getCapacesDeLiquidos().getCapacidad());
+			assertEquals("Car-002", control.consultarMayoresCapacidades(1).get(0).getMatricula());
+			assertThrows(BarcoException.class, 
+					() -> control.actualizarBarco("Car-009", "peruana", 500, 'c', 0, true));
+			assertThrows(BarcoException.class, 
+					() -> control.actualizarBarco("Car-002", "peruana", 5000, 'c', 0, true));
+			assertEquals(475, control.calcularCapacidadTotal());
+			assertTrue(control.verificarCapacidadTotal());
+
+			// se puede volver a registrar un barco que salió
+			control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+			assertEquals(835, control.calcularCapacidadTotal());
+		}
+	}
+
+	/**
+	 * Muchas llegadas, salidas y actualizaciones al azar en cada repositorio:
+	 * al final la capacidad acumulada, el resumen, el índice por capacidad y
+	 * las páginas por volumen coinciden con los barcos que quedaron
+	 */
+	@Test
+	void testRotacionDeBarcos() throws BarcoException {
+		List<RepositorioBarcos> repositorios = List.of(new ListaBarcos(), new MapaBarcos(),
+				new MapaBarcosConcurrente(), new ColumnasBarcos());
+		for (RepositorioBarcos repositorio : repositorios) {
+			ControlPuerto control = new ControlPuerto(repositorio, true);
+			ControlPuerto recorrido = new ControlPuerto(repositorio);
+			Random aleatorio = new Random(16);
+			List<String> presentes = new ArrayList<String>();
+			for (int i = 0; i < 20_000; i++) {
+				int operacion = aleatorio.nextInt(10);
+				if (operacion < 5 || presentes.isEmpty()) {
+					String matricula = "B-" + i;
+					control.adicionarBarco(matricula, "mexicana", aleatorio.nextInt(1001),
+							aleatorio.nextBoolean() ? 'v' : 'c', aleatorio.nextInt(40), aleatorio.nextBoolean());
+					presentes.add(matricula);
+				} else if (operacion < 9) {
+					int posicion = aleatorio.nextInt(presentes.size());
+					String matricula = presentes.get(posicion);
+					presentes.set(posicion, presentes.get(presentes.size() - 1));
+					presentes.remove(presentes.size() - 1);
+					assertEquals(matricula, control.retirarBarco(matricula).getMatricula());
+				} else {
+					String matricula = presentes.get(aleatorio.nextInt(presentes.size()));
+					control.actualizarBarco(matricula, "chilena", aleatorio.nextInt(1001),
+							aleatorio.nextBoolean() ? 'v' : 'c', aleatorio.nextInt(40), aleatorio.nextBoolean());
+				}
+			}
+
+			String nombre = repositorio.getClass().getSimpleName();
+			assertEquals(presentes.size(), repositorio.consultarBarcos().size(), nombre);
+			for (String matricula : presentes) {
+				assertNotNull(repositorio.buscarBarco(matricula), nombre);
+			}
+			assertTrue(control.verificarCapacidadTotal(), nombre);
+			assertEquals(presentes.size(), control.consultarResumen().getTotal().getCantidad(), nombre);
+			assertEquals(recorrido.calcularResumen().getPorNacionalidad().get("chilena").getCantidad(),
+					control.consultarResumen().getPorNacionalidad().get("chilena").getCantidad(), nombre);
+			for (double capacidad = 0; capacidad < 800; capacidad += 37.5) {
+				assertEquals(recorrido.contarBarcosConCapacidad(capacidad), 
+						control.contarBarcosConCapacidad(capacidad), nombre);
+			}
+			assertEquals(presentes.size(), contarEnPaginas(repositorio), nombre);
+		}
+	}
+
+	/**
+	 * Varios hilos registran y retiran las mismas matrículas al mismo tiempo
+	 * (un hilo puede retirar un barco apenas otro lo registró): al final el
+	 * resumen y el índice por capacidad coinciden con el repositorio, sin
+	 * grupos con cantidades negativas
+	 */
+	@Test
+	void testLlegadasYSalidasConcurrentes() throws InterruptedException {
+		MapaBarcosConcurrente repositorio = new MapaBarcosConcurrente();
+		ControlPuerto control = new ControlPuerto(repositorio, true);
+		ControlPuerto recorrido = new ControlPuerto(repositorio);
+		List<Thread> hilos = new ArrayList<Thread>();
+		for (int h = 0; h < 4; h++) {
+			int semilla = h;
+			hilos.add(new Thread(() -> {
+				Random aleatorio = new Random(semilla);
+				for (int i = 0; i < 20_000; i++) {
+					String matricula = "B-" + aleatorio.nextInt(50);
+					if (aleatorio.nextBoolean()) {
+						control.registrarBarco(matricula, "N-" + aleatorio.nextInt(3), 100, 'v', 0, false);
+					} else {
+						try {
+							control.retirarBarco(matricula);
+						} catch (BarcoException e) {
+							// otro hilo ya lo retiró
+						}
+					}
+				}
+			}));
+		}
+		for (Thread hilo : hilos) {
+			hilo.start();
+		}
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		ResumenCapacidad resumen = control.consultarResumen();
+		assertEquals(repositorio.consultarBarcos().size(), resumen.getTotal().getCantidad());
+		assertEquals(recorrido.calcularResumen().getPorNacionalidad().keySet(),
+				resumen.getPorNacionalidad().keySet());
+		for (EstadisticaGrupo grupo : resumen.getPorNacionalidad().values()) {
+			assertTrue(grupo.getCantidad() > 0);
+		}
+		assertEquals(repositorio.consultarBarcos().size(), control.contarBarcosConCapacidad(0));
+		assertTrue(control.verificarCapacidadTotal());
+	}
+
+	/**
+	 * Recorre todas las páginas por volumen, verificando que vengan ordenadas
+	 * @return la cantidad de barcos de todas las páginas
+	 */
+	private int contarEnPaginas(RepositorioBarcos repositorio) {
+		int cantidad = 0;
+		double volumenAnterior = -1;
+		String continuacion = null;
+		do {
+			PaginaBarcos pagina = repositorio.consultarPagina(FiltroBarcos.todos(), 700, continuacion);
+			for (Barco barco : pagina.getBarcos()) {
+				assertTrue(barco.getVolumen() >= volumenAnterior);
+				volumenAnterior = barco.getVolumen();
+				cantidad++;
+			}
+			continuacion = pagina.getContinuacion();
+		} while (continuacion != null);
+		return cantidad;
+	}
+}
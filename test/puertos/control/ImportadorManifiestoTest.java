@@ -0,0 +1,265 @@
+package puertos.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.ExportadorBarcos;
+import puertos.persistencia.FormatoExportacion;
+import puertos.persistencia.MapaBarcos;
+
+/**
+ * Pruebas de la importación de manifiestos (ImportadorManifiesto).
+ */
+class ImportadorManifiestoTest {
+
+	@TempDir
+	Path carpeta;
+
+	/**
+	 * Un manifiesto con encabezado, filas correctas (con espacios, con fin
+	 * de línea de Windows y sin los campos opcionales) y filas con distintos
+	 * errores, que deben quedar en el archivo de rechazados
+	 */
+	@Test
+	void testImportarManifiesto() throws IOException, BarcoException {
+		MapaBarcos repositorio = new MapaBarcos();
+		ControlPuerto control = new ControlPuerto(repositorio, true);
+		control.adicionarBarco("245", "peruana", 100, 'v', 5, false);
+		Path manifiesto = escribir("manifiesto.csv",
+				"matricula,nacionalidad,volumen,tipo,pasajeros,liquidos\n"
+				+ "Vel-001,colombiana,100,v,8,false\n"
+				+ "Car-001, peruana , 500.5 ,C,0,true\r\n"
+				+ "\n"
+				+ "Car-002,colombiana,250,c\n"
+				+ "Vel-002,chilena,1x0,v,15,false\n"
+				+ "Bar-001,chilena,100,b,0,false\n"
+				+ "Car-003,canadiense,1500,c,0,false\n"
+				+ "Vel-001,chilena,150,v,15,false\n"
+				+ "245,peruana,100,v,5,false\n"
+				+ "Vel-003,chilena,150\n"
+				+ "Vel-004,chilena,150,v,15,quizas\n"
+				+ "Vel-005,ecuatoriana,80.25,v,2");
+		Path rechazados = carpeta.resolve("rechazados.csv");
+
+		ReporteImportacion reporte = new ImportadorManifiesto(control).importar(manifiesto, rechazados);
+
+		assertEquals(11, reporte.getFilas());
+		assertEquals(4, reporte.getRegistradas());
+		assertEquals(7, reporte.getRechazadas());
+		assertTrue(control.existeMatricula("Vel-005"));
+		assertEquals(500.5, repositorio.buscarBarco("Car-001").getVolumen());
+		assertEquals("peruana", repositorio.buscarBarco("Car-001").getNacionalidad());
+		assertTrue(((Carguero) repositorio.buscarBarco("Car-001")).getLiquidos());
+		assertFalse(((Carguero) repositorio.buscarBarco("Car-002")).getLiquidos());
+		assertEquals(2, ((Velero) repositorio.buscarBarco("Vel-005")).getPasajeros());
+		assertTrue(control.verificarCapacidadTotal());
+
+		List<String> lineas = Files.readAllLines(rechazados, StandardCharsets.UTF_8);
+		assertEquals(List.of("linea,motivo,fila",
+				"6,FORMATO_INCORRECTO,Vel-002,chilena,1x0,v,15,false",
+				"7,TIPO_DESCONOCIDO,Bar-001,chilena,100,b,0,false",
+				"8,VOLUMEN_INCORRECTO,Car-003,canadiense,1500.0,c,0,false",
+				"9,MATRICULA_REPETIDA,Vel-001,chilena,150.0,v,15,false",
+				"10,MATRICULA_REPETIDA,245,peruana,100.0,v,5,false",
+				"11,FORMATO_INCORRECTO,Vel-003,chilena,150",
+				"12,FORMATO_INCORRECTO,Vel-004,chilena,150,v,15,quizas"), lineas);
+	}
+
+	/**
+	 * Con un búfer pequeño muchas líneas quedan partidas entre dos lecturas,
+	 * y con lotes pequeños pasan muchos lotes por las etapas; 
+	 * una línea más larga que el búfer se rechaza
+	 */
+	@Test
+	void testImportarPorPartes() throws IOException {
+		StringBuilder texto = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			texto.append("B-").append(i).append(";mexicana;").append(i % 1000)
+					.append(';').append((i % 2 == 0) ? 'v' : 'c').append(";3;si\n");
+			if (i == 500) {
+				texto.append("X".repeat(100)).append('\n');
+			}
+		}
+		Path manifiesto = escribir("partes.csv", texto.toString());
+		MapaBarcos repositorio = new MapaBarcos();
+		ControlPuerto control = new ControlPuerto(repositorio);
+		ImportadorManifiesto importador = new ImportadorManifiesto(control);
+		importador.setSeparador(';');
+		importador.setTamanoLote(7);
+		importador.setTamanoBufer(64);
+		Path rechazados = carpeta.resolve("rechazados.csv");
+
+		ReporteImportacion reporte = importador.importar(manifiesto, rechazados);
+
+		assertEquals(1001, reporte.getFilas());
+		assertEquals(1000, reporte.getRegistradas());
+		assertEquals(1000, repositorio.consultarBarcos().size());
+		assertEquals(999, repositorio.buscarBarco("B-999").getVolumen());
+		assertTrue(((Carguero) repositorio.buscarBarco("B-1")).getLiquidos());
+		List<String> lineas = Files.readAllLines(rechazados, StandardCharsets.UTF_8);
+		assertEquals(2, lineas.size());
+		assertTrue(lineas.get(1).startsWith("502,LINEA_DEMASIADO_LARGA,XXX"));
+	}
+
+	/**
+	 * Los campos entre comillas pueden tener el separador y comillas
+	 * dobles; si las comillas no se cierran, la fila se rechaza
+	 */
+	@Test
+	void testCamposConComillas() throws IOException {
+		MapaBarcos repositorio = new MapaBarcos();
+		ControlPuerto control = new ControlPuerto(repositorio);
+		Path manifiesto = escribir("comillas.csv",
+				"\"Vel,001\",\"la \"\"otra\"\", costa\" ,100,\"v\",5,false\n"
+				+ "Vel-002,\"chilena,12,v\n"
+				+ "Vel-003,\"chilena\"x,12,v\n");
+		Path rechazados = carpeta.resolve("rechazados.csv");
+
+		ReporteImportacion reporte = new ImportadorManifiesto(control).importar(manifiesto, rechazados);
+
+		assertEquals(3, reporte.getFilas());
+		assertEquals(1, reporte.getRegistradas());
+		assertEquals("la \"otra\", costa", repositorio.buscarBarco("Vel,001").getNacionalidad());
+		List<String> lineas = Files.readAllLines(rechazados, StandardCharsets.UTF_8);
+		assertEquals(List.of("linea,motivo,fila",
+				"2,FORMATO_INCORRECTO,Vel-002,\"chilena,12,v",
+				"3,FORMATO_INCORRECTO,Vel-003,\"chilena\"x,12,v"), lineas);
+	}
+
+	/**
+	 * Lo que escribe ExportadorBarcos en CSV se importa igual, aunque
+	 * los textos tengan comas, comillas o espacios a los lados
+	 */
+	@Test
+	void testImportarLoExportado() throws IOException {
+		MapaBarcos origen = new MapaBarcos();
+		origen.adicionarBarco(new Velero("Vel-001", "la \"otra\", costa", 100, 12));
+		origen.adicionarBarco(new Carguero("Car,001", " peruana ", 500.5, true));
+		origen.adicionarBarco(new Carguero("Car-002", "chilena", 250, false));
+		Path archivo = carpeta.resolve("exportados.csv");
+		new ExportadorBarcos(FormatoExportacion.CSV).exportar(origen, archivo);
+
+		MapaBarcos destino = new MapaBarcos();
+		ReporteImportacion reporte = new ImportadorManifiesto(new ControlPuerto(destino))
+				.importar(archivo, null);
+
+		assertEquals(3, reporte.getRegistradas());
+		for (Barco barco : origen.consultarBarcos()) {
+			Barco importado = destino.buscarBarco(barco.getMatricula());
+			assertEquals(barco.getClass(), importado.getClass());
+			assertEquals(barco.getNacionalidad(), importado.getNacionalidad());
+			assertEquals(barco.getVolumen(), importado.getVolumen());
+		}
+		assertEquals(12, ((Velero) destino.buscarBarco("Vel-001")).getPasajeros());
+		assertTrue(((Carguero) destino.buscarBarco("Car,001")).getLiquidos());
+	}
+
+	/**
+	 * Una nacionalidad null se exporta como un campo vacío y se importa
+	 * como ""; un barco con un salto de línea no se puede exportar a CSV
+	 * (se importaría como dos filas incorrectas)
+	 */
+	@Test
+	void testImportarLoExportadoSinNacionalidad() throws IOException {
+		MapaBarcos origen = new MapaBarcos();
+		origen.adicionarBarco(new Velero("Vel-001", null, 100, 12));
+		origen.adicionarBarco(new Carguero("Car-001", "chilena", 250, true));
+		Path archivo = carpeta.resolve("exportados.csv");
+		new ExportadorBarcos(FormatoExportacion.CSV).exportar(origen, archivo);
+
+		MapaBarcos destino = new MapaBarcos();
+		ReporteImportacion reporte = new ImportadorManifiesto(new ControlPuerto(destino))
+				.importar(archivo, null);
+		assertEquals(2, reporte.getRegistradas());
+		assertEquals("", destino.buscarBarco("Vel-001").getNacionalidad());
+		assertEquals(12, ((Velero) destino.buscarBarco("Vel-001")).getPasajeros());
+		assertEquals("chilena", destino.buscarBarco("Car-001").getNacionalidad());
+
+		origen.adicionarBarco(new Velero("Vel-002", "la otra\ncosta", 100, 12));
+		assertThrows(IOException.class,
+				() -> new ExportadorBarcos(FormatoExportacion.CSV).exportar(origen, archivo));
+		origen.eliminarBarco("Vel-002");
+		origen.adicionarBarco(new Velero("Vel-003\r", "chilena", 100, 12));
+		assertThrows(IOException.class,
+				() -> new ExportadorBarcos(FormatoExportacion.CSV).exportar(origen, archivo));
+		new ExportadorBarcos(FormatoExportacion.JSON).exportar(origen, carpeta.resolve("exportados.json"));
+	}
+
+	/**
+	 * Lectura de números decimales directamente de los bytes
+	 */
+	@Test
+	void testLeerDecimal() {
+		assertEquals(12.5, leerDecimal("12.5"));
+		assertEquals(-0.001, leerDecimal("-0.001"));
+		assertEquals(0.1, leerDecimal(".1"));
+		assertEquals(1000, leerDecimal("1e3"));
+		assertEquals(12345678901234567890.0, leerDecimal("12345678901234567890"));
+		assertTrue(Double.isNaN(leerDecimal("")));
+		assertTrue(Double.isNaN(leerDecimal("-")));
+		assertTrue(Double.isNaN(leerDecimal("1.2.3")));
+		assertTrue(Double.isNaN(leerDecimal("12d")));
+		assertTrue(Double.isNaN(leerDecimal("1f")));
+		assertTrue(Double.isNaN(leerDecimal("NaN")));
+		assertTrue(Double.isNaN(leerDecimal("Infinity")));
+		assertTrue(Double.isNaN(leerDecimal("-Infinity")));
+		assertTrue(Double.isNaN(leerDecimal("1e999")));
+	}
+
+	/**
+	 * Solo se ignora la primera línea si es el encabezado completo (aunque
+	 * tenga otras mayúsculas o espacios); un barco cuya matrícula empieza
+	 * por "matr" se registra, y los volúmenes que Java acepta pero no son
+	 * decimales se rechazan
+	 */
+	@Test
+	void testEncabezadoYVolumenesInvalidos() throws IOException {
+		MapaBarcos repositorio = new MapaBarcos();
+		ControlPuerto control = new ControlPuerto(repositorio);
+		ImportadorManifiesto importador = new ImportadorManifiesto(control);
+		Path sinEncabezado = escribir("sin-encabezado.csv",
+				"matr-01,chilena,100,v,5,false\n"
+				+ "Vel-001,chilena,12d,v,5,false\n"
+				+ "Vel-002,chilena,1f,v,5,false\n"
+				+ "Vel-003,chilena,NaN,v,5,false\n"
+				+ "Vel-004,chilena,Infinity,v,5,false\n");
+
+		ReporteImportacion reporte = importador.importar(sinEncabezado, carpeta.resolve("rechazados.csv"));
+
+		assertEquals(5, reporte.getFilas());
+		assertEquals(1, reporte.getRegistradas());
+		assertNotNull(repositorio.buscarBarco("matr-01"));
+		List<String> lineas = Files.readAllLines(carpeta.resolve("rechazados.csv"), StandardCharsets.UTF_8);
+		assertEquals(5, lineas.size());
+		for (String linea : lineas.subList(1, lineas.size())) {
+			assertTrue(linea.contains(",FORMATO_INCORRECTO,"), linea);
+		}
+
+		Path conEncabezado = escribir("con-encabezado.csv",
+				" Matricula , NACIONALIDAD ,volumen,tipo\n"
+				+ "Car-001,peruana,500,c\n");
+		reporte = importador.importar(conEncabezado, carpeta.resolve("rechazados2.csv"));
+		assertEquals(1, reporte.getFilas());
+		assertEquals(1, reporte.getRegistradas());
+	}
+
+	private double leerDecimal(String texto) {
+		byte[] datos = texto.getBytes(StandardCharsets.US_ASCII);
+		return ImportadorManifiesto.leerDecimal(datos, 0, datos.length);
+	}
+
+	private Path escribir(String nombre, String contenido) throws IOException {
+		return Files.write(carpeta.resolve(nombre), contenido.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,223 @@
+package puertos.eventos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.control.ResultadoRegistro;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+import puertos.persistencia.MapaBarcos;
+import puertos.persistencia.MapaBarcosConcurrente;
+
+/**
+ * Pruebas del canal de eventos y de su uso en ControlPuerto
+ */
+class CanalEventosTest {
+
+	/**
+	 * Con cada estrategia de espera y un canal pequeño (así que quien
+	 * publica tiene que esperar), todas las suscripciones reciben todos
+	 * los eventos, en orden y sin saltos, por lotes
+	 */
+	@Test
+	void testTodosLosEventosEnOrden() {
+		for (EstrategiaEspera estrategia : EstrategiaEspera.values()) {
+			CanalEventos canal = new CanalEventos(64, estrategia, true);
+			List<Suscripcion> suscripciones = new ArrayList<Suscripcion>();
+			List<AtomicLong> siguientes = new ArrayList<AtomicLong>();
+			for (int i = 0; i < 3; i++) {
+				AtomicLong siguiente = new AtomicLong();
+				siguientes.add(siguiente);
+				suscripciones.add(canal.suscribir((evento, finDeLote) -> {
+					if (evento.getSecuencia() == siguiente.get()) {
+						siguiente.incrementAndGet();
+					}
+				}, 16));
+			}
+			Velero velero = new Velero("V-1", "chilena", 100, 2);
+			for (int i = 0; i < 10000; i++) {
+				assertTrue(canal.publicar(TipoEvento.LLEGADA, velero));
+			}
+			for (int i = 0; i < 3; i++) {
+				Suscripcion suscripcion = suscripciones.get(i);
+				esperarHasta(() -> suscripcion.getProcesados() == 10000);
+				assertEquals(10000, siguientes.get(i).get(), estrategia.name());
+				assertEquals(9999, suscripcion.getSecuencia());
+				assertTrue(suscripcion.getLotes() >= 10000 / 16);
+				suscripcion.cancelar();
+			}
+			assertEquals(0, canal.getSuscripciones());
+			assertEquals(10000, canal.getPublicados());
+			assertEquals(0, canal.getDescartados());
+		}
+	}
+
+	/**
+	 * Si no se espera con el canal lleno, los eventos que no caben se
+	 * descartan (la suscripción está detenida en el primero)
+	 */
+	@Test
+	void testDescartarSiLleno() throws InterruptedException {
+		CanalEventos canal = new CanalEventos(4, EstrategiaEspera.DORMIR, false);
+		CountDownLatch detenida = new CountDownLatch(1);
+		Suscripcion suscripcion = canal.suscribir((evento, finDeLote) -> {
+			try {
+				detenida.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, 1);
+		int publicados = 0;
+		for (int i = 0; i < 10; i++) {
+			if (canal.publicar(TipoEvento.SALIDA, null)) {
+				publicados++;
+			}
+		}
+		assertEquals(4, publicados);
+		assertEquals(6, canal.getDescartados());
+		detenida.countDown();
+		esperarHasta(() -> suscripcion.getProcesados() == 4);
+		assertTrue(canal.publicar(TipoEvento.SALIDA, null));
+		suscripcion.cancelar();
+	}
+
+	/**
+	 * Quien publica con el canal lleno espera a la suscripción atrasada,
+	 * y deja de esperarla cuando se cancela; las excepciones del consumidor
+	 * se cuentan y no detienen la suscripción
+	 */
+	@Test
+	void testCancelarMientrasSeEspera() throws InterruptedException {
+		CanalEventos canal = new CanalEventos(2, EstrategiaEspera.BLOQUEAR, true);
+		CountDownLatch continuar = new CountDownLatch(1);
+		Suscripcion[] lenta = new Suscripcion[1];
+		lenta[0] = canal.suscribir((evento, finDeLote) -> {
+			if (evento.getSecuencia() == 0) {
+				throw new IllegalStateException("falla del consumidor");
+			}
+			try {
+				continuar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			lenta[0].cancelar();
+		}, 1);
+		Thread publicador = new Thread(() -> {
+			for (int i = 0; i < 100; i++) {
+				canal.publicar(TipoEvento.LLEGADA, null);
+			}
+		});
+		publicador.start();
+		publicador.join(200);
+		assertTrue(publicador.isAlive());
+		continuar.countDown();
+		publicador.join(5000);
+		assertFalse(publicador.isAlive());
+		assertEquals(100, canal.getPublicados());
+		assertEquals(1, lenta[0].getErrores());
+		assertEquals(0, canal.getSuscripciones());
+	}
+
+	/**
+	 * ControlPuerto publica las llegadas (también las de un lote), las
+	 * salidas y las actualizaciones, pero no los rechazos
+	 */
+	@Test
+	void testEventosDeControlPuerto() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		CanalEventos canal = new CanalEventos(1024, EstrategiaEspera.BLOQUEAR, true);
+		control.usarEventos(canal);
+		List<String> recibidos = Collections.synchronizedList(new ArrayList<String>());
+		Suscripcion suscripcion = canal.suscribir((evento, finDeLote) ->
+				recibidos.add(evento.getTipo() + " " + evento.getBarco().getMatricula()), 100);
+
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Vel-001", "chilena", 50, 'v', 1, false));
+		control.adicionarBarcos(Arrays.asList(new Carguero("Car-001", "peruana", 500, true),
+				new Carguero("Car-002", "peruana", 5000, true)));
+		control.actualizarBarco("Vel-001", "colombiana", 120, 'v', 8, false);
+		control.retirarBarco("Car-001");
+
+		esperarHasta(() -> recibidos.size() == 4);
+		assertEquals(Arrays.asList("LLEGADA Vel-001", "LLEGADA Car-001", "ACTUALIZACION Vel-001",
+				"SALIDA Car-001"), recibidos);
+		suscripcion.cancelar();
+	}
+
+	/**
+	 * Con varios hilos registrando y retirando las mismas matrículas, los
+	 * eventos de cada barco salen en el orden de los cambios: llegada,
+	 * salida, llegada... (nunca dos llegadas o dos salidas seguidas)
+	 */
+	@Test
+	void testEventosEnOrdenPorBarco() throws InterruptedException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcosConcurrente());
+		CanalEventos canal = new CanalEventos(1 << 16, EstrategiaEspera.BLOQUEAR, true);
+		control.usarEventos(canal);
+		Map<String, TipoEvento> ultimos = new HashMap<String, TipoEvento>();
+		List<String> desordenados = Collections.synchronizedList(new ArrayList<String>());
+		AtomicLong recibidos = new AtomicLong();
+		Suscripcion suscripcion = canal.suscribir((evento, finDeLote) -> {
+			String matricula = evento.getBarco().getMatricula();
+			TipoEvento anterior = ultimos.put(matricula, evento.getTipo());
+			TipoEvento esperado = (anterior == TipoEvento.LLEGADA) ? TipoEvento.SALIDA : TipoEvento.LLEGADA;
+			if (evento.getTipo() != esperado) {
+				desordenados.add(evento.toString());
+			}
+			recibidos.incrementAndGet();
+		}, 100);
+
+		AtomicLong publicados = new AtomicLong();
+		List<Thread> hilos = new ArrayList<Thread>();
+		for (int h = 0; h < 4; h++) {
+			hilos.add(new Thread(() -> {
+				for (int i = 0; i < 5000; i++) {
+					String matricula = "B-" + (i % 20);
+					if (control.registrarBarco(matricula, "chilena", 100, 'v', 1, false)
+							== ResultadoRegistro.REGISTRADO) {
+						publicados.incrementAndGet();
+					}
+					try {
+						control.retirarBarco(matricula);
+						publicados.incrementAndGet();
+					} catch (BarcoException e) {
+						// otro hilo ya lo retiró
+					}
+				}
+			}));
+		}
+		for (Thread hilo : hilos) {
+			hilo.start();
+		}
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		esperarHasta(() -> recibidos.get() == publicados.get());
+		assertEquals(Collections.emptyList(), desordenados);
+		suscripcion.cancelar();
+	}
+
+	private static void esperarHasta(BooleanSupplier condicion) {
+		long limite = System.currentTimeMillis() + 10000;
+		while (!condicion.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < limite, "Se acabó el tiempo de espera");
+			Thread.onSpinWait();
+			Thread.yield();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package puertos.metricas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la precisión del histograma de tiempos
+ */
+class HistogramaLatenciaTest {
+
+	/**
+	 * Cada valor queda en una casilla cuyo valor máximo es mayor o igual,
+	 * con error relativo menor que 1/64, y las casillas van en orden
+	 */
+	@Test
+	void testCasillas() {
+		Random aleatorio = new Random(5);
+		for (int i = 0; i < 100000; i++) {
+			long valor = (long) Math.exp(aleatorio.nextDouble() * Math.log(HistogramaLatencia.MAXIMO));
+			int indice = HistogramaLatencia.indice(valor);
+			long maximo = HistogramaLatencia.valorMaximo(indice);
+			assertTrue(maximo >= valor);
+			assertTrue(maximo - valor <= valor / 64, "valor " + valor);
+			if (indice > 0) {
+				assertTrue(HistogramaLatencia.valorMaximo(indice - 1) < valor);
+			}
+		}
+		assertEquals(HistogramaLatencia.CASILLAS - 1, HistogramaLatencia.indice(HistogramaLatencia.MAXIMO));
+		assertEquals(HistogramaLatencia.MAXIMO, 
+				HistogramaLatencia.valorMaximo(HistogramaLatencia.CASILLAS - 1));
+	}
+
+	/**
+	 * Los percentiles comparados con los de los valores ordenados
+	 */
+	@Test
+	void testPercentiles() {
+		HistogramaLatencia histograma = new HistogramaLatencia();
+		Random aleatorio = new Random(7);
+		long[] valores = new long[50000];
+		long suma = 0;
+		for (int i = 0; i < valores.length; i++) {
+			valores[i] = 1000 + (long) (Math.abs(aleatorio.nextGaussian()) * 20000);
+			histograma.registrar(valores[i]);
+			suma += valores[i];
+		}
+		Arrays.sort(valores);
+		InstantaneaHistograma instantanea = histograma.tomarInstantanea();
+		assertEquals(valores.length, instantanea.getCantidad());
+		assertEquals((double) suma / valores.length, instantanea.getPromedio(), 1e-6);
+		assertEquals(valores[valores.length - 1], instantanea.getMaximo());
+		for (double percentil : new double[] { 1, 50, 90, 99, 99.9, 100 }) {
+			long esperado = valores[(int) Math.ceil(percentil / 100 * valores.length) - 1];
+			long obtenido = instantanea.getPercentil(percentil);
+			assertTrue(obtenido >= esperado && obtenido - esperado <= esperado / 64,
+					"percentil " + percentil + ": " + obtenido + " en lugar de " + esperado);
+		}
+
+		histograma.reiniciar();
+		assertEquals(0, histograma.tomarInstantanea().getCantidad());
+		assertEquals(0, histograma.tomarInstantanea().getPercentil(99));
+	}
+}
@@ -0,0 +1,179 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del repositorio en archivo (ArchivoBarcos), incluyendo la
+ * recuperación cuando el archivo queda con un registro incompleto.
+ */
+class ArchivoBarcosTest {
+
+	@TempDir
+	Path carpeta;
+
+	/**
+	 * Los barcos guardados se deben cargar al abrir de nuevo el archivo,
+	 * en el mismo orden y con los mismos datos
+	 */
+	@Test
+	void testGuardarYCargar() throws IOException {
+		Path archivo = carpeta.resolve("barcos.log");
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.cadaEscritura())) {
+			assertTrue(repositorio.adicionarBarco(new Velero("V-01", "colombiana", 100, 12)));
+			assertTrue(repositorio.adicionarBarcos(List.of(
+					new Carguero("C-01", "peruana", 500, true),
+					new Carguero("C-02", "ñandú", 250, false))));
+			assertFalse(repositorio.adicionarBarco(new Velero("V-01", "chilena", 10, 1)));
+		}
+
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.nunca())) {
+			List<Barco> barcos = repositorio.consultarBarcos();
+			assertEquals(3, barcos.size());
+			Velero velero = (Velero) barcos.get(0);
+			assertEquals("V-01", velero.getMatricula());
+			assertEquals("colombiana", velero.getNacionalidad());
+			assertEquals(12, velero.getPasajeros());
+			Carguero carguero = (Carguero) repositorio.buscarBarco("C-01");
+			assertTrue(carguero.getLiquidos());
+			assertEquals(500, carguero.getVolumen());
+			assertEquals("ñandú", barcos.get(2).getNacionalidad());
+			assertEquals(0, repositorio.getBytesDescartados());
+		}
+	}
+
+	/**
+	 * Las actualizaciones y eliminaciones también quedan en el archivo
+	 * y se aplican al abrirlo de nuevo
+	 */
+	@Test
+	void testActualizarYEliminar() throws IOException {
+		Path archivo = carpeta.resolve("barcos.log");
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.cadaEscritura())) {
+			repositorio.adicionarBarco(new Velero("V-01", "colombiana", 100, 12));
+			repositorio.adicionarBarco(new Carguero("C-01", "peruana", 500, true));
+			repositorio.adicionarBarco(new Carguero("C-02", "chilena", 250, false));
+			assertEquals("C-01", repositorio.eliminarBarco("C-01").getMatricula());
+			assertNull(repositorio.eliminarBarco("C-01"));
+			assertEquals(100, repositorio.actualizarBarco(new Velero("V-01", "colombiana", 80, 3))
+					.getVolumen());
+			assertNull(repositorio.actualizarBarco(new Velero("V-09", "colombiana", 80, 3)));
+		}
+
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.nunca())) {
+			List<Barco> barcos = repositorio.consultarBarcos();
+			assertEquals(2, barcos.size());
+			assertEquals("V-01", barcos.get(0).getMatricula());
+			assertEquals(80, barcos.get(0).getVolumen());
+			assertEquals(3, ((Velero) barcos.get(0)).getPasajeros());
+			assertNull(repositorio.buscarBarco("C-01"));
+			assertEquals(0, repositorio.getBytesDescartados());
+		}
+	}
+
+	/**
+	 * Si el último registro quedó a medio escribir, se descarta (y se corta
+	 * el archivo) sin perder los anteriores; luego se puede seguir escribiendo
+	 */
+	@Test
+	void testRecuperarRegistroIncompleto() throws IOException {
+		Path archivo = carpeta.resolve("barcos.log");
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.cadaRegistros(10))) {
+			repositorio.adicionarBarco(new Velero("V-01", "colombiana", 100, 12));
+			repositorio.adicionarBarco(new Carguero("C-01", "peruana", 500, true));
+		}
+		long tamanoCompleto = Files.size(archivo);
+		try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+			canal.truncate(tamanoCompleto - 5);
+		}
+
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.cadaEscritura())) {
+			assertEquals(1, repositorio.consultarBarcos().size());
+			assertNull(repositorio.buscarBarco("C-01"));
+			assertTrue(repositorio.getBytesDescartados() > 0);
+			repositorio.adicionarBarco(new Carguero("C-02", "chilena", 300, false));
+		}
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.cadaEscritura())) {
+			assertEquals(2, repositorio.consultarBarcos().size());
+			assertNotNull(repositorio.buscarBarco("C-02"));
+			assertEquals(0, repositorio.getBytesDescartados());
+		}
+	}
+
+	/**
+	 * Si el último registro tiene bytes cambiados (la suma de verificación
+	 * no coincide), también se descarta
+	 */
+	@Test
+	void testRecuperarRegistroDanado() throws IOException {
+		Path archivo = carpeta.resolve("barcos.log");
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.cadaIntervalo(10))) {
+			repositorio.adicionarBarco(new Velero("V-01", "colombiana", 100, 12));
+			repositorio.adicionarBarco(new Carguero("C-01", "peruana", 500, true));
+		}
+		try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+			canal.write(ByteBuffer.wrap(new byte[] {'X'}), Files.size(archivo) - 3);
+		}
+
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.cadaEscritura())) {
+			assertEquals(1, repositorio.consultarBarcos().size());
+			assertNotNull(repositorio.buscarBarco("V-01"));
+		}
+	}
+
+	/**
+	 * Mientras otro hilo adiciona barcos, la lista consultada no cambia
+	 * (es una copia) y los recorridos no fallan
+	 */
+	@Test
+	void testConsultarMientrasSeAdiciona() throws IOException, InterruptedException {
+		Path archivo = carpeta.resolve("barcos.log");
+		try (ArchivoBarcos repositorio = new ArchivoBarcos(archivo, 
+				PoliticaSincronizacion.nunca())) {
+			repositorio.adicionarBarco(new Velero("V-0", "colombiana", 100, 12));
+			List<Barco> consultados = repositorio.consultarBarcos();
+			Thread escritor = new Thread(() -> {
+				for (int i = 1; i < 2000; i++) {
+					repositorio.adicionarBarco(new Velero("V-" + i, "colombiana", 100, 12));
+				}
+			});
+			escritor.start();
+			while (escritor.isAlive()) {
+				int[] cantidad = new int[1];
+				repositorio.recorrerBarcos(barco -> cantidad[0]++);
+				assertTrue(cantidad[0] > 0);
+				assertTrue(repositorio.calcularCapacidadTotal() >= 40);
+				for (Barco barco : repositorio.consultarBarcos()) {
+					assertNotNull(barco);
+				}
+			}
+			escritor.join();
+			assertEquals(1, consultados.size());
+			assertEquals(2000, repositorio.consultarBarcos().size());
+			assertEquals(2000 * 40, repositorio.calcularCapacidadTotal(), 1e-9);
+		}
+	}
+}
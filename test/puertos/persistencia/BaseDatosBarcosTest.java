@@ -0,0 +1,175 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del repositorio en base de datos (con H2 en memoria)
+ */
+class BaseDatosBarcosTest {
+	private static int numeroBase;
+
+	private BaseDatosBarcos repositorio;
+
+	@BeforeEach
+	void crearBaseDatos() throws SQLException {
+		repositorio = new BaseDatosBarcos("jdbc:h2:mem:barcos" + (numeroBase++));
+	}
+
+	@AfterEach
+	void cerrarBaseDatos() {
+		repositorio.close();
+	}
+
+	/**
+	 * Un barco guardado se encuentra con todos sus datos;
+	 * la misma matrícula no se puede guardar dos veces
+	 */
+	@Test
+	void testAdicionarYBuscar() {
+		assertTrue(repositorio.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8)));
+		assertTrue(repositorio.adicionarBarco(new Carguero("Car-001", "peruana", 500.5, true)));
+		assertFalse(repositorio.adicionarBarco(new Velero("Vel-001", "chilena", 50, 2)));
+		assertFalse(repositorio.adicionarSiNoExiste(new Carguero("Car-001", "chilena", 50, false)));
+
+		Velero velero = (Velero) repositorio.buscarBarco("Vel-001");
+		assertEquals("colombiana", velero.getNacionalidad());
+		assertEquals(100, velero.getVolumen());
+		assertEquals(8, velero.getPasajeros());
+		Carguero carguero = (Carguero) repositorio.buscarBarco("Car-001");
+		assertEquals(500.5, carguero.getVolumen());
+		assertTrue(carguero.getLiquidos());
+		assertNull(repositorio.buscarBarco("Car-009"));
+		assertEquals(2, repositorio.consultarBarcos().size());
+	}
+
+	/**
+	 * La capacidad que se calcula en la base de datos es la misma de
+	 * los barcos (con un velero de más de 10 pasajeros, un carguero con
+	 * líquidos y barcos tan pequeños que su capacidad sería negativa)
+	 */
+	@Test
+	void testCalcularCapacidad() {
+		assertEquals(0, repositorio.calcularCapacidadTotal());
+		List<Barco> flota = Arrays.asList(new Velero("Vel-001", "colombiana", 100, 8),
+				new Velero("Vel-002", "chilena", 150, 15), new Carguero("Car-001", "peruana", 500, true),
+				new Carguero("Car-002", "mexicana", 250, false));
+		repositorio.adicionarBarcos(flota);
+		assertEquals(675, repositorio.calcularCapacidadTotal(), 1e-9);
+
+		repositorio.adicionarBarco(new Velero("Vel-003", "chilena", 12, 20));
+		repositorio.adicionarBarco(new Carguero("Car-003", "chilena", 30, true));
+		assertEquals(675, repositorio.calcularCapacidadTotal(), 1e-9);
+		double capacidad = 0;
+		for (Barco barco : repositorio.consultarBarcos()) {
+			capacidad += barco.calcularCapacidad();
+		}
+		assertEquals(capacidad, repositorio.calcularCapacidadTotal(), 1e-9);
+	}
+
+	/**
+	 * Retirar y actualizar devuelven el barco anterior; el barco
+	 * actualizado conserva su lugar en el orden de llegada
+	 */
+	@Test
+	void testEliminarYActualizar() {
+		repositorio.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8));
+		repositorio.adicionarBarco(new Carguero("Car-001", "peruana", 500, true));
+		repositorio.adicionarBarco(new Velero("Vel-002", "chilena", 150, 15));
+
+		Barco anterior = repositorio.actualizarBarco(new Carguero("Vel-001", "colombiana", 300, false));
+		assertEquals(100, anterior.getVolumen());
+		assertTrue(repositorio.buscarBarco("Vel-001") instanceof Carguero);
+		assertNull(repositorio.actualizarBarco(new Velero("Vel-009", "chilena", 10, 1)));
+		assertEquals("Vel-001", repositorio.consultarBarcos().get(0).getMatricula());
+
+		assertEquals(500, repositorio.eliminarBarco("Car-001").getVolumen());
+		assertNull(repositorio.eliminarBarco("Car-001"));
+		assertNull(repositorio.buscarBarco("Car-001"));
+		assertEquals(Arrays.asList("Vel-001", "Vel-002"), matriculas(repositorio.consultarBarcos()));
+	}
+
+	/**
+	 * Un lote grande (que no es múltiplo de las filas por inserción) se
+	 * guarda completo y en orden; si un barco del lote está repetido,
+	 * no se guarda ninguno
+	 */
+	@Test
+	void testAdicionarLote() {
+		List<Barco> flota = new ArrayList<Barco>();
+		for (int i = 0; i < 1000; i++) {
+			flota.add((i % 2 == 0) ? new Velero("V-" + i, "colombiana", i, i % 20)
+					: new Carguero("C-" + i, "peruana", i, i % 3 == 0));
+		}
+		assertTrue(repositorio.adicionarBarcos(flota));
+		assertEquals(matriculas(flota), matriculas(repositorio.consultarBarcos()));
+
+		List<Barco> repetidos = new ArrayList<Barco>();
+		for (int i = 0; i < BaseDatosBarcos.FILAS_POR_INSERCION + 5; i++) {
+			repetidos.add(new Velero("N-" + i, "chilena", 10, 1));
+		}
+		repetidos.add(new Velero("V-500", "chilena", 10, 1));
+		assertFalse(repositorio.adicionarBarcos(repetidos));
+		assertEquals(1000, repositorio.consultarBarcos().size());
+		assertNull(repositorio.buscarBarco("N-0"));
+		assertTrue(repositorio.adicionarBarcos(repetidos.subList(0, 3)));
+		assertEquals(1003, repositorio.consultarBarcos().size());
+	}
+
+	/**
+	 * Si se pierde la conexión, las adiciones lanzan la excepción (no
+	 * retornan false como si la matrícula estuviera repetida)
+	 */
+	@Test
+	void testAdicionarSinConexion() throws SQLException {
+		Connection conexion = DriverManager.getConnection("jdbc:h2:mem:barcos" + (numeroBase++));
+		BaseDatosBarcos sinConexion = new BaseDatosBarcos(conexion);
+		conexion.close();
+
+		assertThrows(IllegalStateException.class,
+				() -> sinConexion.adicionarBarco(new Velero("Vel-001", "chilena", 100, 2)));
+		assertThrows(IllegalStateException.class,
+				() -> sinConexion.adicionarBarcos(Arrays.asList(new Velero("Vel-002", "chilena", 100, 2))));
+	}
+
+	/**
+	 * ControlPuerto funciona igual con la base de datos
+	 */
+	@Test
+	void testConControlPuerto() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(repositorio);
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "mexicana", 250, 'c', 25, false);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Vel-001", "chilena", 50, 'v', 1, false));
+		assertEquals(675, control.calcularCapacidadTotal(), 1e-9);
+		control.retirarBarco("Car-001");
+		assertEquals(675 - 360, control.calcularCapacidadTotal(), 1e-9);
+	}
+
+	private List<String> matriculas(List<Barco> barcos) {
+		List<String> matriculas = new ArrayList<String>();
+		for (Barco barco : barcos) {
+			matriculas.add(barco.getMatricula());
+		}
+		return matriculas;
+	}
+}
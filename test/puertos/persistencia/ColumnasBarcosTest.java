@@ -0,0 +1,141 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del repositorio por columnas (ColumnasBarcos).
+ */
+class ColumnasBarcosTest {
+
+	/**
+	 * La capacidad calculada sobre las columnas debe ser la misma que con
+	 * los objetos (mismos casos de ControlCalcularCapacidadTest, más uno
+	 * con capacidad cero)
+	 * @throws BarcoException 
+	 */
+	@Test
+	void testCalcularCapacidad() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new ColumnasBarcos());
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "mexicano", 250, 'c', 25, false);
+		control.adicionarBarco("Car-003", "mexicano", 30, 'c', 25, true);
+		assertEquals(675, control.calcularCapacidadTotal());
+		assertEquals(675, control.recalcularCapacidadTotal());
+	}
+
+	/**
+	 * Al crecer los arreglos se conservan los datos, el orden y la búsqueda
+	 */
+	@Test
+	void testCrecerConservaDatos() {
+		ColumnasBarcos repositorio = new ColumnasBarcos(1);
+		for (int i = 0; i < 1000; i++) {
+			Barco barco = (i % 2 == 0) 
+					? new Velero("V-" + i, "colombiana", i, i % 20)
+					: new Carguero("C-" + i, "peruana", i, i % 3 == 0);
+			assertTrue(repositorio.adicionarBarco(barco));
+		}
+		assertFalse(repositorio.adicionarBarco(new Velero("V-10", "chilena", 1, 1)));
+
+		List<Barco> barcos = repositorio.consultarBarcos();
+		assertEquals(1000, barcos.size());
+		Carguero carguero = (Carguero) barcos.get(999);
+		assertEquals("C-999", carguero.getMatricula());
+		assertEquals("peruana", carguero.getNacionalidad());
+		assertTrue(carguero.getLiquidos());
+		Velero velero = (Velero) repositorio.buscarBarco("V-998");
+		assertEquals(998, velero.getVolumen());
+		assertEquals(18, velero.getPasajeros());
+		assertNull(repositorio.buscarBarco("V-999"));
+	}
+
+	/**
+	 * Las matrículas se guardan en bytes: se encuentran también las que no
+	 * son ASCII o son largas (más de 127 bytes), y después de eliminar
+	 * barcos y compactar se siguen encontrando y ocupan menos bytes
+	 */
+	@Test
+	void testMatriculasEnBytes() {
+		ColumnasBarcos repositorio = new ColumnasBarcos(1);
+		String larga = "L-" + "0123456789".repeat(20);
+		repositorio.adicionarBarco(new Velero("Ñandú-1", "paraguaya", 100, 2));
+		repositorio.adicionarBarco(new Carguero(larga, null, 300, true));
+		for (int i = 0; i < 500; i++) {
+			repositorio.adicionarBarco(new Velero("V-" + i, "chilena", i, 1));
+		}
+		assertEquals("paraguaya", repositorio.buscarBarco("Ñandú-1").getNacionalidad());
+		assertNull(repositorio.buscarBarco("Ñandu-1"));
+		assertNull(repositorio.buscarBarco(larga).getNacionalidad());
+		assertNull(repositorio.buscarBarco(larga + "1"));
+		assertFalse(repositorio.adicionarBarco(new Velero(larga, "chilena", 1, 1)));
+
+		int bytesAntes = repositorio.getBytesMatriculas();
+		for (int i = 0; i < 500; i += 2) {
+			assertNotNull(repositorio.eliminarBarco("V-" + i));
+		}
+		repositorio.eliminarBarco("Ñandú-1");
+		assertEquals(251, repositorio.consultarBarcos().size());
+		assertTrue(repositorio.getBytesMatriculas() < bytesAntes);
+		assertEquals(larga, repositorio.consultarBarcos().get(0).getMatricula());
+		assertEquals(499, repositorio.buscarBarco("V-499").getVolumen());
+		assertNull(repositorio.buscarBarco("V-498"));
+		assertNull(repositorio.buscarBarco("Ñandú-1"));
+		assertTrue(repositorio.adicionarBarco(new Velero("Ñandú-1", "paraguaya", 50, 2)));
+		assertEquals(50, repositorio.buscarBarco("Ñandú-1").getVolumen());
+	}
+
+	/**
+	 * Un barco actualizado (que queda por reubicar en el orden por volumen)
+	 * y luego eliminado no deja su marca pendiente: las páginas siguen
+	 * saliendo completas y ordenadas
+	 */
+	@Test
+	void testEliminarBarcoActualizado() {
+		ColumnasBarcos repositorio = new ColumnasBarcos();
+		repositorio.adicionarBarco(new Velero("A", "chilena", 100, 1));
+		repositorio.adicionarBarco(new Velero("B", "chilena", 200, 1));
+		repositorio.adicionarBarco(new Velero("C", "chilena", 300, 1));
+		assertEquals(3, repositorio.consultarPagina(FiltroBarcos.todos(), 10, null).getBarcos().size());
+		repositorio.actualizarBarco(new Velero("B", "chilena", 400, 1));
+		repositorio.actualizarBarco(new Velero("C", "chilena", 50, 1));
+		assertNotNull(repositorio.eliminarBarco("B"));
+
+		List<Barco> barcos = repositorio.consultarPagina(FiltroBarcos.todos(), 10, null).getBarcos();
+		assertEquals(2, barcos.size());
+		assertEquals("C", barcos.get(0).getMatricula());
+		assertEquals("A", barcos.get(1).getMatricula());
+	}
+
+	/**
+	 * Una continuación sigue sirviendo después de eliminar barcos (y
+	 * compactar): no se salta los de igual volumen que cambiaron de fila
+	 */
+	@Test
+	void testContinuacionDespuesDeEliminar() {
+		ColumnasBarcos repositorio = new ColumnasBarcos();
+		for (String matricula : new String[] { "A", "B", "C", "D" }) {
+			repositorio.adicionarBarco(new Velero(matricula, "chilena", 100, 1));
+		}
+		PaginaBarcos primera = repositorio.consultarPagina(FiltroBarcos.todos(), 2, null);
+		assertEquals("B", primera.getBarcos().get(1).getMatricula());
+		repositorio.eliminarBarco("A");
+
+		List<Barco> segunda = repositorio.consultarPagina(FiltroBarcos.todos(), 2,
+				primera.getContinuacion()).getBarcos();
+		assertEquals(2, segunda.size());
+		assertEquals("C", segunda.get(0).getMatricula());
+		assertEquals("D", segunda.get(1).getMatricula());
+	}
+}
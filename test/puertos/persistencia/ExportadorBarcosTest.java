@@ -0,0 +1,111 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import puertos.control.ControlPuerto;
+import puertos.control.ImportadorManifiesto;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas de la exportación de barcos a CSV y JSON (ExportadorBarcos).
+ */
+class ExportadorBarcosTest {
+
+	@TempDir
+	Path carpeta;
+
+	/**
+	 * Los barcos se exportan en orden, con el formato del manifiesto;
+	 * los textos con comas o comillas van entre comillas
+	 */
+	@Test
+	void testExportarCsv() throws IOException {
+		Path archivo = carpeta.resolve("barcos.csv");
+		long cantidad = new ExportadorBarcos(FormatoExportacion.CSV)
+				.exportar(crearRepositorio(), archivo);
+
+		assertEquals(3, cantidad);
+		assertEquals(List.of("matricula,nacionalidad,volumen,tipo,pasajeros,liquidos",
+				"Vel-001,colombiana,100,v,8,false",
+				"Car-001,\"Perú, \"\"del sur\"\"\",500.5,c,0,true",
+				"Vel-ñ,São Tomé 🚢,0.1,v,0,false"),
+				Files.readAllLines(archivo, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * El JSON tiene un objeto por barco, con los textos escapados
+	 */
+	@Test
+	void testExportarJson() throws IOException {
+		Path archivo = carpeta.resolve("barcos.json");
+		new ExportadorBarcos(FormatoExportacion.JSON).exportar(crearRepositorio(), archivo);
+
+		assertEquals("[\n"
+				+ "{\"matricula\":\"Vel-001\",\"nacionalidad\":\"colombiana\",\"volumen\":100,"
+				+ "\"tipo\":\"velero\",\"pasajeros\":8},\n"
+				+ "{\"matricula\":\"Car-001\",\"nacionalidad\":\"Perú, \\\"del sur\\\"\",\"volumen\":500.5,"
+				+ "\"tipo\":\"carguero\",\"liquidos\":true},\n"
+				+ "{\"matricula\":\"Vel-ñ\",\"nacionalidad\":\"São Tomé 🚢\",\"volumen\":0.1,"
+				+ "\"tipo\":\"velero\",\"pasajeros\":0}\n"
+				+ "]\n", Files.readString(archivo, StandardCharsets.UTF_8));
+		assertEquals("[\n]\n", exportarVacio(FormatoExportacion.JSON));
+	}
+
+	/**
+	 * Con muchos barcos (varias veces el tamaño del búfer), el archivo
+	 * comprimido con gzip se puede leer y tiene todos los barcos, y se puede
+	 * volver a importar como manifiesto
+	 */
+	@Test
+	void testExportarComprimidoEImportar() throws IOException {
+		MapaBarcosConcurrente repositorio = new MapaBarcosConcurrente();
+		for (int i = 0; i < 50_000; i++) {
+			repositorio.adicionarBarco((i % 2 == 0)
+					? new Velero("B-" + i, "mexicana", i % 1000, i % 20)
+					: new Carguero("B-" + i, "panameña", (i % 1000) + 0.25, i % 3 == 0));
+		}
+		Path comprimido = carpeta.resolve("barcos.csv.gz");
+		ExportadorBarcos exportador = new ExportadorBarcos(FormatoExportacion.CSV);
+		exportador.setComprimir(true);
+		assertEquals(50_000, exportador.exportar(repositorio, comprimido));
+
+		Path archivo = carpeta.resolve("barcos.csv");
+		try (InputStream entrada = new GZIPInputStream(Files.newInputStream(comprimido))) {
+			Files.copy(entrada, archivo);
+		}
+		List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+		assertEquals(50_001, lineas.size());
+		assertEquals("B-49999,panameña,999.25,c,0,false", lineas.get(50_000));
+
+		MapaBarcos importados = new MapaBarcos();
+		new ImportadorManifiesto(new ControlPuerto(importados)).importar(archivo, null);
+		assertEquals(50_000, importados.consultarBarcos().size());
+		assertEquals(repositorio.calcularCapacidadTotal(), importados.calcularCapacidadTotal(), 1e-6);
+	}
+
+	private RepositorioBarcos crearRepositorio() {
+		ListaBarcos repositorio = new ListaBarcos();
+		repositorio.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8));
+		repositorio.adicionarBarco(new Carguero("Car-001", "Perú, \"del sur\"", 500.5, true));
+		repositorio.adicionarBarco(new Velero("Vel-ñ", "São Tomé 🚢", 0.1, 0));
+		return repositorio;
+	}
+
+	private String exportarVacio(FormatoExportacion formato) throws IOException {
+		Path archivo = carpeta.resolve("vacio");
+		new ExportadorBarcos(formato).exportar(new ListaBarcos(), archivo);
+		return Files.readString(archivo, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,55 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del filtro de Bloom escalable
+ */
+class FiltroBloomTest {
+
+	/**
+	 * Nunca hay falsos negativos, aunque se adicionen muchas más matrículas
+	 * que la capacidad inicial (el filtro crece con más capas), y la tasa
+	 * de falsos positivos queda cerca de la configurada
+	 */
+	@Test
+	void testCrecerSinFalsosNegativos() {
+		FiltroBloom filtro = new FiltroBloom(1000, 0.01);
+		for (int i = 0; i < 50000; i++) {
+			filtro.adicionar("B-" + i);
+		}
+		for (int i = 0; i < 50000; i++) {
+			assertTrue(filtro.puedeContener("B-" + i));
+		}
+		assertTrue(filtro.getCapas() > 1);
+		assertTrue(filtro.estimarTasaFalsosPositivos() <= 0.01);
+
+		int falsosPositivos = 0;
+		for (int i = 0; i < 100000; i++) {
+			if (filtro.puedeContener("X-" + i)) {
+				falsosPositivos++;
+			}
+		}
+		assertTrue(falsosPositivos < 100000 * 0.015, "falsos positivos: " + falsosPositivos);
+	}
+
+	/**
+	 * Con la capacidad bien estimada hay una sola capa, de unos 9.6 bits
+	 * por matrícula para una tasa del 1 % (más lo de la mitad de la tasa)
+	 */
+	@Test
+	void testTamano() {
+		FiltroBloom filtro = new FiltroBloom(10000, 0.01);
+		for (int i = 0; i < 10000; i++) {
+			filtro.adicionar("B-" + i);
+		}
+		assertEquals(1, filtro.getCapas());
+		assertEquals(10000, filtro.getCantidad(), 50);
+		assertTrue(filtro.getBits() < 10000 * 12);
+		assertFalse(new FiltroBloom(10, 0.01).puedeContener("B-1"));
+		assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(10, 1));
+		assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+	}
+}
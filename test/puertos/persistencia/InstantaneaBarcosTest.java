@@ -0,0 +1,134 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas de la instantánea binaria de barcos (InstantaneaBarcos).
+ */
+class InstantaneaBarcosTest {
+
+	@TempDir
+	Path carpeta;
+
+	/**
+	 * Se guarda una instantánea y al cargarla se obtienen los mismos barcos,
+	 * en el mismo orden
+	 */
+	@Test
+	void testGuardarYCargar() throws IOException {
+		MapaBarcos original = new MapaBarcos();
+		original.adicionarBarco(new Velero("V-01", "colombiana", 100, 12));
+		original.adicionarBarco(new Carguero("C-01", "peruana", 500, true));
+		original.adicionarBarco(new Carguero("C-02", "colombiana", 250.5, false));
+		Path archivo = carpeta.resolve("barcos.snap");
+		InstantaneaBarcos.guardar(original, archivo);
+
+		InstantaneaBarcos instantanea = InstantaneaBarcos.cargar(archivo);
+		List<Barco> barcos = instantanea.consultarBarcos();
+		assertEquals(3, barcos.size());
+		Velero velero = (Velero) barcos.get(0);
+		assertEquals("V-01", velero.getMatricula());
+		assertEquals("colombiana", velero.getNacionalidad());
+		assertEquals(12, velero.getPasajeros());
+		assertEquals(100, velero.getVolumen());
+		Carguero carguero = (Carguero) instantanea.buscarBarco("C-02");
+		assertEquals("colombiana", carguero.getNacionalidad());
+		assertEquals(250.5, carguero.getVolumen());
+		assertFalse(carguero.getLiquidos());
+		assertTrue(((Carguero) instantanea.buscarBarco("C-01")).getLiquidos());
+		assertNull(instantanea.buscarBarco("C-03"));
+	}
+
+	/**
+	 * Un barco de la instantánea que se elimina deja de aparecer (y se
+	 * puede volver a adicionar); uno actualizado queda con los adicionados
+	 */
+	@Test
+	void testEliminarYActualizar() throws IOException {
+		MapaBarcos original = new MapaBarcos();
+		original.adicionarBarco(new Velero("V-01", "colombiana", 100, 12));
+		original.adicionarBarco(new Carguero("C-01", "peruana", 500, true));
+		original.adicionarBarco(new Carguero("C-02", "colombiana", 250, false));
+		Path archivo = carpeta.resolve("barcos.snap");
+		InstantaneaBarcos.guardar(original, archivo);
+
+		InstantaneaBarcos instantanea = InstantaneaBarcos.cargar(archivo);
+		assertEquals("C-01", instantanea.eliminarBarco("C-01").getMatricula());
+		assertNull(instantanea.eliminarBarco("C-01"));
+		assertNull(instantanea.buscarBarco("C-01"));
+		assertEquals(100, instantanea.actualizarBarco(new Velero("V-01", "chilena", 60, 2))
+				.getVolumen());
+		List<Barco> barcos = instantanea.consultarBarcos();
+		assertEquals(2, barcos.size());
+		assertEquals("C-02", barcos.get(0).getMatricula());
+		assertEquals("chilena", barcos.get(1).getNacionalidad());
+		assertEquals(200 + 30, instantanea.calcularCapacidadTotal());
+
+		assertTrue(instantanea.adicionarBarco(new Carguero("C-01", "peruana", 100, false)));
+		assertEquals(3, instantanea.consultarBarcos().size());
+	}
+
+	/**
+	 * Con ControlPuerto se pueden adicionar barcos después de cargar, 
+	 * sin repetir las matrículas de la instantánea, y se incluyen
+	 * al guardar una nueva instantánea
+	 * @throws BarcoException 
+	 */
+	@Test
+	void testAdicionarDespuesDeCargar() throws IOException, BarcoException {
+		MapaBarcos original = new MapaBarcos();
+		original.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8));
+		Path archivo = carpeta.resolve("barcos.snap");
+		InstantaneaBarcos.guardar(original, archivo);
+
+		InstantaneaBarcos instantanea = InstantaneaBarcos.cargar(archivo);
+		ControlPuerto control = new ControlPuerto(instantanea);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Vel-001", "chilena", 150, 'v', 15, false));
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		assertEquals(50 + 65 + 360, control.calcularCapacidadTotal());
+
+		Path nuevo = carpeta.resolve("barcos-2.snap");
+		instantanea.guardar(nuevo);
+		InstantaneaBarcos recargada = InstantaneaBarcos.cargar(nuevo);
+		assertEquals(3, recargada.getCantidadInstantanea());
+		assertEquals("Car-001", recargada.consultarBarcos().get(2).getMatricula());
+	}
+
+	/**
+	 * Una instantánea sin barcos también se puede guardar y cargar
+	 */
+	@Test
+	void testInstantaneaVacia() throws IOException {
+		Path archivo = carpeta.resolve("vacia.snap");
+		InstantaneaBarcos.guardar(new ListaBarcos(), archivo);
+		InstantaneaBarcos instantanea = InstantaneaBarcos.cargar(archivo);
+		assertTrue(instantanea.consultarBarcos().isEmpty());
+		assertNull(instantanea.buscarBarco("123"));
+	}
+
+	/**
+	 * Un archivo que no es una instantánea no se puede cargar
+	 */
+	@Test
+	void testArchivoInvalido() throws IOException {
+		Path archivo = carpeta.resolve("otro.txt");
+		Files.writeString(archivo, "no es una instantánea de barcos");
+		assertThrows(IOException.class, () -> InstantaneaBarcos.cargar(archivo));
+	}
+}
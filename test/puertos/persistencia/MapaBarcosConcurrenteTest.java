@@ -0,0 +1,157 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+
+/**
+ * Pruebas del repositorio concurrente, registrando barcos desde varios hilos.
+ */
+class MapaBarcosConcurrenteTest {
+
+	private static final int HILOS = 8;
+	private static final int MATRICULAS = 20_000;
+
+	/**
+	 * Varias terminales intentan registrar las mismas matrículas al mismo
+	 * tiempo: cada matrícula solo se debe registrar una vez, y las demás
+	 * terminales deben recibir BarcoException.
+	 * Mientras tanto, otro hilo calcula la capacidad total.
+	 */
+	@Test
+	void testRegistroConcurrente() throws InterruptedException {
+		MapaBarcosConcurrente repositorio = new MapaBarcosConcurrente();
+		ControlPuerto control = new ControlPuerto(repositorio, true);
+		AtomicInteger registrados = new AtomicInteger();
+		AtomicInteger rechazados = new AtomicInteger();
+		CountDownLatch inicio = new CountDownLatch(1);
+
+		List<Thread> terminales = new ArrayList<Thread>();
+		for (int h = 0; h < HILOS; h++) {
+			terminales.add(new Thread(() -> {
+				esperar(inicio);
+				for (int i = 0; i < MATRICULAS; i++) {
+					try {
+						control.adicionarBarco("B-" + i, "colombiana", i % 1000, 
+								(i % 2 == 0) ? 'v' : 'c', i % 20, i % 3 == 0);
+						registrados.incrementAndGet();
+					} catch (BarcoException repetido) {
+						rechazados.incrementAndGet();
+					}
+				}
+			}));
+		}
+		Thread lector = new Thread(() -> {
+			esperar(inicio);
+			while (registrados.get() < MATRICULAS) {
+				assertTrue(control.recalcularCapacidadTotal() >= 0);
+			}
+		});
+		terminales.forEach(Thread::start);
+		lector.start();
+		inicio.countDown();
+		for (Thread terminal : terminales) {
+			terminal.join();
+		}
+		lector.join();
+
+		assertEquals(MATRICULAS, registrados.get());
+		assertEquals(MATRICULAS * (HILOS - 1), rechazados.get());
+		List<Barco> barcos = repositorio.consultarBarcos();
+		assertEquals(MATRICULAS, barcos.size());
+		Set<String> matriculas = new HashSet<String>();
+		for (Barco barco : barcos) {
+			assertTrue(matriculas.add(barco.getMatricula()));
+		}
+		assertTrue(control.verificarCapacidadTotal());
+	}
+
+	/**
+	 * adicionarSiNoExiste no guarda una matrícula que ya existe
+	 */
+	@Test
+	void testAdicionarSiNoExiste() throws BarcoException {
+		MapaBarcosConcurrente repositorio = new MapaBarcosConcurrente();
+		ControlPuerto control = new ControlPuerto(repositorio);
+		control.adicionarBarco("245", "peruana", 100, 'v', 5, false);
+		Barco original = repositorio.buscarBarco("245");
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("245", "peruana", 300, 'c', 0, false));
+		assertFalse(repositorio.adicionarSiNoExiste(original));
+		assertSame(original, repositorio.buscarBarco("245"));
+		assertEquals(1, repositorio.consultarBarcos().size());
+	}
+
+	/**
+	 * Varias terminales registran y retiran las mismas matrículas al mismo
+	 * tiempo: al final, la lista, el índice por matrícula, el índice por
+	 * volumen y la capacidad acumulada deben tener los mismos barcos
+	 */
+	@Test
+	void testRetiroConcurrente() throws InterruptedException {
+		MapaBarcosConcurrente repositorio = new MapaBarcosConcurrente();
+		ControlPuerto control = new ControlPuerto(repositorio, true);
+		CountDownLatch inicio = new CountDownLatch(1);
+
+		List<Thread> terminales = new ArrayList<Thread>();
+		for (int h = 0; h < HILOS; h++) {
+			int terminal = h;
+			terminales.add(new Thread(() -> {
+				esperar(inicio);
+				for (int i = 0; i < MATRICULAS; i++) {
+					String matricula = "B-" + (i % 500);
+					try {
+						if ((i + terminal) % 3 == 0) {
+							control.retirarBarco(matricula);
+						} else {
+							control.adicionarBarco(matricula, "colombiana", i % 1000, 
+									(i % 2 == 0) ? 'v' : 'c', i % 20, i % 3 == 0);
+						}
+					} catch (BarcoException noExisteORepetido) {
+						// otra terminal lo registró o lo retiró antes
+					}
+				}
+			}));
+		}
+		terminales.forEach(Thread::start);
+		inicio.countDown();
+		for (Thread terminal : terminales) {
+			terminal.join();
+		}
+
+		List<Barco> barcos = repositorio.consultarBarcos();
+		for (Barco barco : barcos) {
+			assertSame(barco, repositorio.buscarBarco(barco.getMatricula()));
+		}
+		int enPaginas = 0;
+		String continuacion = null;
+		do {
+			PaginaBarcos pagina = repositorio.consultarPagina(FiltroBarcos.todos(), 100, continuacion);
+			enPaginas += pagina.getBarcos().size();
+			continuacion = pagina.getContinuacion();
+		} while (continuacion != null);
+		assertEquals(barcos.size(), enPaginas);
+		assertTrue(control.verificarCapacidadTotal());
+		assertEquals(barcos.size(), control.consultarResumen().getTotal().getCantidad());
+		assertEquals(barcos.size(), control.contarBarcosConCapacidad(0));
+	}
+
+	private static void esperar(CountDownLatch inicio) {
+		try {
+			inicio.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
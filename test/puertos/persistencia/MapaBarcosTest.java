@@ -0,0 +1,102 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del repositorio con índice por matrícula (MapaBarcos).
+ */
+class MapaBarcosTest {
+
+	/**
+	 * Se busca un barco que existe y otro que no
+	 */
+	@Test
+	void testBuscarBarco() {
+		MapaBarcos repositorio = new MapaBarcos();
+		Velero velero = new Velero("V-01", "colombiana", 100, 4);
+		repositorio.adicionarBarco(velero);
+		assertSame(velero, repositorio.buscarBarco("V-01"));
+		assertNull(repositorio.buscarBarco("V-02"));
+	}
+
+	/**
+	 * Los barcos se deben consultar en el orden en que se adicionaron
+	 */
+	@Test
+	void testConsultarEnOrden() {
+		MapaBarcos repositorio = new MapaBarcos();
+		Barco primero = new Carguero("C-09", "chilena", 300, false);
+		Barco segundo = new Velero("A-01", "peruana", 50, 2);
+		repositorio.adicionarBarco(primero);
+		repositorio.adicionarBarco(segundo);
+		assertEquals(List.of(primero, segundo), repositorio.consultarBarcos());
+	}
+
+	/**
+	 * Al eliminar y actualizar barcos, los demás conservan su orden
+	 * (también después de compactar la lista)
+	 */
+	@Test
+	void testEliminarYActualizarEnOrden() {
+		MapaBarcos repositorio = new MapaBarcos();
+		for (int i = 0; i < 10; i++) {
+			repositorio.adicionarBarco(new Velero("V-0" + i, "colombiana", 100 + i, 4));
+		}
+		assertEquals("V-03", repositorio.eliminarBarco("V-03").getMatricula());
+		assertNull(repositorio.eliminarBarco("V-03"));
+		assertNull(repositorio.buscarBarco("V-03"));
+		Barco nuevo = new Carguero("V-05", "chilena", 300, false);
+		assertEquals(105, repositorio.actualizarBarco(nuevo).getVolumen());
+		assertSame(nuevo, repositorio.buscarBarco("V-05"));
+		for (int i = 6; i < 10; i++) {
+			repositorio.eliminarBarco("V-0" + i);
+		}
+
+		List<Barco> barcos = repositorio.consultarBarcos();
+		assertEquals(5, barcos.size());
+		assertEquals("V-04", barcos.get(3).getMatricula());
+		assertSame(nuevo, barcos.get(4));
+		assertEquals(nuevo, repositorio.consultarPagina(FiltroBarcos.todos(), 10, null)
+				.getBarcos().get(4));
+	}
+
+	/**
+	 * No se guarda un segundo barco con la misma matrícula
+	 */
+	@Test
+	void testAdicionarMatriculaRepetida() {
+		MapaBarcos repositorio = new MapaBarcos();
+		Barco original = new Velero("V-01", "colombiana", 100, 4);
+		assertTrue(repositorio.adicionarBarco(original));
+		assertFalse(repositorio.adicionarBarco(new Carguero("V-01", "chilena", 300, true)));
+		assertSame(original, repositorio.buscarBarco("V-01"));
+		assertEquals(1, repositorio.consultarBarcos().size());
+	}
+
+	/**
+	 * El control del puerto funciona igual que con ListaBarcos
+	 * (mismos casos de ControlCalcularCapacidadTest)
+	 * @throws BarcoException 
+	 */
+	@Test
+	void testControlPuertoConMapa() throws BarcoException {
+		ControlPuerto control = new ControlPuerto(new MapaBarcos());
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "mexicano", 250, 'c', 25, false);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Car-002", "mexicano", 250, 'c', 25, false));
+		assertEquals(675, control.calcularCapacidadTotal());
+	}
+}
@@ -0,0 +1,72 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del diccionario de nacionalidades (y de su uso en ColumnasBarcos)
+ */
+class NacionalidadesTest {
+
+	/**
+	 * La misma nacionalidad (aunque sean textos diferentes) tiene el mismo
+	 * código y se decodifica siempre con el mismo String; null se conserva
+	 */
+	@Test
+	void testMismoCodigo() {
+		Nacionalidades diccionario = new Nacionalidades();
+		int codigo = diccionario.codificar(new String("islandesa"));
+		assertEquals(codigo, diccionario.codificar(new String("islandesa")));
+		assertNotEquals(codigo, diccionario.codificar("noruega"));
+		assertEquals("islandesa", diccionario.decodificar(codigo));
+		assertSame(diccionario.decodificar(codigo), diccionario.decodificar(codigo));
+		assertEquals(Nacionalidades.SIN_NACIONALIDAD, diccionario.codificar(null));
+		assertNull(diccionario.decodificar(Nacionalidades.SIN_NACIONALIDAD));
+	}
+
+	/**
+	 * Se pueden adicionar muchas nacionalidades (el arreglo de nombres
+	 * crece) y todas se decodifican
+	 */
+	@Test
+	void testMuchasNacionalidades() {
+		Nacionalidades diccionario = new Nacionalidades();
+		int[] codigos = new int[100];
+		for (int i = 0; i < codigos.length; i++) {
+			codigos[i] = diccionario.codificar("país " + i);
+		}
+		for (int i = 0; i < codigos.length; i++) {
+			assertEquals("país " + i, diccionario.decodificar(codigos[i]));
+		}
+		assertEquals(100, diccionario.getCantidad());
+	}
+
+	/**
+	 * Los barcos de un ColumnasBarcos con la misma nacionalidad comparten el
+	 * String, y cuando se eliminan los barcos con nacionalidades que ya no
+	 * se usan, el diccionario no las conserva
+	 */
+	@Test
+	void testDiccionarioDelRepositorio() {
+		ColumnasBarcos repositorio = new ColumnasBarcos();
+		repositorio.adicionarBarco(new Velero("V-1", new String("islandesa"), 100, 2));
+		repositorio.adicionarBarco(new Carguero("C-1", new String("islandesa"), 200, false));
+		assertSame(repositorio.buscarBarco("V-1").getNacionalidad(),
+				repositorio.buscarBarco("C-1").getNacionalidad());
+
+		for (int i = 0; i < 1000; i++) {
+			repositorio.adicionarBarco(new Velero("P-" + i, "país " + i, 100, 2));
+		}
+		assertEquals(1001, repositorio.getCantidadNacionalidades());
+		for (int i = 0; i < 1000; i++) {
+			repositorio.eliminarBarco("P-" + i);
+		}
+		assertEquals(2, repositorio.consultarBarcos().size());
+		assertEquals(1, repositorio.getCantidadNacionalidades());
+		assertEquals("islandesa", repositorio.buscarBarco("C-1").getNacionalidad());
+	}
+}
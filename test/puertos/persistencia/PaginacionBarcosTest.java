@@ -0,0 +1,146 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas de la consulta por páginas (consultarPagina) en todos los repositorios.
+ */
+class PaginacionBarcosTest {
+
+	@TempDir
+	Path carpeta;
+
+	/**
+	 * Recorriendo todas las páginas (con y sin filtro) se obtienen los mismos
+	 * barcos, en el mismo orden (por volumen y por llegada), en todos los
+	 * repositorios; hay muchos barcos con el mismo volumen
+	 */
+	@Test
+	void testPaginasEnTodosLosRepositorios() throws IOException, SQLException {
+		List<Barco> flota = crearFlota(1000);
+		List<RepositorioBarcos> repositorios = new ArrayList<RepositorioBarcos>();
+		repositorios.add(new ListaBarcos());
+		repositorios.add(new MapaBarcos());
+		repositorios.add(new MapaBarcosConcurrente());
+		repositorios.add(new ColumnasBarcos());
+		ArchivoBarcos archivo = new ArchivoBarcos(carpeta.resolve("barcos.log"),
+				PoliticaSincronizacion.nunca());
+		repositorios.add(archivo);
+		BaseDatosBarcos baseDatos = new BaseDatosBarcos("jdbc:h2:mem:paginacion");
+		repositorios.add(baseDatos);
+		for (RepositorioBarcos repositorio : repositorios) {
+			repositorio.adicionarBarcos(flota);
+		}
+		MapaBarcos primeros = new MapaBarcos();
+		primeros.adicionarBarcos(flota.subList(0, 600));
+		InstantaneaBarcos.guardar(primeros, carpeta.resolve("barcos.snap"));
+		InstantaneaBarcos instantanea = InstantaneaBarcos.cargar(carpeta.resolve("barcos.snap"));
+		instantanea.adicionarBarcos(flota.subList(600, flota.size()));
+		repositorios.add(instantanea);
+
+		FiltroBarcos cargueros = FiltroBarcos.todos().soloTipo(Carguero.class).conVolumenEntre(100, 350.5);
+		FiltroBarcos veleros = FiltroBarcos.todos().soloTipo(Velero.class);
+		for (RepositorioBarcos repositorio : repositorios) {
+			String nombre = repositorio.getClass().getSimpleName();
+			assertEquals(esperados(flota, FiltroBarcos.todos()),
+					recorrerPaginas(repositorio, FiltroBarcos.todos(), 64), nombre);
+			assertEquals(esperados(flota, cargueros), recorrerPaginas(repositorio, cargueros, 7), nombre);
+			assertEquals(esperados(flota, veleros), recorrerPaginas(repositorio, veleros, 1000), nombre);
+			assertFalse(repositorio.consultarPagina(veleros, 1000, null).hayMas(), nombre);
+		}
+		archivo.close();
+		baseDatos.close();
+	}
+
+	/**
+	 * Una página vacía y un rango sin barcos no tienen continuación;
+	 * una continuación dañada o un tamaño de página no positivo son errores
+	 */
+	@Test
+	void testCasosEspeciales() {
+		MapaBarcos repositorio = new MapaBarcos();
+		assertTrue(repositorio.consultarPagina(FiltroBarcos.todos(), 10, null).getBarcos().isEmpty());
+		repositorio.adicionarBarcos(crearFlota(10));
+		PaginaBarcos pagina = repositorio.consultarPagina(
+				FiltroBarcos.todos().conVolumenEntre(5000, 6000), 10, null);
+		assertTrue(pagina.getBarcos().isEmpty());
+		assertNull(pagina.getContinuacion());
+		assertThrows(IllegalArgumentException.class,
+				() -> repositorio.consultarPagina(FiltroBarcos.todos(), 10, "no es una continuación"));
+		assertThrows(IllegalArgumentException.class,
+				() -> new ListaBarcos().consultarPagina(FiltroBarcos.todos(), 0, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> FiltroBarcos.todos().conVolumenEntre(10, 5));
+	}
+
+	/**
+	 * La lista de consultarBarcos no se puede modificar desde afuera
+	 */
+	@Test
+	void testListaNoModificable() {
+		ListaBarcos lista = new ListaBarcos();
+		lista.adicionarBarco(new Velero("V-01", "colombiana", 100, 5));
+		assertThrows(UnsupportedOperationException.class, 
+				() -> lista.consultarBarcos().add(new Velero("V-02", "chilena", 100, 5)));
+		assertThrows(UnsupportedOperationException.class, () -> new MapaBarcos().consultarBarcos().clear());
+		assertEquals(1, lista.consultarBarcos().size());
+	}
+
+	private List<Barco> crearFlota(int cantidad) {
+		List<Barco> flota = new ArrayList<Barco>();
+		for (int i = 0; i < cantidad; i++) {
+			double volumen = (i * 37) % 600 + ((i % 5 == 0) ? 0.5 : 0);
+			flota.add((i % 3 == 0) ? new Velero("V-" + i, "colombiana", volumen, i % 30)
+					: new Carguero("C-" + i, "peruana", volumen, i % 2 == 0));
+		}
+		return flota;
+	}
+
+	/**
+	 * @return las matrículas de los barcos que cumplen el filtro, ordenados
+	 * 		por volumen (el ordenamiento de List es estable, así que con el 
+	 * 		mismo volumen quedan en orden de llegada)
+	 */
+	private List<String> esperados(List<Barco> flota, FiltroBarcos filtro) {
+		List<Barco> barcos = new ArrayList<Barco>();
+		for (Barco barco : flota) {
+			if (filtro.cumple(barco)) {
+				barcos.add(barco);
+			}
+		}
+		barcos.sort(Comparator.comparingDouble(Barco::getVolumen));
+		List<String> matriculas = new ArrayList<String>();
+		for (Barco barco : barcos) {
+			matriculas.add(barco.getMatricula());
+		}
+		return matriculas;
+	}
+
+	private List<String> recorrerPaginas(RepositorioBarcos repositorio, FiltroBarcos filtro, int tamano) {
+		List<String> matriculas = new ArrayList<String>();
+		String continuacion = null;
+		do {
+			PaginaBarcos pagina = repositorio.consultarPagina(filtro, tamano, continuacion);
+			assertTrue(pagina.getBarcos().size() <= tamano);
+			for (Barco barco : pagina.getBarcos()) {
+				matriculas.add(barco.getMatricula());
+			}
+			continuacion = pagina.getContinuacion();
+		} while (continuacion != null);
+		return matriculas;
+	}
+}
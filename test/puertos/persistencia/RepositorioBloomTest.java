@@ -0,0 +1,156 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del repositorio con filtro de Bloom para las matrículas
+ */
+class RepositorioBloomTest {
+
+	/**
+	 * Repositorio que cuenta las búsquedas que le llegan
+	 */
+	private static class MapaContado extends MapaBarcos {
+		private int busquedas;
+
+		@Override
+		public Barco buscarBarco(String matricula) {
+			busquedas++;
+			return super.buscarBarco(matricula);
+		}
+	}
+
+	/**
+	 * Repositorio lento: cada adición espera a que lleguen las dos, y
+	 * solo la acepta si llegaron a la vez
+	 */
+	private static class MapaLento extends MapaBarcosConcurrente {
+		private CountDownLatch adiciones = new CountDownLatch(2);
+
+		@Override
+		public boolean adicionarBarco(Barco barco) {
+			adiciones.countDown();
+			try {
+				if (!adiciones.await(2, TimeUnit.SECONDS)) {
+					return false;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			return super.adicionarBarco(barco);
+		}
+	}
+
+	/**
+	 * El filtro se llena con los barcos que ya había; las matrículas que no
+	 * existen casi nunca llegan al repositorio original, y las que existen
+	 * (también las adicionadas después) siempre se encuentran
+	 */
+	@Test
+	void testDescartarInexistentes() {
+		MapaContado mapa = new MapaContado();
+		for (int i = 0; i < 1000; i++) {
+			mapa.adicionarBarco(new Velero("V-" + i, "chilena", 100, 5));
+		}
+		RepositorioBloom repositorio = new RepositorioBloom(mapa, 100, 0.01);
+		List<Barco> nuevos = new ArrayList<Barco>();
+		for (int i = 0; i < 1000; i++) {
+			nuevos.add(new Carguero("C-" + i, "peruana", 200, false));
+		}
+		repositorio.adicionarBarcos(nuevos);
+		repositorio.adicionarBarco(new Carguero("C-1000", "peruana", 200, true));
+
+		for (int i = 0; i < 1000; i++) {
+			assertNotNull(repositorio.buscarBarco("V-" + i));
+			assertNotNull(repositorio.buscarBarco("C-" + i));
+		}
+		assertNotNull(repositorio.buscarBarco("C-1000"));
+		mapa.busquedas = 0;
+		for (int i = 0; i < 10000; i++) {
+			assertNull(repositorio.buscarBarco("X-" + i));
+		}
+		assertTrue(mapa.busquedas < 150, "búsquedas: " + mapa.busquedas);
+		assertEquals(mapa.busquedas, repositorio.getFalsosPositivos());
+		assertEquals(10000 - mapa.busquedas, repositorio.getDescartes());
+	}
+
+	/**
+	 * Un barco eliminado sigue en el filtro hasta que se reconstruye
+	 */
+	@Test
+	void testReconstruir() {
+		MapaContado mapa = new MapaContado();
+		RepositorioBloom repositorio = new RepositorioBloom(mapa, 100, 0.01);
+		repositorio.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8));
+		assertEquals(100, repositorio.eliminarBarco("Vel-001").getVolumen());
+		assertEquals(1, repositorio.getEliminados());
+		assertNull(repositorio.buscarBarco("Vel-001"));
+		assertEquals(1, mapa.busquedas);
+
+		repositorio.reconstruir();
+		assertEquals(0, repositorio.getEliminados());
+		assertEquals(0, repositorio.getFiltro().getCantidad());
+		assertNull(repositorio.buscarBarco("Vel-001"));
+		assertEquals(1, mapa.busquedas);
+	}
+
+	/**
+	 * ControlPuerto rechaza las matrículas repetidas igual que sin filtro,
+	 * y al registrar barcos nuevos no busca en el repositorio original
+	 */
+	@Test
+	void testConControlPuerto() throws BarcoException {
+		MapaContado mapa = new MapaContado();
+		ControlPuerto control = new ControlPuerto(new RepositorioBloom(mapa, 100, 0.001));
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 150, 'v', 15, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		control.adicionarBarco("Car-002", "mexicana", 250, 'c', 25, false);
+		assertEquals(0, mapa.busquedas);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Car-001", "chilena", 50, 'c', 1, false));
+		assertEquals(4, mapa.consultarBarcos().size());
+		assertEquals(675, control.calcularCapacidadTotal());
+	}
+
+	/**
+	 * Dos adiciones llegan al repositorio original a la vez: el filtro no
+	 * las pone en fila mientras el repositorio lento las guarda
+	 */
+	@Test
+	void testAdicionesConcurrentes() throws InterruptedException {
+		RepositorioBloom repositorio = new RepositorioBloom(new MapaLento(), 100, 0.01);
+		boolean[] adicionados = new boolean[2];
+		List<Thread> hilos = new ArrayList<Thread>();
+		for (int i = 0; i < 2; i++) {
+			int hilo = i;
+			hilos.add(new Thread(() -> {
+				adicionados[hilo] = repositorio.adicionarBarco(new Velero("Vel-" + hilo, "chilena", 100, 5));
+			}));
+		}
+		for (Thread hilo : hilos) {
+			hilo.start();
+		}
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+		assertTrue(adicionados[0]);
+		assertTrue(adicionados[1]);
+		assertNotNull(repositorio.buscarBarco("Vel-0"));
+		assertNotNull(repositorio.buscarBarco("Vel-1"));
+	}
+}
@@ -0,0 +1,163 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del cache de búsquedas por matrícula
+ */
+class RepositorioCacheTest {
+
+	/**
+	 * Repositorio que cuenta las búsquedas que le llegan
+	 */
+	private static class MapaContado extends MapaBarcos {
+		private int busquedas;
+
+		@Override
+		public Barco buscarBarco(String matricula) {
+			busquedas++;
+			return super.buscarBarco(matricula);
+		}
+	}
+
+	/**
+	 * La segunda búsqueda de una matrícula (exista o no) no llega
+	 * al repositorio original
+	 */
+	@Test
+	void testAciertos() {
+		MapaContado mapa = new MapaContado();
+		mapa.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8));
+		RepositorioCache cache = new RepositorioCache(mapa, LimiteCache.porEntradas(10));
+
+		assertEquals(100, cache.buscarBarco("Vel-001").getVolumen());
+		assertNull(cache.buscarBarco("Car-009"));
+		assertEquals(100, cache.buscarBarco("Vel-001").getVolumen());
+		assertNull(cache.buscarBarco("Car-009"));
+		assertNull(cache.buscarBarco("Car-009"));
+		assertEquals(2, mapa.busquedas);
+		assertEquals(1, cache.getAciertos());
+		assertEquals(2, cache.getAciertosNegativos());
+		assertEquals(2, cache.getFallos());
+		assertEquals(0.6, cache.getTasaAciertos(), 1e-9);
+		assertEquals(2, cache.getEntradas());
+	}
+
+	/**
+	 * Adicionar, actualizar y eliminar sacan la matrícula del cache,
+	 * así que la siguiente búsqueda ve el cambio
+	 */
+	@Test
+	void testEscriturasInvalidan() {
+		MapaContado mapa = new MapaContado();
+		RepositorioCache cache = new RepositorioCache(mapa, LimiteCache.porEntradas(10));
+		assertNull(cache.buscarBarco("Vel-001"));
+		assertTrue(cache.adicionarBarco(new Velero("Vel-001", "colombiana", 100, 8)));
+		assertEquals(100, cache.buscarBarco("Vel-001").getVolumen());
+
+		cache.actualizarBarco(new Velero("Vel-001", "colombiana", 120, 8));
+		assertEquals(120, cache.buscarBarco("Vel-001").getVolumen());
+		assertEquals(120, cache.eliminarBarco("Vel-001").getVolumen());
+		assertNull(cache.buscarBarco("Vel-001"));
+
+		assertNull(cache.buscarBarco("Car-001"));
+		cache.adicionarBarcos(Arrays.asList(new Carguero("Car-001", "peruana", 500, true),
+				new Carguero("Car-002", "peruana", 250, false)));
+		assertNotNull(cache.buscarBarco("Car-001"));
+		assertFalse(cache.adicionarSiNoExiste(new Carguero("Car-001", "chilena", 10, false)));
+		assertEquals(500, cache.buscarBarco("Car-001").getVolumen());
+
+		mapa.eliminarBarco("Car-001");
+		assertNotNull(cache.buscarBarco("Car-001"));
+		cache.invalidar("Car-001");
+		assertNull(cache.buscarBarco("Car-001"));
+		assertEquals(0, cache.getDesalojos());
+	}
+
+	/**
+	 * Al pasar el límite de entradas sale la que hace más tiempo no se usa
+	 */
+	@Test
+	void testLimitePorEntradas() {
+		MapaContado mapa = new MapaContado();
+		for (int i = 1; i <= 4; i++) {
+			mapa.adicionarBarco(new Velero("V-" + i, "chilena", 10 * i, 1));
+		}
+		RepositorioCache cache = new RepositorioCache(mapa, LimiteCache.porEntradas(3));
+		cache.buscarBarco("V-1");
+		cache.buscarBarco("V-2");
+		cache.buscarBarco("V-3");
+		cache.buscarBarco("V-1");
+		cache.buscarBarco("V-4");
+		assertEquals(3, cache.getEntradas());
+		assertEquals(1, cache.getDesalojos());
+
+		mapa.busquedas = 0;
+		cache.buscarBarco("V-1");
+		cache.buscarBarco("V-3");
+		cache.buscarBarco("V-4");
+		assertEquals(0, mapa.busquedas);
+		cache.buscarBarco("V-2");
+		assertEquals(1, mapa.busquedas);
+	}
+
+	/**
+	 * Con límite por memoria, los bytes estimados nunca pasan el límite;
+	 * las matrículas inexistentes ocupan menos que los barcos
+	 */
+	@Test
+	void testLimitePorBytes() {
+		MapaBarcos mapa = new MapaBarcos();
+		for (int i = 0; i < 100; i++) {
+			mapa.adicionarBarco(new Carguero("C-" + i, "peruana", i, false));
+		}
+		Barco barco = mapa.buscarBarco("C-1");
+		long porBarco = RepositorioCache.estimarBytes("C-1", barco);
+		assertTrue(RepositorioCache.estimarBytes("C-1", null) < porBarco);
+
+		RepositorioCache cache = new RepositorioCache(mapa, LimiteCache.porBytes(10 * porBarco));
+		for (int i = 0; i < 100; i++) {
+			cache.buscarBarco("C-" + i);
+			assertTrue(cache.getBytesEstimados() <= 10 * porBarco);
+		}
+		assertEquals(10, cache.getEntradas());
+		assertEquals(90, cache.getDesalojos());
+		cache.vaciar();
+		assertEquals(0, cache.getEntradas());
+		assertEquals(0, cache.getBytesEstimados());
+		assertThrows(IllegalArgumentException.class, () -> LimiteCache.porBytes(0));
+	}
+
+	/**
+	 * ControlPuerto registra y rechaza las matrículas repetidas igual que sin cache;
+	 * después de adicionar un barco, su matrícula se vuelve a buscar una sola vez
+	 */
+	@Test
+	void testConControlPuerto() throws BarcoException {
+		MapaContado mapa = new MapaContado();
+		RepositorioCache cache = new RepositorioCache(mapa, LimiteCache.porEntradas(100));
+		ControlPuerto control = new ControlPuerto(cache);
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 15, true);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Vel-001", "chilena", 50, 'v', 1, false));
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Car-001", "chilena", 50, 'c', 1, false));
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Vel-001", "chilena", 70, 'v', 2, false));
+		assertEquals(2, mapa.consultarBarcos().size());
+		assertEquals(410, control.calcularCapacidadTotal());
+		assertEquals(4, mapa.busquedas);
+		assertEquals(1, cache.getAciertos());
+	}
+}
@@ -0,0 +1,256 @@
+package puertos.persistencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import puertos.control.BarcoException;
+import puertos.control.ControlPuerto;
+import puertos.control.ReporteLote;
+import puertos.control.ResultadoRegistro;
+import puertos.entidades.Barco;
+import puertos.entidades.Carguero;
+import puertos.entidades.Velero;
+
+/**
+ * Pruebas del repositorio repartido en particiones (y del anillo de hashing
+ * consistente y las particiones en otro proceso)
+ */
+class RepositorioParticionadoTest {
+
+	/**
+	 * Las matrículas se reparten más o menos por igual, y al adicionar una
+	 * partición solo cambian de dueño las que pasan a la nueva
+	 */
+	@Test
+	void testAnilloConsistente() {
+		AnilloParticiones anillo = new AnilloParticiones();
+		for (int i = 0; i < 4; i++) {
+			assertEquals(i, anillo.adicionarParticion());
+		}
+		int[] antes = new int[10000];
+		int[] cantidades = new int[4];
+		for (int i = 0; i < antes.length; i++) {
+			antes[i] = anillo.obtenerParticion("B-" + i);
+			cantidades[antes[i]]++;
+		}
+		for (int cantidad : cantidades) {
+			assertTrue(cantidad > 1500 && cantidad < 3500, "Reparto desigual: " + cantidad);
+		}
+
+		anillo.adicionarParticion();
+		int movidas = 0;
+		for (int i = 0; i < antes.length; i++) {
+			int despues = anillo.obtenerParticion("B-" + i);
+			if (despues != antes[i]) {
+				assertEquals(4, despues);
+				movidas++;
+			}
+		}
+		assertTrue(movidas > 1000 && movidas < 3000, "Se movieron " + movidas);
+		assertThrows(IllegalStateException.class, () -> new AnilloParticiones().obtenerParticion("B-1"));
+	}
+
+	/**
+	 * Con ControlPuerto, cada barco queda solo en la partición dueña de su
+	 * matrícula, las matrículas repetidas se rechazan (también en un lote)
+	 * y la capacidad total es la suma de las particiones
+	 */
+	@Test
+	void testControlPuertoParticionado() throws BarcoException {
+		List<MapaBarcosConcurrente> mapas = Arrays.asList(new MapaBarcosConcurrente(),
+				new MapaBarcosConcurrente(), new MapaBarcosConcurrente());
+		RepositorioParticionado repositorio = new RepositorioParticionado(mapas);
+		ControlPuerto control = new ControlPuerto(repositorio);
+		control.adicionarBarco("Vel-001", "colombiana", 100, 'v', 8, false);
+		control.adicionarBarco("Vel-002", "chilena", 300, 'v', 12, false);
+		control.adicionarBarco("Car-001", "peruana", 500, 'c', 0, true);
+		assertThrows(BarcoException.class,
+				() -> control.adicionarBarco("Vel-002", "chilena", 50, 'v', 1, false));
+		List<Barco> lote = new ArrayList<Barco>();
+		lote.add(new Carguero("Car-002", "peruana", 250, false));
+		lote.add(new Carguero("Car-001", "peruana", 250, false));
+		control.adicionarBarcos(lote);
+
+		assertEquals(4, repositorio.consultarBarcos().size());
+		for (Barco barco : repositorio.consultarBarcos()) {
+			int dueno = repositorio.obtenerParticion(barco.getMatricula());
+			for (int i = 0; i < mapas.size(); i++) {
+				assertEquals(i == dueno, mapas.get(i).buscarBarco(barco.getMatricula()) != null);
+			}
+		}
+		// 50 + 140 + 360 + 200
+		assertEquals(750, control.calcularCapacidadTotal(), 1e-9);
+		assertEquals(500, control.retirarBarco("Car-001").getVolumen());
+		assertNull(repositorio.buscarBarco("Car-001"));
+		assertEquals(390, repositorio.calcularCapacidadTotal(), 1e-9);
+	}
+
+	/**
+	 * Al adicionar una partición se le mueven los barcos que ahora le
+	 * pertenecen, y todos se siguen encontrando
+	 */
+	@Test
+	void testAdicionarParticion() {
+		RepositorioParticionado repositorio = new RepositorioParticionado(
+				Arrays.asList(new MapaBarcosConcurrente(), new MapaBarcosConcurrente()));
+		for (int i = 0; i < 1000; i++) {
+			repositorio.adicionarBarco(new Velero("V-" + i, "chilena", 100, 5));
+		}
+		MapaBarcosConcurrente nueva = new MapaBarcosConcurrente();
+		int movidos = repositorio.adicionarParticion(nueva);
+
+		assertEquals(3, repositorio.getCantidadParticiones());
+		assertTrue(movidos > 0);
+		assertEquals(movidos, nueva.consultarBarcos().size());
+		assertEquals(1000, repositorio.consultarBarcos().size());
+		for (int i = 0; i < 1000; i++) {
+			assertNotNull(repositorio.buscarBarco("V-" + i));
+		}
+		assertEquals(1000 * 50, repositorio.calcularCapacidadTotal(), 1e-9);
+	}
+
+	/**
+	 * Si no se pueden copiar los barcos a la nueva partición (porque falla
+	 * a la mitad o lanza una excepción), no se adiciona: el anillo y las
+	 * particiones quedan como estaban, y la nueva queda sin barcos
+	 */
+	@Test
+	void testAdicionarParticionQueFalla() {
+		RepositorioParticionado repositorio = new RepositorioParticionado(
+				Arrays.asList(new MapaBarcosConcurrente(), new MapaBarcosConcurrente()));
+		for (int i = 0; i < 1000; i++) {
+			repositorio.adicionarBarco(new Velero("V-" + i, "chilena", 100, 5));
+		}
+		MapaBarcosConcurrente aMedias = new MapaBarcosConcurrente() {
+			@Override
+			public boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+				super.adicionarBarcos(new ArrayList<Barco>(barcos).subList(0, barcos.size() / 2));
+				return false;
+			}
+		};
+		MapaBarcosConcurrente conError = new MapaBarcosConcurrente() {
+			@Override
+			public boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+				throw new IllegalStateException("Sin espacio");
+			}
+		};
+
+		assertThrows(IllegalStateException.class, () -> repositorio.adicionarParticion(aMedias));
+		assertEquals(0, aMedias.contarBarcos());
+		IllegalStateException error = assertThrows(IllegalStateException.class,
+				() -> repositorio.adicionarParticion(conError));
+		assertEquals("Sin espacio", error.getCause().getMessage());
+
+		assertEquals(2, repositorio.getCantidadParticiones());
+		assertEquals(1000, repositorio.contarBarcos());
+		for (int i = 0; i < 1000; i++) {
+			assertNotNull(repositorio.buscarBarco("V-" + i));
+			assertFalse(repositorio.adicionarSiNoExiste(new Velero("V-" + i, "chilena", 100, 5)));
+		}
+		assertTrue(repositorio.adicionarParticion(new MapaBarcosConcurrente()) > 0);
+		assertEquals(1000, repositorio.contarBarcos());
+	}
+
+	/**
+	 * Las particiones en otros procesos hacen las mismas operaciones
+	 * que las locales
+	 */
+	@Test
+	void testParticionesEnProcesos() throws IOException {
+		try (RepositorioParticionado repositorio = new RepositorioParticionado(
+				Arrays.asList(new RepositorioProceso("-Xmx64m"), new RepositorioProceso("-Xmx64m")))) {
+			List<Barco> lote = new ArrayList<Barco>();
+			for (int i = 0; i < 100; i++) {
+				lote.add(new Carguero("C-" + i, "peruana", 200, i % 2 == 0));
+			}
+			assertTrue(repositorio.adicionarBarcos(lote));
+			assertTrue(repositorio.adicionarSiNoExiste(new Velero("V-1", null, 300, 12)));
+			assertFalse(repositorio.adicionarSiNoExiste(new Velero("V-1", "chilena", 300, 12)));
+
+			Barco velero = repositorio.buscarBarco("V-1");
+			assertTrue(velero instanceof Velero);
+			assertNull(velero.getNacionalidad());
+			assertEquals(12, ((Velero) velero).getPasajeros());
+			assertNull(repositorio.buscarBarco("V-2"));
+			assertEquals(101, repositorio.consultarBarcos().size());
+			assertTrue(repositorio.getParticion(0).consultarBarcos().size() > 0);
+			assertTrue(repositorio.getParticion(1).consultarBarcos().size() > 0);
+			// 50 cargueros con líquidos (120) y 50 sin (160), y el velero (140)
+			assertEquals(14140, repositorio.calcularCapacidadTotal(), 1e-9);
+
+			assertNotNull(repositorio.actualizarBarco(new Carguero("C-0", "peruana", 100, false)));
+			assertEquals(100, repositorio.buscarBarco("C-0").getVolumen());
+			assertNotNull(repositorio.eliminarBarco("C-1"));
+			assertNull(repositorio.eliminarBarco("C-1"));
+			assertEquals(100, repositorio.consultarBarcos().size());
+		}
+	}
+
+	/**
+	 * Si el proceso de la partición terminó, las adiciones lanzan la
+	 * excepción en lugar de retornar false (como si la matrícula existiera)
+	 */
+	@Test
+	void testProcesoTerminado() throws IOException {
+		RepositorioProceso proceso = new RepositorioProceso("-Xmx64m");
+		assertTrue(proceso.adicionarBarco(new Velero("V-1", "chilena", 100, 2)));
+		assertFalse(proceso.adicionarBarco(new Velero("V-1", "chilena", 100, 2)));
+		proceso.close();
+
+		assertThrows(IllegalStateException.class,
+				() -> proceso.adicionarBarco(new Velero("V-2", "chilena", 100, 2)));
+		assertThrows(IllegalStateException.class,
+				() -> proceso.adicionarSiNoExiste(new Velero("V-3", "chilena", 100, 2)));
+		assertThrows(IllegalStateException.class,
+				() -> proceso.adicionarBarcos(Arrays.asList(new Velero("V-4", "chilena", 100, 2))));
+	}
+
+	/**
+	 * Un lote en el que una partición (en otro proceso) falla: los barcos
+	 * que quedaron en la partición sana se reportan registrados (aunque el
+	 * proceso entregue copias) y entran en la capacidad incremental, y los
+	 * de la que falló quedan como falla del repositorio
+	 */
+	@Test
+	void testLoteConParticionQueFalla() throws IOException {
+		RepositorioProceso sana = new RepositorioProceso("-Xmx64m");
+		RepositorioProceso queFalla = new RepositorioProceso("-Xmx64m") {
+			@Override
+			public synchronized boolean adicionarBarcos(Collection<? extends Barco> barcos) {
+				try {
+					close();
+				} catch (IOException e) {
+					// igual falla al escribir
+				}
+				return super.adicionarBarcos(barcos);
+			}
+		};
+		try (RepositorioParticionado repositorio = new RepositorioParticionado(Arrays.asList(sana, queFalla))) {
+			ControlPuerto control = new ControlPuerto(repositorio, true);
+			List<Barco> lote = new ArrayList<Barco>();
+			for (int i = 0; i < 40; i++) {
+				lote.add(new Carguero("C-" + i, "peruana", 100, false));
+			}
+			ReporteLote reporte = control.adicionarBarcos(lote);
+
+			int enSana = 0;
+			for (int fila = 0; fila < lote.size(); fila++) {
+				boolean esSana = repositorio.obtenerParticion(lote.get(fila).getMatricula()) == 0;
+				assertEquals(esSana ? ResultadoRegistro.REGISTRADO : ResultadoRegistro.FALLA_REPOSITORIO,
+						reporte.getResultado(fila));
+				enSana += esSana ? 1 : 0;
+			}
+			assertTrue(enSana > 0 && enSana < lote.size());
+			assertEquals(enSana, reporte.getRegistrados());
+			assertEquals(enSana, sana.contarBarcos());
+			assertEquals(sana.calcularCapacidadTotal(), control.calcularCapacidadTotal(), 1e-9);
+		}
+	}
+}